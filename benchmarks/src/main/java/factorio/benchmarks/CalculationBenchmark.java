@@ -0,0 +1,67 @@
+package factorio.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.tree.TreeNode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import factorio.calculator.Calculation;
+import factorio.data.Recipe;
+
+/**
+ * Measures {@link Calculation} for plans of a few sizes: a single product, ten products, and a hundred products, all from the
+ * last layer of the generated data.
+ * @author ricky3350
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CalculationBenchmark {
+
+	@Param({"small", "medium", "huge"})
+	public String plan;
+
+	private Map<Recipe, Number> rates;
+
+	private Calculation calculation;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Fixture.load();
+
+		final int products = "small".equals(this.plan) ? 1 : "medium".equals(this.plan) ? 10 : 100;
+		this.rates = new HashMap<>();
+		for (final Recipe recipe : Fixture.products(products))
+			this.rates.put(recipe, 1.5);
+
+		this.calculation = new Calculation(this.rates);
+	}
+
+	@Benchmark
+	public Calculation calculate() {
+		return new Calculation(this.rates);
+	}
+
+	@Benchmark
+	public TreeNode totals() {
+		return this.calculation.getTotalTreeNode();
+	}
+
+}
@@ -0,0 +1,86 @@
+package factorio.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares a JMH JSON result file against a baseline, and exits with a non-zero status if any benchmark got slower by more
+ * than a threshold (10% by default), or if any result has no baseline to compare against. Benchmarks that are only in the
+ * baseline are listed, but are not failures, so that a subset of the benchmarks can be compared.<br>
+ * <br>
+ * Usage: <code>CompareBaseline baseline.json results.json [threshold]</code>
+ * @author ricky3350
+ */
+public class CompareBaseline {
+
+	private CompareBaseline() {}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: CompareBaseline baseline.json results.json [threshold]");
+			System.exit(2);
+		}
+
+		final Map<String, double[]> baseline = scores(args[0]);
+		final Map<String, double[]> results = scores(args[1]);
+		final double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+
+		int regressions = 0, unmatched = 0;
+		for (final Map.Entry<String, double[]> entry : results.entrySet()) {
+			final double[] old = baseline.get(entry.getKey());
+			if (old == null) {
+				unmatched++;
+				System.out.printf("NO BASELINE %-69s %12.3f%n", entry.getKey(), entry.getValue()[0]);
+				continue;
+			}
+
+			// For throughput, higher is better; for every time mode, lower is better
+			final double change = entry.getValue()[1] > 0 ? old[0] / entry.getValue()[0] - 1 : entry.getValue()[0] / old[0] - 1;
+			final boolean regressed = change > threshold;
+			if (regressed) regressions++;
+			System.out.printf("%-10s %-70s %12.3f -> %12.3f (%+.1f%%)%n", regressed ? "REGRESSED" : "ok", entry.getKey(), old[0], entry.getValue()[0], change * 100);
+		}
+		for (final String name : baseline.keySet()) {
+			if (!results.containsKey(name)) System.out.printf("MISSING    %s%n", name);
+		}
+
+		if (regressions > 0) System.out.println(regressions + " benchmark(s) regressed by more than " + Math.round(threshold * 100) + "%");
+		if (unmatched > 0) System.out.println(unmatched + " benchmark(s) have no baseline; record one with updateBaseline");
+		if (regressions > 0 || unmatched > 0) System.exit(1);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>scores</i></b><br>
+	 * <pre> private static {@link Map}&lt;{@link String}, double[]&gt; scores(String file)</pre>
+	 * @param file - the path of a JMH JSON result file
+	 * @return a map mapping each benchmark, with its parameters, to its score and whether higher scores are better (1) or not
+	 *         (0)
+	 *         </ul>
+	 */
+	private static Map<String, double[]> scores(final String file) throws IOException {
+		final Map<String, double[]> ret = new LinkedHashMap<>();
+		try (Reader in = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+			for (final JsonElement e : JsonParser.parseReader(in).getAsJsonArray()) {
+				final JsonObject run = e.getAsJsonObject();
+
+				final StringBuilder name = new StringBuilder(run.get("benchmark").getAsString());
+				if (run.has("params")) run.getAsJsonObject("params").entrySet().forEach(p -> name.append(':').append(p.getKey()).append('=').append(p.getValue().getAsString()));
+
+				final JsonElement score = run.getAsJsonObject("primaryMetric").get("score");
+				ret.put(name.toString(), new double[] {score.isJsonPrimitive() ? score.getAsDouble() : Double.NaN, "thrpt".equals(run.get("mode").getAsString()) ? 1 : 0});
+			}
+		}
+		return ret;
+	}
+
+}
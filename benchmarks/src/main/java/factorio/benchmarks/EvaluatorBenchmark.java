@@ -0,0 +1,41 @@
+package factorio.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import factorio.calculator.Evaluator;
+
+/**
+ * Measures {@link Evaluator} on a typical rate expression, through the cache and through the old postfix path.
+ * @author ricky3350
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EvaluatorBenchmark {
+
+	public String expression = "(12.5 + 3) * 4 / -2 - 0.75";
+
+	@Benchmark
+	public double evaluate() {
+		return Evaluator.evaluate(this.expression);
+	}
+
+	@Benchmark
+	public double postfix() {
+		return Evaluator.evaluate(Evaluator.toPostfix(this.expression));
+	}
+
+}
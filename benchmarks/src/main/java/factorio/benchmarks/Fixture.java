@@ -0,0 +1,88 @@
+package factorio.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import factorio.data.Data;
+import factorio.data.Recipe;
+
+/**
+ * The generated data that the benchmarks share. {@link Data} is static, so it is loaded at most once in each forked JVM.
+ * @author ricky3350
+ */
+public final class Fixture {
+
+	/**
+	 * The number of recipes that are loaded by {@link #load()}
+	 */
+	static final int RECIPES = 2000;
+
+	/**
+	 * Whether {@link Data} has been loaded
+	 */
+	private static boolean loaded;
+
+	private Fixture() {}
+
+	/**
+	 * <ul>
+	 * <b><i>generate</i></b><br>
+	 * <pre> static {@link Path} generate(int recipes)</pre>
+	 * @return a new temporary application directory with the given number of generated recipes
+	 *         </ul>
+	 */
+	static Path generate(final int recipes) {
+		if (!Files.exists(Paths.get("resources/gather.lua"))) throw new IllegalStateException("The benchmarks must be run from the root of the repository");
+
+		try {
+			final Path dir = Files.createTempDirectory("factorio-bench");
+			final ModpackGenerator generator = new ModpackGenerator();
+			generator.recipes = recipes;
+			generator.write(dir);
+			return dir;
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>load</i></b><br>
+	 * <pre> public static synchronized void load()</pre> Loads {@link #RECIPES} generated recipes, if they have not been loaded
+	 * </ul>
+	 */
+	public static synchronized void load() {
+		if (loaded) return;
+
+		try {
+			Data.load(generate(RECIPES));
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		loaded = true;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>products</i></b><br>
+	 * <pre> static {@link List}&lt;{@link Recipe}&gt; products(int count)</pre>
+	 * @return the given number of generated recipes, taken from the last layer (which have the longest chains) down
+	 *         </ul>
+	 */
+	static List<Recipe> products(final int count) {
+		final List<Recipe> ret = Data.getRecipes().stream().filter(r -> r.name.startsWith("item-")).sorted((r1, r2) -> Integer.compare(index(r2), index(r1))).limit(count).collect(Collectors.toCollection(ArrayList::new));
+		if (ret.size() < count) throw new IllegalStateException("Only " + ret.size() + " recipes were loaded");
+		return ret;
+	}
+
+	private static int index(final Recipe recipe) {
+		return Integer.parseInt(recipe.name.substring("item-".length()));
+	}
+
+}
@@ -0,0 +1,53 @@
+package factorio.benchmarks;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+
+import factorio.data.Data;
+
+/**
+ * Measures the heap retained by {@link Data} for each loaded recipe, so that changes to the representation of the prototypes
+ * can be compared. The heap is measured after a full collection before and after loading a generated application directory.
+ * Run it with a fixed heap (e.g. <code>-Xms2g -Xmx2g</code>) so that the numbers are stable.<br>
+ * <br>
+ * Usage: <code>Footprint [recipes]</code>
+ * @author ricky3350
+ */
+public final class Footprint {
+
+	private Footprint() {}
+
+	public static void main(final String[] args) throws IOException {
+		final int recipes = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		final Path dir = Fixture.generate(recipes);
+
+		final long before = usedHeap();
+		Data.load(dir);
+		final long after = usedHeap();
+
+		final int loaded = Data.getRecipes().size() + Data.getTechnologies().size();
+		System.out.printf("%d prototypes retain %.1f MB, %d bytes each%n", loaded, (after - before) / 1048576.0, (after - before) / loaded);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>usedHeap</i></b><br>
+	 * <pre> private static long usedHeap()</pre>
+	 * @return the bytes of heap in use after collecting garbage until the number stops falling
+	 *         </ul>
+	 */
+	private static long usedHeap() {
+		final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long ret = Long.MAX_VALUE;
+		for (int i = 0; i < 10; i++) {
+			memory.gc();
+			final long used = memory.getHeapMemoryUsage().getUsed();
+			if (used >= ret) break;
+			ret = used;
+		}
+		return ret;
+	}
+
+}
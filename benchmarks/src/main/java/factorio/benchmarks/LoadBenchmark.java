@@ -0,0 +1,51 @@
+package factorio.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import factorio.data.Data;
+
+/**
+ * Measures {@link Data#load(Path, Path...)} against a generated mod tree. {@code Data} cannot be unloaded, so each fork loads
+ * exactly once, and the score is a cold start.
+ * @author ricky3350
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class LoadBenchmark {
+
+	@Param({"500", "5000"})
+	public int recipes;
+
+	private Path factorioDir;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.factorioDir = Fixture.generate(this.recipes);
+	}
+
+	@Benchmark
+	public int load() throws IOException {
+		Data.load(this.factorioDir);
+		return Data.getRecipes().size();
+	}
+
+}
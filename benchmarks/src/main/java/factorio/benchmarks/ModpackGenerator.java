@@ -0,0 +1,350 @@
+package factorio.benchmarks;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Writes a fake Factorio application directory that {@link factorio.data.Data#load(Path, Path...)} can load, for load and
+ * scale testing without a copy of the game. The directory has a <code>data/core</code> with a <code>lualib</code>, a
+ * <code>data/base</code>, and {@link #mods} mod folders in <code>mods/</code>, each with its own prototypes, english locale and
+ * placeholder icons.<br>
+ * <br>
+ * The items are split into {@link #depth} layers, and each is made from up to {@link #fanIn} items of the layer below it, or
+ * from raw ores in the first layer, so the production chain of an item in the last layer is <code>depth</code> recipes deep.
+ * A fraction of the recipes ({@link #byproducts}) also give an item of the layer below as a second result. Coal can only be
+ * mined by a burner drill, and a fraction of the first layer ({@link #fuelLoops}) can only be smelted in a burner furnace, so
+ * those chains need coal to make coal.<br>
+ * <br>
+ * The generator can be run from the command line; see {@link #main(String[])}.
+ * @author ricky3350
+ */
+public class ModpackGenerator {
+
+	/**
+	 * The number of prototypes written to each lua file, to keep each chunk well under the lua constant limit
+	 */
+	private static final int PROTOTYPES_PER_FILE = 1000;
+
+	/**
+	 * The size, in pixels, of the placeholder icons
+	 */
+	private static final int ICON_SIZE = 32;
+
+	/**
+	 * The number of crafted items (and recipes)
+	 */
+	public int recipes = 1000;
+
+	/**
+	 * The number of layers of items
+	 */
+	public int depth = 6;
+
+	/**
+	 * The maximum number of ingredients of each recipe
+	 */
+	public int fanIn = 3;
+
+	/**
+	 * The fraction of recipes that have a second result
+	 */
+	public double byproducts = 0.1;
+
+	/**
+	 * The fraction of the first layer of recipes that can only be made in a burner furnace
+	 */
+	public double fuelLoops = 0.2;
+
+	/**
+	 * The number of mods, besides the base mod, that the recipes are divided between
+	 */
+	public int mods = 0;
+
+	/**
+	 * The number of different placeholder icons in each mod
+	 */
+	public int icons = 8;
+
+	/**
+	 * The seed of the random numbers used to pick ingredients
+	 */
+	public long seed = 1;
+
+	/**
+	 * <ul>
+	 * <b><i>main</i></b><br>
+	 * <pre> public static void main({@link String}[] args)</pre> Writes an application directory. The last argument is the
+	 * directory to write to, and the options before it set the fields of the same name: <code>--recipes</code>,
+	 * <code>--depth</code>, <code>--fan-in</code>, <code>--byproducts</code>, <code>--fuel-loops</code>, <code>--mods</code>,
+	 * <code>--icons</code> and <code>--seed</code>. The arguments to start the calculator with the written data are printed
+	 * when it is finished.
+	 * </ul>
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length == 0 || args.length % 2 == 0) {
+			System.err.println("Usage: ModpackGenerator [--recipes n] [--depth n] [--fan-in n] [--byproducts f] [--fuel-loops f] [--mods n] [--icons n] [--seed n] <directory>");
+			System.exit(2);
+		}
+
+		final ModpackGenerator generator = new ModpackGenerator();
+		for (int i = 0; i < args.length - 1; i += 2) {
+			switch (args[i]) {
+				case "--recipes":
+					generator.recipes = Integer.parseInt(args[i + 1]);
+					break;
+				case "--depth":
+					generator.depth = Integer.parseInt(args[i + 1]);
+					break;
+				case "--fan-in":
+					generator.fanIn = Integer.parseInt(args[i + 1]);
+					break;
+				case "--byproducts":
+					generator.byproducts = Double.parseDouble(args[i + 1]);
+					break;
+				case "--fuel-loops":
+					generator.fuelLoops = Double.parseDouble(args[i + 1]);
+					break;
+				case "--mods":
+					generator.mods = Integer.parseInt(args[i + 1]);
+					break;
+				case "--icons":
+					generator.icons = Integer.parseInt(args[i + 1]);
+					break;
+				case "--seed":
+					generator.seed = Long.parseLong(args[i + 1]);
+					break;
+				default:
+					System.err.println("Unknown option " + args[i]);
+					System.exit(2);
+			}
+		}
+
+		final Path dir = Paths.get(args[args.length - 1]).toAbsolutePath();
+		final long start = System.nanoTime();
+		generator.write(dir);
+		System.out.printf("Wrote %d recipes in %d mods to %s in %d ms%n", generator.recipes, generator.mods + 1, dir, (System.nanoTime() - start) / 1000000);
+
+		final StringBuilder run = new StringBuilder(dir.toString());
+		for (final Path mod : generator.modPaths(dir))
+			run.append(' ').append(mod);
+		System.out.println("Start the calculator with: " + run);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>ores</i></b><br>
+	 * <pre> public int ores()</pre>
+	 * @return the number of raw ores that the recipes are made from, not including coal
+	 *         </ul>
+	 */
+	public int ores() {
+		return Math.max(2, this.recipes / 50);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>layerStart</i></b><br>
+	 * <pre> public int layerStart(int layer)</pre>
+	 * @return the index of the first item in the given layer
+	 *         </ul>
+	 */
+	public int layerStart(final int layer) {
+		return (int) ((long) layer * this.recipes / this.depth);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>modPaths</i></b><br>
+	 * <pre> public {@link List}&lt;{@link Path}&gt; modPaths(Path factorioDir)</pre>
+	 * @return the mod folders that {@link #write(Path)} writes in the given directory, not including the base mod, in the
+	 *         order that they should be loaded
+	 *         </ul>
+	 */
+	public List<Path> modPaths(final Path factorioDir) {
+		final List<Path> ret = new ArrayList<>();
+		for (int m = 1; m <= this.mods; m++)
+			ret.add(factorioDir.resolve("mods/" + modName(m) + "_0.1.0"));
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>write</i></b><br>
+	 * <pre> public void write({@link Path} factorioDir)</pre> Writes the application directory
+	 * @param factorioDir - the directory to write to, which is created if it does not exist
+	 * @throws IOException if an I/O error occurs
+	 *         </ul>
+	 */
+	public void write(final Path factorioDir) throws IOException {
+		if (this.recipes < this.depth || this.depth < 1 || this.fanIn < 1) throw new IllegalArgumentException("There must be at least one recipe in each layer, and one ingredient in each recipe");
+
+		writeCore(factorioDir.resolve("data/core"));
+
+		final List<Path> modDirs = new ArrayList<>();
+		modDirs.add(factorioDir.resolve("data/base"));
+		modDirs.addAll(this.modPaths(factorioDir));
+
+		final List<List<String>> requires = new ArrayList<>();
+		final List<BufferedWriter> locales = new ArrayList<>();
+		for (int m = 0; m < modDirs.size(); m++) {
+			final Path mod = modDirs.get(m);
+			Files.createDirectories(mod.resolve("prototypes"));
+			Files.createDirectories(mod.resolve("locale/en"));
+			this.writeIcons(mod.resolve("graphics/icons"), m);
+			if (m > 0) Files.write(mod.resolve("info.json"), String.format("{\n\t\"name\": \"%s\",\n\t\"version\": \"0.1.0\",\n\t\"title\": \"Generated mod %d\",\n\t\"dependencies\": [\"base\"]\n}\n", modName(m), m).getBytes());
+
+			requires.add(new ArrayList<>());
+			final BufferedWriter locale = Files.newBufferedWriter(mod.resolve("locale/en/" + modName(m) + ".cfg"));
+			locale.write("[item-name]\n");
+			locales.add(locale);
+		}
+
+		final Random random = new Random(this.seed);
+		final int ores = this.ores();
+		final int loops = (int) Math.round(this.layerStart(1) * this.fuelLoops);
+
+		this.writeEntities(modDirs.get(0), ores, locales.get(0));
+		requires.get(0).add("prototypes.entities");
+
+		int part = 0, layer = 0;
+		BufferedWriter out = null;
+		for (int i = 0; i < this.recipes; i++) {
+			while (i >= this.layerStart(layer + 1))
+				layer++;
+			final int from = layer == 0 ? 0 : this.layerStart(layer - 1), to = layer == 0 ? 0 : this.layerStart(layer);
+
+			if (i % PROTOTYPES_PER_FILE == 0) {
+				if (out != null) endFile(out);
+				final String name = "prototypes.part-" + part;
+				out = Files.newBufferedWriter(modDirs.get(part % modDirs.size()).resolve(name.replace('.', '/') + ".lua"));
+				out.write("data:extend({\n");
+				requires.get(part % modDirs.size()).add(name);
+				part++;
+			}
+			final int mod = (part - 1) % modDirs.size();
+			final String icon = "__" + modName(mod) + "__/graphics/icons/icon-" + (i % this.icons) + ".png";
+
+			out.write("\t{type = \"item\", name = \"item-" + i + "\", icon = \"" + icon + "\", stack_size = 100},\n");
+			out.write("\t{type = \"recipe\", name = \"item-" + i + "\"" + (layer == 0 && i < loops ? ", category = \"smelting\"" : "") + ", energy_required = " + (0.5 + random.nextInt(10) / 2.0) + ", ingredients = {");
+
+			final int ingredients = 1 + random.nextInt(this.fanIn);
+			final int choices = layer == 0 ? ores : to - from;
+			final boolean[] used = new boolean[choices];
+			for (int n = 0; n < ingredients; n++) {
+				final int pick = random.nextInt(choices);
+				if (used[pick]) continue;
+				used[pick] = true;
+				out.write("{\"" + (layer == 0 ? "ore-" + pick : "item-" + (from + pick)) + "\", " + (1 + random.nextInt(4)) + "}, ");
+			}
+
+			if (layer > 0 && random.nextDouble() < this.byproducts) {
+				out.write("}, results = {{name = \"item-" + i + "\", amount = 1}, {name = \"item-" + (from + random.nextInt(to - from)) + "\", amount = " + (1 + random.nextInt(2)) + "}}, icon = \"" + icon + "\"},\n");
+			} else {
+				out.write("}, result = \"item-" + i + "\"},\n");
+			}
+
+			locales.get(mod).write("item-" + i + "=Item " + i + "\n");
+		}
+		if (out != null) endFile(out);
+
+		for (int m = 0; m < modDirs.size(); m++) {
+			locales.get(m).close();
+			try (BufferedWriter data = Files.newBufferedWriter(modDirs.get(m).resolve("data.lua"))) {
+				for (final String name : requires.get(m))
+					data.write("require(\"" + name + "\")\n");
+			}
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>writeCore</i></b><br>
+	 * <pre> private static void writeCore({@link Path} core)</pre> Writes <code>data/core</code>, which defines the
+	 * <code>data</code> table and <code>data:extend</code>
+	 * </ul>
+	 */
+	private static void writeCore(final Path core) throws IOException {
+		Files.createDirectories(core.resolve("lualib"));
+		Files.write(core.resolve("lualib/util.lua"), "util = {}\n".getBytes());
+		// resources/gather.lua expects every prototype type that it reads to exist, as it does in the base game
+		Files.write(core.resolve("data.lua"), ("data = {raw = {}}\n" //
+				+ "for _, t in ipairs({\"recipe\", \"resource\", \"technology\", \"assembling-machine\", \"furnace\", \"rocket-silo\", \"mining-drill\", \"offshore-pump\", \"lab\", \"module\"}) do\n" //
+				+ "\tdata.raw[t] = {}\n" //
+				+ "end\n" //
+				+ "function data:extend(prototypes)\n" //
+				+ "\tfor _, p in ipairs(prototypes) do\n" //
+				+ "\t\tself.raw[p.type] = self.raw[p.type] or {}\n" //
+				+ "\t\tself.raw[p.type][p.name] = p\n" //
+				+ "\tend\n" //
+				+ "end\n").getBytes());
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>writeEntities</i></b><br>
+	 * <pre> private void writeEntities({@link Path} base, int ores, {@link BufferedWriter} locale)</pre> Writes the ores,
+	 * coal, machines and modules to the base mod
+	 * </ul>
+	 */
+	private void writeEntities(final Path base, final int ores, final BufferedWriter locale) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(base.resolve("prototypes/entities.lua"))) {
+			out.write("data:extend({\n");
+			for (int o = 0; o < ores; o++) {
+				out.write("\t{type = \"item\", name = \"ore-" + o + "\", icon = \"__base__/graphics/icons/icon-" + (o % this.icons) + ".png\", stack_size = 50},\n");
+				out.write("\t{type = \"resource\", name = \"ore-" + o + "\", category = \"basic-solid\", minable = {hardness = 0.9, mining_time = 2, result = \"ore-" + o + "\"}},\n");
+				locale.write("ore-" + o + "=Ore " + o + "\n");
+			}
+			out.write("\t{type = \"item\", name = \"coal\", icon = \"__base__/graphics/icons/icon-0.png\", fuel_value = \"4MJ\", stack_size = 50},\n");
+			out.write("\t{type = \"resource\", name = \"coal\", category = \"basic-fuel\", minable = {hardness = 0.9, mining_time = 2, result = \"coal\"}},\n");
+			locale.write("coal=Coal\n");
+
+			out.write("\t{type = \"assembling-machine\", name = \"assembling-machine\", crafting_categories = {\"crafting\"}, crafting_speed = 0.75, ingredient_count = " + Math.max(4, this.fanIn) + ", energy_source = {type = \"electric\"}, energy_usage = \"150kW\", module_specification = {module_slots = 2}},\n");
+			out.write("\t{type = \"furnace\", name = \"stone-furnace\", crafting_categories = {\"smelting\"}, crafting_speed = 1, ingredient_count = " + this.fanIn + ", energy_source = {type = \"burner\", effectivity = 1}, energy_usage = \"180kW\"},\n");
+			out.write("\t{type = \"mining-drill\", name = \"electric-mining-drill\", resource_categories = {\"basic-solid\"}, mining_power = 3, mining_speed = 0.5, energy_source = {type = \"electric\"}, energy_usage = \"90kW\", module_specification = {module_slots = 3}},\n");
+			out.write("\t{type = \"mining-drill\", name = \"burner-mining-drill\", resource_categories = {\"basic-fuel\"}, mining_power = 2.5, mining_speed = 0.35, energy_source = {type = \"burner\", effectivity = 1}, energy_usage = \"300kW\"},\n");
+			out.write("\t{type = \"module\", name = \"speed-module\", effect = {speed = {bonus = 0.2}, consumption = {bonus = 0.5}}},\n");
+			out.write("\t{type = \"module\", name = \"productivity-module\", effect = {productivity = {bonus = 0.04}, consumption = {bonus = 0.4}, speed = {bonus = -0.15}}},\n");
+			out.write("})\n");
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>writeIcons</i></b><br>
+	 * <pre> private void writeIcons({@link Path} dir, int mod)</pre> Writes {@link #icons} placeholder icons, each a square of
+	 * a different color
+	 * </ul>
+	 */
+	private void writeIcons(final Path dir, final int mod) throws IOException {
+		Files.createDirectories(dir);
+		for (int i = 0; i < this.icons; i++) {
+			final BufferedImage image = new BufferedImage(ICON_SIZE, ICON_SIZE, BufferedImage.TYPE_INT_ARGB);
+			final Graphics2D g = image.createGraphics();
+			g.setColor(Color.getHSBColor((float) i / this.icons, 0.6F, 0.5F + 0.5F / (mod + 1)));
+			g.fillRect(2, 2, ICON_SIZE - 4, ICON_SIZE - 4);
+			g.dispose();
+			ImageIO.write(image, "png", dir.resolve("icon-" + i + ".png").toFile());
+		}
+	}
+
+	private static String modName(final int mod) {
+		return mod == 0 ? "base" : "generated-" + mod;
+	}
+
+	private static void endFile(final BufferedWriter out) throws IOException {
+		out.write("})\n");
+		out.close();
+	}
+
+}
@@ -0,0 +1,123 @@
+package factorio.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import factorio.calculator.Calculation;
+import factorio.calculator.Plan;
+import factorio.data.Recipe;
+import factorio.window.treecell.CalculatedRecipe;
+
+/**
+ * Checks that a solved {@link Plan} survives being saved and opened: the calculation that is read back must have the same
+ * rates and assemblers as the one that was written, both as read and after its rates are set again, and calculating the
+ * same targets afterwards must give the same result. Exits with status 1 if any of them differ.<br>
+ * <br>
+ * Usage: <code>PlanRoundTrip [targets]</code>
+ * @author ricky3350
+ */
+public final class PlanRoundTrip {
+
+	/**
+	 * The largest relative difference that is taken to be equal
+	 */
+	private static final double TOLERANCE = 1e-9;
+
+	private PlanRoundTrip() {}
+
+	public static void main(final String[] args) throws IOException {
+		final int targets = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		Fixture.load();
+
+		final Map<Recipe, Number> rates = new HashMap<>();
+		for (final Recipe r : Fixture.products(targets))
+			rates.put(r, 1.5);
+		final Calculation calc = new Calculation(rates);
+		final Map<String, double[]> expected = totals(calc);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new Plan("", "Default assemblers", Collections.emptyList(), Collections.emptyList(), calc).write(out);
+		final Calculation read = Plan.read(new ByteArrayInputStream(out.toByteArray())).getCalculation();
+		if (read == null) fail("the calculation was not read back");
+
+		int failures = compare("as read", expected, totals(read));
+
+		// A recipe with several results has no item rate, so the rates of its ingredients are set instead
+		for (final CalculatedRecipe r : read.getResult())
+			if (r.getProduct() != null) {
+				r.setRate(r.getRate());
+			} else {
+				r.getIngredients().forEach(i -> i.setRate(i.getRate()));
+			}
+		failures += compare("after setRate", expected, totals(read));
+
+		failures += compare("calculated again", expected, totals(new Calculation(rates)));
+
+		if (failures > 0) fail(failures + " differences");
+		System.out.printf("%d targets, %d items: saved and opened plans match%n", rates.size(), expected.size());
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>totals</i></b><br>
+	 * <pre> private static {@link Map}&lt;{@link String}, double[]&gt; totals({@link Calculation} calc)</pre>
+	 * @return the total rate and assemblers of each item in the calculation, by name, since the nodes of each tree are
+	 *         ordered differently
+	 *         </ul>
+	 */
+	private static Map<String, double[]> totals(final Calculation calc) {
+		final Map<String, double[]> ret = new TreeMap<>();
+		for (final CalculatedRecipe r : calc.getResult())
+			add(r, ret);
+		return ret;
+	}
+
+	private static void add(final CalculatedRecipe recipe, final Map<String, double[]> totals) {
+		final String key = recipe.getProduct() != null ? recipe.getProduct() : recipe.getRecipe().name;
+		final double[] total = totals.computeIfAbsent(key, k -> new double[2]);
+		total[0] += recipe.getRecipeRate();
+		total[1] += recipe.getAssemblers();
+		for (final CalculatedRecipe r : recipe.getIngredients())
+			add(r, totals);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>compare</i></b><br>
+	 * <pre> private static int compare({@link String} stage, {@link Map}&lt;String, double[]&gt; expected, Map&lt;String, double[]&gt; actual)</pre>
+	 * Prints each item whose totals differ
+	 * @return the number of items that differ
+	 *         </ul>
+	 */
+	private static int compare(final String stage, final Map<String, double[]> expected, final Map<String, double[]> actual) {
+		int ret = 0;
+		if (!expected.keySet().equals(actual.keySet())) {
+			System.err.printf("%s: items differ%n", stage);
+			ret++;
+		}
+		for (final Map.Entry<String, double[]> e : expected.entrySet()) {
+			final double[] a = actual.get(e.getKey());
+			if (a == null) continue;
+			for (int i = 0; i < a.length; i++) {
+				final double x = e.getValue()[i];
+				if (!Double.isFinite(a[i]) || Math.abs(a[i] - x) > TOLERANCE * Math.max(1, Math.abs(x))) {
+					System.err.printf("%s: %s is %s, expected %s%n", stage, e.getKey(), a[i], x);
+					ret++;
+					break;
+				}
+			}
+		}
+		return ret;
+	}
+
+	private static void fail(final String message) {
+		System.err.println("Plan round trip failed: " + message);
+		System.exit(1);
+	}
+
+}
@@ -0,0 +1,48 @@
+package factorio.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import factorio.calculator.AssemblerSettings;
+import factorio.data.Recipe;
+
+/**
+ * Measures {@link AssemblerSettings#getDefaultSettings(Recipe)} over a hundred generated recipes.
+ * @author ricky3350
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SettingsBenchmark {
+
+	private List<Recipe> recipes;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Fixture.load();
+		this.recipes = Fixture.products(100);
+	}
+
+	@Benchmark
+	public void defaultSettings(final Blackhole blackhole) {
+		for (final Recipe recipe : this.recipes)
+			blackhole.consume(AssemblerSettings.getDefaultSettings(recipe));
+	}
+
+}
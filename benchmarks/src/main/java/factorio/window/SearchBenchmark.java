@@ -0,0 +1,56 @@
+package factorio.window;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import factorio.benchmarks.Fixture;
+import factorio.data.Data;
+import factorio.data.Recipe;
+
+/**
+ * Measures the ranking of every generated recipe's row against a search key. It is in the same package as
+ * {@link ProductList} so that it can call {@link ProductList#rank(java.util.Collection, String)} without a window.
+ * @author ricky3350
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SearchBenchmark {
+
+	@Param({"item 1", "ore"})
+	public String key;
+
+	private List<ProductListRow> rows;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Fixture.load();
+
+		this.rows = new ArrayList<>();
+		for (final Recipe recipe : Data.getRecipesSorted())
+			this.rows.add(new ProductListRow(recipe));
+	}
+
+	@Benchmark
+	public List<ProductListRow> rank() {
+		return ProductList.rank(this.rows, this.key);
+	}
+
+}
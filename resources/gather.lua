@@ -13,6 +13,12 @@ for k, v in pairs(data.raw.technology) do
 	table.insert(tech, v)
 end
 
+-- The number of units for a level of a technology with a count_formula, which uses Lua's own arithmetic syntax
+function count_at(formula, level)
+	local f = (loadstring or load)("local L, l = ...; return " .. formula)
+	return math.floor(f(level, level))
+end
+
 assemblers = {}
 for k, v in pairs(data.raw["assembling-machine"]) do
 	table.insert(assemblers, v)
@@ -44,6 +50,30 @@ for k, v in pairs(data.raw.module) do
 	table.insert(modules, v)
 end
 
+beacons = {}
+for k, v in pairs(data.raw.beacon or {}) do
+	table.insert(beacons, v)
+end
+
+power = {}
+for _, t in pairs({"boiler", "generator", "solar-panel", "accumulator"}) do
+	for k, v in pairs(data.raw[t] or {}) do
+		table.insert(power, v)
+	end
+end
+
+transport = {}
+for _, t in pairs({"transport-belt", "inserter", "pipe"}) do
+	for k, v in pairs(data.raw[t] or {}) do
+		table.insert(transport, v)
+	end
+end
+
+fluids = {}
+for k, v in pairs(data.raw.fluid or {}) do
+	table.insert(fluids, v.name)
+end
+
 fuel = {}
 icons = {}
 for k, v in pairs(data.raw) do
@@ -76,7 +106,7 @@ for k, v in pairs(data.raw) do
 	end
 end
 
-totalLength = #recipes + #resources + #tech + #assemblers + #drills + #pumps + #labs + #modules + #fuel
+totalLength = #recipes + #resources + #tech + #assemblers + #drills + #pumps + #labs + #modules + #beacons + #power + #transport + #fluids + #fuel
 
 function getIngredients(arr)
 	standard = {}
@@ -0,0 +1,142 @@
+package factorio;
+
+import java.util.Collection;
+
+import factorio.window.treecell.CalculatedRecipe;
+
+/**
+ * A non-instantiable class that emits Java Flight Recorder events for loading, calculation, totals and search, so that a
+ * recording started with <code>jcmd &lt;pid&gt; JFR.start</code> shows what the calculator was doing. The events are in
+ * the "Factorio Calculator" category.<br>
+ * <br>
+ * This class does not use <code>jdk.jfr</code> itself. The events are created by {@link JfrEvents}, which is only loaded
+ * when the JVM has a flight recorder and the program is not run with <code>-Dfactorio.jfr=false</code>, so the callers run
+ * on JVMs without one. Each <code>begin</code> method returns an opaque event, or <code>null</code> if events are disabled,
+ * and its <code>end</code> method accepts either.
+ * @author ricky3350
+ */
+public class Events {
+
+	/**
+	 * Whether events are emitted
+	 */
+	public static final boolean ENABLED;
+
+	static {
+		boolean enabled;
+		try {
+			Class.forName("jdk.jfr.Event");
+			enabled = !"false".equalsIgnoreCase(System.getProperty("factorio.jfr"));
+		} catch (final ClassNotFoundException | LinkageError e) {
+			enabled = false;
+		}
+		ENABLED = enabled;
+	}
+
+	private Events() {}
+
+	/**
+	 * <ul>
+	 * <b><i>beginLoad</i></b><br>
+	 * <pre> public static {@link Object} beginLoad({@link String} stage, {@link String} source)</pre> Starts timing a
+	 * phase of loading the data
+	 * @param stage - <code>"lua"</code> for running lua, or <code>"parse"</code> for reading prototypes out of it
+	 * @param source - the file or mod being run, or the category of prototypes being parsed
+	 * @return the event, or <code>null</code> if events are disabled
+	 *         </ul>
+	 */
+	public static Object beginLoad(final String stage, final String source) {
+		return ENABLED ? JfrEvents.beginLoad(stage, source) : null;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>endLoad</i></b><br>
+	 * <pre> public static void endLoad({@link Object} event, int prototypes)</pre> Ends and commits the given phase
+	 * @param event - the event returned by {@link #beginLoad(String, String)}
+	 * @param prototypes - the number of prototypes that were parsed, or 0 for a lua phase
+	 *        </ul>
+	 */
+	public static void endLoad(final Object event, final int prototypes) {
+		if (event != null) JfrEvents.endLoad(event, prototypes);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>beginCalculation</i></b><br>
+	 * <pre> public static {@link Object} beginCalculation(int products)</pre> Starts timing a calculation
+	 * @param products - the number of products being calculated
+	 * @return the event, or <code>null</code> if events are disabled
+	 *         </ul>
+	 */
+	public static Object beginCalculation(final int products) {
+		return ENABLED ? JfrEvents.beginCalculation(products) : null;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>endCalculation</i></b><br>
+	 * <pre> public static void endCalculation({@link Object} event, {@link Collection}&lt;{@link CalculatedRecipe}&gt; result)</pre>
+	 * Ends and commits the given calculation. The nodes of the result are only counted if the event is being recorded.
+	 * @param event - the event returned by {@link #beginCalculation(int)}
+	 * @param result - the calculated products
+	 *        </ul>
+	 */
+	public static void endCalculation(final Object event, final Collection<CalculatedRecipe> result) {
+		if (event != null) JfrEvents.endCalculation(event, result);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>beginTotals</i></b><br>
+	 * <pre> public static {@link Object} beginTotals(int products)</pre> Starts timing the aggregation of totals
+	 * @param products - the number of products being totalled
+	 * @return the event, or <code>null</code> if events are disabled
+	 *         </ul>
+	 */
+	public static Object beginTotals(final int products) {
+		return ENABLED ? JfrEvents.beginTotals(products) : null;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>endTotals</i></b><br>
+	 * <pre> public static void endTotals({@link Object} event, int items, int assemblers)</pre> Ends and commits the
+	 * given aggregation
+	 * @param event - the event returned by {@link #beginTotals(int)}
+	 * @param items - the number of distinct items in the totals
+	 * @param assemblers - the number of distinct assemblers in the totals
+	 *        </ul>
+	 */
+	public static void endTotals(final Object event, final int items, final int assemblers) {
+		if (event != null) JfrEvents.endTotals(event, items, assemblers);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>beginSearch</i></b><br>
+	 * <pre> public static {@link Object} beginSearch({@link String} key, int rows, boolean background)</pre> Starts
+	 * timing a search of the product list
+	 * @param key - the search key
+	 * @param rows - the number of rows being ranked
+	 * @param background - whether the search is run off of the event dispatch thread
+	 * @return the event, or <code>null</code> if events are disabled
+	 *         </ul>
+	 */
+	public static Object beginSearch(final String key, final int rows, final boolean background) {
+		return ENABLED ? JfrEvents.beginSearch(key, rows, background) : null;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>endSearch</i></b><br>
+	 * <pre> public static void endSearch({@link Object} event, int matches)</pre> Ends and commits the given search
+	 * @param event - the event returned by {@link #beginSearch(String, int, boolean)}
+	 * @param matches - the number of rows that matched, or -1 if the search was cancelled
+	 *        </ul>
+	 */
+	public static void endSearch(final Object event, final int matches) {
+		if (event != null) JfrEvents.endSearch(event, matches);
+	}
+
+}
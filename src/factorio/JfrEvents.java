@@ -0,0 +1,188 @@
+package factorio;
+
+import java.util.Collection;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import factorio.window.treecell.CalculatedRecipe;
+
+/**
+ * The Java Flight Recorder events behind {@link Events}. This is the only class that uses <code>jdk.jfr</code>, and it is
+ * only loaded once {@link Events} has found that the flight recorder is available, so the rest of the program runs on JVMs
+ * without it.
+ * @author ricky3350
+ */
+final class JfrEvents {
+
+	private JfrEvents() {}
+
+	static Object beginLoad(final String stage, final String source) {
+		final LoadEvent event = new LoadEvent();
+		event.stage = stage;
+		event.source = source;
+		event.begin();
+		return event;
+	}
+
+	static void endLoad(final Object handle, final int prototypes) {
+		final LoadEvent event = (LoadEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.prototypes = prototypes;
+			event.commit();
+		}
+	}
+
+	static Object beginCalculation(final int products) {
+		final CalculationEvent event = new CalculationEvent();
+		event.products = products;
+		event.begin();
+		return event;
+	}
+
+	static void endCalculation(final Object handle, final Collection<CalculatedRecipe> result) {
+		final CalculationEvent event = (CalculationEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			for (final CalculatedRecipe r : result)
+				event.nodes += countNodes(r);
+			event.commit();
+		}
+	}
+
+	static Object beginTotals(final int products) {
+		final TotalsEvent event = new TotalsEvent();
+		event.products = products;
+		event.begin();
+		return event;
+	}
+
+	static void endTotals(final Object handle, final int items, final int assemblers) {
+		final TotalsEvent event = (TotalsEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.items = items;
+			event.assemblers = assemblers;
+			event.commit();
+		}
+	}
+
+	static Object beginSearch(final String key, final int rows, final boolean background) {
+		final SearchEvent event = new SearchEvent();
+		event.key = key;
+		event.rows = rows;
+		event.background = background;
+		event.begin();
+		return event;
+	}
+
+	static void endSearch(final Object handle, final int matches) {
+		final SearchEvent event = (SearchEvent) handle;
+		event.end();
+		if (event.shouldCommit()) {
+			event.matches = matches;
+			event.commit();
+		}
+	}
+
+	private static int countNodes(final CalculatedRecipe recipe) {
+		int ret = 1;
+		for (final CalculatedRecipe r : recipe.getIngredients())
+			ret += countNodes(r);
+		return ret;
+	}
+
+	/**
+	 * A phase of {@link factorio.data.Data#loadPrototypes(java.nio.file.Path, java.nio.file.Path...)}
+	 * @author ricky3350
+	 */
+	@Name("factorio.Load")
+	@Label("Load")
+	@Category({"Factorio Calculator", "Loading"})
+	@Description("Running the lua of a mod, or parsing one category of prototypes")
+	@StackTrace(false)
+	static final class LoadEvent extends Event {
+
+		@Label("Stage")
+		private String stage;
+
+		@Label("Source")
+		@Description("The mod or file being run, or the category being parsed")
+		private String source;
+
+		@Label("Prototypes")
+		private int prototypes;
+
+	}
+
+	/**
+	 * The constructor of a {@link factorio.calculator.Calculation}
+	 * @author ricky3350
+	 */
+	@Name("factorio.Calculation")
+	@Label("Calculation")
+	@Category({"Factorio Calculator", "Calculation"})
+	@StackTrace(false)
+	static final class CalculationEvent extends Event {
+
+		@Label("Products")
+		private int products;
+
+		@Label("Nodes")
+		@Description("The number of recipes in the calculated trees")
+		private int nodes;
+
+	}
+
+	/**
+	 * The aggregation of a calculation into totals by item and by assembler
+	 * @author ricky3350
+	 */
+	@Name("factorio.Totals")
+	@Label("Totals")
+	@Category({"Factorio Calculator", "Calculation"})
+	@StackTrace(false)
+	static final class TotalsEvent extends Event {
+
+		@Label("Products")
+		private int products;
+
+		@Label("Items")
+		private int items;
+
+		@Label("Assemblers")
+		private int assemblers;
+
+	}
+
+	/**
+	 * A search of a {@link factorio.window.ProductList}
+	 * @author ricky3350
+	 */
+	@Name("factorio.Search")
+	@Label("Search")
+	@Category({"Factorio Calculator", "Search"})
+	@StackTrace(false)
+	static final class SearchEvent extends Event {
+
+		@Label("Key")
+		private String key;
+
+		@Label("Rows")
+		private int rows;
+
+		@Label("Matches")
+		@Description("The number of matching rows, or -1 if the search was cancelled")
+		private int matches;
+
+		@Label("Background")
+		private boolean background;
+
+	}
+
+}
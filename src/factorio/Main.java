@@ -1,7 +1,15 @@
 package factorio;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import javax.swing.SwingUtilities;
 
 import factorio.calculator.AssemblerSettings;
 import factorio.data.Data;
@@ -16,19 +24,116 @@ public class Main {
 
 	public static final LoadingDialog loadingDialog = new LoadingDialog();
 
+	/**
+	 * The application directory that is loaded if none is given
+	 */
+	public static final String DEFAULT_FACTORIO_DIR = "C:/Program Files/Factorio";
+
+	/**
+	 * <ul>
+	 * <b><i>main</i></b><br>
+	 * <pre> public static void main({@link String}[] args)</pre> Starts the program. Startup is split into stages that run as
+	 * soon as the stages they depend on are finished:
+	 * <ul>
+	 * <li><i>Window</i> (event dispatch thread) and <i>Locale</i> depend on nothing, and run alongside <i>Prototypes</i>, which
+	 * runs all of the lua</li>
+	 * <li><i>Icons</i> and <i>Settings</i> depend on <i>Prototypes</i>, and run alongside each other</li>
+	 * <li>The window is shown once <i>Window</i> and <i>Prototypes</i> are finished, and its lists are filled once
+	 * <i>Settings</i> is, since the rows take their default assemblers from it</li>
+	 * <li>The names and icons of the rows are updated as <i>Locale</i> and <i>Icons</i> finish</li>
+	 * </ul>
+	 * The time taken by each stage is recorded by {@link Metrics}, as <code>startup.</code> and the name of the stage, and the
+	 * time until every stage is finished as <code>startup</code>.
+	 * @param args - The application directory of Factorio, followed by any mod directories to load. If there are none, the
+	 *        application directory is read from the <code>factorio.dir</code> system property, and otherwise defaults to
+	 *        {@link #DEFAULT_FACTORIO_DIR}.
+	 *        </ul>
+	 */
 	public static void main(final String args[]) {
+		final Metrics.Timer startup = Metrics.start("startup");
 		loadingDialog.setVisible(true);
-		try {
-			Data.load(Paths.get("C:/Program Files/Factorio"));
-		} catch (final IOException e) {
-			e.printStackTrace();
-		}
-		loadingDialog.setText("Reading assembler settings...");
-		AssemblerSettings.readSettings();
-		loadingDialog.dispose();
-
-		final Window window = new Window();
-		window.setVisible(true);
+		Progress.addListener(loadingDialog);
+
+		final Path factorioDir = Paths.get(args.length > 0 ? args[0] : System.getProperty("factorio.dir", DEFAULT_FACTORIO_DIR));
+		final Path[] mods = new Path[Math.max(0, args.length - 1)];
+		for (int m = 0; m < mods.length; m++)
+			mods[m] = Paths.get(args[m + 1]);
+
+		final ExecutorService pool = Executors.newCachedThreadPool();
+		final Executor edt = SwingUtilities::invokeLater;
+
+		final CompletableFuture<Window> window = stage("Window", Window::new, edt);
+		final CompletableFuture<Void> locale = stage("Locale", () -> {
+			try {
+				Data.loadLocale(factorioDir, mods);
+			} catch (final IOException e) {
+				e.printStackTrace();
+			}
+		}, pool);
+		final CompletableFuture<Void> prototypes = stage("Prototypes", () -> {
+			try {
+				Data.loadPrototypes(factorioDir, mods);
+			} catch (final IOException e) {
+				e.printStackTrace();
+			}
+		}, pool);
+
+		final CompletableFuture<Void> icons = prototypes.thenCompose(v -> stage("Icons", Data::decodeIcons, pool));
+		final CompletableFuture<Void> settings = prototypes.thenCompose(v -> stage("Settings", AssemblerSettings::readSettings, pool));
+
+		window.thenAcceptBothAsync(prototypes, (w, v) -> {
+			Progress.removeListener(loadingDialog);
+			loadingDialog.dispose();
+			w.setVisible(true);
+		}, edt);
+
+		final CompletableFuture<Void> products = window.thenAcceptBothAsync(settings, (w, v) -> w.loadProducts(), edt);
+		final CompletableFuture<Void> names = products.runAfterBothAsync(locale, () -> window.join().updateProducts(), edt);
+		final CompletableFuture<Void> images = products.runAfterBothAsync(icons, () -> window.join().updateProducts(), edt);
+
+		CompletableFuture.allOf(names, images).whenComplete((v, e) -> {
+			if (e != null) e.printStackTrace();
+			startup.stop();
+			pool.shutdown();
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>stage</i></b><br>
+	 * <pre> private static CompletableFuture&lt;Void&gt; stage({@link String} name, {@link Runnable} task, {@link Executor} executor)</pre>
+	 * @param name - The name of the stage, for its metric
+	 * @param task - The work of the stage
+	 * @param executor - The {@code Executor} to run the stage on
+	 * @return a {@link CompletableFuture} that is completed when the stage is finished
+	 * @see {@link #stage(String, Supplier, Executor)}
+	 *      </ul>
+	 */
+	private static CompletableFuture<Void> stage(final String name, final Runnable task, final Executor executor) {
+		return stage(name, () -> {
+			task.run();
+			return null;
+		}, executor);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>stage</i></b><br>
+	 * <pre> private static &lt;T&gt; CompletableFuture&lt;T&gt; stage({@link String} name, {@link Supplier}&lt;T&gt; task, {@link Executor} executor)</pre>
+	 * Runs a startup stage asynchronously, recording the time that it takes with {@link Metrics}.
+	 * @param name - The name of the stage, for its metric
+	 * @param task - The work of the stage
+	 * @param executor - The {@code Executor} to run the stage on
+	 * @return a {@link CompletableFuture} that is completed with the result of the stage when it is finished
+	 *         </ul>
+	 */
+	private static <T> CompletableFuture<T> stage(final String name, final Supplier<T> task, final Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			final Metrics.Timer timer = Metrics.start("startup." + name.toLowerCase());
+			final T ret = task.get();
+			timer.stop();
+			return ret;
+		}, executor);
 	}
 
 }
@@ -0,0 +1,321 @@
+package factorio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A non-instantiable registry of timers and counters for the hot paths of the program. Recording is cheap enough to leave on:
+ * a timer reads the clock twice and adds to a few {@link LongAdder}s. Every {@link #ALLOCATION_SAMPLE_INTERVAL}th run of a
+ * timer also reads the bytes allocated by its thread, where the JVM supports it, to estimate the allocation per run.<br>
+ * <br>
+ * Recording can be turned off with <code>-Dfactorio.metrics=false</code>. If <code>-Dfactorio.metrics.out=<i>file</i></code>
+ * is given, the metrics are written to that file as JSON when the program exits.
+ * @author ricky3350
+ */
+public class Metrics {
+
+	/**
+	 * Whether metrics are recorded
+	 */
+	public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("factorio.metrics"));
+
+	/**
+	 * One in this many runs of each timer measures the bytes allocated
+	 */
+	public static final int ALLOCATION_SAMPLE_INTERVAL = 16;
+
+	/**
+	 * The metrics, by name
+	 */
+	private static final ConcurrentMap<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+	/**
+	 * The bean that measures thread allocation, or <code>null</code> if the JVM does not support it
+	 */
+	private static final com.sun.management.ThreadMXBean ALLOCATION;
+
+	/**
+	 * A timer that records nothing, for when metrics are disabled
+	 */
+	private static final Timer NO_TIMER = new Timer(null, false);
+
+	static {
+		com.sun.management.ThreadMXBean allocation = null;
+		try {
+			final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+				allocation = (com.sun.management.ThreadMXBean) bean;
+				allocation.setThreadAllocatedMemoryEnabled(true);
+			}
+		} catch (final Throwable e) {
+			allocation = null;
+		}
+		ALLOCATION = allocation;
+
+		final String out = System.getProperty("factorio.metrics.out");
+		if (ENABLED && out != null) {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(out))) {
+					writeJSON(writer);
+				} catch (final IOException e) {
+					e.printStackTrace(System.err);
+				}
+			}, "Metrics writer"));
+		}
+	}
+
+	private Metrics() {}
+
+	/**
+	 * <ul>
+	 * <b><i>start</i></b><br>
+	 * <pre> public static {@link Timer} start({@link String} name)</pre> Starts timing a run of the metric with the given name.
+	 * The run is recorded when the returned timer is {@linkplain Timer#stop() stopped}, so it can be used in a
+	 * <code>try</code>-with-resources statement.
+	 * @param name - the name of the metric
+	 * @return the running timer
+	 *         </ul>
+	 */
+	public static Timer start(final String name) {
+		if (!ENABLED) return NO_TIMER;
+
+		final Metric metric = metric(name);
+		return new Timer(metric, ALLOCATION != null && metric.runs.getAndIncrement() % ALLOCATION_SAMPLE_INTERVAL == 0);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>count</i></b><br>
+	 * <pre> public static void count({@link String} name)</pre> Adds one to the counter with the given name
+	 * </ul>
+	 */
+	public static void count(final String name) {
+		count(name, 1);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>count</i></b><br>
+	 * <pre> public static void count({@link String} name, long amount)</pre> Adds the given amount to the counter with the
+	 * given name
+	 * </ul>
+	 */
+	public static void count(final String name, final long amount) {
+		if (ENABLED) metric(name).count.add(amount);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>reset</i></b><br>
+	 * <pre> public static void reset()</pre> Removes every metric
+	 * </ul>
+	 */
+	public static void reset() {
+		metrics.clear();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>snapshot</i></b><br>
+	 * <pre> public static {@link List}&lt;{@link Snapshot}&gt; snapshot()</pre>
+	 * @return the current value of each metric, sorted by name
+	 *         </ul>
+	 */
+	public static List<Snapshot> snapshot() {
+		final List<Snapshot> ret = new ArrayList<>(metrics.size());
+		for (final Metric m : metrics.values())
+			ret.add(new Snapshot(m));
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>writeJSON</i></b><br>
+	 * <pre> public static void writeJSON({@link Appendable} out)</pre> Writes a {@linkplain #snapshot() snapshot} of every
+	 * metric as a JSON object, with the time and the Java version that it was taken with
+	 * @param out - where to write the JSON
+	 * @throws IOException if an I/O error occurs
+	 *         </ul>
+	 */
+	public static void writeJSON(final Appendable out) throws IOException {
+		out.append("{\n");
+		out.append("\t\"timestamp\": ").append(Long.toString(System.currentTimeMillis())).append(",\n");
+		out.append("\t\"java\": \"").append(System.getProperty("java.version")).append("\",\n");
+		out.append("\t\"metrics\": [");
+
+		boolean first = true;
+		for (final Snapshot s : snapshot()) {
+			out.append(first ? "\n" : ",\n");
+			first = false;
+
+			out.append("\t\t{\"name\": \"").append(s.name.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+			out.append(", \"count\": ").append(Long.toString(s.count));
+			if (s.timed) {
+				out.append(", \"totalNanos\": ").append(Long.toString(s.totalNanos));
+				out.append(", \"maxNanos\": ").append(Long.toString(s.maxNanos));
+				if (s.allocationSamples > 0) out.append(", \"bytesPerRun\": ").append(Long.toString(s.getBytesPerRun()));
+			}
+			out.append('}');
+		}
+
+		out.append(first ? "]\n" : "\n\t]\n").append("}\n");
+	}
+
+	private static Metric metric(final String name) {
+		final Metric ret = metrics.get(name);
+		return ret != null ? ret : metrics.computeIfAbsent(name, Metric::new);
+	}
+
+	/**
+	 * The accumulated values of a timer or counter
+	 * @author ricky3350
+	 */
+	private static class Metric {
+
+		private final String name;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final AtomicLong runs = new AtomicLong();
+		private final LongAdder allocatedBytes = new LongAdder();
+		private final LongAdder allocationSamples = new LongAdder();
+		private volatile boolean timed;
+
+		private Metric(final String name) {
+			this.name = name;
+		}
+
+	}
+
+	/**
+	 * A running timer, returned by {@link Metrics#start(String)}. It may be stopped on another thread than the one that
+	 * started it, but its allocation is then not sampled, since it is counted per thread.
+	 * @author ricky3350
+	 */
+	public static final class Timer implements AutoCloseable {
+
+		private final Metric metric;
+		private final long start;
+		private final long thread;
+		private final long startBytes;
+
+		private Timer(final Metric metric, final boolean sampleAllocation) {
+			this.metric = metric;
+			this.thread = Thread.currentThread().getId();
+			this.startBytes = sampleAllocation ? ALLOCATION.getThreadAllocatedBytes(this.thread) : -1;
+			this.start = System.nanoTime();
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>stop</i></b><br>
+		 * <pre> public void stop()</pre> Records the time since this timer was started. A timer should only be stopped once.
+		 * </ul>
+		 */
+		public void stop() {
+			if (this.metric == null) return;
+
+			final long time = System.nanoTime() - this.start;
+			if (this.startBytes >= 0 && this.thread == Thread.currentThread().getId()) {
+				this.metric.allocatedBytes.add(ALLOCATION.getThreadAllocatedBytes(this.thread) - this.startBytes);
+				this.metric.allocationSamples.increment();
+			}
+
+			this.metric.timed = true;
+			this.metric.count.increment();
+			this.metric.totalNanos.add(time);
+			this.metric.maxNanos.accumulateAndGet(time, Math::max);
+		}
+
+		@Override
+		public void close() {
+			this.stop();
+		}
+
+	}
+
+	/**
+	 * The values of a metric at one point in time
+	 * @author ricky3350
+	 */
+	public static final class Snapshot {
+
+		/**
+		 * The name of the metric
+		 */
+		public final String name;
+
+		/**
+		 * Whether the metric is a timer, rather than a counter
+		 */
+		public final boolean timed;
+
+		/**
+		 * The number of runs of a timer, or the value of a counter
+		 */
+		public final long count;
+
+		/**
+		 * The total time of all runs, in nanoseconds
+		 */
+		public final long totalNanos;
+
+		/**
+		 * The time of the longest run, in nanoseconds
+		 */
+		public final long maxNanos;
+
+		/**
+		 * The bytes allocated during the runs that measured allocation
+		 */
+		public final long allocatedBytes;
+
+		/**
+		 * The number of runs that measured allocation
+		 */
+		public final long allocationSamples;
+
+		private Snapshot(final Metric metric) {
+			this.name = metric.name;
+			this.timed = metric.timed;
+			this.count = metric.count.sum();
+			this.totalNanos = metric.totalNanos.sum();
+			this.maxNanos = metric.maxNanos.get();
+			this.allocatedBytes = metric.allocatedBytes.sum();
+			this.allocationSamples = metric.allocationSamples.sum();
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getMeanNanos</i></b><br>
+		 * <pre> public double getMeanNanos()</pre>
+		 * @return the mean time of a run, in nanoseconds
+		 *         </ul>
+		 */
+		public double getMeanNanos() {
+			return this.count == 0 ? 0 : (double) this.totalNanos / this.count;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getBytesPerRun</i></b><br>
+		 * <pre> public long getBytesPerRun()</pre>
+		 * @return the mean bytes allocated by a run, from the runs that measured it, or -1 if none did
+		 *         </ul>
+		 */
+		public long getBytesPerRun() {
+			return this.allocationSamples == 0 ? -1 : this.allocatedBytes / this.allocationSamples;
+		}
+
+	}
+
+}
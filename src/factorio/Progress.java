@@ -0,0 +1,180 @@
+package factorio;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A non-instantiable event bus for the progress of long-running work, such as loading prototypes. Reporting progress only
+ * updates a few fields, so it is cheap enough to do for every item. A dispatch thread samples the fields at
+ * {@link #FRAME_RATE} frames per second, and sends a {@link ProgressEvent} to each {@link ProgressListener} only if the
+ * progress has changed since the last frame.
+ * @author ricky3350
+ */
+public class Progress {
+
+	/**
+	 * The maximum number of {@link ProgressEvent}s dispatched per second
+	 */
+	public static final int FRAME_RATE = 30;
+
+	/**
+	 * The registered listeners
+	 */
+	private static final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The thread that dispatches events
+	 */
+	private static final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+		final Thread ret = new Thread(r, "Progress dispatcher");
+		ret.setDaemon(true);
+		return ret;
+	});
+
+	/**
+	 * The periodic dispatch of events, or <code>null</code> if there are no listeners
+	 */
+	private static ScheduledFuture<?> dispatch;
+
+	/**
+	 * The description of the current task
+	 */
+	private static volatile String task = "";
+
+	/**
+	 * The total number of steps in the current task
+	 */
+	private static volatile int total;
+
+	/**
+	 * The number of steps of the current task that have been completed
+	 */
+	private static final AtomicInteger done = new AtomicInteger();
+
+	/**
+	 * The total number of steps in all tasks
+	 */
+	private static volatile int overallTotal;
+
+	/**
+	 * The number of steps of all tasks that have been completed
+	 */
+	private static final AtomicInteger overallDone = new AtomicInteger();
+
+	/**
+	 * The last event that was dispatched
+	 */
+	private static ProgressEvent last;
+
+	// Headless tools have no loading dialog, so they can log the same events instead
+	static {
+		if (Boolean.getBoolean("factorio.progress.log")) addListener(ProgressListener.LOGGER);
+	}
+
+	private Progress() {}
+
+	/**
+	 * <ul>
+	 * <b><i>addListener</i></b><br>
+	 * <pre> public static synchronized void addListener({@link ProgressListener} listener)</pre> Registers the given listener,
+	 * starting the dispatch thread if it is the first.
+	 * @param listener - the listener to add
+	 *        </ul>
+	 */
+	public static synchronized void addListener(final ProgressListener listener) {
+		listeners.add(listener);
+		if (dispatch == null) dispatch = dispatcher.scheduleAtFixedRate(Progress::flush, 0, 1000 / FRAME_RATE, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>removeListener</i></b><br>
+	 * <pre> public static synchronized void removeListener({@link ProgressListener} listener)</pre> Unregisters the given
+	 * listener, stopping the dispatch thread if there are no more.
+	 * @param listener - the listener to remove
+	 *        </ul>
+	 */
+	public static synchronized void removeListener(final ProgressListener listener) {
+		listeners.remove(listener);
+		if (listeners.isEmpty() && dispatch != null) {
+			dispatch.cancel(false);
+			dispatch = null;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>begin</i></b><br>
+	 * <pre> public static void begin({@link String} task)</pre> Starts a new task with an unknown number of steps.
+	 * @param task - the description of the task
+	 *        </ul>
+	 */
+	public static void begin(final String task) {
+		begin(task, 0);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>begin</i></b><br>
+	 * <pre> public static void begin({@link String} task, int total)</pre> Starts a new task with the given number of steps.
+	 * @param task - the description of the task
+	 * @param total - the number of steps in the task, or zero if it is unknown
+	 *        </ul>
+	 */
+	public static void begin(final String task, final int total) {
+		Progress.done.set(0);
+		Progress.total = total;
+		Progress.task = task;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>increment</i></b><br>
+	 * <pre> public static void increment()</pre> Marks a step of the current task as completed.
+	 * </ul>
+	 */
+	public static void increment() {
+		done.incrementAndGet();
+		overallDone.incrementAndGet();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>setOverallTotal</i></b><br>
+	 * <pre> public static void setOverallTotal(int total)</pre> Sets the total number of steps in all tasks, and resets the
+	 * number of completed steps.
+	 * @param total - the total number of steps
+	 *        </ul>
+	 */
+	public static void setOverallTotal(final int total) {
+		overallDone.set(0);
+		overallTotal = total;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>flush</i></b><br>
+	 * <pre> public static synchronized void flush()</pre> Dispatches the current progress to all listeners immediately, if it
+	 * has changed since the last event.
+	 * </ul>
+	 */
+	public static synchronized void flush() {
+		final ProgressEvent e = new ProgressEvent(task, done.get(), total, overallDone.get(), overallTotal);
+		if (last != null && last.task.equals(e.task) && last.done == e.done && last.total == e.total && last.overallDone == e.overallDone && last.overallTotal == e.overallTotal) return;
+		last = e;
+
+		for (final ProgressListener listener : listeners) {
+			try {
+				listener.progressChanged(e);
+			} catch (final RuntimeException exception) {
+				exception.printStackTrace(System.err);
+			}
+		}
+	}
+
+}
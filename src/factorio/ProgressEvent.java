@@ -0,0 +1,58 @@
+package factorio;
+
+/**
+ * An immutable snapshot of the progress reported to {@link Progress}
+ * @author ricky3350
+ */
+public class ProgressEvent {
+
+	/**
+	 * The description of the current task
+	 */
+	public final String task;
+
+	/**
+	 * The number of steps of the current task that have been completed
+	 */
+	public final int done;
+
+	/**
+	 * The total number of steps in the current task, or zero if it is unknown
+	 */
+	public final int total;
+
+	/**
+	 * The number of steps of all tasks that have been completed
+	 */
+	public final int overallDone;
+
+	/**
+	 * The total number of steps in all tasks, or zero if it is unknown
+	 */
+	public final int overallTotal;
+
+	public ProgressEvent(final String task, final int done, final int total, final int overallDone, final int overallTotal) {
+		this.task = task;
+		this.done = done;
+		this.total = total;
+		this.overallDone = overallDone;
+		this.overallTotal = overallTotal;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getText</i></b><br>
+	 * <pre> public {@link String} getText()</pre>
+	 * @return the description of the current task, followed by the number of completed steps if the task has a known total
+	 *         </ul>
+	 */
+	public String getText() {
+		return this.total > 0 ? String.format("%s (%d/%d)", this.task, this.done, this.total) : this.task;
+	}
+
+	@Override
+	public String toString() {
+		return this.overallTotal > 0 ? String.format("[%3d%%] %s", 100L * this.overallDone / this.overallTotal, this.getText()) : this.getText();
+	}
+
+}
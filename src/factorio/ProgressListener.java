@@ -0,0 +1,26 @@
+package factorio;
+
+/**
+ * A listener for the {@link ProgressEvent}s dispatched by {@link Progress}
+ * @author ricky3350
+ */
+public interface ProgressListener {
+
+	/**
+	 * A {@code ProgressListener} that prints each event to {@link System#out}, for runs without a loading dialog. It is
+	 * registered from the start when the <code>factorio.progress.log</code> system property is <code>true</code>.
+	 */
+	public static final ProgressListener LOGGER = e -> System.out.println(e);
+
+	/**
+	 * <ul>
+	 * <b><i>progressChanged</i></b><br>
+	 * <pre> public void progressChanged({@link ProgressEvent} e)</pre> Called by the dispatch thread of {@link Progress}, at
+	 * most {@link Progress#FRAME_RATE} times per second, when the progress has changed since the last event. Implementations
+	 * that update Swing components must do so on the event dispatch thread.
+	 * @param e - the current progress
+	 *        </ul>
+	 */
+	public void progressChanged(ProgressEvent e);
+
+}
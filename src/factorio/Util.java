@@ -7,6 +7,7 @@ import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -15,6 +16,7 @@ import java.util.regex.Pattern;
 
 import factorio.data.Data;
 import factorio.data.Recipe;
+import factorio.data.Symbols;
 
 /**
  * A non-instantiatable class holding utility methods and objects for various purposes.
@@ -108,9 +110,10 @@ public class Util {
 		final Boolean ret = multRecipe.get(product);
 
 		if (ret == null) {
+			final String name = Symbols.of(product);
 			int found = 0;
 			for (final Recipe r : Data.getRecipes())
-				if (!isBlacklisted(r.name) && r.getResults().containsKey(product)) if (found++ == 1) break;
+				if (!isBlacklisted(r.name) && r.hasResult(name)) if (found++ == 1) break;
 			multRecipe.put(product, found >= 2);
 			return found >= 2;
 		}
@@ -127,6 +130,21 @@ public class Util {
 	 *         </ul>
 	 */
 	public static boolean isBlacklisted(final String recipeName) {
+		return getBlacklist().contains(recipeName);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getBlacklist</i></b><br>
+	 * <br>
+	 * <pre> public static {@link Collection}&lt;{@link String}&gt; getBlacklist()</pre> <br>
+	 * Reads the blacklist from <code>resources/recipe-blacklist.cfg</code> the first time it is needed, creating the file if
+	 * it does not exist.
+	 * @return an unmodifiable view of the names of the recipes that cannot be used without the user specifically using them as
+	 *         input
+	 *         </ul>
+	 */
+	public static Collection<String> getBlacklist() {
 		if (blacklist == null) {
 			final Path blacklist = Paths.get("resources/recipe-blacklist.cfg");;
 			if (!Files.exists(blacklist)) {
@@ -135,18 +153,43 @@ public class Util {
 					Files.createFile(blacklist);
 				} catch (final IOException e) {}
 				Util.blacklist = new HashSet<>();
-				return false;
 			} else {
 				try {
 					Util.blacklist = new HashSet<>(Files.readAllLines(blacklist));
 				} catch (final IOException e) {
 					Util.blacklist = new HashSet<>();
-					return false;
 				}
 			}
 		}
 
-		return blacklist.contains(recipeName);
+		return Collections.unmodifiableCollection(blacklist);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>setBlacklist</i></b><br>
+	 * <br>
+	 * <pre> public static void setBlacklist({@link Collection}&lt;{@link String}&gt; recipeNames)</pre> <br>
+	 * Replaces the blacklist for the rest of the session, e.g. with the one saved in a plan. The blacklist file is not
+	 * changed.
+	 * @param recipeNames - The names of the recipes that cannot be used without the user specifically using them as input
+	 *        </ul>
+	 */
+	public static void setBlacklist(final Collection<String> recipeNames) {
+		blacklist = new HashSet<>(recipeNames);
+		multRecipe.clear();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>clearRecipeCache</i></b><br>
+	 * <br>
+	 * <pre> public static void clearRecipeCache()</pre> <br>
+	 * Forgets which items have multiple recipes, e.g. after {@link Data} has been reloaded.
+	 * </ul>
+	 */
+	public static void clearRecipeCache() {
+		multRecipe.clear();
 	}
 
 	// Util cannot be instantiated
@@ -0,0 +1,368 @@
+package factorio.calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import factorio.Util;
+import factorio.data.Assembler;
+import factorio.data.Data;
+import factorio.data.Module;
+import factorio.data.Recipe;
+
+/**
+ * A non-instantiable class for choosing the {@link AssemblerSettings} of every {@link Recipe} in a production chain so that an
+ * {@link Objective} is minimized.<br>
+ * <br>
+ * Because the calculation is linear, the cost of producing an item at a given rate is the rate multiplied by a fixed cost per
+ * item, so the best settings for a recipe do not depend on the rate it is produced at. The costs are found bottom-up: the cost
+ * per cycle of a recipe is the cost of its own buildings plus the cost of its ingredients divided by its productivity, and the
+ * settings that minimize it are chosen before the recipes that use it are considered.<br>
+ * <br>
+ * For each assembler and set of allowed modules, every module loadout is reduced to three numbers: buildings per cycle
+ * (<code>1/(speed*productivity)</code>), energy per cycle (<code>(consumption*energy+beacons)/(speed*productivity)</code>), and
+ * ingredients per cycle (<code>1/productivity</code>). The {@link BeaconSettings} around each assembler, if any, are given by
+ * the user and are part of every loadout. Since every objective is non-negative in all three, a loadout that is no better in any
+ * of them than another can never be chosen, and is discarded once. Only the remaining loadouts are evaluated for each recipe.
+ * @author ricky3350
+ */
+public class AssemblerOptimizer {
+
+	/**
+	 * The indices of the buildings, power, resource, and pollution costs in cost vectors
+	 */
+	private static final int BUILDINGS = 0, POWER = 1, RESOURCES = 2, POLLUTION = 3;
+
+	/**
+	 * Maps an assembler name, a list of module names and the beacons around the assembler to the loadouts of those modules in
+	 * that assembler that are not dominated by another.
+	 */
+	private static final Map<String, List<AssemblerSettings>> frontiers = new HashMap<>();
+
+	private AssemblerOptimizer() {}
+
+	/**
+	 * <ul>
+	 * <b><i>clearCache</i></b><br>
+	 * <pre> static void clearCache()</pre> Forgets the cached {@link #frontiers}, which hold the assemblers and modules that were
+	 * loaded when they were built
+	 * </ul>
+	 */
+	static void clearCache() {
+		frontiers.clear();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>optimize</i></b><br>
+	 * <pre> public static {@link AssemblerSettings} optimize({@link Recipe} recipe, {@link Objective} objective)</pre>
+	 * @param recipe - The recipe to optimize
+	 * @param objective - The objective to minimize
+	 * @return the {@code AssemblerSettings} that minimize the objective for the entire production chain of the given recipe, or
+	 *         <code>null</code> if no assembler can craft it
+	 * @see {@link #optimize(Map, Objective)}
+	 *      </ul>
+	 */
+	public static AssemblerSettings optimize(final Recipe recipe, final Objective objective) {
+		return optimize(recipe, objective, null);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>optimize</i></b><br>
+	 * <pre> public static {@link AssemblerSettings} optimize({@link Recipe} recipe, {@link Objective} objective, {@link BeaconSettings} beacons)</pre>
+	 * @param recipe - The recipe to optimize
+	 * @param objective - The objective to minimize
+	 * @param beacons - The beacons around every assembler in the production chain, or <code>null</code> if there are none
+	 * @return the {@code AssemblerSettings} that minimize the objective for the entire production chain of the given recipe, or
+	 *         <code>null</code> if no assembler can craft it
+	 * @see {@link #optimize(Map, Objective, BeaconSettings)}
+	 *      </ul>
+	 */
+	public static AssemblerSettings optimize(final Recipe recipe, final Objective objective, final BeaconSettings beacons) {
+		return optimize(Collections.singletonMap(recipe, 1), objective, beacons).get(recipe);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>optimize</i></b><br>
+	 * <pre> public static {@link Map}&lt;{@link Recipe}, {@link AssemblerSettings}&gt; optimize(Map&lt;Recipe, ? extends {@link Number}&gt; productRates, {@link Objective} objective)</pre>
+	 * Chooses settings for each recipe in the production chains of the given products. Items are produced by the same recipes
+	 * that {@link Calculation} would use.
+	 * @param productRates - A map mapping the recipes to be produced to the rate at which they should be produced at
+	 * @param objective - The objective to minimize
+	 * @return a map mapping each recipe in the production chains to the {@code AssemblerSettings} that minimize the objective.
+	 *         Recipes that no assembler can craft are not included.
+	 * @see {@link Calculation#applySettings(Map)}
+	 *      </ul>
+	 */
+	public static Map<Recipe, AssemblerSettings> optimize(final Map<Recipe, ? extends Number> productRates, final Objective objective) {
+		return optimize(productRates, objective, null);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>optimize</i></b><br>
+	 * <pre> public static {@link Map}&lt;{@link Recipe}, {@link AssemblerSettings}&gt; optimize(Map&lt;Recipe, ? extends {@link Number}&gt; productRates, {@link Objective} objective, {@link BeaconSettings} beacons)</pre>
+	 * Chooses settings for each recipe in the production chains of the given products, with the given beacons around every
+	 * assembler.
+	 * @param productRates - A map mapping the recipes to be produced to the rate at which they should be produced at
+	 * @param objective - The objective to minimize
+	 * @param beacons - The beacons around every assembler, or <code>null</code> if there are none. Modules in them that cannot
+	 *        be used for a recipe are left out for that recipe.
+	 * @return a map mapping each recipe in the production chains to the {@code AssemblerSettings} that minimize the objective.
+	 *         Recipes that no assembler can craft are not included.
+	 * @see {@link #optimize(Map, Objective)}
+	 *      </ul>
+	 */
+	public static Map<Recipe, AssemblerSettings> optimize(final Map<Recipe, ? extends Number> productRates, final Objective objective, final BeaconSettings beacons) {
+		final Map<String, List<Recipe>> producers = new HashMap<>();
+		for (final Recipe r : Data.getRecipes()) {
+			if (Util.isBlacklisted(r.name)) continue;
+			for (int i = 0; i < r.getResultCount(); i++)
+				producers.computeIfAbsent(r.getResultName(i), k -> new ArrayList<>()).add(r);
+		}
+
+		final Map<Recipe, AssemblerSettings> ret = new HashMap<>();
+		final Map<Recipe, double[]> costs = new HashMap<>();
+		for (final Recipe recipe : productRates.keySet())
+			cycleCost(recipe, objective, beacons, producers, ret, costs, new HashSet<>(), new HashSet<>());
+
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>cycleCost</i></b><br>
+	 * <pre> private static double[] cycleCost({@link Recipe} recipe, {@link Objective} objective, {@link BeaconSettings} beacons, {@link Map}&lt;{@link String}, {@link List}&lt;Recipe&gt;&gt; producers, Map&lt;Recipe, {@link AssemblerSettings}&gt; chosen, Map&lt;Recipe, double[]&gt; costs, {@link Set}&lt;Recipe&gt; visiting, Set&lt;Recipe&gt; cut)</pre>
+	 * Chooses the best settings for the given recipe, after choosing settings for each of its ingredients. A cost that was
+	 * found by skipping a recipe further up in <code>visiting</code> depends on the path it was reached by, so it is not put in
+	 * <code>costs</code>.
+	 * @param recipe - The recipe to choose settings for
+	 * @param objective - The objective to minimize
+	 * @param beacons - The beacons around every assembler, or <code>null</code>
+	 * @param producers - Maps item names to the recipes that produce them, in the order that they are chosen
+	 * @param chosen - The settings that have been chosen so far, which the settings for this recipe are put in
+	 * @param costs - The cost vectors of the recipes that have been chosen so far
+	 * @param visiting - The recipes whose ingredients are being chosen, which cannot be used again
+	 * @param cut - The recipes in <code>visiting</code> that have been skipped, which the ones skipped for this recipe are
+	 *            added to
+	 * @return the buildings, power, resources, and pollution required to complete the recipe once per second, including its
+	 *         ingredients
+	 *         </ul>
+	 */
+	private static double[] cycleCost(final Recipe recipe, final Objective objective, final BeaconSettings beacons, final Map<String, List<Recipe>> producers, final Map<Recipe, AssemblerSettings> chosen, final Map<Recipe, double[]> costs, final Set<Recipe> visiting, final Set<Recipe> cut) {
+		double[] ret = costs.get(recipe);
+		if (ret != null) return ret;
+
+		visiting.add(recipe);
+		final Set<Recipe> skipped = new HashSet<>();
+
+		final double[] upstream = new double[4];
+		final Map<String, Double> ingredients = recipe.getIngredients();
+		if (ingredients.isEmpty()) {
+			upstream[RESOURCES] = recipe.getResults().values().stream().mapToDouble(Double::doubleValue).sum();
+		} else {
+			for (final Map.Entry<String, Double> ingredient : ingredients.entrySet()) {
+				final double[] item = itemCost(ingredient.getKey(), objective, beacons, producers, chosen, costs, visiting, skipped);
+				for (int i = 0; i < upstream.length; i++)
+					upstream[i] += ingredient.getValue() * item[i];
+			}
+		}
+
+		AssemblerSettings best = null;
+		for (final AssemblerSettings settings : candidates(recipe, beacons == null ? null : beacons.forRecipe(recipe))) {
+			final double productivity = settings.getProductivity();
+			final double buildings = recipe.timeIn(settings.getAssembler(), settings.getSpeed()) / productivity;
+			final double[] cost = {buildings + upstream[BUILDINGS] / productivity, buildings * settings.getEnergy() + upstream[POWER] / productivity, upstream[RESOURCES] / productivity, buildings * settings.getPollution() + upstream[POLLUTION] / productivity};
+
+			if (ret == null || compare(cost, ret, objective) < 0) {
+				ret = cost;
+				best = settings;
+			}
+		}
+
+		visiting.remove(recipe);
+
+		if (best == null) {
+			ret = upstream;
+		} else {
+			chosen.put(recipe, best);
+		}
+
+		// Skipping this recipe itself happens wherever it is reached from, but skipping one above it does not
+		skipped.remove(recipe);
+		if (skipped.isEmpty()) {
+			costs.put(recipe, ret);
+		} else {
+			cut.addAll(skipped);
+		}
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>itemCost</i></b><br>
+	 * <pre> private static double[] itemCost({@link String} item, {@link Objective} objective, {@link BeaconSettings} beacons, {@link Map}&lt;String, {@link List}&lt;{@link Recipe}&gt;&gt; producers, Map&lt;Recipe, {@link AssemblerSettings}&gt; chosen, Map&lt;Recipe, double[]&gt; costs, {@link Set}&lt;Recipe&gt; visiting, Set&lt;Recipe&gt; cut)</pre>
+	 * @return the buildings, power, resources, and pollution required to produce one of the given item per second. An item that
+	 *         cannot be produced counts as a raw resource.
+	 * @see {@link #cycleCost(Recipe, Objective, BeaconSettings, Map, Map, Map, Set, Set)}
+	 *      </ul>
+	 */
+	private static double[] itemCost(final String item, final Objective objective, final BeaconSettings beacons, final Map<String, List<Recipe>> producers, final Map<Recipe, AssemblerSettings> chosen, final Map<Recipe, double[]> costs, final Set<Recipe> visiting, final Set<Recipe> cut) {
+		for (final Recipe r : producers.getOrDefault(item, Collections.emptyList())) {
+			if (visiting.contains(r)) {
+				cut.add(r);
+				continue;
+			}
+
+			final double[] cycle = cycleCost(r, objective, beacons, producers, chosen, costs, visiting, cut);
+			final double amount = r.getResultAmount(item);
+			return new double[] {cycle[BUILDINGS] / amount, cycle[POWER] / amount, cycle[RESOURCES] / amount, cycle[POLLUTION] / amount};
+		}
+		return new double[] {0, 0, 1, 0};
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>compare</i></b><br>
+	 * <pre> private static int compare(double[] c1, double[] c2, {@link Objective} objective)</pre> Compares two cost vectors
+	 * by the objective, breaking ties by buildings, then power, then resources, then pollution.
+	 * </ul>
+	 */
+	private static int compare(final double[] c1, final double[] c2, final Objective objective) {
+		final double o1 = objective.evaluate(c1[BUILDINGS], c1[POWER], c1[RESOURCES], c1[POLLUTION]);
+		final double o2 = objective.evaluate(c2[BUILDINGS], c2[POWER], c2[RESOURCES], c2[POLLUTION]);
+		if (Math.abs(o1 - o2) > 1e-9 * Math.max(Math.abs(o1), Math.abs(o2))) return Double.compare(o1, o2);
+
+		for (int i = 0; i < c1.length; i++) {
+			if (Math.abs(c1[i] - c2[i]) > 1e-9 * Math.max(Math.abs(c1[i]), Math.abs(c2[i]))) return Double.compare(c1[i], c2[i]);
+		}
+		return 0;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>candidates</i></b><br>
+	 * <pre> static {@link List}&lt;{@link AssemblerSettings}&gt; candidates({@link Recipe} recipe, {@link BeaconSettings} beacons)</pre>
+	 * @param recipe - The recipe to find settings for
+	 * @param beacons - The beacons around each assembler, already limited to the modules allowed for the recipe, or
+	 *        <code>null</code>
+	 * @return the non-dominated loadouts of every assembler that can craft the given recipe, using only modules that are
+	 *         allowed for the recipe and the assembler
+	 *         </ul>
+	 */
+	static List<AssemblerSettings> candidates(final Recipe recipe, final BeaconSettings beacons) {
+		final int ingredients = recipe.getIngredientCount();
+		final List<AssemblerSettings> ret = new ArrayList<>();
+		for (final Assembler assembler : Data.getAssemblers(recipe.category)) {
+			if (assembler.ingredients < ingredients) continue;
+
+			final Module[] modules = Data.getModules().stream().filter(m -> m.canCraft(recipe.name) && assembler.allowsModule(m)).sorted(Comparator.comparing(m -> m.name)).toArray(n -> new Module[n]);
+			final String key = assembler.name + Arrays.stream(modules).map(m -> m.name).collect(Collectors.joining("+", "|", "")) + (beacons == null ? "" : "#" + beacons);
+
+			List<AssemblerSettings> frontier = frontiers.get(key);
+			if (frontier == null) {
+				frontier = frontier(assembler, modules, beacons);
+				frontiers.put(key, frontier);
+			}
+			ret.addAll(frontier);
+		}
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>frontier</i></b><br>
+	 * <pre> private static {@link List}&lt;{@link AssemblerSettings}&gt; frontier({@link Assembler} assembler, {@link Module}[] modules, {@link BeaconSettings} beacons)</pre>
+	 * Enumerates every loadout of the given modules in the given assembler, including loadouts with empty slots, and discards
+	 * the dominated ones.
+	 * @param assembler - The assembler
+	 * @param modules - The modules that can be used
+	 * @param beacons - The beacons around the assembler, or <code>null</code>
+	 * @return the loadouts that are not dominated by another, or an empty list if the assembler has no valid fuel
+	 *         </ul>
+	 */
+	private static List<AssemblerSettings> frontier(final Assembler assembler, final Module[] modules, final BeaconSettings beacons) {
+		double speed = 0, productivity = 0, consumption = 0, pollution = 0, beaconEnergy = 0;
+		if (beacons != null) {
+			if (assembler.allowsEffect("speed")) speed = beacons.getEffectValue("speed");
+			if (assembler.allowsEffect("productivity")) productivity = beacons.getEffectValue("productivity");
+			if (assembler.allowsEffect("consumption")) consumption = beacons.getEffectValue("consumption");
+			if (assembler.allowsEffect("pollution")) pollution = beacons.getEffectValue("pollution");
+			beaconEnergy = beacons.getEnergy();
+		}
+
+		final List<Loadout> loadouts = new ArrayList<>();
+		enumerate(modules, 0, new Module[assembler.modules], 0, speed, productivity, consumption, pollution, assembler, beaconEnergy, loadouts);
+
+		loadouts.sort(Comparator.comparingDouble((Loadout l) -> l.buildings).thenComparingDouble(l -> l.energy).thenComparingDouble(l -> l.ingredients).thenComparingInt(l -> l.modules.length));
+
+		final List<Loadout> kept = new ArrayList<>();
+		outer: for (final Loadout l : loadouts) {
+			for (final Loadout k : kept) {
+				if (k.energy <= l.energy && k.ingredients <= l.ingredients && k.pollution <= l.pollution) continue outer;
+			}
+			kept.add(l);
+		}
+
+		final List<AssemblerSettings> ret = new ArrayList<>(kept.size());
+		try {
+			for (final Loadout l : kept)
+				ret.add(new AssemblerSettings(assembler, AssemblerSettings.getDefaultFuel(), beacons, l.modules));
+		} catch (final IllegalArgumentException e) {
+			return Collections.emptyList();
+		}
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>enumerate</i></b><br>
+	 * <pre> private static void enumerate({@link Module}[] modules, int start, Module[] loadout, int size, double speed, double productivity, double consumption, double pollution, {@link Assembler} assembler, double beaconEnergy, {@link List}&lt;Loadout&gt; out)</pre>
+	 * Adds the given loadout, and every loadout that can be made from it by adding modules at or after index <code>start</code>,
+	 * to <code>out</code>. The effects are summed as they are added, the same way as {@link AssemblerSettings} does, starting
+	 * from the effects of the beacons.
+	 * </ul>
+	 */
+	private static void enumerate(final Module[] modules, final int start, final Module[] loadout, final int size, final double speed, final double productivity, final double consumption, final double pollution, final Assembler assembler, final double beaconEnergy, final List<Loadout> out) {
+		final double s = 1 + speed, p = 1 + productivity, e = Math.max(0.2, 1 + consumption);
+		if (s > 0 && p > 0) out.add(new Loadout(Arrays.copyOf(loadout, size), 1 / (s * p), (e * assembler.energy + beaconEnergy) / (s * p), 1 / p, e * Math.max(0.2, 1 + pollution) * assembler.emissions / (s * p)));
+
+		if (size == loadout.length) return;
+		for (int m = start; m < modules.length; m++) {
+			loadout[size] = modules[m];
+			enumerate(modules, m, loadout, size + 1, speed + modules[m].getEffectValue("speed"), productivity + modules[m].getEffectValue("productivity"), consumption + modules[m].getEffectValue("consumption"), pollution + modules[m].getEffectValue("pollution"), assembler, beaconEnergy, out);
+		}
+	}
+
+	/**
+	 * A module loadout, with the costs per cycle relative to an empty assembler
+	 * @author ricky3350
+	 */
+	private static class Loadout {
+
+		private final Module[] modules;
+		private final double buildings;
+		private final double energy;
+		private final double ingredients;
+		private final double pollution;
+
+		private Loadout(final Module[] modules, final double buildings, final double energy, final double ingredients, final double pollution) {
+			this.modules = modules;
+			this.buildings = buildings;
+			this.energy = energy;
+			this.ingredients = ingredients;
+			this.pollution = pollution;
+		}
+
+	}
+
+}
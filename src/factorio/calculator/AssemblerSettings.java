@@ -1,25 +1,31 @@
 package factorio.calculator;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableSet;
-import java.util.TreeSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import factorio.Metrics;
 import factorio.Util;
 import factorio.data.Assembler;
 import factorio.data.Data;
 import factorio.data.Module;
 import factorio.data.Recipe;
+import factorio.data.Symbols;
 
 /**
  * The {@code AssemblerSettings} class specifies the properties of an assembler, and contains the assembler type, what modules
@@ -33,42 +39,60 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 	/**
 	 * Maps recipe category names to the default {@code AssemblerSettings} to use for that category
 	 */ // TODO change based on user input
-	private static Map<String, AssemblerSettings> defaultSettings = new HashMap<>();
+	private static volatile Map<String, AssemblerSettings> defaultSettings = new ConcurrentHashMap<>();
 
 	/**
 	 * The name fo the default fuel item for burner assemblers
 	 */
 	private static String defaultFuel /* TODO */ = "coal";
 
-	private static final Comparator<Assembler> ASSEMBLER_COMPARE = (o1, o2) -> {
-		int d = -Integer.compare(o1.ingredients, o2.ingredients);
-		if (d != 0) return d;
-		d = Boolean.compare(o1.burnerPowered, o2.burnerPowered);
-		if (d != 0) return d;
-		d = -Double.compare(o1.speed, o2.speed);
-		if (d != 0) return d;
-		return o1.name.compareTo(o2.name);
-	};
+	/**
+	 * The {@link Path} of the saved assembler settings
+	 */
+	private static final Path SETTINGS_PATH = Paths.get("config/defaults.cfg");
 
 	/**
-	 * The shutdown hook to write the settings to file
+	 * The file that the settings are written to before it is moved over {@link #SETTINGS_PATH}, so that the saved settings are
+	 * never left half written
 	 */
-	private static final Thread WRITE_SETTINGS = new Thread(() -> {
-		final Path settings = Paths.get("config/defaults.cfg");
+	private static final Path SETTINGS_TEMP = Paths.get("config/defaults.cfg.tmp");
 
-		final String settingsString = defaultSettings.keySet().stream().map(str -> str + '=' + defaultSettings.get(str)).collect(Collectors.joining("\n"));
+	/**
+	 * The milliseconds to wait after the default settings change before they are written, so that a burst of changes is
+	 * written once
+	 */
+	private static final long WRITE_DELAY = 500;
 
-		try {
-			Files.createDirectory(Paths.get("config"));
-			Files.write(settings, settingsString.getBytes());
-			Files.createFile(settings);
-		} catch (final IOException e) {}
+	/**
+	 * The thread that writes the settings
+	 */
+	private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+		final Thread ret = new Thread(r, "Settings writer");
+		ret.setDaemon(true);
+		return ret;
 	});
 
 	/**
-	 * The {@link Path} of the saved assembler settings
+	 * The scheduled write of the settings, or <code>null</code> if there are no unwritten changes
 	 */
-	private static final Path SETTINGS_PATH = Paths.get("config/defaults.cfg");
+	private static ScheduledFuture<?> pendingWrite;
+
+	/**
+	 * The settings as they were last read or written, so that unchanged settings are not written again
+	 */
+	private static String writtenSettings;
+
+	/**
+	 * Whether the default settings are saved to {@link #SETTINGS_PATH}. They are only saved once they have been
+	 * {@linkplain #readSettings() read} from it, so that tools and benchmarks that run without reading them never overwrite
+	 * the user's defaults.
+	 */
+	private static volatile boolean saved;
+
+	/**
+	 * The shutdown hook to write any unwritten changes to file
+	 */
+	private static final Thread WRITE_SETTINGS = new Thread(AssemblerSettings::flushSettings, "Settings shutdown");
 
 	/**
 	 * The assembler for this {@code AssemblerSettings}
@@ -86,6 +110,24 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 	 */
 	private final String fuel;
 
+	/**
+	 * The beacons around {@link #assembler}, or <code>null</code> if there are none
+	 */
+	private final BeaconSettings beacons;
+
+	/**
+	 * The speed, productivity and energy consumption multipliers from {@link #modules} and {@link #beacons}, and the energy in
+	 * watts consumed by each assembler and its beacons, computed once so that calculations do not sum the module effects again
+	 * for every recipe
+	 */
+	private final double speed, productivity, efficiency, energy;
+
+	/**
+	 * The pollution emitted per minute by each working assembler, with the pollution and energy consumption multipliers from
+	 * {@link #modules} and {@link #beacons}
+	 */
+	private final double pollution;
+
 	/**
 	 * Creates a new {@code AssemblerSettings} with the given assembler and modules, and a fuel of <code>null</code>.
 	 * @param assembler - The assembler
@@ -112,47 +154,99 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 	 * @see {@link #AssemblerSettings(Assembler, Module...)}
 	 */
 	public AssemblerSettings(final Assembler assembler, final String fuel, final Module... modules) {
+		this(assembler, fuel, null, modules);
+	}
+
+	/**
+	 * Creates a new {@code AssemblerSettings} with the given assembler, modules, fuel and beacons
+	 * @param assembler - The assembler
+	 * @param fuel - The fuel for the assembler. Can be <code>null</code> if it is not burner powered
+	 * @param beacons - The beacons around the assembler, or <code>null</code> if there are none. Only the effects that are
+	 *        {@linkplain Assembler#allowsEffect(String) allowed} in the assembler apply.
+	 * @param modules - A list of modules for the assembler
+	 * @throws IllegalArgumentException If
+	 *         <ul>
+	 *         <li>{@code assembler} is <code>null</code></li>
+	 *         <li>{@code assembler} is {@linkplain Assembler#burnerPowered burner powered}, and <code>fuel</code> is
+	 *         <code>null</code>, or {@link Data#getFuelValue(String)} is non-positive for <code>fuel</code></li>
+	 *         </ul>
+	 * @see {@link #AssemblerSettings(Assembler, String, Module...)}
+	 */
+	public AssemblerSettings(final Assembler assembler, final String fuel, final BeaconSettings beacons, final Module... modules) {
 		if (assembler == null) throw new IllegalArgumentException("assembler cannot be null");
 		if (assembler.burnerPowered && (fuel == null || Data.getFuelValue(fuel) <= 0)) throw new IllegalArgumentException(String.format("Illegal fuel \"%s\" for burner assembler \"%s\"", fuel, assembler));
 
 		this.assembler = assembler;
 		this.modules = new Module[modules.length];
 		System.arraycopy(modules, 0, this.modules, 0, modules.length);
-		this.fuel = assembler.burnerPowered ? fuel : null;
+		this.fuel = assembler.burnerPowered ? Symbols.of(fuel) : null;
+		this.beacons = beacons;
+
+		this.speed = 1 + this.effectValue("speed");
+		this.productivity = 1 + this.effectValue("productivity");
+		this.efficiency = Math.max(0.2, 1 + this.effectValue("consumption"));
+		this.energy = assembler.energy * this.efficiency + (beacons == null ? 0 : beacons.getEnergy());
+		this.pollution = assembler.emissions * this.efficiency * Math.max(0.2, 1 + this.effectValue("pollution"));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>effectValue</i></b><br>
+	 * <pre> private double effectValue({@link String} effect)</pre>
+	 * @param effect - the name of the effect, which must be one of the {@link Symbols} (string literals are)
+	 * @return the total bonus for the given effect from the modules in the assembler and the beacons around it
+	 *         </ul>
+	 */
+	private double effectValue(final String effect) {
+		double ret = 0;
+		for (final Module m : this.modules)
+			ret += m.getEffectValue(effect);
+		if (this.beacons != null && this.assembler.allowsEffect(effect)) ret += this.beacons.getEffectValue(effect);
+		return ret;
 	}
 
 	/**
-	 * Creates a new {@code AssemblerSettings} from a {@link String}, parsed as the reverse operation of {@link #toString()}
-	 * @param str - The {@code String} representation of an {@code AssemblerSettings}
+	 * <ul>
+	 * <b><i>valueOf</i></b><br>
+	 * <pre> public static AssemblerSettings valueOf({@link String} str)</pre>
+	 * @param str - The {@code String} representation of an {@code AssemblerSettings}, as given by {@link #toString()}
+	 * @return the {@code AssemblerSettings} that it represents. Modules that are not loaded are left out, a fuel that is not
+	 *         loaded is replaced with the default fuel, and beacons that are not loaded are left out.
+	 * @throws IllegalArgumentException If the assembler is not loaded
+	 *         </ul>
 	 */
-	private AssemblerSettings(final String str) {
-		final String[] parts = str.split("\\|", 2);
+	public static AssemblerSettings valueOf(final String str) {
+		final String[] sections = str.split("#", 2);
+		final String[] parts = sections[0].split("\\|", 2);
 		final String[] aparts = parts[0].split("\\&");
-		Assembler assembler = null;
-		for (final Assembler a : Data.getAssemblers())
-			if (a.name.equals(aparts[0])) {
-				assembler = a;
-				break;
-			}
+		final Assembler assembler = Data.getAssembler(aparts[0]);
 		if (assembler == null) throw new IllegalArgumentException("Could not find assembler " + parts[0]);
-		this.assembler = assembler;
 
-		if (this.assembler.burnerPowered) {
-			if (aparts.length > 1 && Data.getFuelValue(aparts[1]) >= 0)
-				this.fuel = aparts[1];
-			else
-				this.fuel = defaultFuel;
-		} else
-			this.fuel = null;
+		final String fuel = aparts.length > 1 && Data.getFuelValue(aparts[1]) > 0 ? aparts[1] : defaultFuel;
 
 		final List<Module> modules = new ArrayList<>();
-		if (parts.length > 1) for (final String m : parts[1].split("\\+"))
-			for (final Module module : Data.getModules())
-				if (module.name.equals(m)) {
-					modules.add(module);
-					break;
-				}
-		this.modules = modules.toArray(new Module[modules.size()]);
+		if (parts.length > 1) for (final String m : parts[1].split("\\+")) {
+			final Module module = Data.getModule(m);
+			if (module != null) modules.add(module);
+		}
+
+		BeaconSettings beacons = null;
+		if (sections.length > 1) try {
+			beacons = BeaconSettings.valueOf(sections[1]);
+		} catch (final IllegalArgumentException e) {}
+
+		return new AssemblerSettings(assembler, fuel, beacons, modules.toArray(new Module[modules.size()]));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getDefaultFuel</i></b><br>
+	 * <pre> static {@link String} getDefaultFuel()</pre>
+	 * @return the name of the default fuel item for burner assemblers
+	 *         </ul>
+	 */
+	static String getDefaultFuel() {
+		return defaultFuel;
 	}
 
 	/**
@@ -169,7 +263,9 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 	 *      </ul>
 	 */
 	public static AssemblerSettings getDefaultDefaults(final String recipeType) {
-		return new AssemblerSettings(Data.getAssemblers().stream().filter(a -> a.canCraftCategory(recipeType)).sorted(ASSEMBLER_COMPARE).findFirst().get(), defaultFuel);
+		final List<Assembler> assemblers = Data.getAssemblers(Symbols.of(recipeType));
+		if (assemblers.isEmpty()) throw new IllegalArgumentException("No assembler can craft " + recipeType);
+		return new AssemblerSettings(assemblers.get(0), defaultFuel);
 	}
 
 	/**
@@ -198,44 +294,134 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 	public static AssemblerSettings getDefaultSettings(final Recipe recipe) {
 		if (defaultSettings.containsKey(recipe.category)) {
 			AssemblerSettings ret = defaultSettings.get(recipe.category);
-			if (ret.assembler.ingredients < recipe.getIngredients().size()) {
-				final NavigableSet<Assembler> assemblers = new TreeSet<>(ASSEMBLER_COMPARE);
-				assemblers.addAll(Data.getAssemblers());
-				assemblers.removeIf(a -> !a.canCraftCategory(recipe.category));
-				do {
-					ret = new AssemblerSettings(assemblers.higher(ret.assembler), ret.fuel, ret.modules);
-					if (ret.assembler == null) throw new IllegalArgumentException("Too many ingredients");
-				} while (ret.assembler.ingredients < recipe.getIngredients().size());
+			if (ret.assembler.ingredients < recipe.getIngredientCount()) {
+				Assembler worst = null;
+				for (final Assembler a : Data.getAssemblers(recipe.category)) {
+					if (a.ingredients >= recipe.getIngredientCount() && (worst == null || a.ingredients < worst.ingredients)) worst = a;
+				}
+				if (worst == null) throw new IllegalArgumentException("Too many ingredients");
+				ret = new AssemblerSettings(worst, ret.fuel == null ? defaultFuel : ret.fuel, ret.beacons, ret.modules);
 			}
 
 			final List<Module> modules = new ArrayList<>(Arrays.asList(ret.modules));
 			modules.removeIf(m -> !m.canCraft(recipe.name));
-			ret = new AssemblerSettings(ret.assembler, ret.fuel, modules.toArray(new Module[modules.size()]));
+			ret = new AssemblerSettings(ret.assembler, ret.fuel, ret.beacons == null ? null : ret.beacons.forRecipe(recipe), modules.toArray(new Module[modules.size()]));
 			return ret;
 		}
 		final AssemblerSettings ret = getDefaultDefaults(recipe.category);
-		if (ret.assembler.ingredients < recipe.getIngredients().size()) throw new IllegalArgumentException("Too many ingredients");
+		if (ret.assembler.ingredients < recipe.getIngredientCount()) throw new IllegalArgumentException("Too many ingredients");
 		defaultSettings.put(recipe.category, ret);
+		scheduleWrite();
 		return ret;
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>refreshDefaults</i></b><br>
+	 * <pre> public static void refreshDefaults()</pre> Finds the assemblers and modules of the stored default settings again
+	 * after {@link Data} has been reloaded, and forgets the defaults whose assembler is no longer loaded. Also clears the
+	 * settings cached by {@link AssemblerOptimizer}.
+	 * </ul>
+	 */
+	public static void refreshDefaults() {
+		final Map<String, AssemblerSettings> refreshed = new ConcurrentHashMap<>();
+		defaultSettings.forEach((category, settings) -> {
+			try {
+				refreshed.put(category, valueOf(settings.toString()));
+			} catch (final IllegalArgumentException e) {}
+		});
+		defaultSettings = refreshed;
+		scheduleWrite();
+
+		AssemblerOptimizer.clearCache();
+	}
+
 	/**
 	 * <ul>
 	 * <b><i>readSettings</i></b><br>
-	 * <pre> public static void readSettings()</pre> Reads the default assemblers from {@link #SETTINGS_PATH}
+	 * <pre> public static void readSettings()</pre> Reads the default assemblers from {@link #SETTINGS_PATH}. Lines whose
+	 * assembler is not loaded are skipped. Also registers a shutdown hook that {@linkplain #flushSettings() writes} any changes
+	 * that have not been written yet. The default settings are only saved after this has been called.
 	 * </ul>
 	 */
 	public static void readSettings() {
-		if (Files.exists(SETTINGS_PATH)) try {
-			Files.readAllLines(SETTINGS_PATH).forEach(str -> {
-				final String[] parts = str.split("=", 2);
-				if (parts.length > 1) defaultSettings.put(parts[0], new AssemblerSettings(parts[1]));
-			});
-		} catch (final IOException e) {}
+		if (Files.exists(SETTINGS_PATH)) {
+			final Metrics.Timer timer = Metrics.start("settings.read");
+			try {
+				final List<String> lines = Files.readAllLines(SETTINGS_PATH);
+				for (final String str : lines) {
+					final String[] parts = str.split("=", 2);
+					if (parts.length > 1) try {
+						defaultSettings.put(Symbols.of(parts[0]), valueOf(parts[1]));
+					} catch (final IllegalArgumentException e) {
+						e.printStackTrace(System.err);
+					}
+				}
+				synchronized (writer) {
+					writtenSettings = String.join("\n", lines);
+				}
+			} catch (final IOException e) {
+				e.printStackTrace(System.err);
+			}
+			timer.stop();
+		}
+		saved = true;
 
 		try {
 			Runtime.getRuntime().addShutdownHook(WRITE_SETTINGS);
-		} catch (final Exception e) {}
+		} catch (final IllegalArgumentException | IllegalStateException e) {}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>scheduleWrite</i></b><br>
+	 * <pre> private static void scheduleWrite()</pre> Schedules the default settings to be written to {@link #SETTINGS_PATH}
+	 * after {@link #WRITE_DELAY}, unless a write is already scheduled or the settings are not {@linkplain #saved saved}.
+	 * Changes made before the write happens are written with it.
+	 * </ul>
+	 */
+	private static void scheduleWrite() {
+		if (!saved) return;
+		synchronized (writer) {
+			if (pendingWrite == null) pendingWrite = writer.schedule(AssemblerSettings::flushSettings, WRITE_DELAY, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>flushSettings</i></b><br>
+	 * <pre> public static void flushSettings()</pre> Writes the default settings to {@link #SETTINGS_PATH} now if they have
+	 * changed since they were last read or written. They are written to {@link #SETTINGS_TEMP} first, which is then moved
+	 * over the old file, so that a crash while writing leaves the old file intact. Does nothing if the settings have not been
+	 * {@linkplain #readSettings() read}.
+	 * </ul>
+	 */
+	public static void flushSettings() {
+		if (!saved) return;
+		synchronized (writer) {
+			if (pendingWrite != null) {
+				pendingWrite.cancel(false);
+				pendingWrite = null;
+			}
+
+			final String settings = new TreeMap<>(defaultSettings).entrySet().stream().map(e -> e.getKey() + '=' + e.getValue()).collect(Collectors.joining("\n"));
+			if (settings.equals(writtenSettings)) return;
+
+			final Metrics.Timer timer = Metrics.start("settings.write");
+			try {
+				Files.createDirectories(SETTINGS_PATH.getParent());
+				Files.write(SETTINGS_TEMP, settings.getBytes(StandardCharsets.UTF_8));
+				try {
+					Files.move(SETTINGS_TEMP, SETTINGS_PATH, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (final AtomicMoveNotSupportedException e) {
+					Files.move(SETTINGS_TEMP, SETTINGS_PATH, StandardCopyOption.REPLACE_EXISTING);
+				}
+				writtenSettings = settings;
+			} catch (final IOException e) {
+				e.printStackTrace(System.err);
+			}
+			timer.stop();
+		}
 	}
 
 	@Override
@@ -255,16 +441,34 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 		if (obj == null) return false;
 		if (this.getClass() != obj.getClass()) return false;
 		final AssemblerSettings other = (AssemblerSettings) obj;
-		if (this.assembler == null) {
-			if (other.assembler != null) return false;
-		} else if (!this.assembler.equals(other.assembler)) return false;
+		if (this.assembler != other.assembler) return false;
+		if (this.beacons == null ? other.beacons != null : !this.beacons.equals(other.beacons)) return false;
 
-		final List<Module> m1 = Arrays.asList(this.modules);
-		final List<Module> m2 = Arrays.asList(other.modules);
-		Collections.sort(m1, Comparator.comparingInt(m -> m.hashCode()));
-		Collections.sort(m2, Comparator.comparingInt(m -> m.hashCode()));
+		return sameModules(this.modules, other.modules);
+	}
 
-		if (!m1.equals(m2)) return false;
+	/**
+	 * <ul>
+	 * <b><i>sameModules</i></b><br>
+	 * <pre> private static boolean sameModules({@link Module}[] m1, Module[] m2)</pre>
+	 * @return whether the given arrays hold the same modules, in any order. Modules are unique, so they are compared by
+	 *         reference.
+	 *         </ul>
+	 */
+	private static boolean sameModules(final Module[] m1, final Module[] m2) {
+		if (m1.length != m2.length) return false;
+		if (Arrays.equals(m1, m2)) return true;
+
+		final boolean[] matched = new boolean[m2.length];
+		findModule: for (final Module m : m1) {
+			for (int i = 0; i < m2.length; i++) {
+				if (!matched[i] && m2[i] == m) {
+					matched[i] = true;
+					continue findModule;
+				}
+			}
+			return false;
+		}
 		return true;
 	}
 
@@ -283,10 +487,11 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 	 * <ul>
 	 * <b><i>getBonusString</i></b><br>
 	 * <pre>public {@link String} getBonusString(boolean html)</pre> Gets the string for the bonuses given by this
-	 * {@code AssemblerSettings}' {@link Module}s. The string includes the bonus value formatted by {@link Util#MODULE_FORMAT}
-	 * for each nonzero module bonus value (the empty string is returned if there is no bonus for any). If <code>html</code> is
-	 * <code>true</code>, then each number is formatted to the approporate color (using html). Otherwise, the names of each
-	 * bonus (speed, productivity, or consumption) are used following the value, without html.
+	 * {@code AssemblerSettings}' {@link Module}s and beacons. The string includes the bonus value formatted by
+	 * {@link Util#MODULE_FORMAT} for each nonzero module bonus value, followed by the number of beacons if there are any (the
+	 * empty string is returned if there is neither). If <code>html</code> is <code>true</code>, then each number is formatted to
+	 * the approporate color (using html). Otherwise, the names of each bonus (speed, productivity, or consumption) are used
+	 * following the value, without html.
 	 * @param html - Whether or not to format the string as html
 	 * @return The bonus string
 	 *         </ul>
@@ -302,6 +507,8 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 		final boolean p = Math.abs(productivity) > 0.0001;
 		final boolean e = Math.abs(efficiency) > 0.0001;
 
+		final String beacons = this.beacons == null ? "" : String.format(" with %d %s", this.beacons.getCount(), Data.nameFor(this.beacons.getBeacon().name));
+
 		if (s || p || e) {
 			String bonus = " (";
 
@@ -309,9 +516,9 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 			if (p) bonus += (s ? ", " : "") + String.format(format, "#AD4ECC", Util.MODULE_FORMAT.format(productivity), "productivity");
 			if (e) bonus += (s || p ? ", " : "") + String.format(format, "#4C8818", Util.MODULE_FORMAT.format(efficiency), "consumption");
 
-			return bonus + ")";
+			return bonus + ")" + beacons;
 		}
-		return "";
+		return beacons;
 	}
 
 	/**
@@ -323,7 +530,41 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 	 *         </ul>
 	 */
 	public double getEfficiency() {
-		return Math.max(0.2, 1 + Arrays.stream(this.modules).mapToDouble(module -> module.getEffectValue("consumption")).sum());
+		return this.efficiency;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getEnergy</i></b><br>
+	 * <pre> public double getEnergy()</pre>
+	 * @return the energy, in watts, consumed by each assembler with these settings and the beacons around it
+	 *         </ul>
+	 */
+	public double getEnergy() {
+		return this.energy;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getElectricPower</i></b><br>
+	 * <pre> public double getElectricPower()</pre>
+	 * @return the electric power, in watts, consumed by each assembler with these settings and the beacons around it. This is
+	 *         {@link #getEnergy()}, less the energy of a {@linkplain Assembler#burnerPowered burner} assembler.
+	 *         </ul>
+	 */
+	public double getElectricPower() {
+		return this.assembler.burnerPowered ? this.energy - this.assembler.energy * this.efficiency : this.energy;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getBeacons</i></b><br>
+	 * <pre> public {@link BeaconSettings} getBeacons()</pre>
+	 * @return the beacons around the assembler, or <code>null</code> if there are none
+	 *         </ul>
+	 */
+	public BeaconSettings getBeacons() {
+		return this.beacons;
 	}
 
 	public String getFuel() {
@@ -341,6 +582,17 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 		return this.modules;
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>getPollution</i></b><br>
+	 * <pre> public double getPollution()</pre>
+	 * @return the pollution emitted per minute by each working assembler with these settings
+	 *         </ul>
+	 */
+	public double getPollution() {
+		return this.pollution;
+	}
+
 	/**
 	 * <ul>
 	 * <b><i>getProductivity</i></b><br>
@@ -349,7 +601,7 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 	 *         </ul>
 	 */
 	public double getProductivity() {
-		return 1 + Arrays.stream(this.modules).mapToDouble(module -> module.getEffectValue("productivity")).sum();
+		return this.productivity;
 	}
 
 	/**
@@ -360,7 +612,7 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 	 *         </ul>
 	 */
 	public double getSpeed() {
-		return 1 + Arrays.stream(this.modules).mapToDouble(module -> module.getEffectValue("speed")).sum();
+		return this.speed;
 	}
 
 	@Override
@@ -368,14 +620,16 @@ public class AssemblerSettings implements Comparable<AssemblerSettings> {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + (this.assembler == null ? 0 : this.assembler.hashCode());
-		final List<Module> m1 = Arrays.asList(this.modules);
-		Collections.sort(m1, Comparator.comparingInt(m -> m.hashCode()));
-		result = prime * result + m1.hashCode();
+		int modules = 0;
+		for (final Module m : this.modules)
+			modules += m.hashCode();
+		result = prime * result + modules;
+		result = prime * result + (this.beacons == null ? 0 : this.beacons.hashCode());
 		return result;
 	}
 
 	@Override
 	public String toString() {
-		return this.assembler.name + (this.fuel == null ? "" : "&" + this.fuel) + "|" + Arrays.stream(this.modules).map(m -> m.name).collect(Collectors.joining("+"));
+		return this.assembler.name + (this.fuel == null ? "" : "&" + this.fuel) + "|" + Arrays.stream(this.modules).map(m -> m.name).collect(Collectors.joining("+")) + (this.beacons == null ? "" : "#" + this.beacons);
 	}
 }
@@ -0,0 +1,191 @@
+package factorio.calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import factorio.data.Beacon;
+import factorio.data.Data;
+import factorio.data.Module;
+import factorio.data.Recipe;
+
+/**
+ * The {@code BeaconSettings} class specifies the {@link Beacon}s around each assembler of an {@link AssemblerSettings}: the
+ * type of beacon, how many of them affect the assembler, and the modules in each of them. Every beacon has the same modules.
+ * @author ricky3350
+ */
+public class BeaconSettings {
+
+	/**
+	 * The beacon type
+	 */
+	private final Beacon beacon;
+
+	/**
+	 * The number of beacons that affect each assembler
+	 */
+	private final int count;
+
+	/**
+	 * The modules in each beacon
+	 */
+	private final Module[] modules;
+
+	/**
+	 * Creates a new {@code BeaconSettings}.
+	 * @param beacon - The type of beacon
+	 * @param count - The number of beacons that affect each assembler
+	 * @param modules - The modules in each beacon
+	 * @throws IllegalArgumentException If
+	 *         <ul>
+	 *         <li>{@code beacon} is <code>null</code></li>
+	 *         <li>{@code count} is not positive</li>
+	 *         <li>there are more modules than the beacon has slots for, or one of them is not
+	 *         {@linkplain Beacon#allowsModule(Module) allowed} in it</li>
+	 *         </ul>
+	 */
+	public BeaconSettings(final Beacon beacon, final int count, final Module... modules) {
+		if (beacon == null) throw new IllegalArgumentException("beacon cannot be null");
+		if (count <= 0) throw new IllegalArgumentException("There must be at least one beacon");
+		if (modules.length > beacon.modules) throw new IllegalArgumentException(String.format("Beacon \"%s\" only has %d module slots", beacon.name, beacon.modules));
+		for (final Module m : modules)
+			if (!beacon.allowsModule(m)) throw new IllegalArgumentException(String.format("Module \"%s\" is not allowed in beacon \"%s\"", m.name, beacon.name));
+
+		this.beacon = beacon;
+		this.count = count;
+		this.modules = Arrays.copyOf(modules, modules.length);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>valueOf</i></b><br>
+	 * <pre> public static BeaconSettings valueOf({@link String} str)</pre>
+	 * @param str - The {@code String} representation of a {@code BeaconSettings}, as given by {@link #toString()}
+	 * @return the {@code BeaconSettings} that it represents. Modules that are not loaded are left out.
+	 * @throws IllegalArgumentException If the beacon is not loaded, or the string is malformed
+	 *         </ul>
+	 */
+	public static BeaconSettings valueOf(final String str) {
+		final String[] parts = str.split("\\|", 2);
+		final String[] bparts = parts[0].split("\\*", 2);
+		if (bparts.length < 2) throw new IllegalArgumentException("Malformed beacon settings " + str);
+
+		final int count;
+		try {
+			count = Integer.parseInt(bparts[0]);
+		} catch (final NumberFormatException e) {
+			throw new IllegalArgumentException("Malformed beacon count " + bparts[0]);
+		}
+		final Beacon beacon = Data.getBeacon(bparts[1]);
+		if (beacon == null) throw new IllegalArgumentException("Could not find beacon " + bparts[1]);
+
+		final List<Module> modules = new ArrayList<>();
+		if (parts.length > 1 && !parts[1].isEmpty()) for (final String m : parts[1].split("\\+")) {
+			final Module module = Data.getModule(m);
+			if (module != null && beacon.allowsModule(module) && modules.size() < beacon.modules) modules.add(module);
+		}
+		return new BeaconSettings(beacon, count, modules.toArray(new Module[modules.size()]));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>forRecipe</i></b><br>
+	 * <pre> BeaconSettings forRecipe({@link Recipe} recipe)</pre>
+	 * @param recipe - A recipe
+	 * @return these settings, without the modules that {@linkplain Module#canCraft(String) cannot be used} for the given recipe
+	 *         </ul>
+	 */
+	BeaconSettings forRecipe(final Recipe recipe) {
+		final Module[] allowed = Arrays.stream(this.modules).filter(m -> m.canCraft(recipe.name)).toArray(Module[]::new);
+		return allowed.length == this.modules.length ? this : new BeaconSettings(this.beacon, this.count, allowed);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getEffectValue</i></b><br>
+	 * <pre> public double getEffectValue({@link String} effect)</pre>
+	 * @param effect - the name of the effect, which must be one of the {@link factorio.data.Symbols} (string literals are)
+	 * @return the total bonus for the given effect that these beacons give to each assembler
+	 *         </ul>
+	 */
+	public double getEffectValue(final String effect) {
+		double ret = 0;
+		for (final Module m : this.modules)
+			ret += m.getEffectValue(effect);
+		return ret * this.count * this.beacon.distributionEffectivity;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getEnergy</i></b><br>
+	 * <pre> public double getEnergy()</pre>
+	 * @return the energy, in watts, that the beacons around each assembler consume. Beacons shared by several assemblers are
+	 *         counted once for each of them.
+	 *         </ul>
+	 */
+	public double getEnergy() {
+		return (double) this.count * this.beacon.energy;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getBeacon</i></b><br>
+	 * <pre> public {@link Beacon} getBeacon()</pre>
+	 * @return the type of beacon
+	 *         </ul>
+	 */
+	public Beacon getBeacon() {
+		return this.beacon;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getCount</i></b><br>
+	 * <pre> public int getCount()</pre>
+	 * @return the number of beacons that affect each assembler
+	 *         </ul>
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getModules</i></b><br>
+	 * <pre> public {@link Module}[] getModules()</pre>
+	 * @return the modules in each beacon
+	 *         </ul>
+	 */
+	public Module[] getModules() {
+		return this.modules;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) return true;
+		if (obj == null) return false;
+		if (this.getClass() != obj.getClass()) return false;
+		final BeaconSettings other = (BeaconSettings) obj;
+		if (this.beacon != other.beacon || this.count != other.count) return false;
+
+		final Module[] m1 = this.modules.clone(), m2 = other.modules.clone();
+		Arrays.sort(m1, (a, b) -> a.name.compareTo(b.name));
+		Arrays.sort(m2, (a, b) -> a.name.compareTo(b.name));
+		return Arrays.equals(m1, m2);
+	}
+
+	@Override
+	public int hashCode() {
+		int modules = 0;
+		for (final Module m : this.modules)
+			modules += m.hashCode();
+		return (31 * this.beacon.hashCode() + this.count) * 31 + modules;
+	}
+
+	@Override
+	public String toString() {
+		return this.count + "*" + this.beacon.name + "|" + Arrays.stream(this.modules).map(m -> m.name).collect(Collectors.joining("+"));
+	}
+
+}
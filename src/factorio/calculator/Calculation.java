@@ -1,6 +1,7 @@
 package factorio.calculator;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -9,11 +10,16 @@ import java.util.TreeSet;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeNode;
 
+import factorio.Events;
+import factorio.Metrics;
+import factorio.Util;
+import factorio.data.Data;
 import factorio.data.Recipe;
 import factorio.window.treecell.CalculatedRecipe;
 import factorio.window.treecell.TotalAssemblerCount;
 import factorio.window.treecell.TotalHeader;
 import factorio.window.treecell.TotalItem;
+import factorio.window.treecell.TotalLine;
 
 /**
  * A {@code Calculation} takes a map of recipes and the rates that they should be produced at, and produces the
@@ -32,11 +38,25 @@ public class Calculation {
 	 * @param productRates - A map mapping recipes to be produced to the rate at which they should be produced at
 	 */
 	public Calculation(final Map<Recipe, ? extends Number> productRates) {
+		final Metrics.Timer timer = Metrics.start("calculation.new");
+		final Object event = Events.beginCalculation(productRates.size());
 		this.productRates.putAll(productRates);
 
 		for (final Recipe recipe : productRates.keySet()) {
 			this.result.add(new CalculatedRecipe(recipe, productRates.get(recipe).doubleValue()));
 		}
+		Events.endCalculation(event, this.result);
+		timer.stop();
+	}
+
+	/**
+	 * Creates a calculation with a result that has already been calculated, e.g. one read from a saved {@link Plan}.
+	 * @param productRates - A map mapping recipes to be produced to the rate at which they should be produced at
+	 * @param result - The {@link CalculatedRecipe} for each recipe in {@code productRates}
+	 */
+	public Calculation(final Map<Recipe, ? extends Number> productRates, final Collection<CalculatedRecipe> result) {
+		this.productRates.putAll(productRates);
+		this.result.addAll(result);
 	}
 
 	/**
@@ -44,6 +64,48 @@ public class Calculation {
 	 */
 	private final Set<CalculatedRecipe> result = new TreeSet<>();
 
+	/**
+	 * <ul>
+	 * <b><i>getResult</i></b><br>
+	 * <pre> public {@link Set}&lt;{@link CalculatedRecipe}&gt; getResult()</pre>
+	 * @return an unmodifiable view of the {@code CalculatedRecipe} for each {@link Recipe} in the product rates
+	 *         </ul>
+	 */
+	public Set<CalculatedRecipe> getResult() {
+		return Collections.unmodifiableSet(this.result);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>applySettings</i></b><br>
+	 * <pre> public void applySettings({@link Map}&lt;{@link Recipe}, {@link AssemblerSettings}&gt; settings)</pre> Replaces the
+	 * {@code AssemblerSettings} of every {@link CalculatedRecipe} in the result whose recipe is in the given map, and updates
+	 * the rates of their ingredients.
+	 * @param settings - Maps recipes to the settings they should be assembled with
+	 * @see {@link AssemblerOptimizer#optimize(Map, Objective)}
+	 *      </ul>
+	 */
+	public void applySettings(final Map<Recipe, AssemblerSettings> settings) {
+		for (final CalculatedRecipe recipe : this.result)
+			applySettings(recipe, settings);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>applySettings</i></b><br>
+	 * <pre> private static void applySettings({@link CalculatedRecipe} recipe, {@link Map}&lt;{@link Recipe}, {@link AssemblerSettings}&gt; settings)</pre>
+	 * Applies the settings to the given {@code CalculatedRecipe}, then to each of its ingredients. Parents are updated before
+	 * their children so that the children's rates are final when they are updated.
+	 * </ul>
+	 */
+	private static void applySettings(final CalculatedRecipe recipe, final Map<Recipe, AssemblerSettings> settings) {
+		final AssemblerSettings s = settings.get(recipe.getRecipe());
+		if (s != null && !s.equals(recipe.getAssembler())) recipe.setSettings(s);
+
+		for (final CalculatedRecipe r : recipe.getIngredients())
+			applySettings(r, settings);
+	}
+
 	/**
 	 * <ul>
 	 * <b><i>getAsTreeNode</i></b><br>
@@ -54,12 +116,14 @@ public class Calculation {
 	 *      </ul>
 	 */
 	public TreeNode getAsTreeNode() {
+		final Metrics.Timer timer = Metrics.start("calculation.getAsTreeNode");
 		final DefaultMutableTreeNode ret = new DefaultMutableTreeNode();
 
 		for (final CalculatedRecipe recipe : this.result) {
 			addRecipeToParent(recipe, ret);
 		}
 
+		timer.stop();
 		return ret;
 	}
 
@@ -105,11 +169,29 @@ public class Calculation {
 	 * <ul>
 	 * <b><i>getTotalTreeNode</i></b><br>
 	 * <pre> public {@link TreeNode} getTotalTreeNode()</pre>
-	 * @return a {@code TreeNode} with the total assembler requirement by item and by assembler.
+	 * @return a {@code TreeNode} with the total assembler requirement by item and by assembler, and the
+	 *         {@linkplain PowerBudget power budget}.
 	 * @see {@link #getAsTreeNode()}
 	 *      </ul>
 	 */
 	public TreeNode getTotalTreeNode() {
+		return this.getTotalTreeNode(false);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getTotalTreeNode</i></b><br>
+	 * <pre> public {@link TreeNode} getTotalTreeNode(boolean wholeBuildings)</pre>
+	 * @param wholeBuildings - Whether or not to add the {@linkplain WholeBuildings whole number} of assemblers that must be
+	 *        built for each recipe
+	 * @return a {@code TreeNode} with the total assembler requirement by item and by assembler, and the
+	 *         {@linkplain PowerBudget power budget}.
+	 * @see {@link #getTotalTreeNode()}
+	 *      </ul>
+	 */
+	public TreeNode getTotalTreeNode(final boolean wholeBuildings) {
+		final Metrics.Timer timer = Metrics.start("calculation.getTotalTreeNode");
+		final Object event = Events.beginTotals(this.result.size());
 		final DefaultMutableTreeNode ret = new DefaultMutableTreeNode();
 		final DefaultMutableTreeNode byItem = new DefaultMutableTreeNode(new TotalHeader("By Item", 1));
 		final DefaultMutableTreeNode byAssembler = new DefaultMutableTreeNode(new TotalHeader("By Assembler", 1));
@@ -123,12 +205,86 @@ public class Calculation {
 		for (final CalculatedRecipe r : this.result) {
 			addRecipeToTotals(r, totalItems, totalAssemblers);
 		}
+		Events.endTotals(event, totalItems.size(), totalAssemblers.size());
 
 		totalItems.forEach(ti -> addTotalToParent(ti, byItem));
 		totalAssemblers.forEach(ta -> byAssembler.add(new DefaultMutableTreeNode(ta)));
+
+		final DefaultMutableTreeNode power = new DefaultMutableTreeNode(new TotalHeader("Power", 1));
+		addPowerToParent(new PowerBudget(this), power);
+		if (power.getChildCount() > 0) ret.add(power);
+
+		if (wholeBuildings) {
+			final DefaultMutableTreeNode whole = new DefaultMutableTreeNode(new TotalHeader("Whole Buildings", 1));
+			addWholeBuildingsToParent(WholeBuildings.count(this), whole);
+			ret.add(whole);
+		}
+		timer.stop();
 		return ret;
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>addPowerToParent</i></b><br>
+	 * <pre> private static void addPowerToParent({@link PowerBudget} budget, {@link DefaultMutableTreeNode} parent)</pre> Adds
+	 * the electric power, pollution and fuel of the given budget to the specified node, and the power sources that could
+	 * supply it
+	 * @param budget - The power budget
+	 * @param parent - The node to add the new nodes to
+	 *        </ul>
+	 */
+	private static void addPowerToParent(final PowerBudget budget, final DefaultMutableTreeNode parent) {
+		if (budget.getElectricPower() > 0.0001) {
+			final String active = Util.formatEnergy(budget.getActivePower()), drain = Util.formatEnergy(budget.getDrain()), total = Util.formatEnergy(budget.getElectricPower());
+			parent.add(new DefaultMutableTreeNode(new TotalLine(String.format("Electric: <b>%s</b> (%s working, %s drain)", total, active, drain), String.format("Electric: %s (%s working, %s drain)", total, active, drain))));
+		}
+
+		if (budget.getPollution() > 0.0001) {
+			final String pollution = Util.NUMBER_FORMAT.format(budget.getPollution());
+			parent.add(new DefaultMutableTreeNode(new TotalLine(String.format("Pollution: <b>%s</b>/min", pollution), String.format("Pollution: %s/min", pollution))));
+		}
+
+		final Map<String, Double> rates = budget.getFuelRates();
+		budget.getFuelPower().forEach((fuel, watts) -> {
+			final String name = Data.nameFor(fuel) == null ? fuel : Data.nameFor(fuel);
+			final String rate = rates.containsKey(fuel) ? Util.NUMBER_FORMAT.format(rates.get(fuel)) + "/s " : "";
+			parent.add(new DefaultMutableTreeNode(new TotalLine(String.format("Fuel: <b>%s</b>%s (%s)", rate, name, Util.formatEnergy(watts)), String.format("Fuel: %s%s (%s)", rate, name, Util.formatEnergy(watts)))));
+		});
+
+		if (budget.getElectricPower() <= 0.0001) return;
+		for (final PowerBudget.Generator g : budget.getGeneration()) {
+			final String name = Data.nameFor(g.source.name) == null ? g.source.name : Data.nameFor(g.source.name);
+			String fuel = g.fuel == null ? "" : String.format(" burning %s/s %s", Util.NUMBER_FORMAT.format(g.fuelRate), Data.nameFor(g.fuel) == null ? g.fuel : Data.nameFor(g.fuel));
+			if (g.pollution > 0.0001) fuel += String.format(", emitting %s pollution/min", Util.NUMBER_FORMAT.format(g.pollution));
+			parent.add(new DefaultMutableTreeNode(new TotalLine(String.format("<b>%s</b> %s%s", Util.NUMBER_FORMAT.format(g.count), name, fuel), Util.NUMBER_FORMAT.format(g.count) + " " + name + fuel)));
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>addWholeBuildingsToParent</i></b><br>
+	 * <pre> private static void addWholeBuildingsToParent({@link WholeBuildings.Result} buildings, {@link DefaultMutableTreeNode} parent)</pre>
+	 * Adds the total whole number of assemblers, and the number for each recipe, to the specified node
+	 * @param buildings - The buildings of each recipe
+	 * @param parent - The node to add the new nodes to
+	 *        </ul>
+	 */
+	private static void addWholeBuildingsToParent(final WholeBuildings.Result buildings, final DefaultMutableTreeNode parent) {
+		final String spare = Util.NUMBER_FORMAT.format(buildings.getOverbuild());
+		parent.add(new DefaultMutableTreeNode(new TotalLine(String.format("Total: <b>%d</b> buildings, %s idle", buildings.getTotal(), spare), String.format("Total: %d buildings, %s idle", buildings.getTotal(), spare))));
+
+		buildings.getAssemblers().forEach((recipe, count) -> {
+			final int whole = buildings.getBuildings(recipe);
+			if (whole == 0) return;
+
+			final AssemblerSettings settings = buildings.getSettings().get(recipe);
+			final String assembler = Data.nameFor(settings.getAssembler().name) == null ? settings.getAssembler().name : Data.nameFor(settings.getAssembler().name);
+			final String name = Data.nameFor(recipe) == null ? recipe.name : Data.nameFor(recipe);
+			final String needed = Util.NUMBER_FORMAT.format(count);
+			parent.add(new DefaultMutableTreeNode(new TotalLine(String.format("<b>%d</b> %s %s for %s (%s needed)", whole, assembler, settings.getBonusString(true), name, needed), String.format("%d %s%s for %s (%s needed)", whole, assembler, settings.getBonusString(false), name, needed))));
+		});
+	}
+
 	/**
 	 * <ul>
 	 * <b><i>addRecipeToTotals</i></b><br>
@@ -145,7 +301,8 @@ public class Calculation {
 	private static void addRecipeToTotals(final CalculatedRecipe recipe, final Collection<TotalItem> totalItems, final Collection<TotalAssemblerCount> totalAssemblers) {
 		findItem: {
 			for (final TotalItem ti : totalItems) {
-				if (recipe.product == ti.getItem() || (recipe.product != null && recipe.product.equals(ti.getItem()))) {
+				// Recipes with several results have no product, so each of them has its own total
+				if (recipe.product == ti.getItem() && (recipe.product != null || recipe.getRecipe() == ti.getRecipe())) {
 					ti.add(recipe.getRate(), recipe.getRecipeRate(), recipe.getRecipe(), recipe.getAssemblers(), recipe.getAssembler(), recipe.fuel != null);
 					break findItem;
 				}
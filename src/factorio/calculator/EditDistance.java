@@ -7,6 +7,11 @@ package factorio.calculator;
  */
 public class EditDistance {
 
+	/**
+	 * The distance of a string that does not match the search key at all. Every string that does match is closer.
+	 */
+	public static final double NO_MATCH = Integer.MAX_VALUE;
+
 	private EditDistance() {}
 
 //	public static int damerauLevenshtein(String key, String match, boolean extend) {
@@ -91,12 +96,13 @@ public class EditDistance {
 	 * Calculates the edit distance between the search key and the string it's being matched against.
 	 * @param key - the search key (usually inputted by the user)
 	 * @param match - the string to test {@code key} against
-	 * @return a distance
+	 * @return a distance, or {@link #NO_MATCH} if the key does not match at all
 	 * </ul>
 	 */
 	public static double distance(String key, String match) {
 		// TODO create good edit distance algorithm
-		return match.toLowerCase().indexOf(key.toLowerCase()) + Integer.MIN_VALUE;
+		final int index = match.toLowerCase().indexOf(key.toLowerCase());
+		return index < 0 ? NO_MATCH : index + Integer.MIN_VALUE;
 	}
 
 }
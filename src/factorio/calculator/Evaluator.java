@@ -3,12 +3,19 @@ package factorio.calculator;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * A non-instantiable class for evaluating mathematical expressions in {@link String}s.
+ * A non-instantiable class for evaluating mathematical expressions in {@link String}s.<br>
+ * <br>
+ * Expressions may contain named variables, and a divisor may be one of the units {@link #UNITS}, so that <code>2.5/min</code>
+ * is a rate of 2.5 per minute expressed per second. Unit names cannot be used as variables after a <code>/</code>. Compiled
+ * expressions may also raise to a power with <code>^</code>, as the research count formulas of technologies do.
  * @author ricky3350
  */
 public class Evaluator {
@@ -20,6 +27,40 @@ public class Evaluator {
 	 */
 	private static final Pattern TOKEN = Pattern.compile("[\\+\\-\\*\\/\\(\\)]|(?:\\-?(?:\\d*\\.)?\\d+)");
 
+	/**
+	 * Maps the names of the units that can follow a <code>/</code> to their length in seconds
+	 */
+	public static final Map<String, Double> UNITS;
+
+	static {
+		final Map<String, Double> units = new HashMap<>();
+		units.put("s", 1D);
+		units.put("sec", 1D);
+		units.put("min", 60D);
+		units.put("h", 3600D);
+		units.put("hr", 3600D);
+		UNITS = Collections.unmodifiableMap(units);
+	}
+
+	/**
+	 * The number of compiled expressions that are kept by {@link #compile(String)}
+	 */
+	private static final int CACHE_SIZE = 256;
+
+	/**
+	 * Maps the text of recently compiled expressions to their compiled form, from the least recently used to the most
+	 */
+	private static final Map<String, Expression> cache = new LinkedHashMap<String, Expression>(CACHE_SIZE, 0.75F, true) {
+
+		private static final long serialVersionUID = 1650961213624593011L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, Expression> eldest) {
+			return this.size() > CACHE_SIZE;
+		}
+
+	};
+
 	/**
 	 * <ul>
 	 * <b><i>toPostfix</i></b><br>
@@ -135,14 +176,286 @@ public class Evaluator {
 	 * <ul>
 	 * <b><i>evaluate</i></b><br>
 	 * <pre> public static double evaluate({@link String} infix)</pre>
-	 * A convenience method for converting the given infix expression to postix, and then evaluating it.
+	 * A convenience method for compiling the given infix expression, and then evaluating it.
 	 * @param infix - a mathmatical expression
 	 * @return the result of the given infix expression
-	 * @see {@link #toPostfix(String)}, {@link #evaluate(List)}
+	 * @throws IllegalArgumentException if the given expression is not valid, or has variables
+	 * @see {@link #compile(String)}, {@link Expression#evaluate()}
 	 * </ul>
 	 */
 	public static double evaluate(String infix) {
-		return evaluate(toPostfix(infix));
+		return compile(infix).evaluate();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>evaluate</i></b><br>
+	 * <pre> public static double evaluate({@link String} infix, {@link Map}&lt;String, ? extends {@link Number}&gt; bindings)</pre>
+	 * A convenience method for compiling the given infix expression, and then evaluating it with the given variables.
+	 * @param infix - a mathmatical expression
+	 * @param bindings - maps the names of variables to their values
+	 * @return the result of the given infix expression
+	 * @throws IllegalArgumentException if the given expression is not valid, or has a variable that is not bound
+	 * @see {@link #compile(String)}, {@link Expression#evaluate(Map)}
+	 * </ul>
+	 */
+	public static double evaluate(String infix, Map<String, ? extends Number> bindings) {
+		return compile(infix).evaluate(bindings);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>parseBindings</i></b><br>
+	 * <pre> public static {@link Map}&lt;{@link String}, {@link Double}&gt; parseBindings(String text)</pre>
+	 * Parses a table of variables, such as <code>spm = 60; belt = 15/s</code>. Each binding is a name, an <code>=</code>, and
+	 * an expression, and bindings are separated by semicolons, commas, or line breaks. An expression may refer to any variable
+	 * bound before it.
+	 * @param text - the table of variables
+	 * @return a map mapping the names of the variables to their values, in the order that they were bound
+	 * @throws IllegalArgumentException if a binding is not valid
+	 * </ul>
+	 */
+	public static Map<String, Double> parseBindings(String text) {
+		final Map<String, Double> ret = new LinkedHashMap<>();
+		for (final String binding : text.split("[;,\\r\\n]")) {
+			if (binding.trim().isEmpty()) continue;
+
+			final int eq = binding.indexOf('=');
+			if (eq < 0) throw new IllegalArgumentException("Expected '=' in \"" + binding.trim() + "\"");
+
+			final String name = binding.substring(0, eq).trim();
+			if (!name.matches("[A-Za-z_]\\w*")) throw new IllegalArgumentException("Invalid variable name \"" + name + "\"");
+
+			ret.put(name, evaluate(binding.substring(eq + 1).trim(), ret));
+		}
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>compile</i></b><br>
+	 * <pre> public static {@link Expression} compile({@link String} infix)</pre>
+	 * Compiles the given infix expression into a form that can be evaluated repeatedly without parsing it again. Recently
+	 * compiled expressions are cached, so compiling the same text again is cheap.
+	 * @param infix - a mathmatical expression
+	 * @return the compiled expression
+	 * @throws IllegalArgumentException if the given expression is not valid
+	 * @see {@link #evaluate(String)}
+	 * </ul>
+	 */
+	public static Expression compile(String infix) {
+		synchronized (cache) {
+			final Expression cached = cache.get(infix);
+			if (cached != null) return cached;
+		}
+
+		final Expression ret = new Parser(infix).parse();
+
+		synchronized (cache) {
+			cache.put(infix, ret);
+		}
+		return ret;
+	}
+
+	/**
+	 * A recursive descent parser that reads an infix expression directly into an {@link Expression}, folding any
+	 * subexpressions that are constant.
+	 * @author ricky3350
+	 */
+	private static class Parser {
+
+		/**
+		 * The text being parsed
+		 */
+		private final String text;
+
+		/**
+		 * The index of the next character to read
+		 */
+		private int pos;
+
+		/**
+		 * Maps the names of the variables that have been read to their indices
+		 */
+		private final Map<String, Integer> variables = new LinkedHashMap<>();
+
+		private Parser(final String text) {
+			this.text = text;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>parse</i></b><br>
+		 * <pre> private {@link Expression} parse()</pre>
+		 * @return the expression for the entire text
+		 * @throws IllegalArgumentException if the text is not a valid expression
+		 *         </ul>
+		 */
+		private Expression parse() {
+			final Expression ret = this.sum();
+			if (this.peek() != -1) throw this.error("Unexpected '" + this.text.charAt(this.pos) + "'");
+			return ret.withSource(this.text, this.variables.keySet().toArray(new String[this.variables.size()]));
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>sum</i></b><br>
+		 * <pre> private {@link Expression} sum()</pre> Reads terms separated by <code>+</code> or <code>-</code>
+		 * </ul>
+		 */
+		private Expression sum() {
+			Expression ret = this.product();
+			for (int c = this.peek(); c == '+' || c == '-'; c = this.peek()) {
+				this.pos++;
+				ret = fold(new Expression.Binary((char) c, ret, this.product()));
+			}
+			return ret;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>product</i></b><br>
+		 * <pre> private {@link Expression} product()</pre> Reads powers separated by <code>*</code> or <code>/</code>. A
+		 * divisor that is the name of a unit is replaced by the length of the unit in seconds.
+		 * </ul>
+		 */
+		private Expression product() {
+			Expression ret = this.power();
+			for (int c = this.peek(); c == '*' || c == '/'; c = this.peek()) {
+				this.pos++;
+				if (c == '/' && isIdentifierStart(this.peek())) {
+					final int start = this.pos;
+					final Double unit = UNITS.get(this.identifier());
+					if (unit != null) {
+						ret = fold(new Expression.Binary('/', ret, new Expression.Constant(unit)));
+						continue;
+					}
+					this.pos = start;
+				}
+				ret = fold(new Expression.Binary((char) c, ret, this.power()));
+			}
+			return ret;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>power</i></b><br>
+		 * <pre> private {@link Expression} power()</pre> Reads a factor, raised to a power if it is followed by <code>^</code>.
+		 * Powers are right associative, so <code>2^3^2</code> is <code>2^9</code>.
+		 * </ul>
+		 */
+		private Expression power() {
+			final Expression ret = this.factor();
+			if (this.peek() != '^') return ret;
+			this.pos++;
+			return fold(new Expression.Binary('^', ret, this.power()));
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>factor</i></b><br>
+		 * <pre> private {@link Expression} factor()</pre> Reads a number, a variable, a signed factor, or a parenthesized expression. A
+		 * parenthesis that is left open at the end of the text is treated as closed.
+		 * </ul>
+		 */
+		private Expression factor() {
+			final int c = this.peek();
+			if (c == '-' || c == '+') {
+				this.pos++;
+				final Expression operand = this.factor();
+				return c == '+' ? operand : fold(new Expression.Negate(operand));
+			} else if (c == '(') {
+				this.pos++;
+				final Expression ret = this.sum();
+				if (this.peek() == ')') {
+					this.pos++;
+				} else if (this.peek() != -1) {
+					throw this.error("Expected ')'");
+				}
+				return ret;
+			} else if (c == '.' || (c >= '0' && c <= '9')) {
+				return this.number();
+			} else if (isIdentifierStart(c)) {
+				final String name = this.identifier();
+				Integer index = this.variables.get(name);
+				if (index == null) {
+					index = this.variables.size();
+					this.variables.put(name, index);
+				}
+				return new Expression.Variable(index);
+			}
+			throw this.error(c == -1 ? "Unexpected end of expression" : "Unexpected '" + (char) c + "'");
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>number</i></b><br>
+		 * <pre> private {@link Expression} number()</pre> Reads a decimal number
+		 * </ul>
+		 */
+		private Expression number() {
+			final int start = this.pos;
+			boolean digits = false, point = false;
+			for (; this.pos < this.text.length(); this.pos++) {
+				final char c = this.text.charAt(this.pos);
+				if (c >= '0' && c <= '9') {
+					digits = true;
+				} else if (c == '.' && !point) {
+					point = true;
+				} else {
+					break;
+				}
+			}
+			if (!digits) throw this.error("Expected a number");
+			return new Expression.Constant(Double.parseDouble(this.text.substring(start, this.pos)));
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>identifier</i></b><br>
+		 * <pre> private {@link String} identifier()</pre> Reads the name of a variable or unit
+		 * </ul>
+		 */
+		private String identifier() {
+			final int start = this.pos;
+			while (this.pos < this.text.length() && (isIdentifierStart(this.text.charAt(this.pos)) || Character.isDigit(this.text.charAt(this.pos))))
+				this.pos++;
+			return this.text.substring(start, this.pos);
+		}
+
+		private static boolean isIdentifierStart(final int c) {
+			return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>peek</i></b><br>
+		 * <pre> private int peek()</pre> Skips any whitespace
+		 * @return the next character, or -1 if the end of the text has been reached
+		 *         </ul>
+		 */
+		private int peek() {
+			while (this.pos < this.text.length() && Character.isWhitespace(this.text.charAt(this.pos)))
+				this.pos++;
+			return this.pos < this.text.length() ? this.text.charAt(this.pos) : -1;
+		}
+
+		private IllegalArgumentException error(final String message) {
+			return new IllegalArgumentException(message + " at index " + this.pos + " of \"" + this.text + "\"");
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>fold</i></b><br>
+		 * <pre> private static {@link Expression} fold(Expression expression)</pre>
+		 * @return a {@link Expression.Constant} with the value of the given expression if it is constant, or the given
+		 *         expression otherwise
+		 *         </ul>
+		 */
+		private static Expression fold(final Expression expression) {
+			return expression.isConstant() ? new Expression.Constant(expression.evaluate()) : expression;
+		}
+
 	}
 
 }
@@ -0,0 +1,239 @@
+package factorio.calculator;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A mathematical expression that has been compiled by {@link Evaluator#compile(String)}. An {@code Expression} is immutable, and
+ * evaluating it does not allocate, so a single instance can be evaluated any number of times from any thread.<br>
+ * <br>
+ * An expression may refer to named variables. Their values are given to {@link #evaluate(double[])} as an array in the order
+ * of {@link #getVariables()}, so that an expression can be evaluated against many bindings in a loop by changing only the
+ * values in the array.
+ * @author ricky3350
+ */
+public abstract class Expression {
+
+	/**
+	 * An empty array of variable values
+	 */
+	private static final double[] NO_VALUES = new double[0];
+
+	/**
+	 * The text that this {@code Expression} was compiled from
+	 */
+	private String text;
+
+	/**
+	 * The names of the variables in this {@code Expression}, in the order that their values are given to
+	 * {@link #evaluate(double[])}
+	 */
+	private String[] variables = new String[0];
+
+	Expression() {}
+
+	/**
+	 * <ul>
+	 * <b><i>evaluate</i></b><br>
+	 * <pre> public abstract double evaluate(double[] values)</pre>
+	 * @param values - the values of the variables, in the order of {@link #getVariables()}
+	 * @return the value of this expression
+	 * @throws ArrayIndexOutOfBoundsException if there are fewer values than variables
+	 *         </ul>
+	 */
+	public abstract double evaluate(double[] values);
+
+	/**
+	 * <ul>
+	 * <b><i>evaluate</i></b><br>
+	 * <pre> public double evaluate()</pre>
+	 * @return the value of this expression
+	 * @throws IllegalArgumentException if this expression has variables
+	 *         </ul>
+	 */
+	public double evaluate() {
+		if (this.variables.length > 0) throw new IllegalArgumentException("Unbound variable " + this.variables[0] + " in \"" + this.text + "\"");
+		return this.evaluate(NO_VALUES);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>evaluate</i></b><br>
+	 * <pre> public double evaluate({@link Map}&lt;{@link String}, ? extends {@link Number}&gt; bindings)</pre>
+	 * @param bindings - maps the names of variables to their values
+	 * @return the value of this expression
+	 * @throws IllegalArgumentException if any variable in this expression is not bound
+	 * @see {@link #bind(Map)}
+	 *      </ul>
+	 */
+	public double evaluate(final Map<String, ? extends Number> bindings) {
+		return this.evaluate(this.bind(bindings));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>bind</i></b><br>
+	 * <pre> public double[] bind({@link Map}&lt;{@link String}, ? extends {@link Number}&gt; bindings)</pre>
+	 * @param bindings - maps the names of variables to their values
+	 * @return an array of the values of the variables in this expression, to be given to {@link #evaluate(double[])}
+	 * @throws IllegalArgumentException if any variable in this expression is not bound
+	 *         </ul>
+	 */
+	public double[] bind(final Map<String, ? extends Number> bindings) {
+		final double[] ret = new double[this.variables.length];
+		for (int i = 0; i < ret.length; i++) {
+			final Number value = bindings.get(this.variables[i]);
+			if (value == null) throw new IllegalArgumentException("Unbound variable " + this.variables[i] + " in \"" + this.text + "\"");
+			ret[i] = value.doubleValue();
+		}
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getVariables</i></b><br>
+	 * <pre> public {@link String}[] getVariables()</pre>
+	 * @return the names of the variables in this expression, in the order of their first appearance
+	 *         </ul>
+	 */
+	public String[] getVariables() {
+		return Arrays.copyOf(this.variables, this.variables.length);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>isConstant</i></b><br>
+	 * <pre> boolean isConstant()</pre>
+	 * @return whether this expression always has the same value, and can be folded into a {@link Constant}
+	 *         </ul>
+	 */
+	boolean isConstant() {
+		return false;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>withSource</i></b><br>
+	 * <pre> Expression withSource({@link String} text, String[] variables)</pre> Sets the text that this expression was
+	 * compiled from, and the names of its variables.
+	 * @return this expression
+	 *         </ul>
+	 */
+	final Expression withSource(final String text, final String[] variables) {
+		this.text = text;
+		this.variables = variables;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return this.text;
+	}
+
+	/**
+	 * An {@link Expression} with a fixed value
+	 * @author ricky3350
+	 */
+	static final class Constant extends Expression {
+
+		private final double value;
+
+		Constant(final double value) {
+			this.value = value;
+		}
+
+		@Override
+		public double evaluate(final double[] values) {
+			return this.value;
+		}
+
+		@Override
+		boolean isConstant() {
+			return true;
+		}
+
+	}
+
+	/**
+	 * A named variable, whose value is read from the values given to {@link #evaluate(double[])}
+	 * @author ricky3350
+	 */
+	static final class Variable extends Expression {
+
+		private final int index;
+
+		Variable(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public double evaluate(final double[] values) {
+			return values[this.index];
+		}
+
+	}
+
+	/**
+	 * The negation of an {@link Expression}
+	 * @author ricky3350
+	 */
+	static final class Negate extends Expression {
+
+		private final Expression operand;
+
+		Negate(final Expression operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		public double evaluate(final double[] values) {
+			return -this.operand.evaluate(values);
+		}
+
+		@Override
+		boolean isConstant() {
+			return this.operand.isConstant();
+		}
+
+	}
+
+	/**
+	 * An {@link Expression} combining two others with an arithmetic operator
+	 * @author ricky3350
+	 */
+	static final class Binary extends Expression {
+
+		private final char operator;
+		private final Expression left;
+		private final Expression right;
+
+		Binary(final char operator, final Expression left, final Expression right) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public double evaluate(final double[] values) {
+			switch (this.operator) {
+				case '+':
+					return this.left.evaluate(values) + this.right.evaluate(values);
+				case '-':
+					return this.left.evaluate(values) - this.right.evaluate(values);
+				case '*':
+					return this.left.evaluate(values) * this.right.evaluate(values);
+				case '^':
+					return Math.pow(this.left.evaluate(values), this.right.evaluate(values));
+				default:
+					return this.left.evaluate(values) / this.right.evaluate(values);
+			}
+		}
+
+		@Override
+		boolean isConstant() {
+			return this.left.isConstant() && this.right.isConstant();
+		}
+
+	}
+
+}
@@ -0,0 +1,333 @@
+package factorio.calculator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import factorio.data.Assembler;
+import factorio.data.Data;
+import factorio.data.MiningDrill;
+import factorio.data.OffshorePump;
+import factorio.data.Recipe;
+import factorio.data.Transport;
+import factorio.window.treecell.CalculatedRecipe;
+
+/**
+ * A {@code Logistics} finds the belts, pipes and inserters that a {@link Calculation} needs: how many belts of one tier, or
+ * pipes, carry the total flow of each item, and how many inserters each assembler needs to keep up. Flows that need more than
+ * one belt or pipe are flagged.<br>
+ * <br>
+ * The calculation is walked once to total the rate of each item and the assemblers of each recipe. The belts for every item
+ * are then found together from the array of rates, and the inserters once for each recipe and its settings, since the items
+ * that an assembler moves do not depend on how many there are.
+ * @author ricky3350
+ */
+public class Logistics {
+
+	/**
+	 * The belt that items are carried on
+	 */
+	private final Transport belt;
+
+	/**
+	 * The inserter that loads and unloads the assemblers
+	 */
+	private final Transport inserter;
+
+	/**
+	 * The number of items that the inserter moves in each swing
+	 */
+	private final int stack;
+
+	/**
+	 * Creates a new {@code Logistics}.
+	 * @param belt - The belt that items are carried on
+	 * @param inserter - The inserter that loads and unloads the assemblers
+	 * @param stack - The number of items that the inserter moves in each swing, including research bonuses
+	 * @throws IllegalArgumentException If the belt or inserter is not of its kind, or the stack size is not positive
+	 */
+	public Logistics(final Transport belt, final Transport inserter, final int stack) {
+		if (belt == null || belt.kind != Transport.Kind.BELT) throw new IllegalArgumentException("Choose a transport belt");
+		if (inserter == null || inserter.kind != Transport.Kind.INSERTER) throw new IllegalArgumentException("Choose an inserter");
+		if (stack < 1) throw new IllegalArgumentException("An inserter moves at least one item in each swing");
+
+		this.belt = belt;
+		this.inserter = inserter;
+		this.stack = stack;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>analyze</i></b><br>
+	 * <pre> public {@link Report} analyze({@link Calculation} calc)</pre>
+	 * @param calc - A calculation
+	 * @return the flows and inserters of the calculation
+	 *         </ul>
+	 */
+	public Report analyze(final Calculation calc) {
+		final Map<String, Double> rates = new LinkedHashMap<>();
+		final Map<String, Station> stations = new LinkedHashMap<>();
+		for (final CalculatedRecipe recipe : calc.getResult())
+			this.add(recipe, rates, stations);
+
+		final int n = rates.size();
+		final String[] items = rates.keySet().toArray(new String[n]);
+		final double[] rate = new double[n], capacity = new double[n];
+		final boolean[] fluid = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			rate[i] = rates.get(items[i]);
+			fluid[i] = Data.isFluid(items[i]);
+			capacity[i] = fluid[i] ? Transport.PIPE_RATE : this.belt.rate;
+		}
+
+		final List<Flow> flows = new ArrayList<>(n);
+		for (int i = 0; i < n; i++)
+			flows.add(new Flow(items[i], rate[i], rate[i] / capacity[i], fluid[i]));
+		flows.sort((a, b) -> Double.compare(b.rate, a.rate));
+
+		return new Report(flows, new ArrayList<>(stations.values()));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>add</i></b><br>
+	 * <pre> private void add({@link CalculatedRecipe} recipe, {@link Map}&lt;{@link String}, {@link Double}&gt; rates, {@code Map}&lt;{@code String}, {@link Station}&gt; stations)</pre>
+	 * Adds the flow and assemblers of the given recipe, and of all of its ingredients, to the given maps
+	 * </ul>
+	 */
+	private void add(final CalculatedRecipe recipe, final Map<String, Double> rates, final Map<String, Station> stations) {
+		final Recipe r = recipe.getRecipe();
+		if (recipe.getProduct() != null) {
+			rates.merge(recipe.getProduct(), recipe.getRate(), Double::sum);
+		} else if (r != null) {
+			// A recipe that is made for its own sake, rather than for one product, makes all of its results
+			r.getResults().forEach((item, amount) -> rates.merge(item, recipe.getRecipeRate() * amount, Double::sum));
+		}
+
+		final AssemblerSettings s = recipe.getAssembler();
+		if (r != null && s != null && recipe.getAssemblers() > 0 && !(s.getAssembler() instanceof MiningDrill) && !(s.getAssembler() instanceof OffshorePump)) {
+			final String key = r.name + "|" + s;
+			Station station = stations.get(key);
+			if (station == null) {
+				station = new Station(r, s);
+				stations.put(key, station);
+			}
+			station.assemblers += recipe.getAssemblers();
+		}
+
+		for (final CalculatedRecipe i : recipe.getIngredients())
+			this.add(i, rates, stations);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>inserters</i></b><br>
+	 * <pre> private int inserters(double rate)</pre>
+	 * @return the number of inserters needed to move the given number of items per second
+	 *         </ul>
+	 */
+	private int inserters(final double rate) {
+		return (int) Math.ceil(rate / (this.inserter.rate * this.stack) - 1e-9);
+	}
+
+	/**
+	 * The total flow of an item, and the belts or pipes that carry it
+	 * @author ricky3350
+	 */
+	public static class Flow {
+
+		/**
+		 * The name of the item or fluid
+		 */
+		public final String item;
+
+		/**
+		 * The rate, in items or units per second, of the item
+		 */
+		public final double rate;
+
+		/**
+		 * The number of belts, or for a fluid, pipes, needed to carry the item
+		 */
+		public final double count;
+
+		/**
+		 * Whether or not the item is a fluid, carried by pipes
+		 */
+		public final boolean fluid;
+
+		private Flow(final String item, final double rate, final double count, final boolean fluid) {
+			this.item = item;
+			this.rate = rate;
+			this.count = count;
+			this.fluid = fluid;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getLanes</i></b><br>
+		 * <pre> public double getLanes()</pre>
+		 * @return the number of belt lanes needed to carry the item; 0 for a fluid
+		 *         </ul>
+		 */
+		public double getLanes() {
+			return this.fluid ? 0 : 2 * this.count;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>isOverCapacity</i></b><br>
+		 * <pre> public boolean isOverCapacity()</pre>
+		 * @return whether or not the item needs more than one belt or pipe
+		 *         </ul>
+		 */
+		public boolean isOverCapacity() {
+			return this.count > 1 + 1e-9;
+		}
+
+		@Override
+		public String toString() {
+			return this.item + " " + this.rate + "/s on " + this.count + (this.fluid ? " pipes" : " belts");
+		}
+
+	}
+
+	/**
+	 * The assemblers of one recipe with one setting, and the inserters that each of them needs
+	 * @author ricky3350
+	 */
+	public class Station {
+
+		/**
+		 * The recipe
+		 */
+		public final Recipe recipe;
+
+		/**
+		 * The settings of the assemblers
+		 */
+		public final AssemblerSettings settings;
+
+		/**
+		 * The items, not fluids, that each working assembler takes in and puts out per second, including fuel
+		 */
+		public final double input, output;
+
+		private double assemblers;
+
+		private Station(final Recipe recipe, final AssemblerSettings settings) {
+			this.recipe = recipe;
+			this.settings = settings;
+
+			final Assembler assembler = settings.getAssembler();
+			final double cycles = 1 / recipe.timeIn(assembler, settings.getSpeed());
+
+			double input = 0, output = 0;
+			for (final Map.Entry<String, Double> i : recipe.getIngredients().entrySet())
+				if (!Data.isFluid(i.getKey())) input += i.getValue() * cycles;
+			for (final Map.Entry<String, Double> r : recipe.getResults().entrySet())
+				if (!Data.isFluid(r.getKey())) output += r.getValue() * cycles * settings.getProductivity();
+			if (assembler.burnerPowered) input += assembler.energy * settings.getEfficiency() / assembler.fuelEffectivity / Data.getFuelValue(settings.getFuel());
+
+			this.input = input;
+			this.output = output;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getAssemblers</i></b><br>
+		 * <pre> public double getAssemblers()</pre>
+		 * @return the number of assemblers
+		 *         </ul>
+		 */
+		public double getAssemblers() {
+			return this.assemblers;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getInputInserters</i></b><br>
+		 * <pre> public int getInputInserters()</pre>
+		 * @return the number of inserters needed to load each assembler
+		 *         </ul>
+		 */
+		public int getInputInserters() {
+			return Logistics.this.inserters(this.input);
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getOutputInserters</i></b><br>
+		 * <pre> public int getOutputInserters()</pre>
+		 * @return the number of inserters needed to unload each assembler
+		 *         </ul>
+		 */
+		public int getOutputInserters() {
+			return Logistics.this.inserters(this.output);
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getInserters</i></b><br>
+		 * <pre> public double getInserters()</pre>
+		 * @return the number of inserters needed by all of the assemblers, counting each assembler that must be built
+		 *         </ul>
+		 */
+		public double getInserters() {
+			return Math.ceil(this.assemblers - 1e-9) * (this.getInputInserters() + this.getOutputInserters());
+		}
+
+	}
+
+	/**
+	 * The flows and inserters of a {@link Calculation}
+	 * @author ricky3350
+	 */
+	public static class Report {
+
+		private final List<Flow> flows;
+		private final List<Station> stations;
+
+		private Report(final List<Flow> flows, final List<Station> stations) {
+			this.flows = Collections.unmodifiableList(flows);
+			this.stations = Collections.unmodifiableList(stations);
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getFlows</i></b><br>
+		 * <pre> public {@link List}&lt;{@link Flow}&gt; getFlows()</pre>
+		 * @return the flow of each item, from the largest
+		 *         </ul>
+		 */
+		public List<Flow> getFlows() {
+			return this.flows;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getStations</i></b><br>
+		 * <pre> public {@link List}&lt;{@link Station}&gt; getStations()</pre>
+		 * @return the assemblers of each recipe and setting, and their inserters
+		 *         </ul>
+		 */
+		public List<Station> getStations() {
+			return this.stations;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getOverCapacity</i></b><br>
+		 * <pre> public int getOverCapacity()</pre>
+		 * @return the number of flows that need more than one belt or pipe
+		 *         </ul>
+		 */
+		public int getOverCapacity() {
+			return (int) this.flows.stream().filter(Flow::isOverCapacity).count();
+		}
+
+	}
+
+}
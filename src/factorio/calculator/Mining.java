@@ -0,0 +1,309 @@
+package factorio.calculator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import factorio.data.MiningRecipe;
+import factorio.window.treecell.CalculatedRecipe;
+
+/**
+ * A {@code Mining} plans the resource patches that supply a {@link Calculation}: how many drills each patch needs, the fluid
+ * that they use, and how long the patch lasts.<br>
+ * <br>
+ * The demand for a resource is shared among its patches so that they all run out together: finite patches in proportion to
+ * the amount in them, and infinite patches in proportion to the rate they can be mined at. Every quantity of a patch is found
+ * in closed form, so planning many patches costs no more than one pass over them.
+ * @author ricky3350
+ */
+public class Mining {
+
+	/**
+	 * The mining productivity bonus from research, e.g. <code>0.1</code> for +10%
+	 */
+	private final double productivityBonus;
+
+	/**
+	 * Creates a new {@code Mining}.
+	 * @param productivityBonus - The mining productivity bonus from research, e.g. <code>0.1</code> for +10%
+	 * @throws IllegalArgumentException If the bonus is negative
+	 */
+	public Mining(final double productivityBonus) {
+		if (productivityBonus < 0) throw new IllegalArgumentException("Mining productivity cannot be negative");
+
+		this.productivityBonus = productivityBonus;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getDemand</i></b><br>
+	 * <pre> public static {@link Map}&lt;{@link MiningRecipe}, {@link Double}&gt; getDemand({@link Calculation} calc)</pre>
+	 * @param calc - A calculation
+	 * @return the rate, in recipes per second, at which the calculation mines each resource, including the resources mined for
+	 *         fuel
+	 *         </ul>
+	 */
+	public static Map<MiningRecipe, Double> getDemand(final Calculation calc) {
+		final Map<MiningRecipe, Double> ret = new LinkedHashMap<>();
+		for (final CalculatedRecipe recipe : calc.getResult())
+			addDemand(recipe, ret);
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>addDemand</i></b><br>
+	 * <pre> private static void addDemand({@link CalculatedRecipe} recipe, {@link Map}&lt;{@link MiningRecipe}, {@link Double}&gt; demand)</pre>
+	 * Adds the rate of the given recipe, if it is mined, and of all of its ingredients to the given map
+	 * </ul>
+	 */
+	private static void addDemand(final CalculatedRecipe recipe, final Map<MiningRecipe, Double> demand) {
+		if (recipe.getRecipe() instanceof MiningRecipe) demand.merge((MiningRecipe) recipe.getRecipe(), recipe.getRecipeRate(), Double::sum);
+		for (final CalculatedRecipe r : recipe.getIngredients())
+			addDemand(r, demand);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>plan</i></b><br>
+	 * <pre> public {@link List}&lt;{@link Report}&gt; plan({@link Collection}&lt;{@link Patch}&gt; patches, {@link Map}&lt;{@link MiningRecipe}, ? extends {@link Number}&gt; demand)</pre>
+	 * Shares the demand for each resource among its patches, and reports on each patch
+	 * @param patches - The patches
+	 * @param demand - The rate, in recipes per second, at which each resource must be mined, as given by
+	 *        {@link #getDemand(Calculation)}. Resources without patches are left out.
+	 * @return a report for each patch, in the same order
+	 *         </ul>
+	 */
+	public List<Report> plan(final Collection<Patch> patches, final Map<MiningRecipe, ? extends Number> demand) {
+		final List<Report> ret = new ArrayList<>(patches.size());
+		final Map<MiningRecipe, Double> weights = new HashMap<>();
+		for (final Patch p : patches) {
+			final Report r = new Report(p);
+			weights.merge(p.resource, r.weight(), Double::sum);
+			ret.add(r);
+		}
+
+		for (final Report r : ret) {
+			final Number d = demand.get(r.patch.resource);
+			final double weight = weights.get(r.patch.resource);
+			r.share(d == null || weight <= 0 ? 0 : d.doubleValue() * r.weight() / weight);
+		}
+		return ret;
+	}
+
+	/**
+	 * A resource patch: some amount of one resource, mined by drills with the same settings
+	 * @author ricky3350
+	 */
+	public static class Patch {
+
+		/**
+		 * The resource
+		 */
+		public final MiningRecipe resource;
+
+		/**
+		 * The amount of the resource in the patch, or for an infinite resource, in each of its entities
+		 */
+		public final double amount;
+
+		/**
+		 * The number of entities in an infinite patch, e.g. the number of oil wells. Ignored for a finite patch.
+		 */
+		public final int entities;
+
+		/**
+		 * The settings of the drills
+		 */
+		public final AssemblerSettings drill;
+
+		/**
+		 * Creates a new {@code Patch}.
+		 * @param resource - The resource
+		 * @param amount - The amount of the resource in the patch, or for an infinite resource, in each of its entities
+		 * @param entities - The number of entities in an infinite patch; ignored for a finite patch
+		 * @param drill - The settings of the drills, or <code>null</code> for the
+		 *        {@linkplain AssemblerSettings#getDefaultSettings(factorio.data.Recipe) default settings} of the resource
+		 * @throws IllegalArgumentException If the amount is not positive, an infinite patch has no entities, or the drill
+		 *         cannot mine the resource
+		 */
+		public Patch(final MiningRecipe resource, final double amount, final int entities, final AssemblerSettings drill) {
+			if (!(amount > 0)) throw new IllegalArgumentException("The amount in a patch must be positive");
+			if (resource.infinite && entities <= 0) throw new IllegalArgumentException("An infinite patch needs at least one entity");
+			final AssemblerSettings settings = drill == null ? AssemblerSettings.getDefaultSettings(resource) : drill;
+			if (!settings.getAssembler().canCraftCategory(resource.category)) throw new IllegalArgumentException(String.format("\"%s\" cannot mine \"%s\"", settings.getAssembler().name, resource.name));
+
+			this.resource = resource;
+			this.amount = amount;
+			this.entities = resource.infinite ? entities : 0;
+			this.drill = settings;
+		}
+
+		@Override
+		public String toString() {
+			return this.resource.infinite ? this.entities + " \u00D7 " + this.amount + " " + this.resource.name : this.amount + " " + this.resource.name;
+		}
+
+	}
+
+	/**
+	 * The drills, fluid and lifetime of a {@link Patch}, at its share of the demand
+	 * @author ricky3350
+	 */
+	public class Report {
+
+		/**
+		 * The patch
+		 */
+		public final Patch patch;
+
+		/**
+		 * The rate, in mining cycles per second, of one drill at 100% yield
+		 */
+		private final double cycleRate;
+
+		/**
+		 * The productivity of the drills, including the research bonus
+		 */
+		private final double productivity;
+
+		/**
+		 * The yield of the patch when it is planned, as a fraction of 100%
+		 */
+		private final double yield;
+
+		private double rate, drills, time;
+
+		private Report(final Patch patch) {
+			this.patch = patch;
+			this.cycleRate = 1 / patch.resource.timeIn(patch.drill.getAssembler(), patch.drill.getSpeed());
+			this.productivity = patch.drill.getProductivity() + Mining.this.productivityBonus;
+			this.yield = patch.resource.infinite ? Math.max(patch.amount, patch.resource.minimum) / patch.resource.normal : 1;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>weight</i></b><br>
+		 * <pre> private double weight()</pre>
+		 * @return how much of the demand for its resource this patch takes, relative to the other patches of the resource
+		 *         </ul>
+		 */
+		private double weight() {
+			return this.patch.resource.infinite ? this.getCapacity() : this.patch.amount;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>share</i></b><br>
+		 * <pre> private void share(double rate)</pre> Gives this patch its share of the demand, and finds how many drills it
+		 * needs and how long it lasts
+		 * @param rate - The rate, in recipes per second, that this patch must be mined at
+		 *        </ul>
+		 */
+		private void share(final double rate) {
+			this.rate = rate;
+			final double cycles = this.getCycles();
+			this.drills = cycles / (this.cycleRate * this.yield);
+
+			final MiningRecipe resource = this.patch.resource;
+			if (cycles <= 0) {
+				this.time = Double.POSITIVE_INFINITY;
+			} else if (!resource.infinite) {
+				this.time = this.patch.amount / cycles;
+			} else {
+				// Each entity is depleted at a constant rate until it reaches its minimum, or until its yield is too low for the
+				// patch to keep up with the demand
+				final double required = rate * resource.normal / (this.patch.entities * this.cycleRate * this.productivity);
+				this.time = Math.max(0, this.patch.amount - Math.max(resource.minimum, required)) * this.patch.entities / (resource.depletion * cycles);
+			}
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getRate</i></b><br>
+		 * <pre> public double getRate()</pre>
+		 * @return the rate, in recipes per second, that this patch is mined at
+		 *         </ul>
+		 */
+		public double getRate() {
+			return this.rate;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getCycles</i></b><br>
+		 * <pre> public double getCycles()</pre>
+		 * @return the number of mining cycles per second in this patch; fewer than its rate by its productivity
+		 *         </ul>
+		 */
+		public double getCycles() {
+			return this.rate / this.productivity;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getDrills</i></b><br>
+		 * <pre> public double getDrills()</pre>
+		 * @return the number of drills needed to mine this patch at its rate, at its current yield
+		 *         </ul>
+		 */
+		public double getDrills() {
+			return this.drills;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getCapacity</i></b><br>
+		 * <pre> public double getCapacity()</pre>
+		 * @return the highest rate, in recipes per second, that an infinite patch can be mined at with a drill on each entity,
+		 *         at its current yield; {@link Double#POSITIVE_INFINITY} for a finite patch
+		 *         </ul>
+		 */
+		public double getCapacity() {
+			if (!this.patch.resource.infinite) return Double.POSITIVE_INFINITY;
+			return this.patch.entities * this.cycleRate * this.yield * this.productivity;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getYield</i></b><br>
+		 * <pre> public double getYield()</pre>
+		 * @return the current yield of the patch, as a fraction of 100%; always 1 for a finite patch
+		 *         </ul>
+		 */
+		public double getYield() {
+			return this.yield;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getFluids</i></b><br>
+		 * <pre> public {@link Map}&lt;{@link String}, {@link Double}&gt; getFluids()</pre>
+		 * @return the rate, in units per second, at which the drills use each fluid
+		 *         </ul>
+		 */
+		public Map<String, Double> getFluids() {
+			final double cycles = this.getCycles();
+			final Map<String, Double> ret = new LinkedHashMap<>();
+			this.patch.resource.getIngredients().forEach((fluid, amount) -> ret.put(fluid, amount * cycles));
+			return ret;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getTime</i></b><br>
+		 * <pre> public double getTime()</pre>
+		 * @return the time, in seconds, until a finite patch runs out, or until an infinite patch reaches its minimum yield or
+		 *         can no longer be mined at its rate; {@link Double#POSITIVE_INFINITY} if it is not mined
+		 *         </ul>
+		 */
+		public double getTime() {
+			return this.time;
+		}
+
+	}
+
+}
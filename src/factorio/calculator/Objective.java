@@ -0,0 +1,106 @@
+package factorio.calculator;
+
+/**
+ * An {@code Objective} is a weighted sum of the costs of a production chain that {@link AssemblerOptimizer} minimizes.
+ * @author ricky3350
+ */
+public class Objective {
+
+	/**
+	 * Minimizes the total number of buildings
+	 */
+	public static final Objective BUILDINGS = new Objective("Fewest buildings", 1, 0, 0);
+
+	/**
+	 * Minimizes the total energy consumption, including burner fuel
+	 */
+	public static final Objective POWER = new Objective("Least power", 0, 1, 0);
+
+	/**
+	 * Minimizes the total rate at which raw resources are used
+	 */
+	public static final Objective RAW_RESOURCES = new Objective("Least raw resources", 0, 0, 1);
+
+	/**
+	 * Minimizes the total pollution of the assemblers
+	 */
+	public static final Objective POLLUTION = new Objective("Least pollution", 0, 0, 0, 1);
+
+	/**
+	 * The name of this {@code Objective}, for display
+	 */
+	public final String name;
+
+	/**
+	 * The cost of a single building
+	 */
+	public final double buildingWeight;
+
+	/**
+	 * The cost of a megawatt of power
+	 */
+	public final double powerWeight;
+
+	/**
+	 * The cost of using a raw resource at one item per second
+	 */
+	public final double resourceWeight;
+
+	/**
+	 * The cost of emitting one unit of pollution per minute
+	 */
+	public final double pollutionWeight;
+
+	/**
+	 * Creates a new {@code Objective} with the given weights, that does not count pollution. All weights must be
+	 * non-negative.
+	 * @param name - The name, for display
+	 * @param buildingWeight - The cost of a single building
+	 * @param powerWeight - The cost of a megawatt of power
+	 * @param resourceWeight - The cost of using a raw resource at one item per second
+	 * @throws IllegalArgumentException if any weight is negative
+	 */
+	public Objective(final String name, final double buildingWeight, final double powerWeight, final double resourceWeight) {
+		this(name, buildingWeight, powerWeight, resourceWeight, 0);
+	}
+
+	/**
+	 * Creates a new {@code Objective} with the given weights. All weights must be non-negative.
+	 * @param name - The name, for display
+	 * @param buildingWeight - The cost of a single building
+	 * @param powerWeight - The cost of a megawatt of power
+	 * @param resourceWeight - The cost of using a raw resource at one item per second
+	 * @param pollutionWeight - The cost of emitting one unit of pollution per minute
+	 * @throws IllegalArgumentException if any weight is negative
+	 */
+	public Objective(final String name, final double buildingWeight, final double powerWeight, final double resourceWeight, final double pollutionWeight) {
+		if (buildingWeight < 0 || powerWeight < 0 || resourceWeight < 0 || pollutionWeight < 0) throw new IllegalArgumentException("Weights cannot be negative");
+
+		this.name = name;
+		this.buildingWeight = buildingWeight;
+		this.powerWeight = powerWeight;
+		this.resourceWeight = resourceWeight;
+		this.pollutionWeight = pollutionWeight;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>evaluate</i></b><br>
+	 * <pre> public double evaluate(double buildings, double watts, double resources, double pollution)</pre>
+	 * @param buildings - The number of buildings
+	 * @param watts - The power consumed, in watts
+	 * @param resources - The rate at which raw resources are used, in items per second
+	 * @param pollution - The pollution emitted per minute
+	 * @return the weighted cost of the given amounts
+	 *         </ul>
+	 */
+	public double evaluate(final double buildings, final double watts, final double resources, final double pollution) {
+		return this.buildingWeight * buildings + this.powerWeight * watts / 1e6 + this.resourceWeight * resources + this.pollutionWeight * pollution;
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+
+}
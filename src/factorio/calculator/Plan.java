@@ -0,0 +1,601 @@
+package factorio.calculator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import factorio.Metrics;
+import factorio.data.Data;
+import factorio.data.Recipe;
+import factorio.data.Symbols;
+import factorio.data.Technology;
+import factorio.window.treecell.CalculatedRecipe;
+
+/**
+ * A {@code Plan} is the saved input state of the calculator: the rate of each target, the {@link AssemblerSettings} of each
+ * target's row, the variables, the objective, the blacklist and the {@linkplain Data#getFingerprint() fingerprint} of the
+ * loaded mods. It may also hold the {@link Calculation} that was solved for it, so that opening it can show the result
+ * without calculating again.<br>
+ * <br>
+ * Plans are stored in a compact binary format: a header with the format version and the fingerprint, a table of every
+ * distinct string in the plan, and then the plan itself, which refers to strings by their index in the table.
+ * @author ricky3350
+ */
+public class Plan {
+
+	/**
+	 * The file extension of saved plans
+	 */
+	public static final String EXTENSION = "fplan";
+
+	/**
+	 * The first four bytes of a plan file, <code>"FPLN"</code>
+	 */
+	private static final int MAGIC = 0x46504C4E;
+
+	/**
+	 * The version of the format written by {@link #write(OutputStream)}. Versions up to this one can be read.
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * The flag set in a plan file if it contains a {@link Calculation}
+	 */
+	private static final int HAS_CALCULATION = 1;
+
+	/**
+	 * The flag set for a {@link CalculatedRecipe} in a plan file if it has a "Fuel" label
+	 */
+	private static final int FUEL_LABEL = 1;
+
+	/**
+	 * The flag set for a {@link CalculatedRecipe} in a plan file if it has {@link AssemblerSettings}
+	 */
+	private static final int HAS_SETTINGS = 2;
+
+	/**
+	 * The flag set for a {@link CalculatedRecipe} in a plan file if part of its fuel is burned in its own production. Only
+	 * written since version 2.
+	 */
+	private static final int FUEL_SHARE = 4;
+
+	/**
+	 * The reference written for a missing {@link Recipe}
+	 */
+	private static final int NO_RECIPE = 0;
+
+	/**
+	 * The reference written for a normal {@link Recipe}
+	 */
+	private static final int RECIPE = 1;
+
+	/**
+	 * The reference written for a {@link Technology}
+	 */
+	private static final int TECHNOLOGY = 2;
+
+	/**
+	 * The fingerprint of the mods that the plan was made with
+	 */
+	public final long fingerprint;
+
+	/**
+	 * The table of variables that the rates may use
+	 */
+	private final String variables;
+
+	/**
+	 * The name of the {@link Objective} that the assemblers are optimized for, or of the default assemblers
+	 */
+	private final String objective;
+
+	/**
+	 * The names of the recipes that cannot be used without the user specifically using them as input
+	 */
+	private final List<String> blacklist;
+
+	/**
+	 * The rows that have a rate
+	 */
+	private final List<Target> targets;
+
+	/**
+	 * The names of the targets that could not be found in the loaded mods when the plan was read
+	 */
+	private final List<String> missing;
+
+	/**
+	 * The solved calculation, or <code>null</code> if there is none
+	 */
+	private final Calculation calculation;
+
+	/**
+	 * Creates a new {@code Plan} for the currently loaded mods.
+	 * @param variables - The table of variables that the rates may use
+	 * @param objective - The name of the objective that the assemblers are optimized for
+	 * @param blacklist - The names of the recipes that cannot be used without the user specifically using them as input
+	 * @param targets - The rows that have a rate
+	 * @param calculation - The solved calculation, or <code>null</code> if it should not be saved
+	 */
+	public Plan(final String variables, final String objective, final Collection<String> blacklist, final Collection<Target> targets, final Calculation calculation) {
+		this(Data.getFingerprint(), variables, objective, blacklist, targets, Collections.emptyList(), calculation);
+	}
+
+	private Plan(final long fingerprint, final String variables, final String objective, final Collection<String> blacklist, final Collection<Target> targets, final Collection<String> missing, final Calculation calculation) {
+		this.fingerprint = fingerprint;
+		this.variables = variables;
+		this.objective = objective;
+		this.blacklist = Collections.unmodifiableList(new ArrayList<>(blacklist));
+		this.targets = Collections.unmodifiableList(new ArrayList<>(targets));
+		this.missing = Collections.unmodifiableList(new ArrayList<>(missing));
+		this.calculation = calculation;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getVariables</i></b><br>
+	 * <pre> public {@link String} getVariables()</pre>
+	 * @return the table of variables that the rates may use
+	 *         </ul>
+	 */
+	public String getVariables() {
+		return this.variables;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getObjective</i></b><br>
+	 * <pre> public {@link String} getObjective()</pre>
+	 * @return the name of the {@link Objective} that the assemblers are optimized for, or of the default assemblers
+	 *         </ul>
+	 */
+	public String getObjective() {
+		return this.objective;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getBlacklist</i></b><br>
+	 * <pre> public {@link List}&lt;{@link String}&gt; getBlacklist()</pre>
+	 * @return the names of the recipes that cannot be used without the user specifically using them as input
+	 *         </ul>
+	 */
+	public List<String> getBlacklist() {
+		return this.blacklist;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getTargets</i></b><br>
+	 * <pre> public {@link List}&lt;{@link Target}&gt; getTargets()</pre>
+	 * @return the rows that have a rate, leaving out those that are not in the loaded mods
+	 *         </ul>
+	 */
+	public List<Target> getTargets() {
+		return this.targets;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getMissing</i></b><br>
+	 * <pre> public {@link List}&lt;{@link String}&gt; getMissing()</pre>
+	 * @return the names of the targets that were read, but could not be found in the loaded mods
+	 *         </ul>
+	 */
+	public List<String> getMissing() {
+		return this.missing;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getCalculation</i></b><br>
+	 * <pre> public {@link Calculation} getCalculation()</pre>
+	 * @return the solved calculation, or <code>null</code> if none was saved, or if the plan was made with different mods
+	 *         </ul>
+	 */
+	public Calculation getCalculation() {
+		return this.calculation;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>matchesMods</i></b><br>
+	 * <pre> public boolean matchesMods()</pre>
+	 * @return whether or not the plan was made with the same mods as are currently loaded
+	 *         </ul>
+	 */
+	public boolean matchesMods() {
+		return this.fingerprint == Data.getFingerprint();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>save</i></b><br>
+	 * <pre> public void save({@link Path} path) throws {@link IOException}</pre> Writes this plan to the given file.
+	 * @param path - The file to write to
+	 * @throws IOException if the file cannot be written
+	 * @see {@link #write(OutputStream)}
+	 *      </ul>
+	 */
+	public void save(final Path path) throws IOException {
+		final Metrics.Timer timer = Metrics.start("plan.save");
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+			this.write(out);
+		}
+		timer.stop();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>open</i></b><br>
+	 * <pre> public static Plan open({@link Path} path) throws {@link IOException}</pre> Reads a plan from the given file.
+	 * @param path - The file to read
+	 * @return the plan
+	 * @throws IOException if the file cannot be read, or is not a plan
+	 * @see {@link #read(InputStream)}
+	 *      </ul>
+	 */
+	public static Plan open(final Path path) throws IOException {
+		final Metrics.Timer timer = Metrics.start("plan.open");
+		final Plan ret;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+			ret = read(in);
+		}
+		timer.stop();
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>write</i></b><br>
+	 * <pre> public void write({@link OutputStream} out) throws {@link IOException}</pre> Writes this plan to the given stream.
+	 * The stream is not closed.
+	 * @param out - The stream to write to
+	 * @throws IOException if an {@code IOException} occurs while writing
+	 *         </ul>
+	 */
+	public void write(final OutputStream out) throws IOException {
+		final Map<String, Integer> strings = new LinkedHashMap<>();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream body = new DataOutputStream(bytes);
+
+		writeString(body, strings, this.variables);
+		writeString(body, strings, this.objective);
+
+		writeVarInt(body, this.blacklist.size());
+		for (final String recipe : this.blacklist)
+			writeString(body, strings, recipe);
+
+		writeVarInt(body, this.targets.size());
+		for (final Target target : this.targets) {
+			writeRecipe(body, strings, target.recipe);
+			writeString(body, strings, target.expression);
+			writeString(body, strings, target.option);
+			writeString(body, strings, target.settings == null ? null : target.settings.toString());
+		}
+
+		body.writeByte(this.calculation == null ? 0 : HAS_CALCULATION);
+		if (this.calculation != null) {
+			writeVarInt(body, this.calculation.getResult().size());
+			for (final CalculatedRecipe recipe : this.calculation.getResult())
+				writeCalculatedRecipe(body, strings, recipe);
+		}
+		body.flush();
+
+		final DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeShort(VERSION);
+		data.writeLong(this.fingerprint);
+		writeVarInt(data, strings.size());
+		for (final String str : strings.keySet())
+			data.writeUTF(str);
+		bytes.writeTo(data);
+		data.flush();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>read</i></b><br>
+	 * <pre> public static Plan read({@link InputStream} in) throws {@link IOException}</pre> Reads a plan from the given stream,
+	 * finding its recipes in {@link Data}. Targets that are not loaded are left out, and listed in {@link #getMissing()}. The
+	 * solved calculation is only read if the plan was made with the same mods as are loaded.
+	 * @param in - The stream to read from
+	 * @return the plan
+	 * @throws IOException if the stream cannot be read, is not a plan, or is from a newer version
+	 *         </ul>
+	 */
+	public static Plan read(final InputStream in) throws IOException {
+		final DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) throw new IOException("Not a plan file");
+		final int version = data.readUnsignedShort();
+		if (version > VERSION) throw new IOException("The plan was saved by a newer version (" + version + ")");
+		final long fingerprint = data.readLong();
+
+		// Names are compared by reference, so every string is replaced by its symbol
+		final String[] strings = new String[readVarInt(data)];
+		for (int i = 0; i < strings.length; i++)
+			strings[i] = Symbols.of(data.readUTF());
+
+		final Map<String, Recipe> recipes = new HashMap<>();
+		for (final Recipe r : Data.getRecipes())
+			recipes.putIfAbsent(r.name, r);
+		final Map<String, Recipe> tech = new HashMap<>();
+		for (final Technology t : Data.getTechnologies())
+			tech.put(t.name + '-' + t.number, t);
+		final Map<String, AssemblerSettings> settings = new HashMap<>();
+
+		final String variables = readString(data, strings);
+		final String objective = readString(data, strings);
+
+		final List<String> blacklist = new ArrayList<>();
+		for (int i = readVarInt(data); i > 0; i--)
+			blacklist.add(readString(data, strings));
+
+		final int targetCount = readVarInt(data);
+		final List<Target> targets = new ArrayList<>(targetCount);
+		final List<String> missing = new ArrayList<>();
+		for (int i = 0; i < targetCount; i++) {
+			final int kind = data.readUnsignedByte();
+			final String name = kind == NO_RECIPE ? null : readString(data, strings);
+			final int number = kind == TECHNOLOGY ? readVarInt(data) : 0;
+			final Recipe recipe = findRecipe(kind, name, number, recipes, tech);
+			final String expression = readString(data, strings);
+			final String option = readString(data, strings);
+			final AssemblerSettings s = readSettings(data, strings, settings);
+
+			if (recipe == null)
+				missing.add(kind == TECHNOLOGY && number > 0 ? name + '-' + number : name);
+			else
+				targets.add(new Target(recipe, expression, option, s));
+		}
+
+		Calculation calculation = null;
+		if ((data.readUnsignedByte() & HAS_CALCULATION) != 0 && fingerprint == Data.getFingerprint()) {
+			final int count = readVarInt(data);
+			final Map<Recipe, Number> rates = new HashMap<>();
+			final List<CalculatedRecipe> result = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				final CalculatedRecipe recipe = readCalculatedRecipe(data, strings, recipes, tech, settings);
+				rates.put(recipe.getRecipe(), recipe.getRecipeRate());
+				result.add(recipe);
+			}
+			calculation = new Calculation(rates, result);
+		}
+
+		return new Plan(fingerprint, variables, objective, blacklist, targets, missing, calculation);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>writeCalculatedRecipe</i></b><br>
+	 * <pre> private static void writeCalculatedRecipe({@link DataOutput} out, {@link Map}&lt;{@link String}, {@link Integer}&gt; strings, {@link CalculatedRecipe} recipe) throws {@link IOException}</pre>
+	 * Writes the given {@code CalculatedRecipe}, followed by each of its ingredients.
+	 * </ul>
+	 */
+	private static void writeCalculatedRecipe(final DataOutput out, final Map<String, Integer> strings, final CalculatedRecipe recipe) throws IOException {
+		writeString(out, strings, recipe.product);
+		writeRecipe(out, strings, recipe.getRecipe());
+		out.writeByte((recipe.hasFuelLabel ? FUEL_LABEL : 0) | (recipe.getAssembler() != null ? HAS_SETTINGS : 0) | (recipe.getFuelShare() != 0 ? FUEL_SHARE : 0));
+		writeString(out, strings, recipe.fuel);
+		out.writeDouble(recipe.getRate());
+		out.writeDouble(recipe.getRecipeRate());
+		out.writeDouble(recipe.getAssemblers());
+		if (recipe.getFuelShare() != 0) out.writeDouble(recipe.getFuelShare());
+		if (recipe.getAssembler() != null) writeString(out, strings, recipe.getAssembler().toString());
+
+		final Collection<CalculatedRecipe> ingredients = recipe.getIngredients();
+		writeVarInt(out, ingredients.size());
+		for (final CalculatedRecipe ingredient : ingredients)
+			writeCalculatedRecipe(out, strings, ingredient);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>readCalculatedRecipe</i></b><br>
+	 * <pre> private static {@link CalculatedRecipe} readCalculatedRecipe({@link DataInput} in, {@link String}[] strings, {@link Map}&lt;String, {@link Recipe}&gt; recipes, Map&lt;String, Recipe&gt; tech, Map&lt;String, {@link AssemblerSettings}&gt; settings) throws {@link IOException}</pre>
+	 * Reads a {@code CalculatedRecipe} written by {@link #writeCalculatedRecipe(DataOutput, Map, CalculatedRecipe)}, with its
+	 * ingredients.
+	 * </ul>
+	 */
+	private static CalculatedRecipe readCalculatedRecipe(final DataInput in, final String[] strings, final Map<String, Recipe> recipes, final Map<String, Recipe> tech, final Map<String, AssemblerSettings> settings) throws IOException {
+		final String product = readString(in, strings);
+		final int kind = in.readUnsignedByte();
+		final String name = kind == NO_RECIPE ? null : readString(in, strings);
+		final int number = kind == TECHNOLOGY ? readVarInt(in) : 0;
+		final Recipe recipe = findRecipe(kind, name, number, recipes, tech);
+		if (recipe == null && kind != NO_RECIPE) throw new IOException("Could not find recipe " + name);
+
+		final int flags = in.readUnsignedByte();
+		final String fuel = readString(in, strings);
+		final double rate = in.readDouble();
+		final double recipeRate = in.readDouble();
+		final double assemblerCount = in.readDouble();
+		final double fuelShare = (flags & FUEL_SHARE) != 0 ? in.readDouble() : 0;
+		final AssemblerSettings s = (flags & HAS_SETTINGS) != 0 ? readSettings(in, strings, settings) : null;
+
+		final int count = readVarInt(in);
+		final List<CalculatedRecipe> ingredients = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			ingredients.add(readCalculatedRecipe(in, strings, recipes, tech, settings));
+
+		return new CalculatedRecipe(product, recipe, rate, recipeRate, assemblerCount, s, (flags & FUEL_LABEL) != 0, fuel, fuelShare, ingredients);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>writeRecipe</i></b><br>
+	 * <pre> private static void writeRecipe({@link DataOutput} out, {@link Map}&lt;{@link String}, {@link Integer}&gt; strings, {@link Recipe} recipe) throws {@link IOException}</pre>
+	 * Writes a reference to the given recipe: its kind, its name, and its number if it is a {@link Technology}.
+	 * </ul>
+	 */
+	private static void writeRecipe(final DataOutput out, final Map<String, Integer> strings, final Recipe recipe) throws IOException {
+		if (recipe == null) {
+			out.writeByte(NO_RECIPE);
+		} else if (recipe instanceof Technology) {
+			out.writeByte(TECHNOLOGY);
+			writeString(out, strings, recipe.name);
+			writeVarInt(out, ((Technology) recipe).number);
+		} else {
+			out.writeByte(RECIPE);
+			writeString(out, strings, recipe.name);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>findRecipe</i></b><br>
+	 * <pre> private static {@link Recipe} findRecipe(int kind, {@link String} name, int number, {@link Map}&lt;String, Recipe&gt; recipes, Map&lt;String, Recipe&gt; tech)</pre>
+	 * @return the loaded recipe that a reference written by {@link #writeRecipe(DataOutput, Map, Recipe)} refers to, or
+	 *         <code>null</code> if it is not loaded
+	 *         </ul>
+	 */
+	private static Recipe findRecipe(final int kind, final String name, final int number, final Map<String, Recipe> recipes, final Map<String, Recipe> tech) {
+		switch (kind) {
+			case RECIPE:
+				return recipes.get(name);
+			case TECHNOLOGY:
+				return tech.get(name + '-' + number);
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>readSettings</i></b><br>
+	 * <pre> private static {@link AssemblerSettings} readSettings({@link DataInput} in, {@link String}[] strings, {@link Map}&lt;String, AssemblerSettings&gt; settings) throws {@link IOException}</pre>
+	 * Reads {@code AssemblerSettings} written as a string. Each distinct string is only parsed once.
+	 * @return the settings, or <code>null</code> if none were written or the assembler is not loaded
+	 *         </ul>
+	 */
+	private static AssemblerSettings readSettings(final DataInput in, final String[] strings, final Map<String, AssemblerSettings> settings) throws IOException {
+		final String str = readString(in, strings);
+		if (str == null) return null;
+
+		return settings.computeIfAbsent(str, s -> {
+			try {
+				return AssemblerSettings.valueOf(s);
+			} catch (final IllegalArgumentException e) {
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>writeString</i></b><br>
+	 * <pre> private static void writeString({@link DataOutput} out, {@link Map}&lt;{@link String}, {@link Integer}&gt; strings, String str) throws {@link IOException}</pre>
+	 * Writes the index of the given string in the string table, adding it if it is not there yet. The index is offset by one,
+	 * so that <code>0</code> is <code>null</code>.
+	 * </ul>
+	 */
+	private static void writeString(final DataOutput out, final Map<String, Integer> strings, final String str) throws IOException {
+		if (str == null) {
+			writeVarInt(out, 0);
+		} else {
+			Integer index = strings.get(str);
+			if (index == null) strings.put(str, index = strings.size());
+			writeVarInt(out, index + 1);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>readString</i></b><br>
+	 * <pre> private static {@link String} readString({@link DataInput} in, String[] strings) throws {@link IOException}</pre>
+	 * @return the string written by {@link #writeString(DataOutput, Map, String)}
+	 * @throws IOException if the index is not in the string table
+	 *         </ul>
+	 */
+	private static String readString(final DataInput in, final String[] strings) throws IOException {
+		final int index = readVarInt(in);
+		if (index == 0) return null;
+		if (index > strings.length) throw new IOException("Bad string index " + index);
+		return strings[index - 1];
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>writeVarInt</i></b><br>
+	 * <pre> private static void writeVarInt({@link DataOutput} out, int value) throws {@link IOException}</pre> Writes a
+	 * non-negative {@code int} in as few bytes as it needs, seven bits at a time.
+	 * </ul>
+	 */
+	private static void writeVarInt(final DataOutput out, final int value) throws IOException {
+		int rest = value;
+		while ((rest & ~0x7F) != 0) {
+			out.writeByte(rest & 0x7F | 0x80);
+			rest >>>= 7;
+		}
+		out.writeByte(rest);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>readVarInt</i></b><br>
+	 * <pre> private static int readVarInt({@link DataInput} in) throws {@link IOException}</pre>
+	 * @return the {@code int} written by {@link #writeVarInt(DataOutput, int)}
+	 *         </ul>
+	 */
+	private static int readVarInt(final DataInput in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			final int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	/**
+	 * A row of a {@code Plan} that has a rate
+	 * @author ricky3350
+	 */
+	public static class Target {
+
+		/**
+		 * The recipe or technology of the row
+		 */
+		public final Recipe recipe;
+
+		/**
+		 * The text of the rate
+		 */
+		public final String expression;
+
+		/**
+		 * The selected option for what the rate means
+		 */
+		public final String option;
+
+		/**
+		 * The {@link AssemblerSettings} of the row, or <code>null</code> to use the default
+		 */
+		public final AssemblerSettings settings;
+
+		public Target(final Recipe recipe, final String expression, final String option, final AssemblerSettings settings) {
+			this.recipe = recipe;
+			this.expression = expression;
+			this.option = option;
+			this.settings = settings;
+		}
+
+	}
+
+}
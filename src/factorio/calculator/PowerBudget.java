@@ -0,0 +1,267 @@
+package factorio.calculator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import factorio.data.Assembler;
+import factorio.data.Data;
+import factorio.data.PowerSource;
+import factorio.window.treecell.CalculatedRecipe;
+
+/**
+ * A {@code PowerBudget} totals the power and fuel used by the assemblers of a {@link Calculation}: the electric power drawn
+ * while they work, including their modules and beacons, the drain of the idle machines, and the fuel burned by burner
+ * assemblers, for each kind of fuel, and the pollution that they emit. It also finds how many of each {@link PowerSource} would
+ * supply the electric power.<br>
+ * <br>
+ * The budget is built in one pass over the calculation, adding the assemblers of each recipe to the total for that recipe
+ * and its {@link AssemblerSettings}. Equal settings are not merged across recipes, since each recipe needs its own whole
+ * buildings, nor across fuels, since each burns its own fuel.
+ * @author ricky3350
+ */
+public class PowerBudget {
+
+	/**
+	 * The average power of a solar panel over a day, as a fraction of its peak power
+	 */
+	public static final double SOLAR_AVERAGE = 0.7;
+
+	/**
+	 * The energy, in joules, that must be stored for the night for each watt of peak solar power
+	 */
+	public static final double SOLAR_STORAGE = 70;
+
+	/**
+	 * The number of assemblers with each setting, in the order they are first used
+	 */
+	private final Map<AssemblerSettings, Double> assemblers = new LinkedHashMap<>();
+
+	/**
+	 * The settings of the assemblers of each recipe, by the recipe's name and the settings, in the order they are first used
+	 */
+	private final Map<String, AssemblerSettings> settings = new LinkedHashMap<>();
+
+	/**
+	 * The number of assemblers of each recipe with each setting, by the same keys as {@link #settings}
+	 */
+	private final Map<String, Double> counts = new HashMap<>();
+
+	/**
+	 * The power, in watts, of the fuel burned by burner assemblers, by fuel
+	 */
+	private final Map<String, Double> fuelPower = new LinkedHashMap<>();
+
+	private double activePower, drain, pollution;
+
+	/**
+	 * Creates a new {@code PowerBudget} for the given calculation.
+	 * @param calc - The calculation
+	 */
+	public PowerBudget(final Calculation calc) {
+		for (final CalculatedRecipe recipe : calc.getResult())
+			this.add(recipe);
+
+		this.settings.forEach((key, settings) -> {
+			final double count = this.counts.get(key);
+			final Assembler assembler = settings.getAssembler();
+			this.assemblers.merge(settings, count, Double::sum);
+			this.activePower += count * settings.getElectricPower();
+			this.pollution += count * settings.getPollution();
+			if (assembler.burnerPowered) {
+				this.fuelPower.merge(settings.getFuel(), count * assembler.energy * settings.getEfficiency() / assembler.fuelEffectivity, Double::sum);
+			} else {
+				// Every machine that is built for the recipe drains power, even while it waits
+				this.drain += Math.ceil(count - 1e-9) * assembler.drain;
+			}
+		});
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>add</i></b><br>
+	 * <pre> private void add({@link CalculatedRecipe} recipe)</pre> Adds the assemblers of the given recipe and all of its
+	 * ingredients to the totals
+	 * </ul>
+	 */
+	private void add(final CalculatedRecipe recipe) {
+		final AssemblerSettings s = recipe.getAssembler();
+		if (s != null && recipe.getRecipe() != null && recipe.getAssemblers() > 0) {
+			final String key = recipe.getRecipe().name + "|" + s;
+			this.settings.putIfAbsent(key, s);
+			this.counts.merge(key, recipe.getAssemblers(), Double::sum);
+		}
+		for (final CalculatedRecipe r : recipe.getIngredients())
+			this.add(r);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getAssemblers</i></b><br>
+	 * <pre> public {@link Map}&lt;{@link AssemblerSettings}, {@link Double}&gt; getAssemblers()</pre>
+	 * @return the number of assemblers with each setting
+	 *         </ul>
+	 */
+	public Map<AssemblerSettings, Double> getAssemblers() {
+		return Collections.unmodifiableMap(this.assemblers);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getActivePower</i></b><br>
+	 * <pre> public double getActivePower()</pre>
+	 * @return the electric power, in watts, drawn by the assemblers while they work
+	 *         </ul>
+	 */
+	public double getActivePower() {
+		return this.activePower;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getDrain</i></b><br>
+	 * <pre> public double getDrain()</pre>
+	 * @return the electric power, in watts, always drained by the electric assemblers, counting each one that must be built
+	 *         </ul>
+	 */
+	public double getDrain() {
+		return this.drain;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getElectricPower</i></b><br>
+	 * <pre> public double getElectricPower()</pre>
+	 * @return the total electric power, in watts: the {@linkplain #getActivePower() active power} and the
+	 *         {@linkplain #getDrain() drain}
+	 *         </ul>
+	 */
+	public double getElectricPower() {
+		return this.activePower + this.drain;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getPollution</i></b><br>
+	 * <pre> public double getPollution()</pre>
+	 * @return the pollution emitted per minute by the assemblers while they work
+	 *         </ul>
+	 */
+	public double getPollution() {
+		return this.pollution;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getFuelPower</i></b><br>
+	 * <pre> public {@link Map}&lt;{@link String}, {@link Double}&gt; getFuelPower()</pre>
+	 * @return the power, in watts, of the fuel burned by burner assemblers, by fuel
+	 *         </ul>
+	 */
+	public Map<String, Double> getFuelPower() {
+		return Collections.unmodifiableMap(this.fuelPower);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getFuelRates</i></b><br>
+	 * <pre> public {@link Map}&lt;{@link String}, {@link Double}&gt; getFuelRates()</pre>
+	 * @return the rate, in items per second, at which burner assemblers burn each fuel. Fuels without a fuel value are left
+	 *         out.
+	 *         </ul>
+	 */
+	public Map<String, Double> getFuelRates() {
+		final Map<String, Double> ret = new LinkedHashMap<>();
+		this.fuelPower.forEach((fuel, power) -> {
+			final long value = Data.getFuelValue(fuel);
+			if (value > 0) ret.put(fuel, power / value);
+		});
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getGeneration</i></b><br>
+	 * <pre> public {@link List}&lt;{@link Generator}&gt; getGeneration()</pre>
+	 * @return how many of each loaded {@link PowerSource} would be needed to supply the {@linkplain #getElectricPower() electric
+	 *         power} on its own: steam engines, the boilers that feed them and the fuel they burn, solar panels for the average
+	 *         over a day, and accumulators for the night
+	 *         </ul>
+	 */
+	public List<Generator> getGeneration() {
+		final double power = this.getElectricPower();
+		final List<Generator> ret = new ArrayList<>();
+		for (final PowerSource source : Data.getPowerSources()) {
+			switch (source.kind) {
+				case BOILER: {
+					// The steam engines turn all of the heat of the steam into electric power
+					final String fuel = AssemblerSettings.getDefaultFuel();
+					final long value = Data.getFuelValue(fuel);
+					ret.add(new Generator(source, power / source.power, value > 0 ? fuel : null, value > 0 ? power / source.fuelEffectivity / value : 0));
+					break;
+				}
+				case STEAM_ENGINE:
+					ret.add(new Generator(source, power / source.power, null, 0));
+					break;
+				case SOLAR_PANEL:
+					ret.add(new Generator(source, power / (source.power * SOLAR_AVERAGE), null, 0));
+					break;
+				case ACCUMULATOR:
+					ret.add(new Generator(source, power / SOLAR_AVERAGE * SOLAR_STORAGE / source.capacity, null, 0));
+					break;
+			}
+		}
+		ret.sort((a, b) -> a.source.kind == b.source.kind ? a.source.name.compareTo(b.source.name) : a.source.kind.compareTo(b.source.kind));
+		return ret;
+	}
+
+	/**
+	 * A number of {@link PowerSource}s of one kind, and the fuel that they burn
+	 * @author ricky3350
+	 */
+	public static class Generator {
+
+		/**
+		 * The power source
+		 */
+		public final PowerSource source;
+
+		/**
+		 * The number of the power source that are needed
+		 */
+		public final double count;
+
+		/**
+		 * The fuel burned by a boiler, or <code>null</code> if it burns none
+		 */
+		public final String fuel;
+
+		/**
+		 * The rate, in items per second, at which {@link #fuel} is burned
+		 */
+		public final double fuelRate;
+
+		/**
+		 * The pollution emitted per minute by the power sources
+		 */
+		public final double pollution;
+
+		private Generator(final PowerSource source, final double count, final String fuel, final double fuelRate) {
+			this.source = source;
+			this.count = count;
+			this.fuel = fuel;
+			this.fuelRate = fuelRate;
+			this.pollution = count * source.emissions;
+		}
+
+		@Override
+		public String toString() {
+			return this.count + " " + this.source.name + (this.fuel == null ? "" : " burning " + this.fuelRate + " " + this.fuel + "/s");
+		}
+
+	}
+
+}
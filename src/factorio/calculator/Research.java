@@ -0,0 +1,430 @@
+package factorio.calculator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import factorio.data.Data;
+import factorio.data.Technology;
+
+/**
+ * A {@code Research} plans a queue of {@link Technology}s: the order they are researched in, how long each takes, and the
+ * science packs that must be made for them, either with a fixed number of labs or at a fixed rate of research.<br>
+ * <br>
+ * Technologies with many levels, like the infinite ones, are defined by a single prototype and a formula for the count of
+ * each level. A range of levels of one prototype is planned as a single {@link Step}, whose units are the sum of the formula
+ * over the range, so no {@link factorio.data.Recipe} is made for each level.
+ * @author ricky3350
+ */
+public class Research {
+
+	/**
+	 * How the rate of research is given
+	 * @author ricky3350
+	 */
+	public static enum Mode {
+		/**
+		 * A fixed number of labs; the time taken by each technology follows from it
+		 */
+		LABS("labs"),
+		/**
+		 * A fixed number of units of research per minute (science per minute); the number of labs follows from it
+		 */
+		SPM("units per minute");
+
+		private final String name;
+
+		private Mode(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return this.name;
+		}
+	}
+
+	/**
+	 * The settings of the labs, or <code>null</code> to use the {@linkplain AssemblerSettings#getDefaultSettings(factorio.data.Recipe)
+	 * default settings} of each technology
+	 */
+	private final AssemblerSettings labSettings;
+
+	/**
+	 * The research speed bonus from researched technologies, e.g. <code>0.5</code> for +50%
+	 */
+	private final double speedBonus;
+
+	/**
+	 * The research productivity bonus from researched technologies, e.g. <code>0.1</code> for +10%
+	 */
+	private final double productivityBonus;
+
+	/**
+	 * The loaded technologies, by {@linkplain Technology#getPrototypeName() prototype name}
+	 */
+	private final Map<String, Technology> technologies = new HashMap<>();
+
+	/**
+	 * Creates a new {@code Research} with the technologies in {@link Data}.
+	 * @param labSettings - The settings of the labs, or <code>null</code> to use the default settings of each technology
+	 * @param speedBonus - The research speed bonus, e.g. <code>0.5</code> for +50%
+	 * @param productivityBonus - The research productivity bonus, e.g. <code>0.1</code> for +10%
+	 * @throws IllegalArgumentException If the speed bonus is -100% or less, or the productivity bonus is negative
+	 */
+	public Research(final AssemblerSettings labSettings, final double speedBonus, final double productivityBonus) {
+		if (speedBonus <= -1) throw new IllegalArgumentException("Research speed cannot be reduced to 0");
+		if (productivityBonus < 0) throw new IllegalArgumentException("Research productivity cannot be negative");
+
+		this.labSettings = labSettings;
+		this.speedBonus = speedBonus;
+		this.productivityBonus = productivityBonus;
+		for (final Technology t : Data.getTechnologies())
+			this.technologies.put(t.getPrototypeName(), t);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getTechnology</i></b><br>
+	 * <pre> public {@link Technology} getTechnology({@link String} prototypeName)</pre>
+	 * @param prototypeName - The name of a technology prototype, e.g. <code>automation-2</code>
+	 * @return the technology with the given prototype name, or <code>null</code> if it is not loaded
+	 *         </ul>
+	 */
+	public Technology getTechnology(final String prototypeName) {
+		return this.technologies.get(prototypeName);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getUnits</i></b><br>
+	 * <pre> public static double getUnits({@link Technology} tech, int from, int to)</pre>
+	 * @param tech - A technology
+	 * @param from - The first level to research
+	 * @param to - The last level to research
+	 * @return the total number of units needed to research the given levels of the technology. A formula is compiled once and
+	 *         evaluated for each level; Factorio rounds the count of each level down.
+	 * @throws IllegalArgumentException If the technology's count formula is not valid, or uses a variable other than
+	 *         <code>L</code> or <code>l</code>
+	 *         </ul>
+	 */
+	public static double getUnits(final Technology tech, final int from, final int to) {
+		if (to < from) return 0;
+		if (tech.getCountFormula() == null) return (double) tech.count * (to - from + 1);
+
+		final Expression formula = Evaluator.compile(tech.getCountFormula());
+		final String[] variables = formula.getVariables();
+		for (final String v : variables)
+			if (!v.equals("L") && !v.equals("l")) throw new IllegalArgumentException("Unknown variable " + v + " in the count of " + tech.getPrototypeName());
+
+		final double[] values = new double[variables.length];
+		double ret = 0;
+		for (long level = from; level <= to; level++) {
+			for (int i = 0; i < values.length; i++)
+				values[i] = level;
+			ret += Math.floor(formula.evaluate(values));
+		}
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>plan</i></b><br>
+	 * <pre> public {@link Schedule} plan({@link Map}&lt;{@link Technology}, {@link Integer}&gt; targets, {@link Collection}&lt;{@link String}&gt; researched, {@link Mode} mode, double value)</pre>
+	 * Plans the research of the given technologies, and of all of their prerequisites that are not researched yet.
+	 * Prerequisites are researched just before the first technology that needs them.
+	 * @param targets - Maps the technologies to research, in order, to the level to research each up to. Levels below a
+	 *        technology's {@linkplain Technology#getLevel() level} are raised to it, and levels above its
+	 *        {@link Technology#maxLevel} are lowered to it.
+	 * @param researched - The prototype names of the technologies that are already researched
+	 * @param mode - Whether the value is the number of labs, or the units of research per minute
+	 * @param value - The number of labs, or the units of research per minute
+	 * @return the schedule of the research
+	 * @throws IllegalArgumentException If the value is not positive, or no lab can research one of the technologies
+	 *         </ul>
+	 */
+	public Schedule plan(final Map<Technology, Integer> targets, final Collection<String> researched, final Mode mode, final double value) {
+		if (!(value > 0)) throw new IllegalArgumentException("The " + mode + " must be positive");
+
+		final Map<String, Integer> done = new HashMap<>();
+		for (final String name : researched) {
+			final Technology t = this.technologies.get(name);
+			if (t != null) done.put(name, t.maxLevel);
+		}
+
+		final Schedule ret = new Schedule(mode, value);
+		for (final Map.Entry<Technology, Integer> target : targets.entrySet())
+			this.add(target.getKey(), target.getValue(), done, new HashSet<>(), ret);
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>add</i></b><br>
+	 * <pre> private void add({@link Technology} tech, int level, {@link Map}&lt;{@link String}, {@link Integer}&gt; done, {@link Set}&lt;{@link String}&gt; visiting, {@link Schedule} schedule)</pre>
+	 * Adds the prerequisites of the given technology that are not done to the schedule, and then the levels of the technology
+	 * up to the given level that are not done
+	 * @param done - Maps prototype names to the highest level of them that has been researched or scheduled
+	 * @param visiting - The prototype names whose prerequisites are being added, to stop at cycles
+	 *        </ul>
+	 */
+	private void add(final Technology tech, final int level, final Map<String, Integer> done, final Set<String> visiting, final Schedule schedule) {
+		final String name = tech.getPrototypeName();
+		final int to = Math.min(Math.max(level, tech.getLevel()), tech.maxLevel);
+		final int from = Math.max(tech.getLevel(), done.getOrDefault(name, tech.getLevel() - 1) + 1);
+		if (from > to || !visiting.add(name)) return;
+
+		for (final String p : tech.getPrerequisites()) {
+			final Technology pre = this.technologies.get(p);
+			if (pre != null) this.add(pre, pre.getLevel(), done, visiting, schedule);
+		}
+		visiting.remove(name);
+
+		done.put(name, to);
+		schedule.add(new Step(tech, from, to, getUnits(tech, from, to), this.getSettings(tech)));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getSettings</i></b><br>
+	 * <pre> private {@link AssemblerSettings} getSettings({@link Technology} tech)</pre>
+	 * @return the settings of the labs that research the given technology
+	 *         </ul>
+	 */
+	private AssemblerSettings getSettings(final Technology tech) {
+		if (this.labSettings != null && this.labSettings.getAssembler().ingredients >= tech.getIngredientCount()) return this.labSettings;
+		return AssemblerSettings.getDefaultSettings(tech);
+	}
+
+	/**
+	 * A range of levels of one technology in a {@link Schedule}
+	 * @author ricky3350
+	 */
+	public class Step {
+
+		/**
+		 * The technology
+		 */
+		public final Technology technology;
+
+		/**
+		 * The first and last levels researched in this step
+		 */
+		public final int from, to;
+
+		/**
+		 * The number of units of research that are needed for the levels
+		 */
+		public final double units;
+
+		/**
+		 * The settings of the labs that research the technology
+		 */
+		public final AssemblerSettings lab;
+
+		/**
+		 * The speed of each lab, in units of research per second, and the number of units that each unit of ingredients
+		 * researches
+		 */
+		private final double labRate, productivity;
+
+		private double start, duration, labs;
+
+		private Step(final Technology technology, final int from, final int to, final double units, final AssemblerSettings lab) {
+			this.technology = technology;
+			this.from = from;
+			this.to = to;
+			this.units = units;
+			this.lab = lab;
+			this.labRate = lab.getAssembler().speed * lab.getSpeed() * (1 + Research.this.speedBonus) / technology.unitTime;
+			this.productivity = lab.getProductivity() + Research.this.productivityBonus;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getStart</i></b><br>
+		 * <pre> public double getStart()</pre>
+		 * @return the time, in seconds from the start of the schedule, that this step starts
+		 *         </ul>
+		 */
+		public double getStart() {
+			return this.start;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getDuration</i></b><br>
+		 * <pre> public double getDuration()</pre>
+		 * @return the time, in seconds, that this step takes
+		 *         </ul>
+		 */
+		public double getDuration() {
+			return this.duration;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getLabs</i></b><br>
+		 * <pre> public double getLabs()</pre>
+		 * @return the number of labs that are busy during this step
+		 *         </ul>
+		 */
+		public double getLabs() {
+			return this.labs;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getPackRates</i></b><br>
+		 * <pre> public {@link Map}&lt;{@link String}, {@link Double}&gt; getPackRates()</pre>
+		 * @return the rate, in items per second, at which each science pack is consumed during this step
+		 *         </ul>
+		 */
+		public Map<String, Double> getPackRates() {
+			final double rate = this.labs * this.labRate;
+			final Map<String, Double> ret = new LinkedHashMap<>();
+			this.technology.getUnitIngredients().forEach((pack, amount) -> ret.put(pack, amount * rate));
+			return ret;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getPacks</i></b><br>
+		 * <pre> public {@link Map}&lt;{@link String}, {@link Double}&gt; getPacks()</pre>
+		 * @return the total number of each science pack consumed in this step
+		 *         </ul>
+		 */
+		public Map<String, Double> getPacks() {
+			final double sets = this.units / this.productivity;
+			final Map<String, Double> ret = new LinkedHashMap<>();
+			this.technology.getUnitIngredients().forEach((pack, amount) -> ret.put(pack, amount * sets));
+			return ret;
+		}
+
+		@Override
+		public String toString() {
+			return this.technology.getPrototypeName() + (this.from == this.to ? "" : " (levels " + this.from + "-" + this.to + ")");
+		}
+
+	}
+
+	/**
+	 * The result of {@link Research#plan(Map, Collection, Mode, double)}: the steps, in order, and the totals of the science
+	 * packs
+	 * @author ricky3350
+	 */
+	public class Schedule {
+
+		private final Mode mode;
+		private final double value;
+		private final List<Step> steps = new ArrayList<>();
+		private final Map<String, Double> packs = new LinkedHashMap<>();
+		private final Map<String, Double> peakRates = new LinkedHashMap<>();
+		private double time, peakLabs;
+
+		private Schedule(final Mode mode, final double value) {
+			this.mode = mode;
+			this.value = value;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>add</i></b><br>
+		 * <pre> private void add({@link Step} step)</pre> Times the given step to start at the end of the schedule, and adds it
+		 * </ul>
+		 */
+		private void add(final Step step) {
+			if (this.mode == Mode.LABS) {
+				step.labs = this.value;
+			} else {
+				step.labs = this.value / 60 / step.productivity / step.labRate;
+			}
+			step.start = this.time;
+			step.duration = step.units / step.productivity / (step.labs * step.labRate);
+			this.time += step.duration;
+			this.peakLabs = Math.max(this.peakLabs, step.labs);
+
+			step.getPacks().forEach((pack, amount) -> this.packs.merge(pack, amount, Double::sum));
+			step.getPackRates().forEach((pack, rate) -> this.peakRates.merge(pack, rate, Math::max));
+			this.steps.add(step);
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getSteps</i></b><br>
+		 * <pre> public {@link List}&lt;{@link Step}&gt; getSteps()</pre>
+		 * @return the steps of the schedule, in the order they are researched
+		 *         </ul>
+		 */
+		public List<Step> getSteps() {
+			return Collections.unmodifiableList(this.steps);
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getTime</i></b><br>
+		 * <pre> public double getTime()</pre>
+		 * @return the total time, in seconds, of the schedule
+		 *         </ul>
+		 */
+		public double getTime() {
+			return this.time;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getPeakLabs</i></b><br>
+		 * <pre> public double getPeakLabs()</pre>
+		 * @return the highest number of labs that are busy at once
+		 *         </ul>
+		 */
+		public double getPeakLabs() {
+			return this.peakLabs;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getPacks</i></b><br>
+		 * <pre> public {@link Map}&lt;{@link String}, {@link Double}&gt; getPacks()</pre>
+		 * @return the total number of each science pack consumed by the schedule
+		 *         </ul>
+		 */
+		public Map<String, Double> getPacks() {
+			return Collections.unmodifiableMap(this.packs);
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getPeakRates</i></b><br>
+		 * <pre> public {@link Map}&lt;{@link String}, {@link Double}&gt; getPeakRates()</pre>
+		 * @return the highest rate, in items per second, at which each science pack is consumed during the schedule; the
+		 *         rate that its production must keep up with for the research never to wait for it
+		 *         </ul>
+		 */
+		public Map<String, Double> getPeakRates() {
+			return Collections.unmodifiableMap(this.peakRates);
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getAverageRates</i></b><br>
+		 * <pre> public {@link Map}&lt;{@link String}, {@link Double}&gt; getAverageRates()</pre>
+		 * @return the average rate, in items per second, at which each science pack is consumed over the whole schedule; the
+		 *         rate that is enough if packs can be stockpiled ahead of time
+		 *         </ul>
+		 */
+		public Map<String, Double> getAverageRates() {
+			final Map<String, Double> ret = new LinkedHashMap<>();
+			this.packs.forEach((pack, amount) -> ret.put(pack, this.time > 0 ? amount / this.time : 0));
+			return ret;
+		}
+
+	}
+
+}
@@ -0,0 +1,328 @@
+package factorio.calculator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleFunction;
+
+import factorio.data.Data;
+import factorio.data.Recipe;
+import factorio.window.treecell.CalculatedRecipe;
+
+/**
+ * A {@code Sweep} evaluates a plan at many input rates, to find how the number of buildings and power scale with them.<br>
+ * <br>
+ * With fixed {@link AssemblerSettings}, a {@link Calculation} is linear in the rate of each product, so each product is
+ * calculated only once, at one cycle per second, and remembered as the number of assemblers that every recipe in its chain
+ * requires. A point of the sweep is then a weighted sum of these, and only the rounding of each recipe's assemblers up to a
+ * whole number is done per point. Since the settings of a recipe never depend on its rate (see {@link AssemblerOptimizer}),
+ * no point needs to be calculated again.
+ * @author ricky3350
+ */
+public class Sweep {
+
+	/**
+	 * The settings used for the recipes in the calculations, by recipe. Recipes that are not in the map use their default
+	 * settings.
+	 */
+	private final Map<Recipe, AssemblerSettings> settings;
+
+	/**
+	 * Maps the name of a recipe and its settings to the index of its counts in {@link #responses}
+	 */
+	private final Map<String, Integer> indices = new HashMap<>();
+
+	/**
+	 * The settings for each index
+	 */
+	private final List<AssemblerSettings> assemblers = new ArrayList<>();
+
+	/**
+	 * Maps each product that has been calculated to the number of assemblers that each index requires when the product is made
+	 * at one cycle per second
+	 */
+	private final Map<Recipe, Response> responses = new HashMap<>();
+
+	/**
+	 * Creates a new {@code Sweep} using the given settings.
+	 * @param settings - Maps recipes to the settings they should be assembled with. Recipes that are not in the map use their
+	 *        default settings.
+	 * @see {@link Calculation#applySettings(Map)}
+	 */
+	public Sweep(final Map<Recipe, AssemblerSettings> settings) {
+		this.settings = settings == null ? Collections.emptyMap() : settings;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>range</i></b><br>
+	 * <pre> public static double[] range(double from, double to, int points)</pre>
+	 * @return an array of <code>points</code> evenly spaced values from <code>from</code> to <code>to</code>, inclusive
+	 * @throws IllegalArgumentException if <code>points</code> is less than 1
+	 *         </ul>
+	 */
+	public static double[] range(final double from, final double to, final int points) {
+		if (points < 1) throw new IllegalArgumentException("A sweep needs at least one point");
+
+		final double[] ret = new double[points];
+		for (int i = 0; i < points; i++)
+			ret[i] = points == 1 ? from : from + (to - from) * i / (points - 1);
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>run</i></b><br>
+	 * <pre> public {@link Table} run({@link String} parameter, double[] values, {@link DoubleFunction}&lt;{@link Map}&lt;{@link Recipe}, ? extends {@link Number}&gt;&gt; rates)</pre>
+	 * Evaluates the plan at each of the given values of a parameter.
+	 * @param parameter - the name of the parameter, for the table
+	 * @param values - the values of the parameter
+	 * @param rates - gives the rates (in cycles per second) that the products should be produced at for a value of the
+	 *        parameter
+	 * @return a table with a row for each value
+	 *         </ul>
+	 */
+	public Table run(final String parameter, final double[] values, final DoubleFunction<Map<Recipe, ? extends Number>> rates) {
+		final List<Map<Recipe, ? extends Number>> points = new ArrayList<>(values.length);
+		for (final double value : values) {
+			final Map<Recipe, ? extends Number> r = rates.apply(value);
+			for (final Recipe recipe : r.keySet())
+				this.solve(recipe);
+			points.add(r);
+		}
+
+		final Map<String, Integer> columns = new LinkedHashMap<>();
+		final int[] column = new int[this.assemblers.size()];
+		final double[] power = new double[this.assemblers.size()];
+		final double[] pollution = new double[this.assemblers.size()];
+		for (int k = 0; k < column.length; k++) {
+			final AssemblerSettings s = this.assemblers.get(k);
+			final String name = (Data.nameFor(s.getAssembler().name) + " " + s.getBonusString(false)).trim();
+			if (!columns.containsKey(name)) columns.put(name, columns.size());
+			column[k] = columns.get(name);
+			power[k] = s.getElectricPower();
+			pollution[k] = s.getPollution();
+		}
+
+		final Table ret = new Table(parameter, values, columns.keySet().toArray(new String[columns.size()]));
+		final double[] counts = new double[column.length];
+		for (int i = 0; i < values.length; i++) {
+			for (final Map.Entry<Recipe, ? extends Number> entry : points.get(i).entrySet()) {
+				final double rate = entry.getValue().doubleValue();
+				final Response response = this.responses.get(entry.getKey());
+				for (int j = 0; j < response.indices.length; j++)
+					counts[response.indices[j]] += rate * response.counts[j];
+			}
+
+			for (int k = 0; k < counts.length; k++) {
+				final double rounded = Math.ceil(counts[k] - 1e-9);
+				ret.buildings[i] += counts[k];
+				ret.roundedBuildings[i] += rounded;
+				ret.power[i] += counts[k] * power[k];
+				ret.pollution[i] += counts[k] * pollution[k];
+				ret.assemblers[column[k]][i] += rounded;
+				counts[k] = 0;
+			}
+		}
+
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>solve</i></b><br>
+	 * <pre> private void solve({@link Recipe} product)</pre> Calculates the given product at one cycle per second, if it has
+	 * not been already, and puts the result in {@link #responses}
+	 * </ul>
+	 */
+	private void solve(final Recipe product) {
+		if (this.responses.containsKey(product)) return;
+
+		final Calculation calc = new Calculation(Collections.singletonMap(product, 1));
+		calc.applySettings(this.settings);
+
+		final Map<Integer, Double> counts = new LinkedHashMap<>();
+		for (final CalculatedRecipe recipe : calc.getResult())
+			this.addCounts(recipe, counts);
+
+		final Response response = new Response(counts.size());
+		int j = 0;
+		for (final Map.Entry<Integer, Double> entry : counts.entrySet()) {
+			response.indices[j] = entry.getKey();
+			response.counts[j++] = entry.getValue();
+		}
+		this.responses.put(product, response);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>addCounts</i></b><br>
+	 * <pre> private void addCounts({@link CalculatedRecipe} recipe, {@link Map}&lt;{@link Integer}, {@link Double}&gt; counts)</pre>
+	 * Adds the assemblers required by the given recipe and all of its ingredients to the given map, by index
+	 * </ul>
+	 */
+	private void addCounts(final CalculatedRecipe recipe, final Map<Integer, Double> counts) {
+		final AssemblerSettings s = recipe.getAssembler();
+		if (s != null && recipe.getRecipe() != null) {
+			final String key = recipe.getRecipe().name + "|" + s;
+			Integer index = this.indices.get(key);
+			if (index == null) {
+				index = this.assemblers.size();
+				this.indices.put(key, index);
+				this.assemblers.add(s);
+			}
+			counts.merge(index, recipe.getAssemblers(), Double::sum);
+		}
+
+		for (final CalculatedRecipe r : recipe.getIngredients())
+			this.addCounts(r, counts);
+	}
+
+	/**
+	 * The assemblers required to make a product at one cycle per second
+	 * @author ricky3350
+	 */
+	private static class Response {
+
+		private final int[] indices;
+		private final double[] counts;
+
+		private Response(final int size) {
+			this.indices = new int[size];
+			this.counts = new double[size];
+		}
+
+	}
+
+	/**
+	 * The result of a {@link Sweep}, with a row for each value of the parameter
+	 * @author ricky3350
+	 */
+	public static class Table {
+
+		/**
+		 * The name of the parameter
+		 */
+		public final String parameter;
+
+		/**
+		 * The value of the parameter in each row
+		 */
+		public final double[] values;
+
+		/**
+		 * The total number of assemblers in each row, as calculated
+		 */
+		public final double[] buildings;
+
+		/**
+		 * The total number of assemblers in each row, with the assemblers of each recipe rounded up to a whole number
+		 */
+		public final double[] roundedBuildings;
+
+		/**
+		 * The electric power, in watts, used by the assemblers in each row
+		 */
+		public final double[] power;
+
+		/**
+		 * The pollution emitted per minute by the assemblers in each row
+		 */
+		public final double[] pollution;
+
+		/**
+		 * The names of the types of assemblers, with their modules
+		 */
+		public final String[] assemblerNames;
+
+		/**
+		 * The rounded number of each type of assembler (the first index) in each row (the second index)
+		 */
+		public final double[][] assemblers;
+
+		private Table(final String parameter, final double[] values, final String[] assemblerNames) {
+			this.parameter = parameter;
+			this.values = values.clone();
+			this.buildings = new double[values.length];
+			this.roundedBuildings = new double[values.length];
+			this.power = new double[values.length];
+			this.pollution = new double[values.length];
+			this.assemblerNames = assemblerNames;
+			this.assemblers = new double[assemblerNames.length][values.length];
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getColumnNames</i></b><br>
+		 * <pre> public {@link String}[] getColumnNames()</pre>
+		 * @return the names of the columns of this table
+		 *         </ul>
+		 */
+		public String[] getColumnNames() {
+			final String[] ret = new String[5 + this.assemblerNames.length];
+			ret[0] = this.parameter;
+			ret[1] = "Buildings";
+			ret[2] = "Buildings (rounded)";
+			ret[3] = "Power (W)";
+			ret[4] = "Pollution (/min)";
+			System.arraycopy(this.assemblerNames, 0, ret, 5, this.assemblerNames.length);
+			return ret;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>get</i></b><br>
+		 * <pre> public double get(int row, int column)</pre>
+		 * @return the value in the given row and column, in the order of {@link #getColumnNames()}
+		 *         </ul>
+		 */
+		public double get(final int row, final int column) {
+			switch (column) {
+				case 0:
+					return this.values[row];
+				case 1:
+					return this.buildings[row];
+				case 2:
+					return this.roundedBuildings[row];
+				case 3:
+					return this.power[row];
+				case 4:
+					return this.pollution[row];
+				default:
+					return this.assemblers[column - 5][row];
+			}
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>writeCSV</i></b><br>
+		 * <pre> public void writeCSV({@link Appendable} out)</pre> Writes this table as comma separated values, with a header
+		 * row
+		 * @param out - where to write the table
+		 * @throws IOException if an I/O error occurs
+		 *         </ul>
+		 */
+		public void writeCSV(final Appendable out) throws IOException {
+			final String[] names = this.getColumnNames();
+			for (int c = 0; c < names.length; c++) {
+				if (c > 0) out.append(',');
+				out.append('"').append(names[c].replace("\"", "\"\"")).append('"');
+			}
+			out.append(System.lineSeparator());
+
+			for (int r = 0; r < this.values.length; r++) {
+				for (int c = 0; c < names.length; c++) {
+					if (c > 0) out.append(',');
+					out.append(Double.toString(this.get(r, c)));
+				}
+				out.append(System.lineSeparator());
+			}
+		}
+
+	}
+
+}
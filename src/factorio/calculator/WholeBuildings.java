@@ -0,0 +1,542 @@
+package factorio.calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import factorio.Metrics;
+import factorio.data.Assembler;
+import factorio.data.Data;
+import factorio.data.Recipe;
+import factorio.window.treecell.CalculatedRecipe;
+
+/**
+ * A class for choosing the {@link AssemblerSettings} of every {@link Recipe} in a {@link Calculation} so that the
+ * production needs as few whole buildings as possible. A calculation gives a fractional number of assemblers for each
+ * recipe, but every one of them that is started must be built; the settings are chosen so that the total of the rounded up
+ * counts is smallest, and of those, so that the fewest of the buildings are spare.<br>
+ * <br>
+ * The solved calculation is flattened once into arrays: the parent of each of its recipes, and the amount of the recipe that
+ * each cycle of the parent needs, either as an ingredient or as fuel. For each recipe, each of its settings is reduced to three
+ * numbers, buildings per cycle, ingredients per cycle and fuel per cycle, and settings that are no better in any of them than
+ * another are discarded. The rates of every recipe follow from the settings in one pass over the arrays, parents first.<br>
+ * <br>
+ * The settings are then searched depth first, branching on the recipes in the order they first appear from the top of the
+ * calculation. Recipes whose settings have not been chosen are bounded by the smallest of each of their numbers, and so are the
+ * rates of everything below them, which gives a lower bound on the buildings of every recipe; a branch is cut as soon as that
+ * bound, rounded up, cannot beat the best answer so far. The search starts from the settings of the calculation, and stops when
+ * its time budget runs out, returning the best answer it has found.
+ * @author ricky3350
+ */
+public class WholeBuildings {
+
+	/**
+	 * The milliseconds that the search is given by default
+	 */
+	public static final long DEFAULT_BUDGET = 500;
+
+	/**
+	 * The tolerance of a fractional count that is taken to be whole
+	 */
+	private static final double EPSILON = 1e-9;
+
+	/**
+	 * The number of recipes in the calculation, and the number of times they are used in it
+	 */
+	private final int recipeCount, nodeCount;
+
+	/**
+	 * The recipes in the order that they first appear, and their settings, with the settings of the calculation first
+	 */
+	private final Recipe[] recipes;
+	private final AssemblerSettings[][] settings;
+
+	/**
+	 * Buildings, ingredients and fuel per cycle of each setting of each recipe
+	 */
+	private final double[][] buildings, ingredients, fuel;
+
+	/**
+	 * The smallest of {@link #buildings}, {@link #ingredients} and {@link #fuel} for each recipe
+	 */
+	private final double[] minBuildings, minIngredients, minFuel;
+
+	/**
+	 * For each use of a recipe, parents first: the index of the recipe, the index of its parent or -1 if its rate is fixed,
+	 * the cycles needed for each cycle of the parent (or the fixed rate), and whether or not it is the parent's fuel
+	 */
+	private final int[] recipe, parent;
+	private final double[] amount;
+	private final boolean[] isFuel;
+
+	/**
+	 * The settings of each recipe in the order that they are tried
+	 */
+	private final int[][] tries;
+
+	/**
+	 * The chosen setting of each recipe, or -1 if it has not been chosen
+	 */
+	private final int[] choice;
+
+	/**
+	 * Scratch space for the cycles of each use and the buildings of each recipe
+	 */
+	private final double[] cycles, count;
+	private final boolean[] exact, recipeExact;
+
+	/**
+	 * The recipes that have more than one setting, in the order that they are branched on
+	 */
+	private final int[] order;
+
+	private int[] best;
+	private double[] bestCount;
+	private long bestTotal;
+	private double bestOverbuild;
+
+	private long deadline, explored;
+	private boolean stopped;
+
+	/**
+	 * The bound found by the last call to {@link #bound()}
+	 */
+	private long boundTotal;
+	private double boundOverbuild;
+
+	private WholeBuildings(final Calculation calc) {
+		final Map<Recipe, Integer> index = new LinkedHashMap<>();
+		final Map<Recipe, AssemblerSettings> base = new HashMap<>();
+		final List<CalculatedRecipe> nodes = new ArrayList<>();
+		final List<Integer> parents = new ArrayList<>();
+		for (final CalculatedRecipe r : calc.getResult())
+			flatten(r, -1, nodes, parents, index, base);
+
+		this.nodeCount = nodes.size();
+		this.recipeCount = index.size();
+		this.recipes = index.keySet().toArray(new Recipe[this.recipeCount]);
+
+		this.recipe = new int[this.nodeCount];
+		this.parent = new int[this.nodeCount];
+		this.amount = new double[this.nodeCount];
+		this.isFuel = new boolean[this.nodeCount];
+		final boolean[] hasIngredients = new boolean[this.recipeCount], hasFuel = new boolean[this.recipeCount];
+		final int[] depth = new int[this.recipeCount], nodeDepth = new int[this.nodeCount];
+		Arrays.fill(depth, Integer.MAX_VALUE);
+		for (int i = 0; i < this.nodeCount; i++) {
+			final CalculatedRecipe node = nodes.get(i);
+			final Recipe r = node.getRecipe();
+			this.recipe[i] = index.get(r);
+			this.parent[i] = parents.get(i);
+			this.isFuel[i] = node.hasFuelLabel;
+
+			if (this.parent[i] >= 0) {
+				final CalculatedRecipe p = nodes.get(this.parent[i]);
+				final int pr = this.recipe[this.parent[i]];
+				nodeDepth[i] = nodeDepth[this.parent[i]] + 1;
+				if (!node.hasFuelLabel) {
+					this.amount[i] = p.getRecipe().getIngredientAmount(node.product) / r.getResultAmount(node.product);
+					hasIngredients[pr] = true;
+				} else if (Data.getFuelValue(base.get(p.getRecipe()).getFuel()) > 0) {
+					this.amount[i] = 1 / (Data.getFuelValue(base.get(p.getRecipe()).getFuel()) * r.getResultAmount(node.product) * (1 - node.getFuelShare()));
+					hasFuel[pr] = true;
+				} else {
+					// Without a fuel value, the rate of the fuel does not follow from its burner
+					this.parent[i] = -1;
+				}
+			}
+			if (this.parent[i] < 0) this.amount[i] = node.getRecipeRate();
+			depth[this.recipe[i]] = Math.min(depth[this.recipe[i]], nodeDepth[i]);
+		}
+
+		this.settings = new AssemblerSettings[this.recipeCount][];
+		this.buildings = new double[this.recipeCount][];
+		this.ingredients = new double[this.recipeCount][];
+		this.fuel = new double[this.recipeCount][];
+		this.minBuildings = new double[this.recipeCount];
+		this.minIngredients = new double[this.recipeCount];
+		this.minFuel = new double[this.recipeCount];
+		for (int r = 0; r < this.recipeCount; r++)
+			this.addSettings(r, base.get(this.recipes[r]), hasIngredients[r], hasFuel[r]);
+
+		this.choice = new int[this.recipeCount];
+		this.cycles = new double[this.nodeCount];
+		this.count = new double[this.recipeCount];
+		this.exact = new boolean[this.nodeCount];
+		this.recipeExact = new boolean[this.recipeCount];
+
+		// Each recipe tries first the settings that need the fewest buildings for each cycle, counting those below it with
+		// their best settings, so that the first answer found is the best one before rounding
+		final double[] ingredientsBelow = new double[this.nodeCount], fuelBelow = new double[this.nodeCount];
+		final int[] first = new int[this.recipeCount];
+		for (int i = this.nodeCount - 1; i >= 0; i--) {
+			final int r = this.recipe[i];
+			first[r] = i;
+			double cost = Double.POSITIVE_INFINITY;
+			for (int k = 0; k < this.settings[r].length; k++)
+				cost = Math.min(cost, this.buildings[r][k] + this.ingredients[r][k] * ingredientsBelow[i] + this.fuel[r][k] * fuelBelow[i]);
+			if (this.parent[i] >= 0) (this.isFuel[i] ? fuelBelow : ingredientsBelow)[this.parent[i]] += this.amount[i] * cost;
+		}
+		this.tries = new int[this.recipeCount][];
+		for (int r = 0; r < this.recipeCount; r++) {
+			final int i = first[r], rec = r;
+			this.tries[r] = IntStream.range(0, this.settings[r].length).boxed().sorted(Comparator.comparingDouble(k -> this.buildings[rec][k] + this.ingredients[rec][k] * ingredientsBelow[i] + this.fuel[rec][k] * fuelBelow[i])).mapToInt(Integer::intValue).toArray();
+		}
+
+		this.order = IntStream.range(0, this.recipeCount).filter(r -> this.settings[r].length > 1).boxed().sorted(Comparator.comparingInt(r -> depth[r])).mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>solve</i></b><br>
+	 * <pre> public static {@link Result} solve({@link Calculation} calc, long budget)</pre>
+	 * Chooses settings for each recipe in the given calculation that need the fewest whole buildings. Only the assemblers and
+	 * modules that the calculation would choose between are tried, and burner assemblers keep their fuel.
+	 * @param calc - A calculation
+	 * @param budget - The milliseconds that the search may take
+	 * @return the best settings found, which are the fewest possible if the search finished within its budget
+	 * @see {@link Calculation#applySettings(Map)}
+	 *      </ul>
+	 */
+	public static Result solve(final Calculation calc, final long budget) {
+		final Metrics.Timer timer = Metrics.start("wholeBuildings.solve");
+		final long deadline = System.nanoTime() + budget * 1000000;
+		final WholeBuildings search = new WholeBuildings(calc);
+
+		// Start from the better of the settings of the calculation, which are always first, and the settings that are tried
+		// first, which are the best before rounding
+		search.best = new int[search.recipeCount];
+		search.bound();
+		search.record();
+		for (int r = 0; r < search.recipeCount; r++)
+			search.choice[r] = search.tries[r][0];
+		search.bound();
+		if (search.boundTotal < search.bestTotal || search.boundTotal == search.bestTotal && search.boundOverbuild < search.bestOverbuild - EPSILON) search.record();
+
+		for (int r = 0; r < search.recipeCount; r++)
+			search.choice[r] = search.settings[r].length > 1 ? -1 : 0;
+		search.deadline = deadline;
+		search.search(0);
+		if (search.stopped) Metrics.count("wholeBuildings.budgetReached");
+		timer.stop();
+
+		final Map<Recipe, AssemblerSettings> settings = new LinkedHashMap<>();
+		final Map<Recipe, Double> assemblers = new LinkedHashMap<>();
+		for (int r = 0; r < search.recipeCount; r++) {
+			settings.put(search.recipes[r], search.settings[r][search.best[r]]);
+			assemblers.put(search.recipes[r], search.bestCount[r]);
+		}
+		return new Result(settings, assemblers, !search.stopped, search.explored);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>count</i></b><br>
+	 * <pre> public static {@link Result} count({@link Calculation} calc)</pre>
+	 * @param calc - A calculation
+	 * @return the whole buildings of each recipe in the calculation with its own settings, without searching
+	 *         </ul>
+	 */
+	public static Result count(final Calculation calc) {
+		final Map<Recipe, AssemblerSettings> settings = new LinkedHashMap<>();
+		final Map<Recipe, Double> assemblers = new LinkedHashMap<>();
+		for (final CalculatedRecipe r : calc.getResult())
+			count(r, settings, assemblers);
+		return new Result(settings, assemblers, false, 0);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>count</i></b><br>
+	 * <pre> private static void count({@link CalculatedRecipe} recipe, {@link Map}&lt;{@link Recipe}, {@link AssemblerSettings}&gt; settings, {@code Map}&lt;{@code Recipe}, {@link Double}&gt; assemblers)</pre>
+	 * Adds the assemblers of the given recipe and all of its ingredients to the given maps
+	 * </ul>
+	 */
+	private static void count(final CalculatedRecipe recipe, final Map<Recipe, AssemblerSettings> settings, final Map<Recipe, Double> assemblers) {
+		if (recipe.getRecipe() != null && recipe.getAssembler() != null) {
+			settings.putIfAbsent(recipe.getRecipe(), recipe.getAssembler());
+			assemblers.merge(recipe.getRecipe(), recipe.getAssemblers(), Double::sum);
+		}
+		for (final CalculatedRecipe r : recipe.getIngredients())
+			count(r, settings, assemblers);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>flatten</i></b><br>
+	 * <pre> private static void flatten({@link CalculatedRecipe} recipe, int parent, {@link List}&lt;CalculatedRecipe&gt; nodes, {@code List}&lt;{@link Integer}&gt; parents, {@link Map}&lt;{@link Recipe}, {@code Integer}&gt; index, {@code Map}&lt;{@code Recipe}, {@link AssemblerSettings}&gt; base)</pre>
+	 * Adds the given recipe and its ingredients to the lists, parents first. Raw resources are left out, and so are recipes
+	 * that no assembler can craft, whose ingredients keep their rates.
+	 * @param parent - The index of the parent of the recipe, or -1 if its rate is fixed
+	 *        </ul>
+	 */
+	private static void flatten(final CalculatedRecipe recipe, final int parent, final List<CalculatedRecipe> nodes, final List<Integer> parents, final Map<Recipe, Integer> index, final Map<Recipe, AssemblerSettings> base) {
+		int self = -1;
+		if (recipe.getRecipe() != null && recipe.getAssembler() != null) {
+			self = nodes.size();
+			nodes.add(recipe);
+			parents.add(parent);
+			index.putIfAbsent(recipe.getRecipe(), index.size());
+			base.putIfAbsent(recipe.getRecipe(), recipe.getAssembler());
+		}
+		for (final CalculatedRecipe r : recipe.getIngredients())
+			flatten(r, self, nodes, parents, index, base);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>addSettings</i></b><br>
+	 * <pre> private void addSettings(int r, {@link AssemblerSettings} base, boolean hasIngredients, boolean hasFuel)</pre> Finds
+	 * the settings that recipe <code>r</code> could use, with <code>base</code> first, and fills in their numbers. Settings
+	 * that are no better than another in buildings, or in ingredients or fuel when the recipe has any, are left out.
+	 * </ul>
+	 */
+	private void addSettings(final int r, final AssemblerSettings base, final boolean hasIngredients, final boolean hasFuel) {
+		final Recipe rec = this.recipes[r];
+		final List<AssemblerSettings> all = new ArrayList<>();
+		all.add(base);
+		for (final AssemblerSettings s : AssemblerOptimizer.candidates(rec, null)) {
+			// A different fuel, or none, would change the ingredients of the calculation
+			if (s.getAssembler().burnerPowered != base.getAssembler().burnerPowered) continue;
+			if (base.getAssembler().burnerPowered && !s.getFuel().equals(base.getFuel())) continue;
+			all.add(s);
+		}
+
+		final int n = all.size();
+		final double[][] numbers = new double[n][];
+		for (int i = 0; i < n; i++) {
+			final AssemblerSettings s = all.get(i);
+			final Assembler assembler = s.getAssembler();
+			final double b = rec.timeIn(assembler, s.getSpeed()) / s.getProductivity();
+			numbers[i] = new double[] {b, hasIngredients ? 1 / s.getProductivity() : 0, hasFuel ? b * assembler.energy * s.getEfficiency() / assembler.fuelEffectivity : 0};
+		}
+
+		final List<Integer> kept = new ArrayList<>();
+		outer: for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i == j || j != 0 && i == 0) continue;
+				// The settings of the calculation are always kept, and of equal settings, only the first
+				if (numbers[j][0] <= numbers[i][0] && numbers[j][1] <= numbers[i][1] && numbers[j][2] <= numbers[i][2] && (j < i || numbers[j][0] < numbers[i][0] || numbers[j][1] < numbers[i][1] || numbers[j][2] < numbers[i][2])) continue outer;
+			}
+			kept.add(i);
+		}
+		final int k = kept.size();
+		this.settings[r] = new AssemblerSettings[k];
+		this.buildings[r] = new double[k];
+		this.ingredients[r] = new double[k];
+		this.fuel[r] = new double[k];
+		this.minBuildings[r] = this.minIngredients[r] = this.minFuel[r] = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < k; i++) {
+			final int j = kept.get(i);
+			final AssemblerSettings s = all.get(j);
+			final Assembler assembler = s.getAssembler();
+			this.settings[r][i] = s;
+			this.buildings[r][i] = numbers[j][0];
+			this.ingredients[r][i] = 1 / s.getProductivity();
+			this.fuel[r][i] = assembler.burnerPowered ? numbers[j][0] * assembler.energy * s.getEfficiency() / assembler.fuelEffectivity : 0;
+			this.minBuildings[r] = Math.min(this.minBuildings[r], this.buildings[r][i]);
+			this.minIngredients[r] = Math.min(this.minIngredients[r], this.ingredients[r][i]);
+			this.minFuel[r] = Math.min(this.minFuel[r], this.fuel[r][i]);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>search</i></b><br>
+	 * <pre> private void search(int depth)</pre> Tries each setting of the recipe at the given depth of {@link #order}, and
+	 * searches deeper for each one whose bound could beat the best answer so far
+	 * </ul>
+	 */
+	private void search(final int depth) {
+		if (depth == this.order.length) return;
+		final int r = this.order[depth];
+		for (final int k : this.tries[r]) {
+			if (System.nanoTime() > this.deadline) {
+				this.stopped = true;
+				break;
+			}
+			this.explored++;
+
+			this.choice[r] = k;
+			this.bound();
+			if (this.boundTotal < this.bestTotal || this.boundTotal == this.bestTotal && this.boundOverbuild < this.bestOverbuild - EPSILON) {
+				if (depth + 1 == this.order.length) {
+					this.record();
+				} else {
+					this.search(depth + 1);
+				}
+			}
+			if (this.stopped) break;
+		}
+		this.choice[r] = -1;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>bound</i></b><br>
+	 * <pre> private void bound()</pre> Finds the fewest whole buildings, and the fewest spare ones, that the current choices
+	 * could lead to, and stores them in {@link #boundTotal} and {@link #boundOverbuild}. When every recipe is chosen, these are
+	 * exact, and {@link #count} holds the buildings of each recipe.
+	 * </ul>
+	 */
+	private void bound() {
+		final int[] choice = this.choice;
+		final double[] cycles = this.cycles, count = this.count;
+		for (int r = 0; r < this.recipeCount; r++) {
+			count[r] = 0;
+			this.recipeExact[r] = choice[r] >= 0;
+		}
+
+		for (int i = 0; i < this.nodeCount; i++) {
+			final int p = this.parent[i];
+			if (p < 0) {
+				cycles[i] = this.amount[i];
+				this.exact[i] = true;
+			} else {
+				final int pr = this.recipe[p], k = choice[pr];
+				final double perCycle = this.isFuel[i] ? k < 0 ? this.minFuel[pr] : this.fuel[pr][k] : k < 0 ? this.minIngredients[pr] : this.ingredients[pr][k];
+				cycles[i] = cycles[p] * this.amount[i] * perCycle;
+				this.exact[i] = this.exact[p] && k >= 0;
+			}
+
+			final int r = this.recipe[i], k = choice[r];
+			count[r] += cycles[i] * (k < 0 ? this.minBuildings[r] : this.buildings[r][k]);
+			if (!this.exact[i]) this.recipeExact[r] = false;
+		}
+
+		long total = 0;
+		double overbuild = 0;
+		for (int r = 0; r < this.recipeCount; r++) {
+			final double whole = Math.ceil(count[r] - EPSILON);
+			total += (long) whole;
+			if (this.recipeExact[r]) overbuild += Math.max(0, whole - count[r]);
+		}
+		this.boundTotal = total;
+		this.boundOverbuild = overbuild;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>record</i></b><br>
+	 * <pre> private void record()</pre> Stores the current choices, whose buildings were just found by {@link #bound()}, as the
+	 * best answer so far
+	 * </ul>
+	 */
+	private void record() {
+		System.arraycopy(this.choice, 0, this.best, 0, this.recipeCount);
+		this.bestCount = this.count.clone();
+		this.bestTotal = this.boundTotal;
+		this.bestOverbuild = this.boundOverbuild;
+	}
+
+	/**
+	 * The settings of each recipe in a calculation, and the buildings that they need
+	 * @author ricky3350
+	 */
+	public static class Result {
+
+		private final Map<Recipe, AssemblerSettings> settings;
+		private final Map<Recipe, Double> assemblers;
+		private final boolean optimal;
+		private final long explored;
+
+		private Result(final Map<Recipe, AssemblerSettings> settings, final Map<Recipe, Double> assemblers, final boolean optimal, final long explored) {
+			this.settings = Collections.unmodifiableMap(settings);
+			this.assemblers = Collections.unmodifiableMap(assemblers);
+			this.optimal = optimal;
+			this.explored = explored;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getSettings</i></b><br>
+		 * <pre> public {@link Map}&lt;{@link Recipe}, {@link AssemblerSettings}&gt; getSettings()</pre>
+		 * @return the settings of each recipe, in the order that they first appear in the calculation
+		 *         </ul>
+		 */
+		public Map<Recipe, AssemblerSettings> getSettings() {
+			return this.settings;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getAssemblers</i></b><br>
+		 * <pre> public {@link Map}&lt;{@link Recipe}, {@link Double}&gt; getAssemblers()</pre>
+		 * @return the fractional number of assemblers that each recipe needs
+		 *         </ul>
+		 */
+		public Map<Recipe, Double> getAssemblers() {
+			return this.assemblers;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getBuildings</i></b><br>
+		 * <pre> public int getBuildings({@link Recipe} recipe)</pre>
+		 * @return the whole number of assemblers that must be built for the given recipe
+		 *         </ul>
+		 */
+		public int getBuildings(final Recipe recipe) {
+			final Double count = this.assemblers.get(recipe);
+			return count == null ? 0 : (int) Math.ceil(count - EPSILON);
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getTotal</i></b><br>
+		 * <pre> public long getTotal()</pre>
+		 * @return the whole number of assemblers that must be built for every recipe
+		 *         </ul>
+		 */
+		public long getTotal() {
+			return this.assemblers.keySet().stream().mapToLong(this::getBuildings).sum();
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getOverbuild</i></b><br>
+		 * <pre> public double getOverbuild()</pre>
+		 * @return the number of assemblers built beyond those that are needed, i.e. the idle time of every building
+		 *         </ul>
+		 */
+		public double getOverbuild() {
+			return this.assemblers.entrySet().stream().mapToDouble(e -> Math.max(0, this.getBuildings(e.getKey()) - e.getValue())).sum();
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>isOptimal</i></b><br>
+		 * <pre> public boolean isOptimal()</pre>
+		 * @return whether or not the search finished, so that no settings need fewer buildings. <code>false</code> if it ran out
+		 *         of time, or if these are the settings of a calculation that was not searched.
+		 *         </ul>
+		 */
+		public boolean isOptimal() {
+			return this.optimal;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getExplored</i></b><br>
+		 * <pre> public long getExplored()</pre>
+		 * @return the number of settings that the search tried
+		 *         </ul>
+		 */
+		public long getExplored() {
+			return this.explored;
+		}
+
+		@Override
+		public String toString() {
+			return this.getTotal() + " buildings, " + this.getOverbuild() + " spare" + (this.optimal ? "" : " (not proven fewest)");
+		}
+
+	}
+
+}
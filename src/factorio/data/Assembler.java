@@ -1,10 +1,9 @@
 package factorio.data;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
 
 /**
  * The {@code Assembler} represents any in-game entity that outputs items other than the items put into it, excluding players.
@@ -13,20 +12,34 @@ import java.util.TreeMap;
 public class Assembler {
 
 	/**
-	 * Maps all of the crafting categories of all created assemblers to all of the assemblers that can produce recipes in that
-	 * category.
+	 * Orders assemblers from the most to the least preferred for a recipe: those that take more ingredients first, then
+	 * electric before burner, then faster before slower, then by name.
 	 */
-	private static final Map<String, Set<Assembler>> groupedAssemblers = new TreeMap<>();
+	public static final Comparator<Assembler> PREFERENCE_ORDER = (o1, o2) -> {
+		int d = -Integer.compare(o1.ingredients, o2.ingredients);
+		if (d != 0) return d;
+		d = Boolean.compare(o1.burnerPowered, o2.burnerPowered);
+		if (d != 0) return d;
+		d = -Double.compare(o1.speed, o2.speed);
+		if (d != 0) return d;
+		return o1.name.compareTo(o2.name);
+	};
 
 	/**
-	 * The categories that this {@code Assembler} can produce
+	 * The categories that this {@code Assembler} can produce, as {@link Symbols}
 	 */
-	private final Set<String> categories = new HashSet<>();
+	private final String[] categories;
 
 	/**
-	 * The module effects that are allowed in this assembler; can be empty if all are allowed
+	 * The module effects that are allowed in this assembler, as {@link Symbols}; can be empty if all are allowed
 	 */
-	private final Set<String> allowedEffects = new HashSet<>();
+	private final String[] allowedEffects;
+
+	/**
+	 * The category that the most assemblers share with this assembler, set by {@link #updatePrimaryCategory(Map)} when the
+	 * assemblers are indexed
+	 */
+	private volatile String primaryCategory = "";
 
 	/**
 	 * The internal name of this assembler
@@ -63,55 +76,134 @@ public class Assembler {
 	 */
 	public final double speed;
 
+	/**
+	 * The electric power, in watts, that this assembler draws whether or not it is working; not changed by modules
+	 */
+	public final long drain;
+
+	/**
+	 * The pollution that this assembler emits per minute while it works, without modules
+	 */
+	public final double emissions;
+
 	protected Assembler(String name, int ingredients, double speed, long energy, int modules, boolean burner, double effectivity, Collection<String> categories, Collection<String> effects) {
-		for (final String cat : categories) {
-			if (!groupedAssemblers.containsKey(cat)) {
-				groupedAssemblers.put(cat, new HashSet<>());
-			}
-			groupedAssemblers.get(cat).add(this);
-		}
+		this(name, ingredients, speed, energy, 0, 0, modules, burner, effectivity, categories, effects);
+	}
+
+	protected Assembler(String name, int ingredients, double speed, long energy, long drain, double emissions, int modules, boolean burner, double effectivity, Collection<String> categories, Collection<String> effects) {
+		this.categories = symbols(categories);
+		this.allowedEffects = symbols(effects);
 
-		this.name = name;
+		this.name = Symbols.of(name);
 		this.ingredients = ingredients;
 		this.speed = speed;
 		this.energy = energy;
 		this.modules = modules;
 		this.burnerPowered = burner;
 		this.fuelEffectivity = effectivity;
-		this.categories.addAll(categories);
-		this.allowedEffects.addAll(effects);
+		this.drain = burner ? 0 : drain;
+		this.emissions = emissions;
+	}
+
+	private static String[] symbols(final Collection<String> strings) {
+		return strings.stream().map(Symbols::of).distinct().toArray(String[]::new);
 	}
 
 	/**
 	 * <ul>
 	 * <b><i>canCraftCategory</i></b><br>
 	 * <pre> public boolean canCraftCategory({@link String} category)</pre>
-	 * @param category - The category to test
+	 * @param category - The category to test, which must be one of the {@link Symbols} (as {@link Recipe#category} is)
 	 * @return whether or not this {@code Assembler} can craft recipes of the given category
 	 *         </ul>
 	 */
 	public boolean canCraftCategory(String category) {
-		return this.categories.contains(category);
+		for (final String cat : this.categories) {
+			if (cat == category) return true;
+		}
+		return false;
 	}
 
 	/**
 	 * <ul>
-	 * <b><i>getPrimaryCategory</i></b><br>
-	 * <pre> private String getPrimaryCategory()</pre>
-	 * @return the primary category of this assembler. This is the category that the most assemblers share with this assembler.
+	 * <b><i>allowsModule</i></b><br>
+	 * <pre> public boolean allowsModule({@link Module} module)</pre>
+	 * @param module - The module to test
+	 * @return whether or not all of the effects of the given {@code Module} are allowed in this {@code Assembler}
 	 *         </ul>
 	 */
-	private String getPrimaryCategory() {
+	public boolean allowsModule(Module module) {
+		if (this.modules <= 0) return false;
+		if (this.allowedEffects.length == 0) return true;
+
+		findEffect: for (final String effect : module.getActiveEffects()) {
+			for (final String allowed : this.allowedEffects) {
+				if (allowed == effect) continue findEffect;
+			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>allowsEffect</i></b><br>
+	 * <pre> public boolean allowsEffect({@link String} effect)</pre>
+	 * @param effect - The name of the effect to test, which must be one of the {@link Symbols} (string literals are)
+	 * @return whether or not the given effect, from modules in this {@code Assembler} or in {@link Beacon}s around it, applies
+	 *         to this {@code Assembler}
+	 *         </ul>
+	 */
+	public boolean allowsEffect(String effect) {
+		if (this.allowedEffects.length == 0) return true;
+
+		for (final String allowed : this.allowedEffects) {
+			if (allowed == effect) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getCategories</i></b><br>
+	 * <pre> String[] getCategories()</pre>
+	 * @return the categories that this {@code Assembler} can produce, as {@link Symbols}. The array must not be modified.
+	 *         </ul>
+	 */
+	String[] getCategories() {
+		return this.categories;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>updatePrimaryCategory</i></b><br>
+	 * <pre> void updatePrimaryCategory({@link Map}&lt;{@link String}, {@link List}&lt;Assembler&gt;&gt; index)</pre> Finds and
+	 * stores the primary category of this assembler. This is the category that the most assemblers share with this assembler.
+	 * @param index - Maps each crafting category to the assemblers that can produce it
+	 *        </ul>
+	 */
+	void updatePrimaryCategory(Map<String, List<Assembler>> index) {
 		int max = 0;
 		String best = "";
 		for (final String cat : this.categories) {
-			final int size = groupedAssemblers.get(cat).size();
+			final int size = index.get(cat).size();
 			if (max < size || (max == size && cat.length() > best.length())) {
 				max = size;
 				best = cat;
 			}
 		}
-		return best;
+		this.primaryCategory = best;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getPrimaryCategory</i></b><br>
+	 * <pre> public {@link String} getPrimaryCategory()</pre>
+	 * @return the primary category of this assembler. This is the category that the most assemblers share with this assembler.
+	 *         </ul>
+	 */
+	public String getPrimaryCategory() {
+		return this.primaryCategory;
 	}
 
 	/**
@@ -124,6 +216,6 @@ public class Assembler {
 	 *         </ul>
 	 */
 	public int compareCategoriesTo(Assembler other) {
-		return this.getPrimaryCategory().compareTo(other.getPrimaryCategory());
+		return this.primaryCategory.compareTo(other.primaryCategory);
 	}
 }
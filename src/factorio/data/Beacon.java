@@ -0,0 +1,67 @@
+package factorio.data;
+
+import java.util.Collection;
+
+/**
+ * The {@code Beacon} class represents an in-game beacon, an entity which shares the effects of the modules in it with the
+ * assemblers around it.
+ * @author ricky3350
+ */
+public class Beacon {
+
+	/**
+	 * The module effects that are allowed in this beacon, as {@link Symbols}; can be empty if all are allowed
+	 */
+	private final String[] allowedEffects;
+
+	/**
+	 * The internal name of this beacon
+	 */
+	public final String name;
+
+	/**
+	 * The fraction of the effects of its modules that this beacon gives to each assembler around it
+	 */
+	public final double distributionEffectivity;
+
+	/**
+	 * The maximum number of modules that can fit into the beacon
+	 */
+	public final int modules;
+
+	/**
+	 * The amount of energy, in watts, that this beacon consumes
+	 */
+	public final long energy;
+
+	protected Beacon(String name, double distributionEffectivity, int modules, long energy, Collection<String> effects) {
+		this.allowedEffects = effects.stream().map(Symbols::of).distinct().toArray(String[]::new);
+
+		this.name = Symbols.of(name);
+		this.distributionEffectivity = distributionEffectivity;
+		this.modules = modules;
+		this.energy = energy;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>allowsModule</i></b><br>
+	 * <pre> public boolean allowsModule({@link Module} module)</pre>
+	 * @param module - The module to test
+	 * @return whether or not all of the effects of the given {@code Module} are allowed in this {@code Beacon}
+	 *         </ul>
+	 */
+	public boolean allowsModule(Module module) {
+		if (this.modules <= 0) return false;
+		if (this.allowedEffects.length == 0) return true;
+
+		findEffect: for (final String effect : module.getActiveEffects()) {
+			for (final String allowed : this.allowedEffects) {
+				if (allowed == effect) continue findEffect;
+			}
+			return false;
+		}
+		return true;
+	}
+
+}
@@ -4,21 +4,30 @@ import java.awt.Image;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.imageio.ImageIO;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
 
@@ -28,7 +37,9 @@ import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.Varargs;
 import org.luaj.vm2.lib.jse.JsePlatform;
 
-import factorio.Main;
+import factorio.Events;
+import factorio.Metrics;
+import factorio.Progress;
 
 /**
  * A non-instantiable class for loading and storing the prototypes from lua in all of the mods
@@ -37,68 +48,89 @@ import factorio.Main;
 public class Data {
 
 	/**
-	 * All of the {@link Recipe}s that have been loaded.
+	 * The prototypes that the rest of the program sees. A load or {@linkplain #reload(Path, Path...) reload} fills new
+	 * {@link Prototypes}, and this is replaced with them in one step once they are complete.
 	 */
-	private static final Set<Recipe> recipes = new HashSet<>();
+	private static volatile Prototypes loaded = new Prototypes(new ConcurrentHashMap<>(), new HashMap<>());
 
 	/**
-	 * All of the {@link Technology Technologies} that have been loaded.
+	 * A {@link Pattern} to match headers in locale files.
 	 */
-	private static final Set<Technology> tech = new HashSet<>();
+	private static final Pattern LOCALE_HEADER = Pattern.compile("^\\[(.+?)\\]$");
 
 	/**
-	 * All of the {@link Assembler}s that have been loaded.
+	 * A {@link Pattern} to match enries in locale files.
 	 */
-	private static final Set<Assembler> assemblers = new HashSet<>();
+	private static final Pattern LOCALE_ENTRY = Pattern.compile("^(.+?)=(.+)$");
 
 	/**
-	 * All of the {@link Module}s that have been loaded.
+	 * A {@link Pattern} to match the mod path in icon paths.
 	 */
-	private static final Set<Module> modules = new HashSet<>();
+	private static final Pattern MOD_PATH = Pattern.compile("__(.+?)__");
 
 	/**
-	 * Maps the names of fuels to their energy value, in joules.
+	 * An amount of energy or power in a prototype: a number, an optional SI prefix, and <code>J</code> or <code>W</code>
 	 */
-	private static final Map<String, Long> fuels = new HashMap<>();
+	private static final Pattern ENERGY = Pattern.compile("^(\\d*\\.?\\d+(?:e[+-]?\\d+)?)\\s*([kmgtp]?)([jw])$", Pattern.CASE_INSENSITIVE);
 
-	/**
-	 * Maps internal names to in-game names.
-	 */
-	private static final Map<String, String> names = new HashMap<>();
+	private Data() {}
 
-	/**
-	 * A {@link Pattern} to match headers in locale files.
-	 */
-	private static final Pattern LOCALE_HEADER = Pattern.compile("^\\[(.+?)\\]$");
+	public static Set<Assembler> getAssemblers() {
+		return new HashSet<>(loaded.assemblers);
+	}
 
 	/**
-	 * A {@link Pattern} to match enries in locale files.
+	 * <ul>
+	 * <b><i>getAssembler</i></b><br>
+	 * <pre>public static {@link Assembler} getAssembler({@link String} name)</pre>
+	 * @param name - the name of an assembler
+	 * @return the loaded assembler with the given name, or <code>null</code> if there is none
+	 *         </ul>
 	 */
-	private static final Pattern LOCALE_ENTRY = Pattern.compile("^(.+?)=(.+)$");
+	public static Assembler getAssembler(final String name) {
+		return loaded.assemblersByName.get(name);
+	}
 
 	/**
-	 * A {@link Pattern} to match the mod path in icon paths.
+	 * <ul>
+	 * <b><i>getAssemblers</i></b><br>
+	 * <pre>public static {@link List}&lt;{@link Assembler}&gt; getAssemblers({@link String} category)</pre>
+	 * @param category - a crafting category
+	 * @return an unmodifiable list of the assemblers that can produce the given category, from the most to the least
+	 *         preferred (see {@link Assembler#PREFERENCE_ORDER}), or an empty list if there are none
+	 *         </ul>
 	 */
-	private static final Pattern MOD_PATH = Pattern.compile("__(.+?)__");
+	public static List<Assembler> getAssemblers(final String category) {
+		return loaded.assemblersByCategory.getOrDefault(category, Collections.emptyList());
+	}
 
 	/**
-	 * Maps item names to the locations of their icons.
+	 * <ul>
+	 * <b><i>getAssemblersByCategory</i></b><br>
+	 * <pre>public static {@link Map}&lt;{@link String}, {@link List}&lt;{@link Assembler}&gt;&gt; getAssemblersByCategory()</pre>
+	 * @return an unmodifiable map of each crafting category to the assemblers that can produce it, as in
+	 *         {@link #getAssemblers(String)}
+	 *         </ul>
 	 */
-	private static Map<String, Path> itemIconPaths;
+	public static Map<String, List<Assembler>> getAssemblersByCategory() {
+		return loaded.assemblersByCategory;
+	}
 
 	/**
-	 * Maps item names to their icons, if they have been stored.
+	 * <ul>
+	 * <b><i>getFingerprint</i></b><br>
+	 * <pre>public static long getFingerprint()</pre>
+	 * @return a hash of every loaded {@link Recipe}, {@link Technology}, {@link Assembler}, {@link Module}, {@link Beacon}
+	 *         and fuel, including their amounts, times, speeds, energy and effects. It changes when mods are added or removed,
+	 *         and when a mod changes any of them.
+	 *         </ul>
 	 */
-	private static Map<String, Icon> storedIcons = new HashMap<>();
-
-	private Data() {}
-
-	public static Set<Assembler> getAssemblers() {
-		return new HashSet<>(assemblers);
+	public static long getFingerprint() {
+		return loaded.fingerprint;
 	}
 
 	public static long getFuelValue(final String fuel) {
-		return fuels.getOrDefault(fuel, 0L);
+		return loaded.fuels.getOrDefault(fuel, 0L);
 	}
 
 	/**
@@ -116,23 +148,85 @@ public class Data {
 		final int iconSize = large ? Recipe.LARGE_ICON_SIZE : Recipe.SMALL_ICON_SIZE;
 		final String iconStr = item + (large ? "_*LARGE" : "");
 
-		Icon ret = storedIcons.get(iconStr);
+		final Prototypes p = loaded;
+		Icon ret = p.storedIcons.get(iconStr);
 		if (ret != null) return ret;
 
-		if (itemIconPaths.containsKey(item)) try {
-			ret = new ImageIcon(Toolkit.getDefaultToolkit().getImage(itemIconPaths.get(item).toUri().toURL()).getScaledInstance(iconSize, iconSize, Image.SCALE_SMOOTH));
-			storedIcons.put(iconStr, ret);
+		if (p.itemIconPaths.containsKey(item)) try {
+			ret = new ImageIcon(Toolkit.getDefaultToolkit().getImage(p.itemIconPaths.get(item).toUri().toURL()).getScaledInstance(iconSize, iconSize, Image.SCALE_SMOOTH));
+			p.storedIcons.put(iconStr, ret);
 			return ret;
 		} catch (final Exception e) {}
 		return new ImageIcon(new BufferedImage(iconSize, iconSize, BufferedImage.TYPE_INT_ARGB_PRE));
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>getBeacon</i></b><br>
+	 * <pre>public static {@link Beacon} getBeacon({@link String} name)</pre>
+	 * @param name - the name of a beacon
+	 * @return the loaded beacon with the given name, or <code>null</code> if there is none
+	 *         </ul>
+	 */
+	public static Beacon getBeacon(final String name) {
+		return loaded.beaconsByName.get(name);
+	}
+
+	public static Set<Beacon> getBeacons() {
+		return new HashSet<>(loaded.beacons);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getPowerSources</i></b><br>
+	 * <pre>public static {@link Set}&lt;{@link PowerSource}&gt; getPowerSources()</pre>
+	 * @return the loaded boilers, steam engines, solar panels and accumulators
+	 *         </ul>
+	 */
+	public static Set<PowerSource> getPowerSources() {
+		return new HashSet<>(loaded.powerSources);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getTransports</i></b><br>
+	 * <pre>public static {@link Set}&lt;{@link Transport}&gt; getTransports()</pre>
+	 * @return the loaded belts, inserters and pipes
+	 *         </ul>
+	 */
+	public static Set<Transport> getTransports() {
+		return new HashSet<>(loaded.transports);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>isFluid</i></b><br>
+	 * <pre>public static boolean isFluid({@link String} name)</pre>
+	 * @return whether or not the given item is a fluid, which is moved by pipes instead of belts and inserters
+	 *         </ul>
+	 */
+	public static boolean isFluid(final String name) {
+		return loaded.fluids.contains(name);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getModule</i></b><br>
+	 * <pre>public static {@link Module} getModule({@link String} name)</pre>
+	 * @param name - the name of a module
+	 * @return the loaded module with the given name, or <code>null</code> if there is none
+	 *         </ul>
+	 */
+	public static Module getModule(final String name) {
+		return loaded.modulesByName.get(name);
+	}
+
 	public static Set<Module> getModules() {
-		return new HashSet<>(modules);
+		return new HashSet<>(loaded.modules);
 	}
 
 	public static Set<Recipe> getRecipes() {
-		return new HashSet<>(recipes);
+		return new HashSet<>(loaded.recipes);
 	}
 
 	public static SortedSet<Recipe> getRecipesSorted() {
@@ -141,12 +235,12 @@ public class Data {
 			if (ret1 == 0) return o1.name.compareTo(o2.name);
 			return ret1;
 		});
-		ret.addAll(recipes);
+		ret.addAll(loaded.recipes);
 		return ret;
 	}
 
 	public static Set<Technology> getTechnologies() {
-		return new HashSet<>(tech);
+		return new HashSet<>(loaded.tech);
 	}
 
 	public static SortedSet<Technology> getTechSorted() {
@@ -159,15 +253,16 @@ public class Data {
 			if (d == 0) return Integer.compare(o1.hashCode(), o2.hashCode());
 			return d;
 		});
-		ret.addAll(tech);
+		ret.addAll(loaded.tech);
 		return ret;
 	}
 
 	/**
 	 * <ul>
 	 * <b><i>load</i></b><br>
-	 * <pre>public static void load({@link Path} factorioDir, Path... mods) throws {@link IOException}</pre> Loads prototypes
-	 * from the given directories.
+	 * <pre>public static void load({@link Path} factorioDir, Path... mods) throws {@link IOException}</pre> Loads prototypes,
+	 * names and icons from the given directories. This is equivalent to calling {@link #loadPrototypes(Path, Path...)},
+	 * {@link #loadLocale(Path, Path...)} and {@link #decodeIcons()}, in sequence.
 	 * @param factorioDir - The
 	 *        <a href= "https://wiki.factorio.com/index.php?title=Application_directory#Application_directory" >application
 	 *        directory</a>
@@ -178,36 +273,176 @@ public class Data {
 	 *         </ul>
 	 */
 	public static void load(final Path factorioDir, final Path... mods) throws IOException {
-		Main.loadingDialog.setText("Loading prototypes...");
+		loadPrototypes(factorioDir, mods);
+		loadLocale(factorioDir, mods);
+		decodeIcons();
+	}
 
-		final LuaTable global = JsePlatform.standardGlobals();
+	/**
+	 * <ul>
+	 * <b><i>reload</i></b><br>
+	 * <pre>public static {@link Reload} reload({@link Path} factorioDir, Path... mods) throws {@link IOException}</pre> Loads prototypes,
+	 * names and icons again after the given directories have changed, or after mods have been added, removed or reordered.
+	 * Only as much work as the change needs is done:
+	 * <ul>
+	 * <li>The lua is run again from the first directory that changed, starting from a copy of <code>data.raw</code> taken
+	 * just before it was first run. If an earlier mod left globals other than <code>data</code> behind, the lua is run again
+	 * from the first such mod instead, since those globals were not copied.</li>
+	 * <li>Every {@link Recipe} and {@link Technology} whose definition and icon are unchanged is kept, so they stay the same
+	 * objects. The assemblers, modules and fuels, and the indexes built from them, are replaced.</li>
+	 * <li>The names are read again from every directory, so that the names of removed mods are dropped. Only the icons that
+	 * are new or in the changed directories are read again.</li>
+	 * </ul>
+	 * The new prototypes are built on the side, and nothing else sees them until they are {@linkplain Reload#publish()
+	 * published}, so the old ones may still be read while this runs, and are kept as they were if it fails.
+	 * @param factorioDir - The application directory
+	 * @param mods - Mod directories
+	 * @return the reloaded prototypes, or <code>null</code> if nothing changed
+	 * @throws IOException if an {@code IOException} occurs while trying to load the prototypes.
+	 *         </ul>
+	 */
+	public static Reload reload(final Path factorioDir, final Path... mods) throws IOException {
+		final Metrics.Timer timer = Metrics.start("data.reload");
+		final Prototypes previous = loaded;
+		final List<Path> dirs = dirs(factorioDir, mods);
+
+		int changed = -1;
+		for (int d = 0; d < Math.max(dirs.size(), previous.dirs.size()); d++) {
+			if (d >= dirs.size() || d >= previous.dirs.size() || !dirs.get(d).equals(previous.dirs.get(d)) || stamp(dirs.get(d)) != previous.stamps[d]) {
+				changed = d;
+				break;
+			}
+		}
+		if (changed < 0) {
+			timer.stop();
+			return null;
+		}
 
-		final Path core = factorioDir.resolve("data/core");
+		int from = changed;
+		while (from > 1 && previous.checkpoints[from] == null)
+			from--;
 
-		global.get("package").set("path", core.toFile().getAbsolutePath().replace("\\", "/") + "/?.lua;" + core.resolve("lualib").toFile().getAbsolutePath().replace("\\", "/") + "/?.lua");
+		final List<Path> stale = new ArrayList<>(previous.dirs.subList(Math.min(changed, previous.dirs.size()), previous.dirs.size()));
+		stale.addAll(dirs.subList(changed, dirs.size()));
+		final Map<Path, RecipeIcon> knownIcons = new HashMap<>(previous.knownIcons);
+		knownIcons.keySet().removeIf(path -> stale.stream().anyMatch(path::startsWith));
 
-		Files.walk(core.resolve("lualib")).forEach(path -> {
-			if (Files.isDirectory(path)) return;
+		final Map<String, Recipe> old = new HashMap<>();
+		for (final Recipe r : previous.recipes)
+			old.put(key(r), r);
+		for (final Technology t : previous.tech)
+			old.put(key(t), t);
 
-			try {
-				global.get("dofile").call(LuaValue.valueOf(path.toFile().getAbsolutePath()));
-			} catch (final LuaError e) {}
-		});
+		final Prototypes ret = new Prototypes(new ConcurrentHashMap<>(), knownIcons);
+		loadPrototypes(factorioDir, from, previous, ret, mods);
 
-		global.get("dofile").call(LuaValue.valueOf(core.resolve("data.lua").toFile().getAbsolutePath()));
+		final int kept = reuse(ret.recipes, old) + reuse(ret.tech, old);
+		Metrics.count("data.reload.kept", kept);
+		Metrics.count("data.reload.rebuilt", ret.recipes.size() + ret.tech.size() - kept);
 
-		final Map<String, Path> modPaths = new HashMap<>();
+		loadLocale(dirs.subList(1, dirs.size()), ret.names);
+		decodeIcons(ret);
 
-		for (int m = -1; m < mods.length; m++) {
-			final Path mod = m == -1 ? factorioDir.resolve("data/base") : mods[m];
-			final String name = m == -1 ? "base" : mods[m].getFileName().toString().replaceAll("_\\d+\\.\\d+\\.\\d+$", "");
-			Main.loadingDialog.setText("Loading prototypes for " + name + "...");
-			modPaths.put(name, mod);
+		timer.stop();
+		return new Reload(ret, from);
+	}
 
-			global.get("package").set("path", mod.toFile().getAbsolutePath().replace("\\", "/") + "/?.lua;" + core.resolve("lualib").toFile().getAbsolutePath().replace("\\", "/") + "/?.lua");
+	/**
+	 * <ul>
+	 * <b><i>reuse</i></b><br>
+	 * <pre>private static &lt;R extends {@link Recipe}&gt; int reuse({@link Set}&lt;R&gt; loaded, {@link Map}&lt;{@link String}, Recipe&gt; old)</pre>
+	 * Replaces each newly loaded recipe with the old recipe with the same {@linkplain #key(Recipe) key}, if it has the
+	 * {@linkplain Recipe#sameDefinition(Recipe) same definition}.
+	 * @param loaded - The newly loaded recipes
+	 * @param old - Maps keys to the recipes that were loaded before
+	 * @return the number of recipes that were replaced
+	 *         </ul>
+	 */
+	@SuppressWarnings("unchecked")
+	private static <R extends Recipe> int reuse(final Set<R> loaded, final Map<String, Recipe> old) {
+		final List<R> ret = new ArrayList<>(loaded.size());
+		int kept = 0;
+		for (final R r : loaded) {
+			final Recipe o = old.get(key(r));
+			if (o != null && o.sameDefinition(r)) {
+				ret.add((R) o);
+				kept++;
+			} else {
+				ret.add(r);
+			}
+		}
 
-			global.get("dofile").call(LuaValue.valueOf(mod.resolve("data.lua").toFile().getAbsolutePath()));
+		loaded.clear();
+		loaded.addAll(ret);
+		return kept;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>key</i></b><br>
+	 * <pre>private static {@link String} key({@link Recipe} recipe)</pre>
+	 * @return a string that identifies the given recipe among those that are loaded
+	 *         </ul>
+	 */
+	private static String key(final Recipe recipe) {
+		if (recipe instanceof Technology) return "technology:" + recipe.name + '-' + ((Technology) recipe).number;
+		return recipe.getClass().getSimpleName() + ':' + recipe.name;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getFactorioDir</i></b><br>
+	 * <pre>public static {@link Path} getFactorioDir()</pre>
+	 * @return the application directory that prototypes were last loaded from, or <code>null</code> if none have been
+	 *         </ul>
+	 */
+	public static Path getFactorioDir() {
+		return loaded.factorioDir;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getMods</i></b><br>
+	 * <pre>public static {@link List}&lt;{@link Path}&gt; getMods()</pre>
+	 * @return the mod directories that prototypes were last loaded from, in load order
+	 *         </ul>
+	 */
+	public static List<Path> getMods() {
+		final List<Path> dirs = loaded.dirs;
+		return Collections.unmodifiableList(dirs.subList(Math.min(2, dirs.size()), dirs.size()));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>loadLocale</i></b><br>
+	 * <pre>public static void loadLocale({@link Path} factorioDir, Path... mods) throws {@link IOException}</pre> Reads the
+	 * in-game names from the english locale files of the given directories. Does not depend on
+	 * {@link #loadPrototypes(Path, Path...)}, and may be run concurrently with it.
+	 * @param factorioDir - The application directory
+	 * @param mods - Mod directories
+	 * @throws IOException if an {@code IOException} occurs while trying to read the locale files.
+	 * @see {@link #load(Path, Path...)}
+	 *      </ul>
+	 */
+	public static void loadLocale(final Path factorioDir, final Path... mods) throws IOException {
+		final List<Path> dirs = dirs(factorioDir, mods);
+		loadLocale(dirs.subList(1, dirs.size()), loaded.names);
+	}
 
+	/**
+	 * <ul>
+	 * <b><i>loadLocale</i></b><br>
+	 * <pre>private static void loadLocale({@link List}&lt;{@link Path}&gt; dirs, {@link Map}&lt;{@link String}, String&gt; names) throws {@link IOException}</pre>
+	 * Reads the in-game names from the english locale files of the given directories, in order, so that later directories
+	 * override earlier ones.
+	 * @param dirs - The directories, starting from <code>data/base</code> or a mod
+	 * @param names - The map to put the names into
+	 * @throws IOException if an {@code IOException} occurs while trying to read the locale files.
+	 *         </ul>
+	 */
+	private static void loadLocale(final List<Path> dirs, final Map<String, String> names) throws IOException {
+		final Metrics.Timer timer = Metrics.start("data.loadLocale");
+		for (final Path mod : dirs) {
 			Files.walk(mod.resolve("locale/en")).forEach(path -> {
 				if (Files.isDirectory(path) || !path.getFileName().toString().endsWith(".cfg")) return;
 
@@ -233,26 +468,164 @@ public class Data {
 				}
 			});
 		}
+		timer.stop();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>decodeIcons</i></b><br>
+	 * <pre>public static void decodeIcons()</pre> Decodes the icons of all of the {@link Recipe}s loaded by
+	 * {@link #loadPrototypes(Path, Path...)}, in parallel. Until this is called, the recipes have blank icons.
+	 * @see {@link #load(Path, Path...)}
+	 *      </ul>
+	 */
+	public static void decodeIcons() {
+		decodeIcons(loaded);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>decodeIcons</i></b><br>
+	 * <pre>private static void decodeIcons({@link Prototypes} prototypes)</pre> Decodes the icons of the given prototypes that
+	 * have not been decoded yet, in parallel.
+	 * </ul>
+	 */
+	private static void decodeIcons(final Prototypes prototypes) {
+		final Metrics.Timer timer = Metrics.start("data.decodeIcons");
+		Metrics.count("data.decodeIcons.icons", prototypes.pendingIcons.size());
+		prototypes.pendingIcons.entrySet().parallelStream().forEach(entry -> {
+			try {
+				final Image icon = ImageIO.read(entry.getKey().toFile());
+				if (icon != null) entry.getValue().set(icon);
+			} catch (final IOException e) {}
+		});
+		prototypes.pendingIcons.clear();
+		timer.stop();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>loadPrototypes</i></b><br>
+	 * <pre>public static void loadPrototypes({@link Path} factorioDir, Path... mods) throws {@link IOException}</pre> Loads
+	 * prototypes from the given directories, by running the lua of each mod in order. The icons of the loaded recipes are not
+	 * decoded until {@link #decodeIcons()} is called.
+	 * @param factorioDir - The application directory
+	 * @param mods - Mod directories
+	 * @throws IOException if an {@code IOException} occurs while trying to load the prototypes.
+	 * @see {@link #load(Path, Path...)}
+	 *      </ul>
+	 */
+	public static void loadPrototypes(final Path factorioDir, final Path... mods) throws IOException {
+		final Prototypes previous = loaded;
+		final Prototypes ret = new Prototypes(previous.names, new HashMap<>(previous.knownIcons));
+		loadPrototypes(factorioDir, 0, previous, ret, mods);
+		loaded = ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>loadPrototypes</i></b><br>
+	 * <pre>private static void loadPrototypes({@link Path} factorioDir, int from, {@link Prototypes} previous, Prototypes into, Path... mods) throws {@link IOException}</pre>
+	 * Loads prototypes from the given directories, running the lua from the given directory onward.
+	 * @param factorioDir - The application directory
+	 * @param from - The index in the directories of <code>previous</code> to start running the lua from. If it is not
+	 *        <code>0</code>, it must have a {@linkplain Prototypes#checkpoints checkpoint}.
+	 * @param previous - The prototypes that were loaded before, which are not changed
+	 * @param into - The prototypes to fill
+	 * @param mods - Mod directories
+	 * @throws IOException if an {@code IOException} occurs while trying to load the prototypes.
+	 *         </ul>
+	 */
+	private static void loadPrototypes(final Path factorioDir, final int from, final Prototypes previous, final Prototypes into, final Path... mods) throws IOException {
+		Progress.begin("Loading prototypes...");
+		final Metrics.Timer lua = Metrics.start("data.loadPrototypes.lua");
+		Object event = Events.beginLoad("lua", "core");
+
+		final LuaTable global = JsePlatform.standardGlobals();
+
+		final Path core = factorioDir.resolve("data/core");
+
+		global.get("package").set("path", core.toFile().getAbsolutePath().replace("\\", "/") + "/?.lua;" + core.resolve("lualib").toFile().getAbsolutePath().replace("\\", "/") + "/?.lua");
+
+		Files.walk(core.resolve("lualib")).forEach(path -> {
+			if (Files.isDirectory(path)) return;
+
+			try {
+				global.get("dofile").call(LuaValue.valueOf(path.toFile().getAbsolutePath()));
+			} catch (final LuaError e) {}
+		});
+
+		global.get("dofile").call(LuaValue.valueOf(core.resolve("data.lua").toFile().getAbsolutePath()));
+		Events.endLoad(event, 0);
+
+		final List<Path> dirs = dirs(factorioDir, mods);
+		final LuaTable[] checkpoints = new LuaTable[dirs.size() + 1];
+		if (from > 0) {
+			System.arraycopy(previous.checkpoints, 0, checkpoints, 0, from + 1);
+			global.get("data").set("raw", copy(checkpoints[from], new IdentityHashMap<>()));
+		}
+
+		final Set<LuaValue> coreGlobals = keys(global);
+		final Set<LuaValue> coreModules = keys(global.get("package").get("loaded"));
+		boolean resumable = true;
+
+		final Map<String, Path> modPaths = new HashMap<>();
+		for (int d = 1; d < dirs.size(); d++)
+			modPaths.put(d == 1 ? "base" : modName(dirs.get(d)), dirs.get(d));
+
+		for (int d = Math.max(from, 1); d < dirs.size(); d++) {
+			final Path mod = dirs.get(d);
+			final String name = d == 1 ? "base" : modName(mod);
+			Progress.begin("Loading prototypes for " + name + "...");
+			event = Events.beginLoad("lua", name);
+
+			if (resumable && checkpoints[d] == null) checkpoints[d] = copy(global.get("data").get("raw").checktable(), new IdentityHashMap<>());
+
+			// Like Factorio, each mod requires its own files, even if an earlier mod had files with the same names
+			final LuaValue loaded = global.get("package").get("loaded");
+			for (final LuaValue module : keys(loaded))
+				if (!coreModules.contains(module)) loaded.set(module, LuaValue.NIL);
+
+			global.get("package").set("path", mod.toFile().getAbsolutePath().replace("\\", "/") + "/?.lua;" + core.resolve("lualib").toFile().getAbsolutePath().replace("\\", "/") + "/?.lua");
+
+			global.get("dofile").call(LuaValue.valueOf(mod.resolve("data.lua").toFile().getAbsolutePath()));
+			if (!coreGlobals.containsAll(keys(global))) resumable = false;
+			Events.endLoad(event, 0);
+		}
+		if (resumable && checkpoints[dirs.size()] == null) checkpoints[dirs.size()] = copy(global.get("data").get("raw").checktable(), new IdentityHashMap<>());
 
-		Main.loadingDialog.setText("Loading prototypes...");
+		Progress.begin("Loading prototypes...");
+		event = Events.beginLoad("lua", "gather");
 		global.get("dofile").call(LuaValue.valueOf(Paths.get("resources/gather.lua").toFile().getAbsolutePath()));
+		Events.endLoad(event, 0);
+		lua.stop();
+
+		final long[] stamps = new long[dirs.size()];
+		for (int d = 0; d < dirs.size(); d++)
+			stamps[d] = d < from ? previous.stamps[d] : stamp(dirs.get(d));
+
+		into.factorioDir = factorioDir;
+		into.dirs = dirs;
+		into.stamps = stamps;
+		into.checkpoints = checkpoints;
 
-		Main.loadingDialog.setText("Loading sprites...");
-		itemIconPaths = new HashMap<>();
+		Progress.begin("Loading sprites...");
 		LuaValue k = LuaValue.NIL;
 		while (true) {
 			final Varargs n = global.get("icons").next(k);
 			if ((k = n.arg1()).isnil()) break;
 			final LuaValue v = n.arg(2);
 
-			itemIconPaths.put(k.checkjstring(), Paths.get(resolve(v.checkjstring(), modPaths)));
+			into.itemIconPaths.put(k.checkjstring(), Paths.get(resolve(v.checkjstring(), modPaths)));
 		}
 
-		Main.loadingDialog.setDeterminate(global.get("totalLength").toint());
+		Progress.setOverallTotal(global.get("totalLength").toint());
+		final Metrics.Timer parse = Metrics.start("data.loadPrototypes.parse");
 
 		final LuaValue recipes = global.get("recipes");
 		int length = recipes.length();
-		Main.loadingDialog.setText("Parsing recipes (0/" + length + ")");
+		Progress.begin("Parsing recipes", length);
+		event = Events.beginLoad("parse", "recipes");
 		for (int i = 1; i <= length; i++) {
 			try {
 				final LuaValue recipe = recipes.get(i);
@@ -284,15 +657,8 @@ public class Data {
 					LuaValue luaIcon = recipe.get("icon");
 					if (luaIcon == LuaValue.NIL) luaIcon = global.get("icons").get(result);
 
-					Image icon;
-					try {
-						final String iconPath = resolve(luaIcon.checkjstring(), modPaths);
-						icon = Toolkit.getDefaultToolkit().getImage(Paths.get(iconPath).toUri().toURL());
-					} catch (final Exception e) {
-						icon = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
-					}
-
-					Data.recipes.add(new Recipe(name, type, time, ingredients, result, resultCount, icon));
+					final Recipe r = new Recipe(name, type, time, ingredients, result, resultCount, iconFor(luaIcon, modPaths, into));
+					into.recipes.add(r);
 				} catch (final LuaError err) {
 					final Map<String, Double> results = new HashMap<>();
 					final LuaValue standardizedResults = global.get("getIngredients").call(recipe.get("results"));
@@ -304,33 +670,25 @@ public class Data {
 					LuaValue luaIcon = recipe.get("icon");
 					if (luaIcon == LuaValue.NIL) luaIcon = global.get("icons").get(results.keySet().iterator().next());
 
-					Image icon;
-					try {
-						final String iconPath = resolve(luaIcon.checkjstring(), modPaths);
-						icon = Toolkit.getDefaultToolkit().getImage(Paths.get(iconPath).toUri().toURL());
-					} catch (final Exception e) {
-						icon = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
-					}
-
-					Data.recipes.add(new Recipe(name, type, time, ingredients, results, icon));
+					final Recipe r = new Recipe(name, type, time, ingredients, results, iconFor(luaIcon, modPaths, into));
+					into.recipes.add(r);
 				}
 			} catch (final LuaError e) {
 				e.printStackTrace(System.err);
 			}
-			Main.loadingDialog.setText("Parsing recipes (" + i + "/" + length + ")");
-			Main.loadingDialog.incrementProgress();
+			Progress.increment();
 		}
 
+		Events.endLoad(event, length);
+
 		final LuaValue resources = global.get("resources");
 		length = resources.length();
-		Main.loadingDialog.setText("Parsing resources (0/" + length + ")");
+		Progress.begin("Parsing resources", length);
+		event = Events.beginLoad("parse", "resources");
 		for (int i = 1; i <= length; i++) {
 			try {
 				final LuaValue resource = resources.get(i);
 
-				final LuaValue infinite = resource.get("infinite");
-				if (infinite != LuaValue.NIL && infinite.checkboolean()) continue;
-
 				final String name = resource.get("name").checkjstring();
 				String type;
 				try {
@@ -344,38 +702,49 @@ public class Data {
 
 				final double hardness = resource.get("minable").get("hardness").todouble();
 
-				String result;
-				try {
-					final LuaValue luaResult = resource.get("minable").get("result");
-					if (luaResult == LuaValue.NIL) throw new LuaError("");
-					result = luaResult.checkjstring();
-				} catch (final LuaError err) {
-					result = resource.get("results").get(0).get("name").checkjstring();
+				final Map<String, Double> results = new HashMap<>();
+				final LuaValue luaResult = resource.get("minable").get("result");
+				if (luaResult != LuaValue.NIL) {
+					results.put(luaResult.checkjstring(), resource.get("minable").get("count").optdouble(1));
+				} else {
+					final LuaValue luaResults = resource.get("minable").get("results");
+					for (int n = 1; n <= luaResults.length(); n++) {
+						final LuaValue res = luaResults.get(n);
+						final double amount = res.get("amount").isnil() ? (res.get("amount_min").optdouble(1) + res.get("amount_max").optdouble(1)) / 2 : res.get("amount").todouble();
+						results.merge(res.get("name").checkjstring(), amount * res.get("probability").optdouble(1), Double::sum);
+					}
 				}
+				if (results.isEmpty()) throw new LuaError("Resource " + name + " has no results");
+				final String result = results.keySet().iterator().next();
+
+				final Map<String, Double> fluid = new HashMap<>();
+				final LuaValue requiredFluid = resource.get("minable").get("required_fluid");
+				final double fluidAmount = resource.get("minable").get("fluid_amount").optdouble(0) / 10;
+				if (!requiredFluid.isnil() && fluidAmount > 0) fluid.put(requiredFluid.checkjstring(), fluidAmount);
+
+				final boolean infinite = resource.get("infinite").optboolean(false);
+				final double normal = resource.get("normal").optdouble(1);
+				final double minimum = resource.get("minimum").optdouble(0);
+				final double depletion = resource.get("infinite_depletion_amount").optdouble(1);
 
 				LuaValue luaIcon = resource.get("icon");
 				if (luaIcon == LuaValue.NIL) luaIcon = global.get("icons").get(result);
 
-				Image icon;
-				try {
-					final String iconPath = resolve(luaIcon.checkjstring(), modPaths);
-					icon = Toolkit.getDefaultToolkit().getImage(Paths.get(iconPath).toUri().toURL());
-				} catch (final Exception e) {
-					icon = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
-				}
-
-				Data.recipes.add(new MiningRecipe(name, type, time, hardness, result, icon));
+				final MiningRecipe r = new MiningRecipe(name, type, time, hardness, fluid, results, infinite, normal, minimum, depletion, iconFor(luaIcon, modPaths, into));
+				into.recipes.add(r);
 			} catch (final LuaError e) {
 				e.printStackTrace(System.err);
 			}
 
-			Main.loadingDialog.setText("Parsing resources (" + i + "/" + length + ")");
-			Main.loadingDialog.incrementProgress();
+			Progress.increment();
 		}
 
+		Events.endLoad(event, length);
+
 		final LuaValue techs = global.get("tech");
 		length = techs.length();
-		Main.loadingDialog.setText("Parsing technologies (0/" + length + ")");
+		Progress.begin("Parsing technologies", length);
+		event = Events.beginLoad("parse", "technologies");
 		for (int i = 1; i <= length; i++) {
 			try {
 				final LuaValue tech = techs.get(i);
@@ -392,28 +761,34 @@ public class Data {
 					ingredients.put(ing.get(n).get(1).tojstring(), ing.get(n).get(2).todouble());
 				}
 
-				final int count = unit.get("count").toint();
+				final String countFormula = unit.get("count_formula").isnil() ? null : unit.get("count_formula").checkjstring();
+				final int level = name.matches(".*?\\d$") ? Integer.parseInt(name.substring(name.lastIndexOf('-') + 1)) : 1;
+				final int count = countFormula == null ? unit.get("count").toint() : global.get("count_at").call(LuaValue.valueOf(countFormula), LuaValue.valueOf(level)).toint();
 
-				Image icon;
-				try {
-					final String iconPath = resolve(tech.get("icon").checkjstring(), modPaths);
-					icon = Toolkit.getDefaultToolkit().getImage(Paths.get(iconPath).toUri().toURL());
-				} catch (final Exception e) {
-					icon = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
+				final LuaValue max = tech.get("max_level");
+				final int maxLevel = "infinite".equals(max.optjstring(null)) ? Integer.MAX_VALUE : max.optint(level);
+
+				final List<String> prerequisites = new ArrayList<>();
+				final LuaValue pre = tech.get("prerequisites");
+				if (pre.istable()) for (int n = 1; n <= pre.length(); n++) {
+					prerequisites.add(pre.get(n).checkjstring());
 				}
 
-				Data.tech.add(new Technology(name, time, ingredients, count, icon));
+				final Technology r = new Technology(name, time, ingredients, count, countFormula, maxLevel, prerequisites, iconFor(tech.get("icon"), modPaths, into));
+				into.tech.add(r);
 			} catch (final LuaError e) {
 				e.printStackTrace(System.err);
 			}
 
-			Main.loadingDialog.setText("Parsing technologies (" + i + "/" + length + ")");
-			Main.loadingDialog.incrementProgress();
+			Progress.increment();
 		}
 
+		Events.endLoad(event, length);
+
 		final LuaValue assemblers = global.get("assemblers");
 		length = assemblers.length();
-		Main.loadingDialog.setText("Parsing assemblers (0/" + length + ")");
+		Progress.begin("Parsing assemblers", length);
+		event = Events.beginLoad("parse", "assemblers");
 		for (int i = 1; i <= length; i++) {
 			try {
 				final LuaValue assembler = assemblers.get(i);
@@ -428,8 +803,13 @@ public class Data {
 
 				final double speed = assembler.get("crafting_speed").optdouble(1);
 
-				final String nrg = assembler.get("energy_usage").checkjstring().replace("W", "").toLowerCase();
-				final long energy = Long.parseLong(nrg.replaceAll("\\D+", "")) * (nrg.endsWith("k") ? 1000 : nrg.endsWith("m") ? 1000000 : nrg.endsWith("g") ? 1000000000 : 1);
+				final long energy = Math.round(parseEnergy(assembler.get("energy_usage").checkjstring(), "W"));
+
+				// Crafting machines drain 1/30 of their power when idle, unless they say otherwise
+				final LuaValue luaDrain = assembler.get("energy_source").get("drain");
+				final long drain = luaDrain.isnil() ? energy / 30 : Math.round(parseEnergy(luaDrain.checkjstring(), "W"));
+
+				final double emissions = parseEmissions(assembler.get("energy_source"), energy);
 
 				int modules;
 				try {
@@ -450,18 +830,20 @@ public class Data {
 						effects.add(luaEff.get(l).checkjstring());
 				}
 
-				Data.assemblers.add(new Assembler(name, ingredients, speed, energy, modules, burner, effectivity, categories, effects));
+				into.assemblers.add(new Assembler(name, ingredients, speed, energy, drain, emissions, modules, burner, effectivity, categories, effects));
 			} catch (final LuaError e) {
 				e.printStackTrace(System.err);
 			}
 
-			Main.loadingDialog.setText("Parsing assemblers (" + i + "/" + length + ")");
-			Main.loadingDialog.incrementProgress();
+			Progress.increment();
 		}
 
+		Events.endLoad(event, length);
+
 		final LuaValue drills = global.get("drills");
 		length = drills.length();
-		Main.loadingDialog.setText("Parsing mining drills (0/" + length + ")");
+		Progress.begin("Parsing mining drills", length);
+		event = Events.beginLoad("parse", "mining drills");
 		for (int i = 1; i <= length; i++) {
 			try {
 				final LuaValue drill = drills.get(i);
@@ -476,8 +858,9 @@ public class Data {
 
 				final double speed = drill.get("mining_speed").optdouble(1);
 
-				final String nrg = drill.get("energy_usage").checkjstring().replace("W", "").toLowerCase();
-				final long energy = Long.parseLong(nrg.replaceAll("\\D+", "")) * (nrg.endsWith("k") ? 1000 : nrg.endsWith("m") ? 1000000 : nrg.endsWith("g") ? 1000000000 : 1);
+				final long energy = Math.round(parseEnergy(drill.get("energy_usage").checkjstring(), "W"));
+
+				final double emissions = parseEmissions(drill.get("energy_source"), energy);
 
 				int modules;
 				try {
@@ -498,18 +881,22 @@ public class Data {
 						effects.add(luaEff.get(l).checkjstring());
 				}
 
-				Data.assemblers.add(new MiningDrill(name, speed, power, energy, modules, burner, effectivity, categories, effects));
+				final boolean fluidInput = !drill.get("input_fluid_box").isnil();
+
+				into.assemblers.add(new MiningDrill(name, speed, power, energy, emissions, modules, burner, effectivity, fluidInput, categories, effects));
 			} catch (final LuaError e) {
 				e.printStackTrace(System.err);
 			}
 
-			Main.loadingDialog.setText("Parsing mining drills (" + i + "/" + length + ")");
-			Main.loadingDialog.incrementProgress();
+			Progress.increment();
 		}
 
+		Events.endLoad(event, length);
+
 		final LuaValue pumps = global.get("pumps");
 		length = pumps.length();
-		Main.loadingDialog.setText("Parsing pumps (0/" + length + ")");
+		Progress.begin("Parsing pumps", length);
+		event = Events.beginLoad("parse", "pumps");
 		for (int i = 1; i <= length; i++) {
 			try {
 				final LuaValue pump = pumps.get(i);
@@ -518,30 +905,25 @@ public class Data {
 
 				final double speed = pump.get("pumping_speed").todouble();
 
-				Data.assemblers.add(new OffshorePump(name, speed));
+				into.assemblers.add(new OffshorePump(name, speed));
 
 				final String fluid = pump.get("fluid").checkjstring();
 
-				Image icon;
-				try {
-					final String iconPath = resolve(global.get("icons").get(fluid).checkjstring(), modPaths);
-					icon = Toolkit.getDefaultToolkit().getImage(Paths.get(iconPath).toUri().toURL());
-				} catch (final Exception e) {
-					icon = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
-				}
-
-				Data.recipes.add(new OffshoreRecipe(fluid, name, fluid, icon));
+				final OffshoreRecipe r = new OffshoreRecipe(fluid, name, fluid, iconFor(global.get("icons").get(fluid), modPaths, into));
+				into.recipes.add(r);
 			} catch (final LuaError e) {
 				e.printStackTrace(System.err);
 			}
 
-			Main.loadingDialog.setText("Parsing pumps (" + i + "/" + length + ")");
-			Main.loadingDialog.incrementProgress();
+			Progress.increment();
 		}
 
+		Events.endLoad(event, length);
+
 		final LuaValue labs = global.get("labs");
 		length = labs.length();
-		Main.loadingDialog.setText("Parsing labs (0/" + length + ")");
+		Progress.begin("Parsing labs", length);
+		event = Events.beginLoad("parse", "labs");
 		for (int i = 1; i <= length; i++) {
 			try {
 				final LuaValue lab = labs.get(i);
@@ -556,8 +938,7 @@ public class Data {
 
 				final double speed = lab.get("researching_speed").todouble();
 
-				final String nrg = lab.get("energy_usage").checkjstring().replace("W", "").toLowerCase();
-				final long energy = Long.parseLong(nrg.replaceAll("\\D+", "")) * (nrg.endsWith("k") ? 1000 : nrg.endsWith("m") ? 1000000 : nrg.endsWith("g") ? 1000000000 : 1);
+				final long energy = Math.round(parseEnergy(lab.get("energy_usage").checkjstring(), "W"));
 
 				final boolean burner = lab.get("energy_source").get("type").checkjstring().contains("burner");
 
@@ -577,18 +958,20 @@ public class Data {
 						effects.add(luaEff.get(l).checkjstring());
 				}
 
-				Data.assemblers.add(new Lab(name, ingredients, speed, energy, modules, burner, effectivity, effects));
+				into.assemblers.add(new Lab(name, ingredients, speed, energy, modules, burner, effectivity, effects));
 			} catch (final LuaError e) {
 				e.printStackTrace(System.err);
 			}
 
-			Main.loadingDialog.setText("Parsing labs (" + i + "/" + length + ")");
-			Main.loadingDialog.incrementProgress();
+			Progress.increment();
 		}
 
+		Events.endLoad(event, length);
+
 		final LuaValue modules = global.get("modules");
 		length = modules.length();
-		Main.loadingDialog.setText("Parsing modules (0/" + length + ")");
+		Progress.begin("Parsing modules", length);
+		event = Events.beginLoad("parse", "modules");
 		for (int i = 1; i <= length; i++) {
 			try {
 				final LuaValue module = modules.get(i);
@@ -609,45 +992,435 @@ public class Data {
 						limitation.add(luaLim.get(l).checkjstring());
 				}
 
-				Data.modules.add(new Module(name, effects, limitation.toArray(new String[limitation.size()])));
+				into.modules.add(new Module(name, effects, limitation.toArray(new String[limitation.size()])));
+			} catch (final LuaError e) {
+				e.printStackTrace(System.err);
+			}
+
+			Progress.increment();
+		}
+
+		Events.endLoad(event, length);
+
+		final LuaValue beacons = global.get("beacons");
+		length = beacons.length();
+		Progress.begin("Parsing beacons", length);
+		event = Events.beginLoad("parse", "beacons");
+		for (int i = 1; i <= length; i++) {
+			try {
+				final LuaValue beacon = beacons.get(i);
+
+				final String name = beacon.get("name").checkjstring();
+
+				final double effectivity = beacon.get("distribution_effectivity").optdouble(1);
+
+				final long energy = Math.round(parseEnergy(beacon.get("energy_usage").checkjstring(), "W"));
+
+				int slots;
+				try {
+					slots = beacon.get("module_specification").get("module_slots").optint(0);
+				} catch (final LuaError e) {
+					slots = 0;
+				}
+
+				final List<String> effects = new ArrayList<>();
+				final LuaValue luaEff = beacon.get("allowed_effects");
+				if (luaEff != LuaValue.NIL) {
+					for (int l = 1; l <= luaEff.length(); l++)
+						effects.add(luaEff.get(l).checkjstring());
+				}
+
+				into.beacons.add(new Beacon(name, effectivity, slots, energy, effects));
+			} catch (final LuaError e) {
+				e.printStackTrace(System.err);
+			}
+
+			Progress.increment();
+		}
+
+		Events.endLoad(event, length);
+
+		final LuaValue power = global.get("power");
+		length = power.length();
+		Progress.begin("Parsing power sources", length);
+		event = Events.beginLoad("parse", "power sources");
+		for (int i = 1; i <= length; i++) {
+			try {
+				final LuaValue source = power.get(i);
+
+				final String name = source.get("name").checkjstring();
+				final String type = source.get("type").checkjstring();
+
+				final PowerSource p;
+				if (type.equals("boiler")) {
+					final double effectivity = source.get("energy_source").get("effectivity").optdouble(1);
+					final double consumption = parseEnergy(source.get("energy_consumption").checkjstring(), "W");
+					p = new PowerSource(name, PowerSource.Kind.BOILER, consumption, effectivity, 0, parseEmissions(source.get("energy_source"), consumption));
+				} else if (type.equals("generator")) {
+					final double output;
+					if (!source.get("max_power_output").isnil()) {
+						output = parseEnergy(source.get("max_power_output").checkjstring(), "W");
+					} else {
+						// Water is heated from 15 degrees, and takes 200 J per unit per degree
+						final double perTick = source.get("fluid_usage_per_tick").checkdouble();
+						final double temperature = source.get("maximum_temperature").optdouble(165);
+						output = perTick * 60 * (temperature - 15) * 200 * source.get("effectivity").optdouble(1);
+					}
+					p = new PowerSource(name, PowerSource.Kind.STEAM_ENGINE, output, 1, 0, 0);
+				} else if (type.equals("solar-panel")) {
+					p = new PowerSource(name, PowerSource.Kind.SOLAR_PANEL, parseEnergy(source.get("production").checkjstring(), "W"), 1, 0, 0);
+				} else {
+					p = new PowerSource(name, PowerSource.Kind.ACCUMULATOR, 0, 1, parseEnergy(source.get("energy_source").get("buffer_capacity").checkjstring(), "J"), 0);
+				}
+				into.powerSources.add(p);
+			} catch (final LuaError | IllegalArgumentException e) {
+				e.printStackTrace(System.err);
+			}
+
+			Progress.increment();
+		}
+		Events.endLoad(event, length);
+
+		final LuaValue transport = global.get("transport");
+		length = transport.length();
+		Progress.begin("Parsing belts, inserters and pipes", length);
+		event = Events.beginLoad("parse", "transport");
+		for (int i = 1; i <= length; i++) {
+			try {
+				final LuaValue t = transport.get(i);
+
+				final String name = t.get("name").checkjstring();
+				final String type = t.get("type").checkjstring();
+
+				final Transport r;
+				if (type.equals("transport-belt")) {
+					// Each lane holds 4 items per tile, and speed is in tiles per tick
+					r = new Transport(name, Transport.Kind.BELT, t.get("speed").checkdouble() * 60 * 8);
+				} else if (type.equals("inserter")) {
+					// One swing to the drop position and back is one revolution
+					r = new Transport(name, Transport.Kind.INSERTER, t.get("rotation_speed").checkdouble() * 60);
+				} else {
+					r = new Transport(name, Transport.Kind.PIPE, Transport.PIPE_RATE);
+				}
+				into.transports.add(r);
+			} catch (final LuaError e) {
+				e.printStackTrace(System.err);
+			}
+
+			Progress.increment();
+		}
+		Events.endLoad(event, length);
+
+		final LuaValue fluids = global.get("fluids");
+		length = fluids.length();
+		Progress.begin("Parsing fluids", length);
+		for (int i = 1; i <= length; i++) {
+			try {
+				into.fluids.add(Symbols.of(fluids.get(i).checkjstring()));
 			} catch (final LuaError e) {
 				e.printStackTrace(System.err);
 			}
 
-			Main.loadingDialog.setText("Parsing modules (" + i + "/" + length + ")");
-			Main.loadingDialog.incrementProgress();
+			Progress.increment();
 		}
 
 		final LuaValue fuels = global.get("fuel");
 		length = fuels.length();
-		Main.loadingDialog.setText("Parsing fuel (0/" + length + ")");
+		Progress.begin("Parsing fuel", length);
+		event = Events.beginLoad("parse", "fuel");
 		for (int i = 1; i <= length; i++) {
 			try {
 				final LuaValue fuel = fuels.get(i);
 
-				final String val = fuel.get("fuel_value").checkjstring().replace("J", "").toLowerCase();
-				final long value = Long.parseLong(val.replaceAll("\\D+", "")) * (val.endsWith("k") ? 1000 : val.endsWith("m") ? 1000000 : val.endsWith("g") ? 1000000000 : 1);
+				final long value = Math.round(parseEnergy(fuel.get("fuel_value").checkjstring(), "J"));
 
-				Data.fuels.put(fuel.get("name").checkjstring(), value);
+				into.fuels.put(Symbols.of(fuel.get("name").checkjstring()), value);
 			} catch (final LuaError e) {
 				e.printStackTrace(System.err);
 			}
 
-			Main.loadingDialog.setText("Parsing fuel (" + i + "/" + length + ")");
-			Main.loadingDialog.incrementProgress();
+			Progress.increment();
+		}
+		Events.endLoad(event, length);
+
+		indexAssemblers(into);
+		into.fingerprint = fingerprint(into);
+		parse.stop();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>parseEmissions</i></b><br>
+	 * <pre>private static double parseEmissions({@link LuaValue} energySource, double power)</pre>
+	 * @param energySource - The energy source of a prototype
+	 * @param power - The power, in watts, that the prototype uses while it works
+	 * @return the pollution that the prototype emits per minute while it works. This is <code>emissions_per_minute</code>, or
+	 *         for older prototypes, <code>emissions</code> per minute for each kilowatt of power.
+	 *         </ul>
+	 */
+	private static double parseEmissions(final LuaValue energySource, final double power) {
+		final LuaValue perMinute = energySource.get("emissions_per_minute");
+		if (perMinute.istable()) return perMinute.get("pollution").optdouble(0);
+		if (!perMinute.isnil()) return perMinute.checkdouble();
+		return energySource.get("emissions").optdouble(0) * power / 1000;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>parseEnergy</i></b><br>
+	 * <pre>private static double parseEnergy({@link String} value, {@code String} unit)</pre>
+	 * @param value - An amount of energy or power from a prototype, e.g. <code>1.8MW</code> or <code>4MJ</code>
+	 * @param unit - The unit, <code>W</code> or <code>J</code>
+	 * @return the amount, in watts or joules
+	 * @throws LuaError If the value is not a number followed by an optional SI prefix and the unit
+	 *         </ul>
+	 */
+	private static double parseEnergy(final String value, final String unit) {
+		final Matcher m = ENERGY.matcher(value.trim());
+		if (!m.matches() || !m.group(3).equalsIgnoreCase(unit)) throw new LuaError("Malformed energy " + value);
+
+		final double amount = Double.parseDouble(m.group(1));
+		switch (m.group(2).toLowerCase()) {
+			case "k":
+				return amount * 1e3;
+			case "m":
+				return amount * 1e6;
+			case "g":
+				return amount * 1e9;
+			case "t":
+				return amount * 1e12;
+			case "p":
+				return amount * 1e15;
+			default:
+				return amount;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>fingerprint</i></b><br>
+	 * <pre>private static long fingerprint({@link Prototypes} prototypes)</pre> Hashes the sorted definitions of the given
+	 * prototypes with 64-bit FNV-1a.
+	 * @return the value for {@link Prototypes#fingerprint}
+	 *         </ul>
+	 */
+	private static long fingerprint(final Prototypes prototypes) {
+		final List<String> names = new ArrayList<>();
+		prototypes.recipes.forEach(r -> names.add("recipe:" + definition(r)));
+		prototypes.tech.forEach(t -> names.add("technology:" + t.number + ':' + t.count + ':' + t.unitTime + ':' + t.maxLevel + ':' + definition(t)));
+		prototypes.assemblers.forEach(a -> names.add("assembler:" + a.name + ':' + a.getClass().getSimpleName() + ':' + a.speed + ':' + a.energy + ':' + a.drain + ':' + a.emissions + ':' + a.ingredients + ':' + a.modules + ':' + a.burnerPowered + ':' + a.fuelEffectivity));
+		prototypes.assemblersByCategory.forEach((category, list) -> list.forEach(a -> names.add("category:" + category + ':' + a.name)));
+		prototypes.modules.forEach(m -> names.add("module:" + m.name + new TreeMap<>(m.getEffects().stream().collect(Collectors.toMap(e -> e, m::getEffectValue)))));
+		prototypes.beacons.forEach(b -> names.add("beacon:" + b.name + ':' + b.distributionEffectivity + ':' + b.modules + ':' + b.energy));
+		prototypes.fuels.forEach((fuel, value) -> names.add("fuel:" + fuel + ':' + value));
+		Collections.sort(names);
+
+		long hash = 0xcbf29ce484222325L;
+		for (final String name : names) {
+			for (int i = 0; i < name.length(); i++) {
+				hash ^= name.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+			hash ^= '\n';
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>definition</i></b><br>
+	 * <pre>private static {@link String} definition({@link Recipe} recipe)</pre>
+	 * @return the name, kind, category, time, ingredients and results of the given recipe, for {@link #fingerprint(Prototypes)}
+	 *         </ul>
+	 */
+	private static String definition(final Recipe recipe) {
+		return recipe.name + ':' + recipe.getClass().getSimpleName() + ':' + recipe.category + ':' + recipe.time + ':' + recipe.getIngredients() + "->" + recipe.getResults();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>dirs</i></b><br>
+	 * <pre>private static {@link List}&lt;{@link Path}&gt; dirs(Path factorioDir, Path... mods)</pre>
+	 * @return the directories to load prototypes from, in load order: <code>data/core</code>, <code>data/base</code>, then
+	 *         each mod
+	 *         </ul>
+	 */
+	private static List<Path> dirs(final Path factorioDir, final Path... mods) {
+		final List<Path> ret = new ArrayList<>(mods.length + 2);
+		ret.add(factorioDir.resolve("data/core"));
+		ret.add(factorioDir.resolve("data/base"));
+		Collections.addAll(ret, mods);
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>modName</i></b><br>
+	 * <pre>private static {@link String} modName({@link Path} mod)</pre>
+	 * @return the name of the mod in the given directory, without its version
+	 *         </ul>
+	 */
+	private static String modName(final Path mod) {
+		return mod.getFileName().toString().replaceAll("_\\d+\\.\\d+\\.\\d+$", "");
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>keys</i></b><br>
+	 * <pre>private static {@link Set}&lt;{@link LuaValue}&gt; keys(LuaValue table)</pre>
+	 * @return the keys of the given lua table
+	 *         </ul>
+	 */
+	private static Set<LuaValue> keys(final LuaValue table) {
+		final Set<LuaValue> ret = new HashSet<>();
+		LuaValue k = LuaValue.NIL;
+		while (true) {
+			final Varargs n = table.next(k);
+			if ((k = n.arg1()).isnil()) break;
+			ret.add(k);
+		}
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>copy</i></b><br>
+	 * <pre>private static {@link LuaTable} copy(LuaTable table, {@link Map}&lt;LuaTable, LuaTable&gt; copies)</pre> Copies the
+	 * given lua table, and every table in it. Tables that appear more than once are only copied once, so the copy has the same
+	 * shape. Metatables and values that are not tables are shared.
+	 * @param table - The table to copy
+	 * @param copies - Maps the tables that have already been copied to their copies, by identity
+	 * @return the copy
+	 *         </ul>
+	 */
+	private static LuaTable copy(final LuaTable table, final Map<LuaTable, LuaTable> copies) {
+		LuaTable ret = copies.get(table);
+		if (ret != null) return ret;
+
+		ret = new LuaTable();
+		copies.put(table, ret);
+
+		LuaValue k = LuaValue.NIL;
+		while (true) {
+			final Varargs n = table.next(k);
+			if ((k = n.arg1()).isnil()) break;
+			final LuaValue v = n.arg(2);
+			ret.rawset(k.istable() ? copy(k.checktable(), copies) : k, v.istable() ? copy(v.checktable(), copies) : v);
+		}
+
+		final LuaValue meta = table.getmetatable();
+		if (meta != null) ret.setmetatable(meta);
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>stamp</i></b><br>
+	 * <pre>private static long stamp({@link Path} dir)</pre>
+	 * @return a hash of the relative path, size and modification time of every file in the given directory, which changes
+	 *         whenever a file in it is added, removed or changed. Returns <code>0</code> if the directory cannot be read.
+	 *         </ul>
+	 */
+	private static long stamp(final Path dir) {
+		try (Stream<Path> files = Files.walk(dir)) {
+			return files.filter(Files::isRegularFile).mapToLong(file -> {
+				try {
+					final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+					final long hash = ((dir.relativize(file).toString().hashCode() * 31L + attributes.size()) * 31L + attributes.lastModifiedTime().toMillis()) * 0x9E3779B97F4A7C15L;
+					return hash ^ hash >>> 32;
+				} catch (final IOException e) {
+					return 0;
+				}
+			}).sum(); // The order of the files does not matter
+		} catch (final IOException | UncheckedIOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>indexAssemblers</i></b><br>
+	 * <pre>private static void indexAssemblers({@link Prototypes} prototypes)</pre> Rebuilds the
+	 * {@linkplain Prototypes#assemblersByCategory indexes} of the given prototypes from their assemblers, modules and beacons,
+	 * and updates the {@linkplain Assembler#getPrimaryCategory() primary category} of each assembler
+	 * </ul>
+	 */
+	private static void indexAssemblers(final Prototypes prototypes) {
+		final Map<String, Assembler> byName = new HashMap<>();
+		for (final Assembler a : prototypes.assemblers)
+			byName.put(a.name, a);
+		prototypes.assemblersByName = byName;
+
+		final Map<String, Module> modulesByName = new HashMap<>();
+		for (final Module m : prototypes.modules)
+			modulesByName.put(m.name, m);
+		prototypes.modulesByName = modulesByName;
+
+		final Map<String, Beacon> beaconsByName = new HashMap<>();
+		for (final Beacon b : prototypes.beacons)
+			beaconsByName.put(b.name, b);
+		prototypes.beaconsByName = beaconsByName;
+
+		final Map<String, List<Assembler>> index = new HashMap<>();
+		for (final Assembler a : prototypes.assemblers) {
+			for (final String category : a.getCategories())
+				index.computeIfAbsent(category, c -> new ArrayList<>()).add(a);
+		}
+
+		for (final Map.Entry<String, List<Assembler>> entry : index.entrySet()) {
+			entry.getValue().sort(Assembler.PREFERENCE_ORDER);
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
+		for (final Assembler a : prototypes.assemblers)
+			a.updatePrimaryCategory(index);
+
+		prototypes.assemblersByCategory = Collections.unmodifiableMap(index);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>iconFor</i></b><br>
+	 * <pre>private static {@link RecipeIcon} iconFor({@link LuaValue} luaIcon, {@link Map}&lt;{@link String}, {@link Path}&gt; mods, {@link Prototypes} into)</pre>
+	 * Finds the icon at the given location, to be decoded by {@link #decodeIcons()} if it is new. Every recipe with the same
+	 * icon file shares one {@code RecipeIcon}.
+	 * @param luaIcon - The icon path as it is in the prototype definition in the lua
+	 * @param mods - A {@code Map} mapping mod names to their paths.
+	 * @param into - The prototypes being loaded
+	 * @return the icon, or {@link RecipeIcon#BLANK} if the path cannot be resolved
+	 *         </ul>
+	 */
+	private static RecipeIcon iconFor(final LuaValue luaIcon, final Map<String, Path> mods, final Prototypes into) {
+		try {
+			return into.knownIcons.computeIfAbsent(Paths.get(resolve(luaIcon.checkjstring(), mods)), p -> {
+				final RecipeIcon icon = new RecipeIcon();
+				into.pendingIcons.put(p, icon);
+				return icon;
+			});
+		} catch (final Exception e) {
+			return RecipeIcon.BLANK;
 		}
 	}
 
 	public static String nameFor(final Technology tech) {
-		return nameFor(tech.name) + (tech.number > 0 ? " " + tech.number : "");
+		final String name = nameFor(tech.name);
+		return (name == null ? tech.name : name) + (tech.number > 0 ? " " + tech.number : "");
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>nameFor</i></b><br>
+	 * <pre>public static {@link String} nameFor({@link Recipe} recipe)</pre>
+	 * @param recipe - the recipe to get the name for
+	 * @return the in-game name of the recipe, or else of its first result in sorted order, or else its internal name
+	 *         </ul>
+	 */
 	public static String nameFor(final Recipe recipe) {
 		if (recipe instanceof Technology) return nameFor((Technology) recipe);
 
-		final String ret = nameFor(recipe.name);
-		if (ret == null) return nameFor(recipe.getResults().keySet().iterator().next());
-		return ret;
+		String ret = nameFor(recipe.name);
+		if (ret == null) ret = nameFor(recipe.getResultCount() > 0 ? recipe.getResultName(0) : null);
+		return ret == null ? recipe.name : ret;
 	}
 
 	/**
@@ -659,7 +1432,7 @@ public class Data {
 	 *         </ul>
 	 */
 	public static String nameFor(final String id) {
-		return names.get(id);
+		return id == null ? null : loaded.names.get(id);
 	}
 
 	/**
@@ -680,4 +1453,190 @@ public class Data {
 		else
 			return path;
 	}
+
+	/**
+	 * Prototypes loaded by {@link Data#reload(Path, Path...)}, which replace the loaded ones once they are
+	 * {@linkplain #publish() published}
+	 * @author ricky3350
+	 */
+	public static final class Reload {
+
+		private final Prototypes prototypes;
+		private final int from;
+
+		private Reload(final Prototypes prototypes, final int from) {
+			this.prototypes = prototypes;
+			this.from = from;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>getFrom</i></b><br>
+		 * <pre> public int getFrom()</pre>
+		 * @return the index of the directory that the lua was run again from (<code>0</code> for <code>data/core</code>,
+		 *         <code>1</code> for <code>data/base</code>, and so on)
+		 *         </ul>
+		 */
+		public int getFrom() {
+			return this.from;
+		}
+
+		/**
+		 * <ul>
+		 * <b><i>publish</i></b><br>
+		 * <pre> public void publish()</pre> Replaces the loaded prototypes, names and icons with these, in one step. It should
+		 * be called on the event dispatch thread, before anything that depends on the old assemblers and modules is
+		 * refreshed.
+		 * </ul>
+		 */
+		public void publish() {
+			loaded = this.prototypes;
+		}
+
+	}
+
+	/**
+	 * Everything that is loaded from one set of directories. A load fills a new {@code Prototypes} on its own thread, and
+	 * {@link Data#loaded} is replaced with it once it is complete. After that, only the icons change, as they are decoded
+	 * and stored.
+	 * @author ricky3350
+	 */
+	private static final class Prototypes {
+
+		/**
+		 * All of the {@link Recipe}s that have been loaded.
+		 */
+		private final Set<Recipe> recipes = new HashSet<>();
+
+		/**
+		 * All of the {@link Technology Technologies} that have been loaded.
+		 */
+		private final Set<Technology> tech = new HashSet<>();
+
+		/**
+		 * All of the {@link Assembler}s that have been loaded.
+		 */
+		private final Set<Assembler> assemblers = new HashSet<>();
+
+		/**
+		 * All of the {@link Module}s that have been loaded.
+		 */
+		private final Set<Module> modules = new HashSet<>();
+
+		/**
+		 * All of the {@link Beacon}s that have been loaded.
+		 */
+		private final Set<Beacon> beacons = new HashSet<>();
+
+		/**
+		 * All of the {@link PowerSource}s that have been loaded.
+		 */
+		private final Set<PowerSource> powerSources = new HashSet<>();
+
+		/**
+		 * All of the {@link Transport}s that have been loaded.
+		 */
+		private final Set<Transport> transports = new HashSet<>();
+
+		/**
+		 * The names of all of the fluids that have been loaded, as {@link Symbols}
+		 */
+		private final Set<String> fluids = new HashSet<>();
+
+		/**
+		 * Maps the names of fuels to their energy value, in joules.
+		 */
+		private final Map<String, Long> fuels = new HashMap<>();
+
+		/**
+		 * Maps internal names to in-game names. It is concurrent since the product lists read it while the locale is
+		 * loading.
+		 */
+		private final Map<String, String> names;
+
+		/**
+		 * Maps item names to the locations of their icons.
+		 */
+		private final Map<String, Path> itemIconPaths = new HashMap<>();
+
+		/**
+		 * Maps item names to their icons, if they have been stored.
+		 */
+		private final Map<String, Icon> storedIcons = new ConcurrentHashMap<>();
+
+		/**
+		 * Maps the locations of the icons that have not been decoded yet to the {@link RecipeIcon}s shared by the
+		 * {@link Recipe}s that use them.
+		 */
+		private final Map<Path, RecipeIcon> pendingIcons = new HashMap<>();
+
+		/**
+		 * Maps the locations of every icon that has been used to the {@link RecipeIcon} shared by the {@link Recipe}s that
+		 * use it, so that a {@linkplain Data#reload(Path, Path...) reload} does not decode icons again unless their mod has
+		 * changed.
+		 */
+		private final Map<Path, RecipeIcon> knownIcons;
+
+		/**
+		 * The application directory that the prototypes were loaded from
+		 */
+		private Path factorioDir;
+
+		/**
+		 * The directories that the prototypes were loaded from, in load order: <code>data/core</code>,
+		 * <code>data/base</code>, then each mod
+		 */
+		private List<Path> dirs = Collections.emptyList();
+
+		/**
+		 * The {@linkplain Data#stamp(Path) stamp} of each of {@link #dirs} when it was loaded
+		 */
+		private long[] stamps = new long[0];
+
+		/**
+		 * A copy of <code>data.raw</code> from just before each of {@link #dirs} was run, and after the last one, or
+		 * <code>null</code> if the lua cannot be resumed from there. The lua can only be resumed from a directory if every
+		 * directory before it left nothing but <code>data.raw</code> behind, since that is all that is copied. Index
+		 * <code>0</code>, for <code>data/core</code>, is always <code>null</code>.
+		 */
+		private LuaTable[] checkpoints = new LuaTable[0];
+
+		/**
+		 * Maps each crafting category to the {@link Assembler}s that can produce it, in
+		 * {@linkplain Assembler#PREFERENCE_ORDER order of preference}. Rebuilt by {@link Data#indexAssemblers(Prototypes)}
+		 * whenever assemblers are loaded.
+		 */
+		private Map<String, List<Assembler>> assemblersByCategory = Collections.emptyMap();
+
+		/**
+		 * Maps the name of each loaded {@link Assembler} to it. Rebuilt by {@link Data#indexAssemblers(Prototypes)}.
+		 */
+		private Map<String, Assembler> assemblersByName = Collections.emptyMap();
+
+		/**
+		 * Maps the name of each loaded {@link Module} to it. Rebuilt by {@link Data#indexAssemblers(Prototypes)}.
+		 */
+		private Map<String, Module> modulesByName = Collections.emptyMap();
+
+		/**
+		 * Maps the name of each loaded {@link Beacon} to it. Rebuilt by {@link Data#indexAssemblers(Prototypes)}.
+		 */
+		private Map<String, Beacon> beaconsByName = Collections.emptyMap();
+
+		/**
+		 * A hash of the definitions of every loaded prototype, identifying the mods they were loaded from. Computed by
+		 * {@link Data#fingerprint(Prototypes)} once the prototypes are loaded.
+		 */
+		private long fingerprint;
+
+		/**
+		 * @param names - The map to read the in-game names into, which may be shared with the previous prototypes
+		 * @param knownIcons - The icons to reuse instead of decoding them again
+		 */
+		private Prototypes(final Map<String, String> names, final Map<Path, RecipeIcon> knownIcons) {
+			this.names = names;
+			this.knownIcons = knownIcons;
+		}
+
+	}
 }
@@ -15,7 +15,17 @@ public class MiningDrill extends Assembler {
 	public final double power;
 
 	protected MiningDrill(String name, double speed, double power, long energy, int modules, boolean burner, double effectivity, List<String> categories, List<String> effects) {
-		super(name, 0, speed, energy, modules, burner, effectivity, categories, effects);
+		this(name, speed, power, energy, 0, modules, burner, effectivity, false, categories, effects);
+	}
+
+	/**
+	 * Creates a new {@code MiningDrill}
+	 * @param emissions - The pollution that the drill emits per minute while it works
+	 * @param fluidInput - Whether or not the drill has a fluid input, so that it can mine resources that need a fluid. Such a
+	 *        drill has one ingredient.
+	 */
+	protected MiningDrill(String name, double speed, double power, long energy, double emissions, int modules, boolean burner, double effectivity, boolean fluidInput, List<String> categories, List<String> effects) {
+		super(name, fluidInput ? 1 : 0, speed, energy, 0, emissions, modules, burner, effectivity, categories, effects);
 
 		this.power = power;
 	}
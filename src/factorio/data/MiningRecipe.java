@@ -1,10 +1,13 @@
 package factorio.data;
 
-import java.awt.Image;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Map;
 
 /**
- * The {@code MiningRecipe} class is a special type of recipe with a hardness field in addition to the time field.
+ * The {@code MiningRecipe} class is a special type of recipe with a hardness field in addition to the time field. A resource
+ * that needs a fluid to be mined, like uranium ore, has the fluid as its ingredient. An infinite resource, like crude oil,
+ * yields in proportion to the amount left in it, down to a {@linkplain #minimum minimum}; recipes give its yield at
+ * {@linkplain #normal 100%}.
  * @author ricky3350
  * @see {@link MiningDrill}
  */
@@ -12,10 +15,60 @@ public class MiningRecipe extends Recipe {
 
 	public final double hardness;
 
-	protected MiningRecipe(String name, String type, double time, double hardness, String result, Image icon) {
-		super(name, "mining-" + type, time, new HashMap<>(), result, icon);
+	/**
+	 * Whether or not the resource is infinite
+	 */
+	public final boolean infinite;
+
+	/**
+	 * For an infinite resource, the amount in an entity at which it yields 100%
+	 */
+	public final double normal;
+
+	/**
+	 * For an infinite resource, the lowest amount that an entity of it can be depleted to
+	 */
+	public final double minimum;
+
+	/**
+	 * For an infinite resource, the amount that each mining cycle takes from the entity
+	 */
+	public final double depletion;
+
+	protected MiningRecipe(String name, String type, double time, double hardness, String result, RecipeIcon icon) {
+		this(name, type, time, hardness, Collections.emptyMap(), Collections.singletonMap(result, 1), false, 1, 0, 1, icon);
+	}
+
+	/**
+	 * Creates a new {@code MiningRecipe}
+	 * @param name - The name of the resource
+	 * @param type - The resource category, without the <code>mining-</code> prefix
+	 * @param time - The mining time
+	 * @param hardness - The hardness
+	 * @param fluid - Maps the fluid needed to mine the resource to the amount of it used by each mining cycle; empty if none
+	 *        is needed
+	 * @param results - The products of each mining cycle
+	 * @param infinite - Whether or not the resource is infinite
+	 * @param normal - For an infinite resource, the amount at which it yields 100%
+	 * @param minimum - For an infinite resource, the lowest amount that it can be depleted to
+	 * @param depletion - For an infinite resource, the amount that each mining cycle takes
+	 * @param icon - The icon
+	 */
+	protected MiningRecipe(String name, String type, double time, double hardness, Map<String, ? extends Number> fluid, Map<String, ? extends Number> results, boolean infinite, double normal, double minimum, double depletion, RecipeIcon icon) {
+		super(name, "mining-" + type, time, fluid, results, icon);
 
 		this.hardness = hardness;
+		this.infinite = infinite;
+		this.normal = normal;
+		this.minimum = minimum;
+		this.depletion = depletion;
+	}
+
+	@Override
+	boolean sameDefinition(final Recipe other) {
+		if (!super.sameDefinition(other)) return false;
+		final MiningRecipe m = (MiningRecipe) other;
+		return m.hardness == this.hardness && m.infinite == this.infinite && m.normal == this.normal && m.minimum == this.minimum && m.depletion == this.depletion;
 	}
 
 	@Override
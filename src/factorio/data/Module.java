@@ -1,8 +1,9 @@
 package factorio.data;
 
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -13,14 +14,25 @@ import java.util.Set;
 public class Module {
 
 	/**
-	 * Maps effect names to the bonus they give.
+	 * The names of the effects of this module, as {@link Symbols}
 	 */
-	private final Map<String, Double> effects = new HashMap<>();
+	private final String[] effectNames;
 
 	/**
-	 * A list of recipe names that this module can be used for. Can be empty if all are allowed
+	 * The bonus that each of the {@link #effectNames effects} gives
 	 */
-	private final Set<String> allowedRecipes = new HashSet<>();
+	private final double[] effectValues;
+
+	/**
+	 * The names of the effects that have a nonzero bonus
+	 */
+	private final String[] activeEffects;
+
+	/**
+	 * The names of the recipes that this module can be used for, as {@link Symbols}, compared by reference. Can be empty if all
+	 * are allowed
+	 */
+	private final Set<String> allowedRecipes = Collections.newSetFromMap(new IdentityHashMap<>());
 
 	/**
 	 * The internal name of the module.
@@ -28,30 +40,63 @@ public class Module {
 	public final String name;
 
 	protected Module(String name, Map<String, Double> effects, String... allowedRecipes) {
-		this.name = name;
-		this.effects.putAll(effects);
-		Arrays.stream(allowedRecipes).forEach(this.allowedRecipes::add);
+		this.name = Symbols.of(name);
+
+		this.effectNames = new String[effects.size()];
+		this.effectValues = new double[effects.size()];
+		int i = 0;
+		for (final Map.Entry<String, Double> effect : effects.entrySet()) {
+			this.effectNames[i] = Symbols.of(effect.getKey());
+			this.effectValues[i++] = effect.getValue();
+		}
+		this.activeEffects = effects.entrySet().stream().filter(e -> e.getValue() != 0).map(e -> Symbols.of(e.getKey())).toArray(String[]::new);
+
+		Arrays.stream(allowedRecipes).map(Symbols::of).forEach(this.allowedRecipes::add);
 	}
 
 	/**
 	 * <ul>
 	 * <b><i>getEffectValue</i></b><br>
 	 * <pre>public double getEffectValue({@link String} effect)</pre>
-	 * @param effect - the name of the effect
+	 * @param effect - the name of the effect, which must be one of the {@link Symbols} (string literals are)
 	 * @return the bonus for the given effect.
 	 *         </ul>
 	 */
 	public double getEffectValue(String effect) {
-		final Double value = this.effects.get(effect);
-		if (value == null) return 0;
-		return value;
+		for (int i = 0; i < this.effectNames.length; i++) {
+			if (this.effectNames[i] == effect) return this.effectValues[i];
+		}
+		return 0;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getEffects</i></b><br>
+	 * <pre>public {@link Set}&lt;{@link String}&gt; getEffects()</pre>
+	 * @return the names of the effects that this {@code Module} has a nonzero bonus for.
+	 *         </ul>
+	 */
+	public Set<String> getEffects() {
+		return new HashSet<>(Arrays.asList(this.activeEffects));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getActiveEffects</i></b><br>
+	 * <pre> String[] getActiveEffects()</pre>
+	 * @return the names of the effects that this {@code Module} has a nonzero bonus for, as {@link Symbols}. The array must
+	 *         not be modified.
+	 *         </ul>
+	 */
+	String[] getActiveEffects() {
+		return this.activeEffects;
 	}
 
 	/**
 	 * <ul>
 	 * <b><i>canCraft</i></b><br>
 	 * <pre> boolean canCraft()</pre>
-	 * @param recipeName - The name of the recipe to test
+	 * @param recipeName - The name of the recipe to test, which must be one of the {@link Symbols} (as {@link Recipe#name} is)
 	 * @return whether or not this {@code Module} is able to be placed into an assembler crafting the recipe with the given
 	 *         name.
 	 *         </ul>
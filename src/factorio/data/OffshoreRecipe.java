@@ -1,7 +1,6 @@
 package factorio.data;
 
-import java.awt.Image;
-import java.util.HashMap;
+import java.util.Collections;
 
 /**
  * A recipe for use in {@link OffshorePump}s
@@ -9,8 +8,8 @@ import java.util.HashMap;
  */
 public class OffshoreRecipe extends Recipe {
 
-	public OffshoreRecipe(final String name, final String pumpName, final String fluid, final Image icon) {
-		super(name, "pump-" + pumpName, 1 / 60.0, new HashMap<>(), fluid, icon);
+	public OffshoreRecipe(final String name, final String pumpName, final String fluid, final RecipeIcon icon) {
+		super(name, "pump-" + pumpName, 1 / 60.0, Collections.emptyMap(), fluid, icon);
 	}
 
 }
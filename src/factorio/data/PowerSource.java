@@ -0,0 +1,78 @@
+package factorio.data;
+
+/**
+ * The {@code PowerSource} class represents an in-game entity that generates or stores electric power: a boiler, which burns
+ * fuel to make steam, a steam engine or turbine, which makes power from the steam, a solar panel, or an accumulator.
+ * @author ricky3350
+ */
+public class PowerSource {
+
+	/**
+	 * The kinds of {@link PowerSource}
+	 * @author ricky3350
+	 */
+	public static enum Kind {
+		/**
+		 * Burns fuel to heat steam for {@link #STEAM_ENGINE}s
+		 */
+		BOILER,
+		/**
+		 * Makes electric power from the steam of {@link #BOILER}s; a steam engine or steam turbine
+		 */
+		STEAM_ENGINE,
+		/**
+		 * Makes electric power from sunlight, during the day
+		 */
+		SOLAR_PANEL,
+		/**
+		 * Stores electric power, e.g. from solar panels for the night
+		 */
+		ACCUMULATOR;
+	}
+
+	/**
+	 * The internal name of this power source
+	 */
+	public final String name;
+
+	/**
+	 * The kind of power source
+	 */
+	public final Kind kind;
+
+	/**
+	 * The most power, in watts, that this source gives: the heat put into steam by a boiler, the electric power of a steam
+	 * engine, or the peak power of a solar panel. 0 for an accumulator.
+	 */
+	public final double power;
+
+	/**
+	 * For a boiler, the fraction of the energy of its fuel that becomes heat
+	 */
+	public final double fuelEffectivity;
+
+	/**
+	 * For an accumulator, the energy, in joules, that it can store
+	 */
+	public final double capacity;
+
+	/**
+	 * The pollution that this power source emits per minute at its full power
+	 */
+	public final double emissions;
+
+	protected PowerSource(final String name, final Kind kind, final double power, final double fuelEffectivity, final double capacity, final double emissions) {
+		this.name = Symbols.of(name);
+		this.kind = kind;
+		this.power = power;
+		this.fuelEffectivity = fuelEffectivity;
+		this.capacity = capacity;
+		this.emissions = emissions;
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+
+}
@@ -1,14 +1,16 @@
 package factorio.data;
 
-import java.awt.Image;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
 
 import javax.swing.ImageIcon;
 
 /**
- * The java representation for a recipe that takes in a number of ingredients, and produces some items as a result.
+ * The java representation for a recipe that takes in a number of ingredients, and produces some items as a result. Recipes
+ * are immutable, and store their ingredients and results as sorted arrays of names and amounts, rather than as maps, to keep
+ * large mod packs small in memory. All of the names are {@link Symbols}.
  * @author ricky3350
  */
 public class Recipe {
@@ -23,6 +25,9 @@ public class Recipe {
 	 */
 	public static final int SMALL_ICON_SIZE = 16;
 
+	private static final String[] NO_NAMES = new String[0];
+	private static final double[] NO_AMOUNTS = new double[0];
+
 	/**
 	 * The internal name of this {@code Recipe}
 	 */
@@ -34,64 +39,100 @@ public class Recipe {
 	public final String category;
 
 	/**
-	 * Maps the names of the results of this {@code Recipe} to the amount produced.
+	 * The names of the ingredients of this {@code Recipe}, in sorted order
 	 */
-	private final Map<String, Double> results = new HashMap<>();
+	private final String[] ingredientNames;
 
 	/**
-	 * Maps the names of the ingredients of this {@code Recipe} to the amount required.
+	 * The amount of each of the {@link #ingredientNames ingredients} required
 	 */
-	private final Map<String, Double> ingredients = new HashMap<>();
+	private final double[] ingredientAmounts;
 
 	/**
-	 * The time, in seconds, required to produce this {@code Recipe}
+	 * The names of the results of this {@code Recipe}, in sorted order
 	 */
-	public final double time;
+	private final String[] resultNames;
+
+	/**
+	 * The amount of each of the {@link #resultNames results} produced
+	 */
+	private final double[] resultAmounts;
 
 	/**
-	 * The large icon for this {@code Recipe}
+	 * The time, in seconds, required to produce this {@code Recipe}
 	 */
-	private final ImageIcon icon;
+	public final double time;
 
 	/**
-	 * The small icon for this {@code Recipe}
+	 * The icons of this {@code Recipe}, which may be shared with other recipes
 	 */
-	private final ImageIcon smallIcon;
+	private final RecipeIcon icon;
 
-	protected Recipe(String name, double time, Map<String, Double> ingredients, String result, Image icon) {
+	protected Recipe(String name, double time, Map<String, Double> ingredients, String result, RecipeIcon icon) {
 		this(name, time, ingredients, result, 1, icon);
 	}
 
-	protected Recipe(String name, String type, double time, Map<String, Double> ingredients, String result, Image icon) {
+	protected Recipe(String name, String type, double time, Map<String, Double> ingredients, String result, RecipeIcon icon) {
 		this(name, type, time, ingredients, result, 1, icon);
 	}
 
-	protected Recipe(String name, double time, Map<String, Double> ingredients, String result, int resultCount, Image icon) {
+	protected Recipe(String name, double time, Map<String, Double> ingredients, String result, int resultCount, RecipeIcon icon) {
 		this(name, "crafting", time, ingredients, result, resultCount, icon);
 	}
 
-	protected Recipe(String name, String type, double time, Map<String, Double> ingredients, String result, double resultCount, Image icon) {
-		this.name = name;
-		this.category = type.toLowerCase();
-		this.time = time;
-		this.ingredients.putAll(ingredients);
-		this.results.put(result, resultCount);
-		this.icon = new ImageIcon(icon.getScaledInstance(LARGE_ICON_SIZE, LARGE_ICON_SIZE, Image.SCALE_SMOOTH));
-		this.smallIcon = new ImageIcon(icon.getScaledInstance(SMALL_ICON_SIZE, SMALL_ICON_SIZE, Image.SCALE_SMOOTH));
+	protected Recipe(String name, String type, double time, Map<String, Double> ingredients, String result, double resultCount, RecipeIcon icon) {
+		this(name, type, time, ingredients, Collections.singletonMap(result, resultCount), icon);
 	}
 
-	protected Recipe(String name, double time, Map<String, Double> ingredients, Map<String, Double> results, Image icon) {
+	protected Recipe(String name, double time, Map<String, Double> ingredients, Map<String, Double> results, RecipeIcon icon) {
 		this(name, "crafting", time, ingredients, results, icon);
 	}
 
-	protected Recipe(String name, String type, double time, Map<String, Double> ingredients, Map<String, Double> results, Image icon) {
-		this.name = name;
-		this.category = type.toLowerCase();
+	protected Recipe(String name, String type, double time, Map<String, ? extends Number> ingredients, Map<String, ? extends Number> results, RecipeIcon icon) {
+		this.name = Symbols.of(name);
+		this.category = Symbols.of(type.toLowerCase());
 		this.time = time;
-		this.ingredients.putAll(ingredients);
-		this.results.putAll(results);
-		this.icon = new ImageIcon(icon.getScaledInstance(LARGE_ICON_SIZE, LARGE_ICON_SIZE, Image.SCALE_SMOOTH));
-		this.smallIcon = new ImageIcon(icon.getScaledInstance(SMALL_ICON_SIZE, SMALL_ICON_SIZE, Image.SCALE_SMOOTH));
+
+		this.ingredientNames = names(ingredients);
+		this.ingredientAmounts = amounts(ingredients, this.ingredientNames);
+		this.resultNames = names(results);
+		this.resultAmounts = amounts(results, this.resultNames);
+
+		this.icon = icon == null ? RecipeIcon.BLANK : icon;
+	}
+
+	private static String[] names(final Map<String, ? extends Number> items) {
+		if (items.isEmpty()) return NO_NAMES;
+
+		final String[] ret = new String[items.size()];
+		int i = 0;
+		for (final String item : items.keySet())
+			ret[i++] = Symbols.of(item);
+		Arrays.sort(ret);
+		return ret;
+	}
+
+	private static double[] amounts(final Map<String, ? extends Number> items, final String[] names) {
+		if (names.length == 0) return NO_AMOUNTS;
+
+		final double[] ret = new double[names.length];
+		for (int i = 0; i < names.length; i++)
+			ret[i] = items.get(names[i]).doubleValue();
+		return ret;
+	}
+
+	private static int indexOf(final String[] names, final String item) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i] == item) return i;
+		}
+		return -1;
+	}
+
+	private static Map<String, Double> toMap(final String[] names, final double[] amounts) {
+		final Map<String, Double> ret = new TreeMap<>();
+		for (int i = 0; i < names.length; i++)
+			ret.put(names[i], amounts[i]);
+		return ret;
 	}
 
 	/**
@@ -102,7 +143,7 @@ public class Recipe {
 	 *         </ul>
 	 */
 	public Map<String, Double> getIngredients() {
-		return new TreeMap<>(this.ingredients);
+		return toMap(this.ingredientNames, this.ingredientAmounts);
 	}
 
 	/**
@@ -113,7 +154,110 @@ public class Recipe {
 	 *         </ul>
 	 */
 	public Map<String, Double> getResults() {
-		return new TreeMap<>(this.results);
+		return toMap(this.resultNames, this.resultAmounts);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getIngredientCount</i></b><br>
+	 * <pre> public int getIngredientCount()</pre>
+	 * @return the number of different ingredients of this {@code Recipe}
+	 *         </ul>
+	 */
+	public int getIngredientCount() {
+		return this.ingredientNames.length;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getIngredientName</i></b><br>
+	 * <pre> public {@link String} getIngredientName(int index)</pre>
+	 * @return the name of the ingredient at the given index, between 0 and {@link #getIngredientCount()}, in sorted order
+	 *         </ul>
+	 */
+	public String getIngredientName(int index) {
+		return this.ingredientNames[index];
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getIngredientAmount</i></b><br>
+	 * <pre> public double getIngredientAmount(int index)</pre>
+	 * @return the amount required of the ingredient at the given index
+	 * @see {@link #getIngredientName(int)}
+	 *      </ul>
+	 */
+	public double getIngredientAmount(int index) {
+		return this.ingredientAmounts[index];
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getIngredientAmount</i></b><br>
+	 * <pre> public double getIngredientAmount({@link String} item)</pre>
+	 * @return the amount of the given item required by this {@code Recipe}, or 0 if it is not an ingredient
+	 *         </ul>
+	 */
+	public double getIngredientAmount(String item) {
+		final int i = indexOf(this.ingredientNames, item);
+		return i < 0 ? 0 : this.ingredientAmounts[i];
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getResultCount</i></b><br>
+	 * <pre> public int getResultCount()</pre>
+	 * @return the number of different results of this {@code Recipe}
+	 *         </ul>
+	 */
+	public int getResultCount() {
+		return this.resultNames.length;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getResultName</i></b><br>
+	 * <pre> public {@link String} getResultName(int index)</pre>
+	 * @return the name of the result at the given index, between 0 and {@link #getResultCount()}, in sorted order
+	 *         </ul>
+	 */
+	public String getResultName(int index) {
+		return this.resultNames[index];
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getResultAmount</i></b><br>
+	 * <pre> public double getResultAmount(int index)</pre>
+	 * @return the amount produced of the result at the given index
+	 * @see {@link #getResultName(int)}
+	 *      </ul>
+	 */
+	public double getResultAmount(int index) {
+		return this.resultAmounts[index];
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>hasResult</i></b><br>
+	 * <pre> public boolean hasResult({@link String} item)</pre>
+	 * @return whether this {@code Recipe} produces the given item
+	 *         </ul>
+	 */
+	public boolean hasResult(String item) {
+		return indexOf(this.resultNames, item) >= 0;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getResultAmount</i></b><br>
+	 * <pre> public double getResultAmount({@link String} item)</pre>
+	 * @return the amount of the given item produced by this {@code Recipe}, or 0 if it is not a result
+	 *         </ul>
+	 */
+	public double getResultAmount(String item) {
+		final int i = indexOf(this.resultNames, item);
+		return i < 0 ? 0 : this.resultAmounts[i];
 	}
 
 	/**
@@ -130,16 +274,29 @@ public class Recipe {
 		return this.time / (assembler.speed * speedMultiplier);
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>sameDefinition</i></b><br>
+	 * <pre> boolean sameDefinition({@link Recipe} other)</pre>
+	 * @param other - A recipe
+	 * @return whether or not the given recipe is the same kind of recipe as this one, with the same name, category, time,
+	 *         ingredients, results and icon. Used to keep recipes that have not changed when {@link Data} is reloaded.
+	 *         </ul>
+	 */
+	boolean sameDefinition(final Recipe other) {
+		return other.getClass() == this.getClass() && other.name == this.name && other.category == this.category && other.time == this.time && other.icon == this.icon && Arrays.equals(other.ingredientNames, this.ingredientNames) && Arrays.equals(other.ingredientAmounts, this.ingredientAmounts) && Arrays.equals(other.resultNames, this.resultNames) && Arrays.equals(other.resultAmounts, this.resultAmounts);
+	}
+
 	@Override
 	public String toString() {
 		String ingString = "";
-		for (final String item : this.ingredients.keySet())
-			ingString += ", " + this.ingredients.get(item) + " " + item;
+		for (int i = 0; i < this.ingredientNames.length; i++)
+			ingString += ", " + this.ingredientAmounts[i] + " " + this.ingredientNames[i];
 		if (ingString.isEmpty()) ingString = "  ";
 
 		String resString = "";
-		for (final String item : this.results.keySet())
-			resString += ", " + this.results.get(item) + " " + item;
+		for (int i = 0; i < this.resultNames.length; i++)
+			resString += ", " + this.resultAmounts[i] + " " + this.resultNames[i];
 		if (resString.isEmpty()) resString = "  ";
 
 		String name = Data.nameFor(this.name);
@@ -156,7 +313,7 @@ public class Recipe {
 	 *         </ul>
 	 */
 	public ImageIcon getIcon() {
-		return this.icon;
+		return this.icon.getLarge();
 	}
 
 	/**
@@ -167,7 +324,7 @@ public class Recipe {
 	 *         </ul>
 	 */
 	public ImageIcon getSmallIcon() {
-		return this.smallIcon;
+		return this.icon.getSmall();
 	}
 
 }
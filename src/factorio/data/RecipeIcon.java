@@ -0,0 +1,95 @@
+package factorio.data;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import javax.swing.ImageIcon;
+
+/**
+ * The large and small icons of one or more {@link Recipe}s. Recipes whose prototypes name the same icon file share one
+ * {@code RecipeIcon}, so each file is decoded and scaled once. The icons are blank until an image is {@linkplain #set(Image)
+ * set}.
+ * @author ricky3350
+ */
+public final class RecipeIcon {
+
+	/**
+	 * The icon of recipes whose icon file could not be found
+	 */
+	public static final RecipeIcon BLANK = new RecipeIcon();
+
+	private static final ImageIcon BLANK_LARGE = new ImageIcon(new BufferedImage(Recipe.LARGE_ICON_SIZE, Recipe.LARGE_ICON_SIZE, BufferedImage.TYPE_INT_ARGB_PRE));
+	private static final ImageIcon BLANK_SMALL = new ImageIcon(new BufferedImage(Recipe.SMALL_ICON_SIZE, Recipe.SMALL_ICON_SIZE, BufferedImage.TYPE_INT_ARGB_PRE));
+
+	/**
+	 * The large icon, or <code>null</code> if it has not been set
+	 */
+	private volatile ImageIcon large;
+
+	/**
+	 * The small icon, or <code>null</code> if it has not been set
+	 */
+	private volatile ImageIcon small;
+
+	RecipeIcon() {}
+
+	/**
+	 * <ul>
+	 * <b><i>set</i></b><br>
+	 * <pre> void set({@link Image} image)</pre> Sets the large and small icons to scaled copies of the given image, which must
+	 * already be fully loaded (e.g. a {@link BufferedImage}).
+	 * @param image - the image to use
+	 *        </ul>
+	 */
+	void set(final Image image) {
+		this.large = scale(image, Recipe.LARGE_ICON_SIZE);
+		this.small = scale(image, Recipe.SMALL_ICON_SIZE);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>scale</i></b><br>
+	 * <pre> private static {@link ImageIcon} scale({@link Image} image, int size)</pre> Scales the given image on the calling
+	 * thread, so that icons can be decoded in parallel.
+	 * @param image - the image to scale, which must already be fully loaded
+	 * @param size - the width and height of the scaled image, in pixels
+	 * @return an {@code ImageIcon} of the scaled image
+	 *         </ul>
+	 */
+	private static ImageIcon scale(final Image image, final int size) {
+		final BufferedImage ret = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+		final Graphics2D g = ret.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+		g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		g.drawImage(image, 0, 0, size, size, null);
+		g.dispose();
+		return new ImageIcon(ret);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getLarge</i></b><br>
+	 * <pre> public {@link ImageIcon} getLarge()</pre>
+	 * @return the large icon, {@value Recipe#LARGE_ICON_SIZE} pixels square
+	 *         </ul>
+	 */
+	public ImageIcon getLarge() {
+		final ImageIcon ret = this.large;
+		return ret == null ? BLANK_LARGE : ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getSmall</i></b><br>
+	 * <pre> public {@link ImageIcon} getSmall()</pre>
+	 * @return the small icon, {@value Recipe#SMALL_ICON_SIZE} pixels square
+	 *         </ul>
+	 */
+	public ImageIcon getSmall() {
+		final ImageIcon ret = this.small;
+		return ret == null ? BLANK_SMALL : ret;
+	}
+
+}
@@ -0,0 +1,55 @@
+package factorio.data;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A non-instantiable table of the canonical instances of prototype names, item names, crafting categories and module effect
+ * names. It is filled as the prototypes are created by {@link Data#load(java.nio.file.Path, java.nio.file.Path...)}, so that
+ * every copy of a name that LuaJ creates is replaced by a single shared {@code String}.<br>
+ * <br>
+ * Symbols can be compared with <code>==</code>. The canonical instance of a string is its {@linkplain String#intern() interned}
+ * instance, so string literals in the source are symbols as well; strings from anywhere else (config files, user input) must
+ * go through {@link #of(String)} before they are compared by reference.
+ * @author ricky3350
+ */
+public class Symbols {
+
+	/**
+	 * Maps each string to its canonical instance
+	 */
+	private static final ConcurrentMap<String, String> table = new ConcurrentHashMap<>(4096);
+
+	private Symbols() {}
+
+	/**
+	 * <ul>
+	 * <b><i>of</i></b><br>
+	 * <pre> public static {@link String} of(String str)</pre>
+	 * @param str - a string, or <code>null</code>
+	 * @return the canonical instance of the given string, or <code>null</code> if it is <code>null</code>
+	 *         </ul>
+	 */
+	public static String of(final String str) {
+		if (str == null) return null;
+
+		final String ret = table.get(str);
+		if (ret != null) return ret;
+
+		final String canonical = str.intern();
+		final String old = table.putIfAbsent(canonical, canonical);
+		return old == null ? canonical : old;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>size</i></b><br>
+	 * <pre> public static int size()</pre>
+	 * @return the number of distinct symbols
+	 *         </ul>
+	 */
+	public static int size() {
+		return table.size();
+	}
+
+}
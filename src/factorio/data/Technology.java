@@ -1,13 +1,19 @@
 package factorio.data;
 
-import java.awt.Image;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * The {@code MiningRecipe} class is a special type of recipe completed in a lab, with a count field indicating how many sets of
  * ingredients are required to complete the research, and a number field, for sucessive upgrades. Note that the count field is
- * purely for display purposes; the ingredients are multiplied by the count field on construction.
+ * purely for display purposes; the ingredients are multiplied by the count field on construction.<br>
+ * <br>
+ * A single prototype can also stand for a range of levels, up to {@link #maxLevel}, each with a count given by a
+ * {@linkplain #getCountFormula() formula}. As a recipe it is only the first of those levels; {@link factorio.calculator.Research}
+ * plans the rest without making a recipe for each.
  * @author ricky3350
  */
 public class Technology extends Recipe {
@@ -15,11 +21,123 @@ public class Technology extends Recipe {
 	public final int count;
 	public final int number;
 
-	protected Technology(final String name, final double time, final Map<String, ? extends Number> ingredients, final int count, final Image icon) {
-		super(name.matches(".*?\\d$") ? name.substring(0, name.lastIndexOf('-')) : name, "lab-research", time * count, multiply(ingredients, count), new HashMap<>(), icon);
+	/**
+	 * The highest level that this technology can be researched to, {@link Integer#MAX_VALUE} if it is infinite. Levels from
+	 * {@link #getLevel()} to this all come from the one prototype, and are researched with the {@link #countFormula}.
+	 */
+	public final int maxLevel;
+
+	/**
+	 * The time taken by a lab to research one unit of this technology, in seconds at a speed of 1
+	 */
+	public final double unitTime;
+
+	/**
+	 * The ingredients consumed to research one unit of this technology
+	 */
+	private final Map<String, Double> unitIngredients;
+
+	/**
+	 * The formula for the number of units needed to research a level <code>L</code> of this technology, e.g.
+	 * <code>2^(L-6)*1000</code>, or <code>null</code> if every level takes {@link #count} units
+	 */
+	private final String countFormula;
+
+	/**
+	 * The prototype names of the technologies that must be researched before this one, as {@link Symbols}
+	 */
+	private final String[] prerequisites;
+
+	protected Technology(final String name, final double time, final Map<String, ? extends Number> ingredients, final int count, final RecipeIcon icon) {
+		this(name, time, ingredients, count, null, 0, Collections.emptyList(), icon);
+	}
+
+	/**
+	 * Creates a new {@code Technology}
+	 * @param name - The prototype name of the technology, ending with its level if it has one (e.g. <code>automation-2</code>)
+	 * @param time - The time to research one unit
+	 * @param ingredients - The ingredients consumed by one unit
+	 * @param count - The number of units needed to research the level in the name
+	 * @param countFormula - The formula for the number of units needed for each level, or <code>null</code>
+	 * @param maxLevel - The highest level that the prototype can be researched to; ignored if it is lower than the level in the
+	 *        name
+	 * @param prerequisites - The prototype names of the technologies that must be researched first
+	 * @param icon - The icon
+	 */
+	protected Technology(final String name, final double time, final Map<String, ? extends Number> ingredients, final int count, final String countFormula, final int maxLevel, final Collection<String> prerequisites, final RecipeIcon icon) {
+		super(name.matches(".*?\\d$") ? name.substring(0, name.lastIndexOf('-')) : name, "lab-research", time * count, multiply(ingredients, count), Collections.emptyMap(), icon);
 
 		this.count = count;
 		this.number = name.matches(".*?\\d$") ? Integer.parseInt(name.substring(name.lastIndexOf('-') + 1)) : 0;
+		this.maxLevel = Math.max(maxLevel, this.getLevel());
+		this.unitTime = time;
+		this.unitIngredients = multiply(ingredients, 1);
+		this.countFormula = countFormula;
+		this.prerequisites = prerequisites.stream().map(Symbols::of).toArray(String[]::new);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getLevel</i></b><br>
+	 * <pre> public int getLevel()</pre>
+	 * @return the level of this technology; the {@link #number} in its name, or 1 if it has none
+	 *         </ul>
+	 */
+	public int getLevel() {
+		return Math.max(this.number, 1);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getPrototypeName</i></b><br>
+	 * <pre> public {@link String} getPrototypeName()</pre>
+	 * @return the name of the prototype of this technology, as the {@linkplain #getPrerequisites() prerequisites} of other
+	 *         technologies refer to it
+	 *         </ul>
+	 */
+	public String getPrototypeName() {
+		return this.number > 0 ? this.name + "-" + this.number : this.name;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getCountFormula</i></b><br>
+	 * <pre> public {@link String} getCountFormula()</pre>
+	 * @return the formula for the number of units needed to research a level <code>L</code> of this technology, or
+	 *         <code>null</code> if every level takes {@link #count} units
+	 *         </ul>
+	 */
+	public String getCountFormula() {
+		return this.countFormula;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getUnitIngredients</i></b><br>
+	 * <pre> public {@link Map}&lt;{@link String}, {@link Double}&gt; getUnitIngredients()</pre>
+	 * @return the ingredients consumed to research one unit of this technology
+	 *         </ul>
+	 */
+	public Map<String, Double> getUnitIngredients() {
+		return Collections.unmodifiableMap(this.unitIngredients);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getPrerequisites</i></b><br>
+	 * <pre> public {@link String}[] getPrerequisites()</pre>
+	 * @return the prototype names of the technologies that must be researched before this one
+	 *         </ul>
+	 */
+	public String[] getPrerequisites() {
+		return Arrays.copyOf(this.prerequisites, this.prerequisites.length);
+	}
+
+	@Override
+	boolean sameDefinition(final Recipe other) {
+		if (!super.sameDefinition(other)) return false;
+		final Technology t = (Technology) other;
+		return t.count == this.count && t.number == this.number && t.maxLevel == this.maxLevel && (t.countFormula == null ? this.countFormula == null : t.countFormula.equals(this.countFormula)) && Arrays.equals(t.prerequisites, this.prerequisites);
 	}
 
 	private static Map<String, Double> multiply(final Map<String, ? extends Number> ingredients, final int count) {
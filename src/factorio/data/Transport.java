@@ -0,0 +1,62 @@
+package factorio.data;
+
+/**
+ * The {@code Transport} class represents an in-game entity that moves items or fluids between assemblers: a transport belt,
+ * an inserter, or a pipe.
+ * @author ricky3350
+ */
+public class Transport {
+
+	/**
+	 * The kinds of {@link Transport}
+	 * @author ricky3350
+	 */
+	public static enum Kind {
+		/**
+		 * Carries items on two lanes
+		 */
+		BELT,
+		/**
+		 * Moves items into and out of assemblers, one hand at a time
+		 */
+		INSERTER,
+		/**
+		 * Carries a fluid
+		 */
+		PIPE;
+	}
+
+	/**
+	 * The most fluid, in units per second, that a short pipeline carries. The prototypes do not give a rate, and a long
+	 * pipeline carries less.
+	 */
+	public static final double PIPE_RATE = 1200;
+
+	/**
+	 * The internal name of this transport
+	 */
+	public final String name;
+
+	/**
+	 * The kind of transport
+	 */
+	public final Kind kind;
+
+	/**
+	 * The most that this transport moves each second: items on both lanes of a belt, swings of an inserter, or units of fluid
+	 * in a pipe
+	 */
+	public final double rate;
+
+	protected Transport(final String name, final Kind kind, final double rate) {
+		this.name = Symbols.of(name);
+		this.kind = kind;
+		this.rate = rate;
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+
+}
@@ -0,0 +1,190 @@
+package factorio.window;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import factorio.Metrics;
+
+/**
+ * A window showing the {@link Metrics} recorded so far, refreshed every second while it is open.
+ * @author ricky3350
+ */
+public class DiagnosticsWindow extends JFrame {
+
+	private static final long serialVersionUID = -6425190362237045331L;
+
+	/**
+	 * The milliseconds between refreshes of the table
+	 */
+	public static final int REFRESH_INTERVAL = 1000;
+
+	/**
+	 * The open diagnostics window, or <code>null</code> if there is none
+	 */
+	private static DiagnosticsWindow instance;
+
+	private final MetricsModel model = new MetricsModel();
+
+	private final Timer refresh;
+
+	private DiagnosticsWindow() {
+		super("Diagnostics");
+		this.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+		final JTable table = new JTable(this.model);
+		table.setAutoCreateRowSorter(true);
+		this.add(new JScrollPane(table), BorderLayout.CENTER);
+
+		final JPanel buttons = new JPanel(new FlowLayout(FlowLayout.TRAILING));
+		buttons.setBorder(BorderFactory.createEmptyBorder(0, 4, 4, 4));
+
+		final JButton reset = new JButton("Reset");
+		reset.addActionListener(e -> {
+			Metrics.reset();
+			this.model.update();
+		});
+		buttons.add(reset);
+
+		final JButton export = new JButton("Export JSON...");
+		export.addActionListener(e -> this.export());
+		buttons.add(export);
+
+		this.add(buttons, BorderLayout.PAGE_END);
+
+		this.refresh = new Timer(REFRESH_INTERVAL, e -> this.model.update());
+		this.model.update();
+
+		this.setSize(720, 400);
+		this.setLocationByPlatform(true);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>showWindow</i></b><br>
+	 * <pre> public static void showWindow()</pre> Shows the diagnostics window, opening it if it is not already open
+	 * </ul>
+	 */
+	public static void showWindow() {
+		if (instance == null) {
+			instance = new DiagnosticsWindow();
+			instance.refresh.start();
+			instance.setVisible(true);
+		}
+
+		instance.toFront();
+	}
+
+	@Override
+	public void dispose() {
+		this.refresh.stop();
+		if (instance == this) instance = null;
+		super.dispose();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>export</i></b><br>
+	 * <pre> private void export()</pre> Asks for a file, and writes the metrics to it as JSON
+	 * @see {@link Metrics#writeJSON(Appendable)}
+	 *      </ul>
+	 */
+	private void export() {
+		final JFileChooser chooser = new JFileChooser();
+		if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+		try (BufferedWriter out = Files.newBufferedWriter(chooser.getSelectedFile().toPath())) {
+			Metrics.writeJSON(out);
+		} catch (final IOException e) {
+			e.printStackTrace(System.err);
+			JOptionPane.showMessageDialog(this, e.getMessage(), "Could not export", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
+	/**
+	 * A table model showing a {@linkplain Metrics#snapshot() snapshot} of the metrics
+	 * @author ricky3350
+	 */
+	private static class MetricsModel extends AbstractTableModel {
+
+		private static final long serialVersionUID = 3006542950297851276L;
+
+		private static final String[] COLUMNS = {"Metric", "Count", "Total (ms)", "Mean (ms)", "Max (ms)", "Bytes per run"};
+
+		private List<Metrics.Snapshot> rows = Collections.emptyList();
+
+		/**
+		 * <ul>
+		 * <b><i>update</i></b><br>
+		 * <pre> private void update()</pre> Takes a new snapshot of the metrics
+		 * </ul>
+		 */
+		private void update() {
+			final List<Metrics.Snapshot> old = this.rows;
+			this.rows = Metrics.snapshot();
+
+			if (old.size() == this.rows.size())
+				this.fireTableRowsUpdated(0, this.rows.size() - 1);
+			else
+				this.fireTableDataChanged();
+		}
+
+		@Override
+		public int getRowCount() {
+			return this.rows.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(final int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(final int column) {
+			return column == 0 ? String.class : column == 1 || column == 5 ? Long.class : Double.class;
+		}
+
+		@Override
+		public Object getValueAt(final int row, final int column) {
+			final Metrics.Snapshot s = this.rows.get(row);
+			switch (column) {
+				case 0:
+					return s.name;
+				case 1:
+					return s.count;
+				case 2:
+					return s.timed ? s.totalNanos / 1e6 : null;
+				case 3:
+					return s.timed ? s.getMeanNanos() / 1e6 : null;
+				case 4:
+					return s.timed ? s.maxNanos / 1e6 : null;
+				case 5:
+					return s.timed && s.allocationSamples > 0 ? s.getBytesPerRun() : null;
+				default:
+					return null;
+			}
+		}
+
+	}
+
+}
@@ -13,14 +13,20 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 
+import factorio.Progress;
+import factorio.ProgressEvent;
+import factorio.ProgressListener;
+
 /**
  * A dialog to inform the user that the program is loading before the main
- * window opens.
+ * window opens. Shows the events from {@link Progress} while it is registered
+ * as a listener.
  * @author ricky3350
  */
-public class LoadingDialog extends JFrame {
+public class LoadingDialog extends JFrame implements ProgressListener {
 
 	private static final long serialVersionUID = 1042158646178608832L;
 
@@ -44,7 +50,19 @@ public class LoadingDialog extends JFrame {
 	 */
 	private final JProgressBar progress;
 
+	/**
+	 * Creates a new {@code LoadingDialog} that exits the program if it is closed.
+	 */
 	public LoadingDialog() {
+		this(true);
+	}
+
+	/**
+	 * Creates a new {@code LoadingDialog}.
+	 * @param exitOnClose - Whether closing the dialog exits the program, as it should while the program is starting. If it
+	 *        is <code>false</code>, the dialog cannot be closed by the user.
+	 */
+	public LoadingDialog(final boolean exitOnClose) {
 		this.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
 		this.setSize(384, 160);
 		this.setLocationRelativeTo(null);
@@ -62,7 +80,7 @@ public class LoadingDialog extends JFrame {
 
 		this.add(content);
 
-		this.addWindowListener(new WindowAdapter() {
+		if (exitOnClose) this.addWindowListener(new WindowAdapter() {
 
 			@Override
 			public void windowClosing(WindowEvent e) {
@@ -111,4 +129,15 @@ public class LoadingDialog extends JFrame {
 	public void incrementProgress() {
 		this.progress.setValue(this.progress.getValue() + 1);
 	}
+
+	@Override
+	public void progressChanged(ProgressEvent e) {
+		SwingUtilities.invokeLater(() -> {
+			this.setText(e.getText());
+			if (e.overallTotal > 0) {
+				if (this.progress.isIndeterminate() || this.progress.getMaximum() != e.overallTotal) this.setDeterminate(e.overallTotal);
+				this.progress.setValue(e.overallDone);
+			}
+		});
+	}
 }
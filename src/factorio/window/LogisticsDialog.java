@@ -0,0 +1,281 @@
+package factorio.window;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.table.AbstractTableModel;
+
+import factorio.Util;
+import factorio.calculator.Calculation;
+import factorio.calculator.Logistics;
+import factorio.data.Data;
+import factorio.data.Transport;
+
+/**
+ * A dialog that shows the belts, pipes and inserters that a {@link Calculation} needs, found with {@link Logistics}, for a
+ * chosen belt and inserter.
+ * @author ricky3350
+ */
+public class LogisticsDialog extends JDialog {
+
+	private static final long serialVersionUID = -3725161098453012761L;
+
+	/**
+	 * The calculation, or <code>null</code> if there is none
+	 */
+	private final Calculation calculation;
+
+	private final JComboBox<Transport> belt;
+	private final JComboBox<Transport> inserter;
+	private final JSpinner stack;
+	private final JLabel status;
+	private final JTable flows;
+	private final JTable stations;
+
+	/**
+	 * Creates a new {@code LogisticsDialog}.
+	 * @param owner - The window that owns the dialog
+	 * @param calc - The calculation, or <code>null</code> if there is none
+	 */
+	public LogisticsDialog(final Frame owner, final Calculation calc) {
+		super(owner, "Logistics", false);
+		this.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+		this.calculation = calc;
+
+		this.belt = new JComboBox<>(transports(Transport.Kind.BELT));
+		this.belt.setRenderer(new TransportRenderer());
+		this.belt.addActionListener(e -> this.analyze());
+		this.inserter = new JComboBox<>(transports(Transport.Kind.INSERTER));
+		this.inserter.setRenderer(new TransportRenderer());
+		this.inserter.addActionListener(e -> this.analyze());
+		this.stack = new JSpinner(new SpinnerNumberModel(1, 1, 1000, 1));
+		this.stack.setToolTipText("The items that an inserter moves in each swing, including research bonuses");
+		this.stack.addChangeListener(e -> this.analyze());
+
+		final JPanel options = new JPanel(new FlowLayout(FlowLayout.LEADING));
+		options.add(new JLabel("Belt"));
+		options.add(this.belt);
+		options.add(new JLabel("Inserter"));
+		options.add(this.inserter);
+		options.add(new JLabel("Stack size"));
+		options.add(this.stack);
+		final JButton analyze = new JButton("Analyze");
+		analyze.addActionListener(e -> this.analyze());
+		options.add(analyze);
+		this.getRootPane().setDefaultButton(analyze);
+		this.add(options, BorderLayout.PAGE_START);
+
+		this.flows = new JTable();
+		this.stations = new JTable();
+		final JTabbedPane tabs = new JTabbedPane();
+		tabs.addTab("Belts and pipes", new JScrollPane(this.flows));
+		tabs.addTab("Inserters", new JScrollPane(this.stations));
+		this.add(tabs, BorderLayout.CENTER);
+
+		this.status = new JLabel(" ");
+		this.status.setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+		this.add(this.status, BorderLayout.PAGE_END);
+
+		this.setSize(800, 500);
+		this.setLocationRelativeTo(owner);
+
+		this.analyze();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>transports</i></b><br>
+	 * <pre> private static {@link Transport}[] transports({@link Transport.Kind} kind)</pre>
+	 * @return the loaded transports of the given kind, from the slowest
+	 *         </ul>
+	 */
+	private static Transport[] transports(final Transport.Kind kind) {
+		return Data.getTransports().stream().filter(t -> t.kind == kind).sorted(Comparator.comparingDouble((Transport t) -> t.rate).thenComparing(t -> t.name)).toArray(Transport[]::new);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>name</i></b><br>
+	 * <pre> private static {@link String} name({@code String} item)</pre>
+	 * @return the localized name of the item or entity, or its internal name if it has none
+	 *         </ul>
+	 */
+	private static String name(final String item) {
+		final String ret = Data.nameFor(item);
+		return ret == null ? item : ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>analyze</i></b><br>
+	 * <pre> private void analyze()</pre> Finds the logistics of the calculation with the current inputs, and shows them in the
+	 * tables
+	 * </ul>
+	 */
+	private void analyze() {
+		if (this.calculation == null) {
+			this.status.setText("Calculate a plan to find its belts and inserters");
+			return;
+		}
+
+		final Logistics.Report report;
+		try {
+			report = new Logistics((Transport) this.belt.getSelectedItem(), (Transport) this.inserter.getSelectedItem(), (Integer) this.stack.getValue()).analyze(this.calculation);
+		} catch (final IllegalArgumentException e) {
+			this.status.setText(e.getMessage());
+			return;
+		}
+		this.flows.setModel(new FlowModel(report.getFlows()));
+		this.stations.setModel(new StationModel(report.getStations()));
+
+		final double inserters = report.getStations().stream().mapToDouble(Logistics.Station::getInserters).sum();
+		final int over = report.getOverCapacity();
+		this.status.setText(String.format("%s over one belt or pipe; %s", over == 0 ? "No flows are" : over == 1 ? "1 flow is" : over + " flows are", Util.formatPlural(inserters, "inserter")));
+	}
+
+	/**
+	 * Shows transports by their names, and their rates
+	 * @author ricky3350
+	 */
+	private static class TransportRenderer extends DefaultListCellRenderer {
+
+		private static final long serialVersionUID = 8153972004173367210L;
+
+		@Override
+		public Component getListCellRendererComponent(final JList<?> list, final Object value, final int index, final boolean isSelected, final boolean cellHasFocus) {
+			String text = "";
+			if (value instanceof Transport) {
+				final Transport t = (Transport) value;
+				text = String.format("%s (%s/s)", name(t.name), Util.NUMBER_FORMAT.format(t.rate));
+			}
+			return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+		}
+
+	}
+
+	/**
+	 * A table model showing a {@link Logistics.Flow} for each item
+	 * @author ricky3350
+	 */
+	private static class FlowModel extends AbstractTableModel {
+
+		private static final long serialVersionUID = 6120453361862094412L;
+
+		private static final String[] COLUMNS = {"Item", "Rate /s", "Belts or pipes", "Lanes", "Over capacity"};
+
+		private final List<Logistics.Flow> flows;
+
+		private FlowModel(final List<Logistics.Flow> flows) {
+			this.flows = flows;
+		}
+
+		@Override
+		public int getRowCount() {
+			return this.flows.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(final int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(final int column) {
+			return column == 4 ? Boolean.class : String.class;
+		}
+
+		@Override
+		public Object getValueAt(final int row, final int column) {
+			final Logistics.Flow f = this.flows.get(row);
+			switch (column) {
+				case 0:
+					return name(f.item);
+				case 1:
+					return Util.NUMBER_FORMAT.format(f.rate);
+				case 2:
+					return Util.formatPlural(f.count, f.fluid ? "pipe" : "belt");
+				case 3:
+					return f.fluid ? "" : Util.NUMBER_FORMAT.format(f.getLanes());
+				default:
+					return f.isOverCapacity();
+			}
+		}
+
+	}
+
+	/**
+	 * A table model showing the inserters of each {@link Logistics.Station}
+	 * @author ricky3350
+	 */
+	private static class StationModel extends AbstractTableModel {
+
+		private static final long serialVersionUID = -5208731641994513280L;
+
+		private static final String[] COLUMNS = {"Recipe", "Assemblers", "In /s each", "Out /s each", "Inserters each", "Inserters"};
+
+		private final List<Logistics.Station> stations;
+
+		private StationModel(final List<Logistics.Station> stations) {
+			this.stations = stations;
+		}
+
+		@Override
+		public int getRowCount() {
+			return this.stations.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(final int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Object getValueAt(final int row, final int column) {
+			final Logistics.Station s = this.stations.get(row);
+			switch (column) {
+				case 0:
+					return (Data.nameFor(s.recipe) == null ? s.recipe.name : Data.nameFor(s.recipe)) + " in " + name(s.settings.getAssembler().name) + s.settings.getBonusString(false);
+				case 1:
+					return Util.NUMBER_FORMAT.format(s.getAssemblers());
+				case 2:
+					return Util.NUMBER_FORMAT.format(s.input);
+				case 3:
+					return Util.NUMBER_FORMAT.format(s.output);
+				case 4:
+					return s.getInputInserters() + " in, " + s.getOutputInserters() + " out";
+				default:
+					return Util.NUMBER_FORMAT.format(s.getInserters());
+			}
+		}
+
+	}
+
+}
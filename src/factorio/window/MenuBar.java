@@ -64,6 +64,11 @@ public class MenuBar extends JMenuBar implements ActionListener {
 	 */
 	private final JMenuItem defaults;
 
+	/**
+	 * The diagnostics menu item
+	 */
+	private final JMenuItem diagnostics;
+
 	/**
 	 * Creates a new menu bar with no delegate
 	 */
@@ -121,6 +126,13 @@ public class MenuBar extends JMenuBar implements ActionListener {
 		this.defaults.setMnemonic(KeyEvent.VK_D);
 		this.defaults.addActionListener(this);
 		this.settings.add(this.defaults);
+
+		this.settings.addSeparator();
+
+		this.diagnostics = new JMenuItem("Diagnostics");
+		this.diagnostics.setMnemonic(KeyEvent.VK_I);
+		this.diagnostics.addActionListener(this);
+		this.settings.add(this.diagnostics);
 	}
 
 	@Override
@@ -137,6 +149,8 @@ public class MenuBar extends JMenuBar implements ActionListener {
 			if (this.delegate != null) this.delegate.changeMods();
 		} else if (e.getSource() == this.defaults) {
 			if (this.delegate != null) this.delegate.changeDefaults();
+		} else if (e.getSource() == this.diagnostics) {
+			DiagnosticsWindow.showWindow();
 		}
 	}
 
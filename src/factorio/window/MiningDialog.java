@@ -0,0 +1,294 @@
+package factorio.window;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.table.AbstractTableModel;
+
+import factorio.Util;
+import factorio.calculator.Calculation;
+import factorio.calculator.Evaluator;
+import factorio.calculator.Mining;
+import factorio.data.Data;
+import factorio.data.MiningRecipe;
+import factorio.data.Recipe;
+
+/**
+ * A dialog that plans the resource patches supplying the current {@link Calculation} with {@link Mining}, and shows the drills,
+ * fluid and lifetime of each patch. The patches are kept while the dialog is hidden, so that it can be shown again for a new
+ * calculation.
+ * @author ricky3350
+ */
+public class MiningDialog extends JDialog {
+
+	private static final long serialVersionUID = 4467012385213300975L;
+
+	/**
+	 * The patches, in the order they were added
+	 */
+	private final List<Mining.Patch> patches = new ArrayList<>();
+
+	/**
+	 * The rate at which the current calculation mines each resource, or <code>null</code> if there is no calculation
+	 */
+	private Map<MiningRecipe, Double> demand;
+
+	/**
+	 * The values of the variables of the plan, which can be used in the inputs
+	 */
+	private Map<String, Double> variables;
+
+	private final JComboBox<MiningRecipe> resource;
+	private final JTextField amount;
+	private final JSpinner entities;
+	private final JTextField productivity;
+	private final JLabel status;
+	private final JTable table;
+
+	/**
+	 * Creates a new {@code MiningDialog} with no patches.
+	 * @param owner - The window that owns the dialog
+	 */
+	public MiningDialog(final Frame owner) {
+		super(owner, "Mining", false);
+		this.setDefaultCloseOperation(HIDE_ON_CLOSE);
+
+		this.resource = new JComboBox<>(Data.getRecipes().stream().filter(r -> r instanceof MiningRecipe).map(r -> (MiningRecipe) r).sorted((a, b) -> name(a).compareToIgnoreCase(name(b))).toArray(MiningRecipe[]::new));
+		this.resource.setRenderer(new DefaultListCellRenderer() {
+
+			private static final long serialVersionUID = -2016330750925519424L;
+
+			@Override
+			public Component getListCellRendererComponent(final JList<?> list, final Object value, final int index, final boolean isSelected, final boolean cellHasFocus) {
+				return super.getListCellRendererComponent(list, value instanceof MiningRecipe ? name((MiningRecipe) value) : value, index, isSelected, cellHasFocus);
+			}
+
+		});
+		this.amount = new JTextField("1000000", 8);
+		this.amount.setToolTipText("The amount in the patch, or for an infinite resource, in each entity");
+		this.entities = new JSpinner(new SpinnerNumberModel(1, 1, 100000, 1));
+		this.entities.setToolTipText("The number of entities in an infinite patch, e.g. oil wells");
+		this.resource.addActionListener(e -> this.updateEntities());
+		this.updateEntities();
+
+		this.table = new JTable();
+		this.table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+
+		final JPanel add = new JPanel(new FlowLayout(FlowLayout.LEADING));
+		add.add(this.resource);
+		add.add(new JLabel("amount"));
+		add.add(this.amount);
+		add.add(new JLabel("entities"));
+		add.add(this.entities);
+		final JButton addButton = new JButton("Add");
+		addButton.addActionListener(e -> this.addPatch());
+		add.add(addButton);
+		final JButton remove = new JButton("Remove");
+		remove.addActionListener(e -> {
+			final int[] rows = this.table.getSelectedRows();
+			for (int i = rows.length - 1; i >= 0; i--)
+				this.patches.remove(rows[i]);
+			this.plan();
+		});
+		add.add(remove);
+
+		this.productivity = new JTextField("0", 4);
+		add.add(new JLabel("Mining productivity +"));
+		add.add(this.productivity);
+		add.add(new JLabel("%"));
+		final JButton plan = new JButton("Plan");
+		plan.addActionListener(e -> this.plan());
+		add.add(plan);
+		this.getRootPane().setDefaultButton(plan);
+		this.add(add, BorderLayout.PAGE_START);
+
+		this.add(new JScrollPane(this.table), BorderLayout.CENTER);
+
+		this.status = new JLabel(" ");
+		this.status.setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+		this.add(this.status, BorderLayout.PAGE_END);
+
+		this.setSize(900, 500);
+		this.setLocationRelativeTo(owner);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>name</i></b><br>
+	 * <pre> private static {@link String} name({@link Recipe} resource)</pre>
+	 * @return the localized name of the resource, or its internal name if it has none
+	 *         </ul>
+	 */
+	private static String name(final Recipe resource) {
+		final String ret = Data.nameFor(resource);
+		return ret == null ? resource.name : ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>setCalculation</i></b><br>
+	 * <pre> public void setCalculation({@link Calculation} calc, {@link Map}&lt;{@link String}, {@link Double}&gt; variables)</pre>
+	 * Plans the patches for the given calculation
+	 * @param calc - The calculation, or <code>null</code> if there is none
+	 * @param variables - The values of the variables of the plan
+	 *        </ul>
+	 */
+	public void setCalculation(final Calculation calc, final Map<String, Double> variables) {
+		this.demand = calc == null ? null : Mining.getDemand(calc);
+		this.variables = variables;
+		this.plan();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>updateEntities</i></b><br>
+	 * <pre> private void updateEntities()</pre> Enables the entity count only for infinite resources
+	 * </ul>
+	 */
+	private void updateEntities() {
+		final MiningRecipe r = (MiningRecipe) this.resource.getSelectedItem();
+		this.entities.setEnabled(r != null && r.infinite);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>addPatch</i></b><br>
+	 * <pre> private void addPatch()</pre> Adds a patch with the current inputs, and plans again
+	 * </ul>
+	 */
+	private void addPatch() {
+		final MiningRecipe r = (MiningRecipe) this.resource.getSelectedItem();
+		if (r == null) return;
+		try {
+			this.patches.add(new Mining.Patch(r, Evaluator.evaluate(this.amount.getText(), this.variables), (Integer) this.entities.getValue(), null));
+		} catch (final IllegalArgumentException e) {
+			this.status.setText(e.getMessage());
+			return;
+		}
+		this.plan();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>plan</i></b><br>
+	 * <pre> private void plan()</pre> Plans the patches for the current calculation, and shows the result in the table
+	 * </ul>
+	 */
+	private void plan() {
+		final List<Mining.Report> reports;
+		try {
+			final double bonus = Evaluator.evaluate(this.productivity.getText(), this.variables) / 100;
+			reports = new Mining(bonus).plan(this.patches, this.demand == null ? new LinkedHashMap<>() : this.demand);
+		} catch (final IllegalArgumentException e) {
+			this.status.setText(e.getMessage());
+			return;
+		}
+		this.table.setModel(new ReportModel(reports));
+
+		if (this.demand == null) {
+			this.status.setText("Calculate a plan to share its demand among the patches");
+			return;
+		}
+
+		double drills = 0;
+		final Map<String, Double> fluids = new LinkedHashMap<>();
+		for (final Mining.Report r : reports) {
+			drills += r.getDrills();
+			r.getFluids().forEach((fluid, rate) -> fluids.merge(fluid, rate, Double::sum));
+		}
+		final String missing = this.demand.keySet().stream().filter(r -> this.patches.stream().noneMatch(p -> p.resource == r)).map(MiningDialog::name).collect(Collectors.joining(", "));
+		final String fluid = fluids.entrySet().stream().map(e -> Util.NUMBER_FORMAT.format(e.getValue()) + "/s " + (Data.nameFor(e.getKey()) == null ? e.getKey() : Data.nameFor(e.getKey()))).collect(Collectors.joining(", "));
+		this.status.setText(String.format("<html>%s in %s%s%s</html>", Util.formatPlural(drills, "drill"), reports.size() + (reports.size() == 1 ? " patch" : " patches"), fluid.isEmpty() ? "" : ", using " + fluid, missing.isEmpty() ? "" : "<br>No patches for " + missing));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>formatTime</i></b><br>
+	 * <pre> private static {@link String} formatTime(double seconds)</pre>
+	 * @return the given time in hours, or "never" if it is infinite
+	 *         </ul>
+	 */
+	private static String formatTime(final double seconds) {
+		if (Double.isInfinite(seconds)) return "never";
+		return Util.NUMBER_FORMAT.format(seconds / 3600) + " h";
+	}
+
+	/**
+	 * A table model showing a {@link Mining.Report} for each patch
+	 * @author ricky3350
+	 */
+	private static class ReportModel extends AbstractTableModel {
+
+		private static final long serialVersionUID = -1960431581750851346L;
+
+		private static final String[] COLUMNS = {"Resource", "Amount", "Entities", "Yield", "Items/s", "Drills", "Fluid/s", "Lasts"};
+
+		private final List<Mining.Report> reports;
+
+		private ReportModel(final List<Mining.Report> reports) {
+			this.reports = reports;
+		}
+
+		@Override
+		public int getRowCount() {
+			return this.reports.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName(final int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Object getValueAt(final int row, final int column) {
+			final Mining.Report r = this.reports.get(row);
+			final MiningRecipe resource = r.patch.resource;
+			switch (column) {
+				case 0:
+					return name(resource);
+				case 1:
+					return Util.NUMBER_FORMAT.format(r.patch.amount);
+				case 2:
+					return resource.infinite ? Integer.toString(r.patch.entities) : "";
+				case 3:
+					return Util.NUMBER_FORMAT.format(r.getYield() * 100) + "%";
+				case 4:
+					return Util.NUMBER_FORMAT.format(r.getRate() * resource.getResults().values().stream().mapToDouble(Double::doubleValue).sum());
+				case 5:
+					return Util.NUMBER_FORMAT.format(r.getDrills()) + (r.getRate() > r.getCapacity() ? " (too few entities)" : "");
+				case 6:
+					return r.getFluids().values().stream().map(Util.NUMBER_FORMAT::format).collect(Collectors.joining(", "));
+				default:
+					return formatTime(r.getTime());
+			}
+		}
+
+	}
+
+}
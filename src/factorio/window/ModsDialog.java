@@ -0,0 +1,166 @@
+package factorio.window;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.awt.GridLayout;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+
+import factorio.data.Data;
+
+/**
+ * A modal dialog for choosing the application directory and the mod directories to load, in load order. After it is closed,
+ * {@link #getFactorioDir()} and {@link #getMods()} give the choice, or <code>null</code> if it was cancelled.
+ * @author ricky3350
+ */
+public class ModsDialog extends JDialog {
+
+	private static final long serialVersionUID = 2957186404471325519L;
+
+	private final JTextField factorioDir;
+	private final DefaultListModel<Path> mods;
+	private final JList<Path> modList;
+
+	/**
+	 * Whether or not the dialog was closed with the reload button
+	 */
+	private boolean accepted;
+
+	/**
+	 * Creates a new {@code ModsDialog}, showing the directories that are loaded in {@link Data}.
+	 * @param owner - The window that owns the dialog
+	 */
+	public ModsDialog(final Frame owner) {
+		super(owner, "Mods", true);
+		this.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+		final JPanel dir = new JPanel(new BorderLayout(4, 0));
+		dir.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+		dir.add(new JLabel("Factorio directory:"), BorderLayout.LINE_START);
+		this.factorioDir = new JTextField(Data.getFactorioDir() == null ? "" : Data.getFactorioDir().toString());
+		dir.add(this.factorioDir, BorderLayout.CENTER);
+		final JButton browse = new JButton("...");
+		browse.addActionListener(e -> {
+			final Path chosen = this.chooseDirectory();
+			if (chosen != null) this.factorioDir.setText(chosen.toString());
+		});
+		dir.add(browse, BorderLayout.LINE_END);
+		this.add(dir, BorderLayout.PAGE_START);
+
+		this.mods = new DefaultListModel<>();
+		Data.getMods().forEach(this.mods::addElement);
+		this.modList = new JList<>(this.mods);
+		this.modList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		final JScrollPane modScroll = new JScrollPane(this.modList);
+		modScroll.setBorder(BorderFactory.createTitledBorder("Mods, in load order"));
+		this.add(modScroll, BorderLayout.CENTER);
+
+		final JPanel edit = new JPanel(new GridLayout(0, 1, 0, 4));
+		edit.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+		final JButton add = new JButton("Add...");
+		add.addActionListener(e -> {
+			final Path chosen = this.chooseDirectory();
+			if (chosen != null) this.mods.addElement(chosen);
+		});
+		edit.add(add);
+		final JButton remove = new JButton("Remove");
+		remove.addActionListener(e -> {
+			if (this.modList.getSelectedIndex() >= 0) this.mods.remove(this.modList.getSelectedIndex());
+		});
+		edit.add(remove);
+		final JButton up = new JButton("Up");
+		up.addActionListener(e -> this.move(-1));
+		edit.add(up);
+		final JButton down = new JButton("Down");
+		down.addActionListener(e -> this.move(1));
+		edit.add(down);
+		final JPanel editPanel = new JPanel(new BorderLayout());
+		editPanel.add(edit, BorderLayout.PAGE_START);
+		this.add(editPanel, BorderLayout.LINE_END);
+
+		final JPanel buttons = new JPanel(new FlowLayout(FlowLayout.TRAILING));
+		final JButton reload = new JButton("Reload");
+		reload.setToolTipText("Loads the mods again. Only the mods that changed, and those after them, are run again.");
+		reload.addActionListener(e -> {
+			this.accepted = true;
+			this.dispose();
+		});
+		buttons.add(reload);
+		final JButton cancel = new JButton("Cancel");
+		cancel.addActionListener(e -> this.dispose());
+		buttons.add(cancel);
+		this.add(buttons, BorderLayout.PAGE_END);
+		this.getRootPane().setDefaultButton(reload);
+
+		this.setSize(560, 360);
+		this.setLocationRelativeTo(owner);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>move</i></b><br>
+	 * <pre> private void move(int offset)</pre> Moves the selected mod up or down the load order
+	 * @param offset - <code>-1</code> to move it up, <code>1</code> to move it down
+	 *        </ul>
+	 */
+	private void move(final int offset) {
+		final int from = this.modList.getSelectedIndex();
+		final int to = from + offset;
+		if (from < 0 || to < 0 || to >= this.mods.size()) return;
+
+		this.mods.add(to, this.mods.remove(from));
+		this.modList.setSelectedIndex(to);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>chooseDirectory</i></b><br>
+	 * <pre> private {@link Path} chooseDirectory()</pre>
+	 * @return the directory chosen by the user, or <code>null</code> if they cancelled
+	 *         </ul>
+	 */
+	private Path chooseDirectory() {
+		final JFileChooser chooser = new JFileChooser();
+		chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+		if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return null;
+		return chooser.getSelectedFile().toPath();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getFactorioDir</i></b><br>
+	 * <pre> public {@link Path} getFactorioDir()</pre>
+	 * @return the chosen application directory, or <code>null</code> if the dialog was cancelled
+	 *         </ul>
+	 */
+	public Path getFactorioDir() {
+		return this.accepted ? Paths.get(this.factorioDir.getText().trim()) : null;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getMods</i></b><br>
+	 * <pre> public {@link List}&lt;{@link Path}&gt; getMods()</pre>
+	 * @return the chosen mod directories, in load order, or <code>null</code> if the dialog was cancelled
+	 *         </ul>
+	 */
+	public List<Path> getMods() {
+		return this.accepted ? Collections.list(this.mods.elements()) : null;
+	}
+
+}
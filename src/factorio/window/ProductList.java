@@ -3,14 +3,26 @@ package factorio.window;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.GridLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BooleanSupplier;
 
 import javax.swing.JPanel;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
+import factorio.Events;
+import factorio.Metrics;
 import factorio.calculator.EditDistance;
 import factorio.data.Data;
 import factorio.data.Recipe;
@@ -23,44 +35,140 @@ public class ProductList extends JPanel {
 
 	private static final long serialVersionUID = -2326666987175732004L;
 
+	/**
+	 * The delay, in milliseconds, after the last call to {@link #requestSearchKey(String)} before a search is started
+	 */
+	private static final int SEARCH_DELAY = 150;
+
+	/**
+	 * The number of best matches that are shown before the full ranking of a search is finished
+	 */
+	private static final int SEARCH_PREVIEW_SIZE = 64;
+
+	/**
+	 * The number of rows that a {@link SearchWorker} ranks between each preview of the best matches so far
+	 */
+	private static final int SEARCH_CHUNK = 256;
+
 	/**
 	 * The string that is in the earch field.
 	 */
 	private String searchKey;
 
+	/**
+	 * The search key that will be used when {@link #searchTimer} fires
+	 */
+	private String pendingSearchKey;
+
+	/**
+	 * The {@link Timer} that coalesces calls to {@link #requestSearchKey(String)}
+	 */
+	private final Timer searchTimer = new Timer(SEARCH_DELAY, e -> this.startSearch());
+
+	/**
+	 * The {@link SearchWorker} that is currently ranking the rows, or <code>null</code> if there is none
+	 */
+	private SearchWorker search;
+
 	/**
 	 * The container for the rows, to make the rows stay at the top of the panel instead of spreading over the entire thing.
 	 */
 	private final JPanel container;
 
 	/**
-	 * An array of a {@link ProductListRow} for each {@link Recipe} in {@link Data#getRecipes()}
+	 * A {@link ProductListRow} for each {@link Recipe} in {@link Data#getRecipes()} that has been added to this list
+	 */
+	private final List<ProductListRow> listRows = new ArrayList<>();
+
+	/**
+	 * The values of the variables that the rates of the rows may use
 	 */
-	private final ProductListRow[] listRows;
+	private Map<String, ? extends Number> variables = Collections.emptyMap();
 
 	public ProductList(final Collection<ProductListRow> listRows) {
 		super(new BorderLayout());
 
 		this.container = new JPanel(new GridLayout(0, 1));
 
-		this.listRows = listRows.toArray(new ProductListRow[listRows.size()]);
+		this.listRows.addAll(listRows);
 
+		this.searchTimer.setRepeats(false);
 		this.setSearchKey("");
 
 		this.add(this.container, BorderLayout.PAGE_START);
 	}
 
 	public ProductList(final ProductListRow... listRows) {
-		super(new BorderLayout());
+		this(Arrays.asList(listRows));
+	}
 
-		this.container = new JPanel(new GridLayout(0, 1));
+	/**
+	 * <ul>
+	 * <b><i>addRows</i></b><br>
+	 * <pre>public void addRows({@link Collection}&lt;{@link ProductListRow}&gt; rows)</pre> Appends the given rows to this
+	 * list. If there is a search key, the list is searched again; otherwise the rows are shown immediately.
+	 * @param rows - the rows to add
+	 *        </ul>
+	 */
+	public void addRows(final Collection<ProductListRow> rows) {
+		if (rows.isEmpty()) return;
 
-		this.listRows = new ProductListRow[listRows.length];
-		System.arraycopy(listRows, 0, this.listRows, 0, listRows.length);
+		this.listRows.addAll(rows);
+		for (final ProductListRow row : rows)
+			row.setVariables(this.variables);
 
-		this.setSearchKey("");
+		if (this.searchKey.isEmpty()) {
+			boolean even = this.container.getComponentCount() % 2 == 0;
+			for (final ProductListRow row : rows) {
+				this.container.add(row);
+				if ((even = !even))
+					row.setBackground(Color.WHITE);
+				else
+					row.setBackground(new Color(238, 238, 238));
+			}
+			this.container.revalidate();
+			this.container.repaint();
 
-		this.add(this.container, BorderLayout.PAGE_START);
+			RecipePopupManager.prefetchVisible();
+		} else {
+			this.cancelSearch();
+			this.search = new SearchWorker(this.searchKey);
+			this.search.execute();
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>setRows</i></b><br>
+	 * <pre>public void setRows({@link List}&lt;{@link ProductListRow}&gt; rows)</pre> Replaces the rows of this list, e.g. after
+	 * the recipes have been reloaded. The rows are shown again for the current search key, and the old rows that are not kept
+	 * are unregistered from {@link RecipePopupManager}.
+	 * @param rows - the new rows, in order
+	 *        </ul>
+	 */
+	public void setRows(final List<ProductListRow> rows) {
+		final Set<ProductListRow> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+		kept.addAll(rows);
+		for (final ProductListRow row : this.listRows)
+			if (!kept.contains(row)) row.unregisterPopup();
+
+		this.listRows.clear();
+		this.listRows.addAll(rows);
+		for (final ProductListRow row : rows)
+			row.setVariables(this.variables);
+
+		this.setSearchKey(this.searchKey);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getRows</i></b><br>
+	 * <pre>public {@link List}&lt;{@link ProductListRow}&gt; getRows()</pre>
+	 * @return an unmodifiable view of every row that has been added to this list, whether or not it matches the search key
+	 *         </ul>
+	 */
+	public List<ProductListRow> getRows() {
+		return Collections.unmodifiableList(this.listRows);
 	}
 
 	/**
@@ -77,53 +185,160 @@ public class ProductList extends JPanel {
 	/**
 	 * <ul>
 	 * <b><i>setSearchKey</i></b><br>
-	 * <pre> void setSearchKey()</pre> Sets the current search key, and reorders the {@link ProductListRow}s accordingly.
+	 * <pre> void setSearchKey()</pre> Sets the current search key, and reorders the {@link ProductListRow}s accordingly. The
+	 * rows are ranked on the calling thread; use {@link #requestSearchKey(String)} for searches made while the user is typing.
 	 * @param searchKey - the new search key
 	 * @see {@link EditDistance#distance(String, String)}
 	 *      </ul>
 	 */
 	public void setSearchKey(final String searchKey) {
-		this.searchKey = searchKey == null ? "" : searchKey;
+		final Metrics.Timer timer = Metrics.start("productList.setSearchKey");
+		this.searchTimer.stop();
+		this.cancelSearch();
 
-		this.container.removeAll();
+		this.searchKey = searchKey == null ? "" : searchKey;
 
 		if (this.searchKey.isEmpty()) {
-			boolean even = true;
-			for (final ProductListRow row : this.listRows) {
-				this.container.add(row);
-				if ((even = !even))
-					row.setBackground(Color.WHITE);
-				else
-					row.setBackground(new Color(238, 238, 238));
-			}
-			this.container.revalidate();
-			this.container.repaint();
+			this.showRows(this.listRows);
 		} else {
-			final Set<ProductListRow> rows = new TreeSet<>((o1, o2) -> {
-				int d = Double.compare(EditDistance.distance(ProductList.this.searchKey, Data.nameFor(o1.recipe)), EditDistance.distance(ProductList.this.searchKey, Data.nameFor(o2.recipe)));
-				if (d != 0) return d;
-				d = Data.nameFor(o1.recipe).compareToIgnoreCase(Data.nameFor(o2.recipe));
-				if (d != 0) return d;
-				return o1.recipe.name.compareTo(o2.recipe.name);
-			});
-			for (final ProductListRow plr : this.listRows) {
-				final double ed = EditDistance.distance(searchKey, Data.nameFor(plr.recipe));
-				if (ed < Double.POSITIVE_INFINITY) { // TODO set value
-					rows.add(plr);
-				}
-			}
+			final Object event = Events.beginSearch(this.searchKey, this.listRows.size(), false);
+			final List<ProductListRow> ranked = rank(this.listRows, this.searchKey);
+			Events.endSearch(event, ranked.size());
+			this.showRows(ranked);
+		}
+		timer.stop();
+	}
 
-			boolean even = true;
-			for (final ProductListRow row : rows) {
-				this.container.add(row);
-				if ((even = !even))
-					row.setBackground(Color.WHITE);
-				else
-					row.setBackground(new Color(238, 238, 238));
-			}
-			this.container.revalidate();
-			this.container.repaint();
+	/**
+	 * <ul>
+	 * <b><i>requestSearchKey</i></b><br>
+	 * <pre> public void requestSearchKey({@link String} searchKey)</pre> Requests that the search key be changed to the given
+	 * key. Requests made within {@link #SEARCH_DELAY} milliseconds of each other are coalesced, and the rows are then ranked on
+	 * a background thread. Any search that is still running when a new one starts is cancelled. The best
+	 * {@link #SEARCH_PREVIEW_SIZE} matches so far are shown after every {@link #SEARCH_CHUNK} rows, and the rest follow when
+	 * the full ranking is finished.
+	 * @param searchKey - the new search key
+	 *        </ul>
+	 */
+	public void requestSearchKey(final String searchKey) {
+		this.pendingSearchKey = searchKey == null ? "" : searchKey;
+		this.searchTimer.restart();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>startSearch</i></b><br>
+	 * <pre> private void startSearch()</pre> Starts a {@link SearchWorker} for {@link #pendingSearchKey}, cancelling the
+	 * current one.
+	 * </ul>
+	 */
+	private void startSearch() {
+		if (this.pendingSearchKey.equals(this.searchKey)) return;
+
+		this.cancelSearch();
+		this.searchKey = this.pendingSearchKey;
+
+		if (this.searchKey.isEmpty()) {
+			this.showRows(this.listRows);
+			return;
+		}
+
+		this.search = new SearchWorker(this.searchKey);
+		this.search.execute();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>cancelSearch</i></b><br>
+	 * <pre> private void cancelSearch()</pre> Cancels the current {@link SearchWorker}, if there is one.
+	 * </ul>
+	 */
+	private void cancelSearch() {
+		if (this.search != null) {
+			this.search.cancel(true);
+			this.search = null;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>showRows</i></b><br>
+	 * <pre> private void showRows({@link Collection}&lt;{@link ProductListRow}&gt; rows)</pre> Replaces the rows in the
+	 * container with the given rows, in order, alternating their background colors.
+	 * @param rows - the rows to show
+	 *        </ul>
+	 */
+	private void showRows(final Collection<ProductListRow> rows) {
+		this.container.removeAll();
+
+		boolean even = true;
+		for (final ProductListRow row : rows) {
+			this.container.add(row);
+			if ((even = !even))
+				row.setBackground(Color.WHITE);
+			else
+				row.setBackground(new Color(238, 238, 238));
 		}
+		this.container.revalidate();
+		this.container.repaint();
+
+		RecipePopupManager.prefetchVisible();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>rank</i></b><br>
+	 * <pre> static {@link List}&lt;{@link ProductListRow}&gt; rank({@link Collection}&lt;ProductListRow&gt; rows, {@link String} searchKey)</pre>
+	 * @param rows - the rows to rank
+	 * @param searchKey - the search key
+	 * @return the rows that match the given search key, from the best match to the worst
+	 *         </ul>
+	 */
+	static List<ProductListRow> rank(final Collection<ProductListRow> rows, final String searchKey) {
+		final Map<ProductListRow, Double> distances = distances(rows, searchKey, () -> false);
+		final List<ProductListRow> ret = new ArrayList<>(distances.keySet());
+		ret.sort(searchOrder(distances));
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>distances</i></b><br>
+	 * <pre> private static {@link Map}&lt;{@link ProductListRow}, {@link Double}&gt; distances({@link Collection}&lt;ProductListRow&gt; rows, {@link String} searchKey, {@link BooleanSupplier} cancelled)</pre>
+	 * @param rows - the rows to rank
+	 * @param searchKey - the search key
+	 * @param cancelled - checked before each row; the search stops once it returns <code>true</code>
+	 * @return a map mapping the rows that match the given search key to their edit distance from it, or <code>null</code> if
+	 *         the search was cancelled
+	 *         </ul>
+	 */
+	private static Map<ProductListRow, Double> distances(final Collection<ProductListRow> rows, final String searchKey, final BooleanSupplier cancelled) {
+		final Map<ProductListRow, Double> ret = new HashMap<>();
+		for (final ProductListRow plr : rows) {
+			if (cancelled.getAsBoolean()) return null;
+
+			final double ed = EditDistance.distance(searchKey, Data.nameFor(plr.recipe));
+			if (ed < EditDistance.NO_MATCH) ret.put(plr, ed);
+		}
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>searchOrder</i></b><br>
+	 * <pre> private static {@link Comparator}&lt;{@link ProductListRow}&gt; searchOrder({@link Map}&lt;ProductListRow, {@link Double}&gt; distances)</pre>
+	 * @param distances - maps rows to their edit distance from the search key
+	 * @return a {@code Comparator} ordering rows from the best match to the worst
+	 *         </ul>
+	 */
+	private static Comparator<ProductListRow> searchOrder(final Map<ProductListRow, Double> distances) {
+		return (o1, o2) -> {
+			int d = Double.compare(distances.get(o1), distances.get(o2));
+			if (d != 0) return d;
+			d = Data.nameFor(o1.recipe).compareToIgnoreCase(Data.nameFor(o2.recipe));
+			if (d != 0) return d;
+			return o1.recipe.name.compareTo(o2.recipe.name);
+		};
 	}
 
 	/**
@@ -135,12 +350,122 @@ public class ProductList extends JPanel {
 	 *         </ul>
 	 */
 	public Map<Recipe, Number> getRates() {
+		return this.getRates(this.variables);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getRates</i></b><br>
+	 * <pre>public {@link Map}&lt;{@link Recipe}, {@link Number}&gt; getRates(Map&lt;{@link String}, ? extends Number&gt; variables)</pre>
+	 * @param variables - the values of the variables to evaluate the rates with, instead of the current ones
+	 * @return a map mapping the recipes that are to be calculated for to the rates (in cycles per second) at which they are to
+	 *         be produced.
+	 *         </ul>
+	 */
+	public Map<Recipe, Number> getRates(final Map<String, ? extends Number> variables) {
 		final Map<Recipe, Number> ret = new HashMap<>();
 		for (final ProductListRow row : this.listRows) {
-			final double rate = row.getRate();
+			final double rate = row.getRate(variables);
 			if (rate > 0) ret.put(row.recipe, rate);
 		}
 
 		return ret;
 	}
+
+	/**
+	 * <ul>
+	 * <b><i>setVariables</i></b><br>
+	 * <pre>public void setVariables({@link Map}&lt;{@link String}, ? extends {@link Number}&gt; variables)</pre> Sets the values
+	 * of the variables that the rates of every row may use
+	 * @param variables - maps the names of variables to their values
+	 * @see {@link ProductListRow#setVariables(Map)}
+	 *      </ul>
+	 */
+	public void setVariables(final Map<String, ? extends Number> variables) {
+		this.variables = variables;
+		for (final ProductListRow row : this.listRows)
+			row.setVariables(variables);
+	}
+
+	/**
+	 * A {@link SwingWorker} that ranks the rows of the list against a search key in the background, {@link #SEARCH_CHUNK}
+	 * rows at a time. The best matches so far are {@linkplain #publish(Object...) published} after each chunk, before the full
+	 * ranking is finished.
+	 * @author ricky3350
+	 */
+	private class SearchWorker extends SwingWorker<List<ProductListRow>, List<ProductListRow>> {
+
+		/**
+		 * The search key to rank against
+		 */
+		private final String key;
+
+		/**
+		 * The rows of the list when this search was started
+		 */
+		private final ProductListRow[] rows;
+
+		public SearchWorker(final String key) {
+			this.key = key;
+			this.rows = ProductList.this.listRows.toArray(new ProductListRow[ProductList.this.listRows.size()]);
+		}
+
+		@Override
+		protected List<ProductListRow> doInBackground() {
+			final Metrics.Timer timer = Metrics.start("productList.search");
+			final Object event = Events.beginSearch(this.key, this.rows.length, true);
+			final Map<ProductListRow, Double> distances = new HashMap<>();
+			final Comparator<ProductListRow> order = searchOrder(distances);
+			final PriorityQueue<ProductListRow> best = new PriorityQueue<>(SEARCH_PREVIEW_SIZE + 1, order.reversed());
+
+			final List<ProductListRow> rows = Arrays.asList(this.rows);
+			for (int start = 0; start < rows.size(); start += SEARCH_CHUNK) {
+				final int end = Math.min(start + SEARCH_CHUNK, rows.size());
+				final Map<ProductListRow, Double> chunk = distances(rows.subList(start, end), this.key, this::isCancelled);
+				if (chunk == null) {
+					Events.endSearch(event, -1);
+					timer.stop();
+					return null;
+				}
+				distances.putAll(chunk);
+
+				// The last chunk is shown with the full ranking instead
+				if (chunk.isEmpty() || end == rows.size()) continue;
+				for (final ProductListRow plr : chunk.keySet()) {
+					best.add(plr);
+					if (best.size() > SEARCH_PREVIEW_SIZE) best.poll();
+				}
+				final List<ProductListRow> preview = new ArrayList<>(best);
+				preview.sort(order);
+				this.publish(preview);
+			}
+
+			final List<ProductListRow> ret = new ArrayList<>(distances.keySet());
+			ret.sort(order);
+			Events.endSearch(event, ret.size());
+			timer.stop();
+			return ret;
+		}
+
+		@Override
+		protected void process(final List<List<ProductListRow>> chunks) {
+			if (this.isCancelled() || ProductList.this.search != this) return;
+
+			ProductList.this.showRows(chunks.get(chunks.size() - 1));
+		}
+
+		@Override
+		protected void done() {
+			if (this.isCancelled()) Metrics.count("productList.search.cancelled");
+			if (this.isCancelled() || ProductList.this.search != this) return;
+			ProductList.this.search = null;
+
+			try {
+				ProductList.this.showRows(this.get());
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace(System.err);
+			}
+		}
+
+	}
 }
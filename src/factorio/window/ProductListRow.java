@@ -5,27 +5,43 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
+import java.awt.GridLayout;
 import java.awt.Insets;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
 import java.awt.event.ItemEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JSpinner;
 import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingConstants;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DocumentFilter;
 import javax.swing.text.PlainDocument;
 
+import factorio.calculator.AssemblerOptimizer;
 import factorio.calculator.AssemblerSettings;
+import factorio.calculator.BeaconSettings;
 import factorio.calculator.Evaluator;
+import factorio.calculator.Expression;
+import factorio.calculator.Objective;
+import factorio.data.Beacon;
 import factorio.data.Data;
+import factorio.data.Module;
 import factorio.data.Recipe;
 
 /**
@@ -67,9 +83,14 @@ public class ProductListRow extends JPanel {
 	private AssemblerSettings assemblerSettings;
 
 	/**
-	 * The current numerical value of {@link #text}
+	 * The compiled expression in {@link #text}, or <code>null</code> if it is empty or invalid
 	 */
-	private double value = Double.NaN;
+	private Expression expression;
+
+	/**
+	 * The values of the variables that {@link #expression} may use
+	 */
+	private Map<String, ? extends Number> variables = Collections.emptyMap();
 
 	public ProductListRow(final Recipe recipe) {
 		super(new BorderLayout());
@@ -95,17 +116,7 @@ public class ProductListRow extends JPanel {
 
 			@Override
 			public void focusLost(final FocusEvent e) {
-				try {
-					if (!ProductListRow.this.text.getText().isEmpty()) {
-						ProductListRow.this.value = Evaluator.evaluate(ProductListRow.this.text.getText());
-					} else {
-						ProductListRow.this.value = Double.NaN;
-					}
-					ProductListRow.this.text.setBackground(Color.WHITE);
-				} catch (final IllegalArgumentException exception) {
-					ProductListRow.this.text.setBackground(new Color(255, 192, 192));
-					ProductListRow.this.value = Double.NaN;
-				}
+				ProductListRow.this.compile();
 			}
 
 		});
@@ -114,12 +125,12 @@ public class ProductListRow extends JPanel {
 
 			@Override
 			public void insertString(final FilterBypass fb, final int offset, final String string, final AttributeSet attr) throws BadLocationException {
-				fb.insertString(offset, string.replaceAll("[^\\d\\.\\-\\+\\*\\/\\(\\)]+", ""), attr);
+				fb.insertString(offset, string.replaceAll("[^\\w\\s\\.\\-\\+\\*\\/\\^\\(\\)]+", ""), attr);
 			}
 
 			@Override
 			public void replace(final FilterBypass fb, final int offset, final int length, final String text, final AttributeSet attrs) throws BadLocationException {
-				fb.replace(offset, length, text.replaceAll("[^\\d\\.\\-\\+\\*\\/\\(\\)]+", ""), attrs);
+				fb.replace(offset, length, text.replaceAll("[^\\w\\s\\.\\-\\+\\*\\/\\^\\(\\)]+", ""), attrs);
 			}
 
 		});
@@ -137,7 +148,7 @@ public class ProductListRow extends JPanel {
 		this.options.addItemListener(e -> {
 			if (e.getStateChange() != ItemEvent.SELECTED) return;
 
-			ProductListRow.this.configure.setEnabled(ProductListRow.this.options.getSelectedIndex() == this.getOptions().length);
+			ProductListRow.this.configure.setEnabled(ProductListRow.this.options.getSelectedIndex() == this.getOptions().length - 1);
 		});
 		this.options.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
 
@@ -163,6 +174,79 @@ public class ProductListRow extends JPanel {
 		this.add(right, BorderLayout.LINE_END);
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>compile</i></b><br>
+	 * <pre>private void compile()</pre> Compiles the text field into {@link #expression}, and highlights the text field if it is
+	 * not valid.
+	 * </ul>
+	 */
+	private void compile() {
+		try {
+			if (!this.text.getText().trim().isEmpty()) {
+				this.expression = Evaluator.compile(this.text.getText());
+				this.expression.evaluate(this.variables);
+			} else {
+				this.expression = null;
+			}
+			this.text.setBackground(Color.WHITE);
+		} catch (final IllegalArgumentException exception) {
+			this.expression = null;
+			this.text.setBackground(new Color(255, 192, 192));
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>updateLabel</i></b><br>
+	 * <pre>public void updateLabel()</pre> Sets the name and icon of the label again, after the names or icons have been loaded.
+	 * </ul>
+	 */
+	public void updateLabel() {
+		this.label.setText(Data.nameFor(this.recipe));
+		this.label.setIcon(this.recipe.getIcon());
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getText</i></b><br>
+	 * <pre>public final {@link String} getText()</pre>
+	 * @return the text of the rate, trimmed
+	 *         </ul>
+	 */
+	public final String getText() {
+		return this.text.getText().trim();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>setInput</i></b><br>
+	 * <pre>public void setInput({@link String} text, String option, {@link AssemblerSettings} settings)</pre> Sets the text of
+	 * the rate, the selected option and the configured assembler, e.g. from a saved plan.
+	 * @param text - The text of the rate
+	 * @param option - The option to select. If it is not one of the {@linkplain #getOptions() options}, the first is selected.
+	 * @param settings - The assembler settings, or <code>null</code> to use the default
+	 *        </ul>
+	 */
+	public void setInput(final String text, final String option, final AssemblerSettings settings) {
+		this.text.setText(text == null ? "" : text);
+		this.compile();
+
+		this.options.setSelectedIndex(Math.max(0, Arrays.asList(this.getOptions()).indexOf(option)));
+		this.assemblerSettings = settings == null ? AssemblerSettings.getDefaultSettings(this.recipe) : settings;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>unregisterPopup</i></b><br>
+	 * <pre>void unregisterPopup()</pre> Unregisters the label of this row from {@link RecipePopupManager}, once the row is no
+	 * longer used.
+	 * </ul>
+	 */
+	void unregisterPopup() {
+		RecipePopupManager.unregisterComponent(this.label);
+	}
+
 	/**
 	 * <ul>
 	 * <b><i>getOptions</i></b><br>
@@ -196,37 +280,158 @@ public class ProductListRow extends JPanel {
 	 * @return The number of recipe cycles per second the user has specified in this <code>ProductListRow</code>'s text field.
 	 *         </ul>
 	 */
-	public double getRate() {
-		if (Double.isNaN(this.value)) return 0;
+	public final double getRate() {
+		return this.getRate(this.variables);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getRate</i></b><br>
+	 * <pre>public double getRate({@link Map}&lt;{@link String}, ? extends {@link Number}&gt; variables)</pre>
+	 * @param variables - the values of the variables to evaluate the text field with, instead of the current ones
+	 * @return The number of recipe cycles per second the user has specified in this <code>ProductListRow</code>'s text field.
+	 *         </ul>
+	 */
+	public double getRate(final Map<String, ? extends Number> variables) {
+		final double value = this.getValue(variables);
+		if (Double.isNaN(value)) return 0;
 
 		switch (this.getSelectedOption()) {
 			case "cycles per second":
-				return this.value;
+				return value;
 			case "max cap. assembers":
-				return 1 / (this.value * this.assemblerSettings.getSpeed() * this.recipe.time);
+				return 1 / (value * this.assemblerSettings.getSpeed() * this.recipe.time);
 			default:
-				return this.value / this.recipe.getResults().values().stream().mapToDouble(f -> (double) f).sum();
+				double results = 0;
+				for (int i = 0; i < this.recipe.getResultCount(); i++)
+					results += this.recipe.getResultAmount(i);
+				return value / results;
 		}
 	}
 
-	protected final AssemblerSettings getAssemblerSettings() {
+	public final AssemblerSettings getAssemblerSettings() {
 		return this.assemblerSettings;
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>getValue</i></b><br>
+	 * <pre>protected final double getValue()</pre>
+	 * @return the value of the expression in the text field with the current variables, or <code>NaN</code> if it is empty,
+	 *         invalid, or uses a variable that is not bound
+	 *         </ul>
+	 */
 	protected final double getValue() {
-		return this.value;
+		return this.getValue(this.variables);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getValue</i></b><br>
+	 * <pre>protected final double getValue({@link Map}&lt;{@link String}, ? extends {@link Number}&gt; variables)</pre>
+	 * @param variables - the values of the variables to evaluate the expression with
+	 * @return the value of the expression in the text field with the given variables, or <code>NaN</code> if it is empty,
+	 *         invalid, or uses a variable that is not bound
+	 *         </ul>
+	 */
+	protected final double getValue(final Map<String, ? extends Number> variables) {
+		if (this.expression == null) return Double.NaN;
+
+		try {
+			return this.expression.evaluate(variables);
+		} catch (final IllegalArgumentException e) {
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>setVariables</i></b><br>
+	 * <pre>public void setVariables({@link Map}&lt;{@link String}, ? extends {@link Number}&gt; variables)</pre> Sets the
+	 * values of the variables that the expression in the text field may use
+	 * @param variables - maps the names of variables to their values
+	 *        </ul>
+	 */
+	public void setVariables(final Map<String, ? extends Number> variables) {
+		this.variables = variables;
+		if (this.expression != null) {
+			try {
+				this.expression.evaluate(variables);
+				this.text.setBackground(Color.WHITE);
+			} catch (final IllegalArgumentException e) {
+				this.text.setBackground(new Color(255, 192, 192));
+			}
+		}
 	}
 
 	/**
 	 * <ul>
 	 * <b><i>configure</i></b><br>
-	 * <pre>public {@link AssemblerSettings} configure()</pre> Called when the current assembler needs to be configured
+	 * <pre>public {@link AssemblerSettings} configure()</pre> Called when the current assembler needs to be configured. Asks the
+	 * user for an {@link Objective}, which may be a weighted mix of the costs, and, if any {@link Beacon}s are loaded, the
+	 * beacons around each assembler, and chooses the settings with {@link AssemblerOptimizer}.
 	 * @return the new settings from the configuration, or <code>null</code> of it was cancelled.
 	 *         </ul>
 	 */
 	public AssemblerSettings configure() {
-		// TODO
-		return null;
+		final Objective[] objectives = {Objective.BUILDINGS, Objective.POWER, Objective.RAW_RESOURCES, Objective.POLLUTION, WeightedMix.ENTRY};
+		final Beacon[] beacons = Data.getBeacons().stream().sorted(Comparator.comparing(b -> b.name)).toArray(Beacon[]::new);
+
+		Objective choice;
+		BeaconSettings beaconSettings = null;
+		if (beacons.length == 0) {
+			choice = (Objective) JOptionPane.showInputDialog(this, "Optimize the assembler for " + Data.nameFor(this.recipe) + " by:", "Configure Assembler", JOptionPane.PLAIN_MESSAGE, null, objectives, objectives[0]);
+			if (choice == null) return null;
+		} else {
+			final BeaconSettings current = this.assemblerSettings == null ? null : this.assemblerSettings.getBeacons();
+
+			final JComboBox<Objective> objective = new JComboBox<>(objectives);
+			final JSpinner count = new JSpinner(new SpinnerNumberModel(current == null ? 0 : current.getCount(), 0, 64, 1));
+			final JComboBox<String> beacon = new JComboBox<>(Arrays.stream(beacons).map(b -> Data.nameFor(b.name)).toArray(String[]::new));
+			final JComboBox<String> module = new JComboBox<>();
+			final List<Module> modules = new ArrayList<>();
+			beacon.addItemListener(e -> {
+				if (e.getStateChange() != ItemEvent.SELECTED) return;
+				final Beacon b = beacons[beacon.getSelectedIndex()];
+				modules.clear();
+				Data.getModules().stream().filter(m -> b.allowsModule(m) && m.canCraft(this.recipe.name)).sorted(Comparator.comparing(m -> m.name)).forEach(modules::add);
+				module.removeAllItems();
+				module.addItem("None");
+				modules.forEach(m -> module.addItem(Data.nameFor(m.name)));
+			});
+			beacon.setSelectedIndex(-1);
+			beacon.setSelectedIndex(current == null ? 0 : Math.max(0, Arrays.asList(beacons).indexOf(current.getBeacon())));
+			if (current != null && current.getModules().length > 0) module.setSelectedIndex(modules.indexOf(current.getModules()[0]) + 1);
+
+			final JPanel panel = new JPanel(new GridLayout(0, 2, 4, 4));
+			panel.add(new JLabel("Optimize by:"));
+			panel.add(objective);
+			panel.add(new JLabel("Beacons per assembler:"));
+			panel.add(count);
+			panel.add(new JLabel("Beacon:"));
+			panel.add(beacon);
+			panel.add(new JLabel("Beacon modules:"));
+			panel.add(module);
+			if (JOptionPane.showConfirmDialog(this, panel, "Configure Assembler for " + Data.nameFor(this.recipe), JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) return null;
+
+			choice = (Objective) objective.getSelectedItem();
+			final int n = (Integer) count.getValue();
+			if (n > 0) {
+				final Beacon b = beacons[beacon.getSelectedIndex()];
+				final Module[] m = new Module[module.getSelectedIndex() > 0 ? b.modules : 0];
+				Arrays.fill(m, module.getSelectedIndex() > 0 ? modules.get(module.getSelectedIndex() - 1) : null);
+				beaconSettings = new BeaconSettings(b, n, m);
+			}
+		}
+
+		if (choice == WeightedMix.ENTRY) {
+			choice = WeightedMix.ask(this, "Weighted mix for " + Data.nameFor(this.recipe));
+			if (choice == null) return null;
+		}
+
+		final AssemblerSettings ret = AssemblerOptimizer.optimize(this.recipe, choice, beaconSettings);
+		if (ret == null) JOptionPane.showMessageDialog(this, "No assembler can craft " + Data.nameFor(this.recipe) + ".", "Configure Assembler", JOptionPane.WARNING_MESSAGE);
+		return ret;
 	}
 
 }
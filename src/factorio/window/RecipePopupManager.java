@@ -16,12 +16,16 @@ import java.awt.event.MouseMotionAdapter;
 import java.awt.image.BufferedImage;
 import java.net.MalformedURLException;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.ImageIcon;
+import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.Popup;
@@ -30,6 +34,7 @@ import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
+import factorio.Metrics;
 import factorio.Util;
 import factorio.data.Data;
 import factorio.data.Recipe;
@@ -46,11 +51,35 @@ public class RecipePopupManager extends MouseAdapter {
 	 */
 	private static final ImageIcon TIME;
 
+	/**
+	 * The maximum number of popup panels kept in {@link #panelCache}
+	 */
+	private static final int CACHE_SIZE = 256;
+
+	/**
+	 * The maximum number of popup panels built by a single tick of {@link #prefetchTimer}
+	 */
+	private static final int PREFETCH_BATCH = 8;
+
 	/**
 	 * An instance of {@code RecipePopupManager} to serve as a mouse listener
 	 */
 	private static final RecipePopupManager listener = new RecipePopupManager();
 
+	/**
+	 * The mouse motion listener for the popup panels, which hides the popup once the mouse leaves {@link #currentComponent}
+	 */
+	private static final MouseMotionAdapter panelListener = new MouseMotionAdapter() {
+
+		@Override
+		public void mouseMoved(final MouseEvent e) {
+			final Point converted = SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), currentComponent);
+			if (currentComponent != null && !currentComponent.contains(converted)) {
+				listener.mouseExited(new MouseEvent(currentComponent, MouseEvent.MOUSE_EXITED, e.getWhen(), e.getModifiers(), converted.x, converted.y, e.getClickCount(), e.isPopupTrigger()));
+			}
+		}
+	};
+
 	private RecipePopupManager() {}
 
 	/**
@@ -59,6 +88,29 @@ public class RecipePopupManager extends MouseAdapter {
 	 */
 	private static final Map<Component, Recipe> registeredComponents = new HashMap<>();
 
+	/**
+	 * A least-recently-used cache mapping {@link Recipe}s to their prebuilt popup panels
+	 */
+	private static final Map<Recipe, JPanel> panelCache = new LinkedHashMap<Recipe, JPanel>(CACHE_SIZE, 0.75F, true) {
+
+		private static final long serialVersionUID = 2290436405834707124L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Recipe, JPanel> eldest) {
+			return this.size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * The visible registered components whose popup panels have not been built yet, drained by {@link #prefetch()}
+	 */
+	private static final Deque<Component> prefetchQueue = new ArrayDeque<>();
+
+	/**
+	 * Whether the visible components have changed since {@link #prefetchQueue} was filled
+	 */
+	private static boolean prefetchStale = true;
+
 	/**
 	 * The {@link Popup} that is shown
 	 */
@@ -78,21 +130,17 @@ public class RecipePopupManager extends MouseAdapter {
 	 * The {@link Timer} that controls the showing of the {@link #popup}
 	 */
 	private static final Timer timer = new Timer(50, e -> {
-		final JPanel panel = createRecipePanel(registeredComponents.get(currentComponent));
-		panel.addMouseMotionListener(new MouseMotionAdapter() {
-
-			@Override
-			public void mouseMoved(final MouseEvent e) {
-				final Point converted = SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), currentComponent);
-				if (currentComponent != null && !currentComponent.contains(converted)) {
-					listener.mouseExited(new MouseEvent(currentComponent, MouseEvent.MOUSE_EXITED, e.getWhen(), e.getModifiers(), converted.x, converted.y, e.getClickCount(), e.isPopupTrigger()));
-				}
-			}
-		});
+		final JPanel panel = getRecipePanel(registeredComponents.get(currentComponent));
 		popup = PopupFactory.getSharedInstance().getPopup(currentComponent, panel, x, y);
 		popup.show();
 	});
 
+	/**
+	 * The {@link Timer} that builds the popup panels for the visible registered components while the user is idle
+	 * @see {@link #prefetchVisible()}
+	 */
+	private static final Timer prefetchTimer = new Timer(200, e -> prefetch());
+
 	static {
 		Image img;
 		try {
@@ -103,6 +151,7 @@ public class RecipePopupManager extends MouseAdapter {
 		TIME = new ImageIcon(img);
 
 		timer.setRepeats(false);
+		prefetchTimer.setRepeats(false);
 	}
 
 	/**
@@ -137,6 +186,102 @@ public class RecipePopupManager extends MouseAdapter {
 		c.removeMouseMotionListener(listener);
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>prefetchVisible</i></b><br>
+	 * <pre>public static void prefetchVisible()</pre> Schedules the popup panels for the registered components that are currently
+	 * visible to be built once the user has been idle for a short time. Should be called whenever the visible components
+	 * change, e.g. when a list is scrolled or reordered.
+	 * </ul>
+	 */
+	public static void prefetchVisible() {
+		prefetchStale = true;
+		prefetchTimer.restart();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>prefetch</i></b><br>
+	 * <pre>private static void prefetch()</pre> Builds the popup panels for up to {@link #PREFETCH_BATCH} components from
+	 * {@link #prefetchQueue}, rescheduling itself if there are more. The queue is refilled from the registered components
+	 * only on the first tick after {@link #prefetchVisible()}, so that later ticks do not scan every row again.
+	 * </ul>
+	 */
+	private static void prefetch() {
+		if (popup != null) {
+			prefetchTimer.restart();
+			return;
+		}
+
+		if (prefetchStale) {
+			prefetchStale = false;
+			prefetchQueue.clear();
+			registeredComponents.forEach((c, r) -> {
+				if (isVisible(c) && !panelCache.containsKey(r)) prefetchQueue.add(c);
+			});
+		}
+
+		int built = 0;
+		while (built < PREFETCH_BATCH && !prefetchQueue.isEmpty()) {
+			final Component c = prefetchQueue.poll();
+			final Recipe r = registeredComponents.get(c);
+			if (r == null || panelCache.containsKey(r) || !isVisible(c)) continue;
+
+			getRecipePanel(r);
+			built++;
+		}
+		if (!prefetchQueue.isEmpty()) prefetchTimer.restart();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>isVisible</i></b><br>
+	 * <pre>private static boolean isVisible({@link Component} c)</pre>
+	 * @param c - The component to check
+	 * @return whether any part of the given {@code Component} is on the screen
+	 *         </ul>
+	 */
+	private static boolean isVisible(final Component c) {
+		return c.isShowing() && !(c instanceof JComponent && ((JComponent) c).getVisibleRect().isEmpty());
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getRecipePanel</i></b><br>
+	 * <pre>private static {@link JPanel} getRecipePanel({@link Recipe} r)</pre>
+	 * @param r - The recipe to get a panel for
+	 * @return the panel for the given {@code Recipe} from {@link #panelCache}, creating and laying it out if it is not there
+	 *         </ul>
+	 */
+	private static JPanel getRecipePanel(final Recipe r) {
+		JPanel ret = panelCache.get(r);
+		if (ret != null) {
+			Metrics.count("popup.cache.hit");
+			return ret;
+		}
+
+		final Metrics.Timer timer = Metrics.start("popup.build");
+		ret = createRecipePanel(r);
+		ret.addMouseMotionListener(panelListener);
+		ret.setSize(ret.getPreferredSize());
+		ret.validate();
+		timer.stop();
+
+		panelCache.put(r, ret);
+		return ret;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>clearCache</i></b><br>
+	 * <pre>public static void clearCache()</pre> Discards all of the prebuilt popup panels
+	 * </ul>
+	 */
+	public static void clearCache() {
+		panelCache.clear();
+		prefetchStale = true;
+	}
+
 	/**
 	 * <ul>
 	 * <b><i>createRecipePanel</i></b><br>
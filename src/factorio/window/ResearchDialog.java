@@ -0,0 +1,306 @@
+package factorio.window;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.table.AbstractTableModel;
+
+import factorio.Util;
+import factorio.calculator.Evaluator;
+import factorio.calculator.Research;
+import factorio.data.Data;
+import factorio.data.Technology;
+
+/**
+ * A dialog that plans a queue of technologies with {@link Research}, and shows when each is researched and the science
+ * packs that it needs.
+ * @author ricky3350
+ */
+public class ResearchDialog extends JDialog {
+
+	private static final long serialVersionUID = -6418840512950385573L;
+
+	/**
+	 * The values of the variables of the plan, which can be used in the inputs
+	 */
+	private final Map<String, Double> variables;
+
+	/**
+	 * The technologies to research, in order, and the level to research each up to
+	 */
+	private final Map<Technology, Integer> queue = new LinkedHashMap<>();
+
+	private final DefaultListModel<Technology> queueModel = new DefaultListModel<>();
+	private final JList<Technology> queueList;
+	private final JComboBox<Technology> technology;
+	private final JSpinner level;
+	private final JTextField researched;
+	private final JComboBox<Research.Mode> mode;
+	private final JTextField value;
+	private final JTextField speedBonus;
+	private final JTextField productivityBonus;
+	private final JLabel status;
+	private final JTable table;
+
+	/**
+	 * Creates a new {@code ResearchDialog}.
+	 * @param owner - The window that owns the dialog
+	 * @param variables - The values of the variables of the plan
+	 */
+	public ResearchDialog(final Frame owner, final Map<String, Double> variables) {
+		super(owner, "Research", false);
+		this.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+		this.variables = variables;
+
+		final Technology[] techs = Data.getTechnologies().stream().sorted((a, b) -> name(a).compareToIgnoreCase(name(b))).toArray(Technology[]::new);
+		this.technology = new JComboBox<>(techs);
+		this.technology.setRenderer(new TechnologyRenderer());
+		this.level = new JSpinner(new SpinnerNumberModel(1, 1, Integer.MAX_VALUE, 1));
+		this.technology.addActionListener(e -> this.updateLevel());
+		this.updateLevel();
+
+		this.queueList = new JList<>(this.queueModel);
+		this.queueList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		this.queueList.setVisibleRowCount(5);
+		this.queueList.setCellRenderer(new TechnologyRenderer());
+
+		final JPanel add = new JPanel(new FlowLayout(FlowLayout.LEADING));
+		add.add(this.technology);
+		add.add(new JLabel("up to level"));
+		add.add(this.level);
+		final JButton addButton = new JButton("Add");
+		addButton.addActionListener(e -> {
+			final Technology t = (Technology) this.technology.getSelectedItem();
+			if (t == null) return;
+			if (!this.queue.containsKey(t)) this.queueModel.addElement(t);
+			this.queue.put(t, (Integer) this.level.getValue());
+			this.queueList.repaint();
+		});
+		add.add(addButton);
+		final JButton remove = new JButton("Remove");
+		remove.addActionListener(e -> {
+			final Technology t = this.queueList.getSelectedValue();
+			if (t == null) return;
+			this.queue.remove(t);
+			this.queueModel.removeElement(t);
+		});
+		add.add(remove);
+
+		this.researched = new JTextField();
+		this.researched.setToolTipText("The prototype names of researched technologies, separated by commas, e.g. \"automation, logistics-2\"");
+		final JPanel researchedPanel = new JPanel(new BorderLayout());
+		researchedPanel.add(new JLabel(" Already researched: "), BorderLayout.LINE_START);
+		researchedPanel.add(this.researched, BorderLayout.CENTER);
+
+		final JPanel queuePanel = new JPanel(new BorderLayout());
+		queuePanel.setBorder(BorderFactory.createTitledBorder("Queue"));
+		queuePanel.add(add, BorderLayout.PAGE_START);
+		queuePanel.add(new JScrollPane(this.queueList), BorderLayout.CENTER);
+		queuePanel.add(researchedPanel, BorderLayout.PAGE_END);
+
+		final JPanel rate = new JPanel(new FlowLayout(FlowLayout.LEADING));
+		this.value = new JTextField("10", 6);
+		rate.add(this.value);
+		this.mode = new JComboBox<>(Research.Mode.values());
+		rate.add(this.mode);
+		this.speedBonus = new JTextField("0", 4);
+		rate.add(new JLabel("Research speed +"));
+		rate.add(this.speedBonus);
+		rate.add(new JLabel("%"));
+		this.productivityBonus = new JTextField("0", 4);
+		rate.add(new JLabel("Productivity +"));
+		rate.add(this.productivityBonus);
+		rate.add(new JLabel("%"));
+		final JButton plan = new JButton("Plan");
+		plan.addActionListener(e -> this.plan());
+		rate.add(plan);
+		this.getRootPane().setDefaultButton(plan);
+
+		final JPanel top = new JPanel(new BorderLayout());
+		top.add(queuePanel, BorderLayout.CENTER);
+		top.add(rate, BorderLayout.PAGE_END);
+		this.add(top, BorderLayout.PAGE_START);
+
+		this.table = new JTable();
+		this.table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+		this.add(new JScrollPane(this.table), BorderLayout.CENTER);
+
+		this.status = new JLabel(" ");
+		this.status.setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+		this.add(this.status, BorderLayout.PAGE_END);
+
+		this.setSize(820, 560);
+		this.setLocationRelativeTo(owner);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>name</i></b><br>
+	 * <pre> private static {@link String} name({@link Technology} tech)</pre>
+	 * @return the localized name of the technology, or its prototype name if it has none
+	 *         </ul>
+	 */
+	private static String name(final Technology tech) {
+		return Data.nameFor(tech.name) == null ? tech.getPrototypeName() : Data.nameFor(tech);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>updateLevel</i></b><br>
+	 * <pre> private void updateLevel()</pre> Limits the level spinner to the levels of the selected technology
+	 * </ul>
+	 */
+	private void updateLevel() {
+		final Technology t = (Technology) this.technology.getSelectedItem();
+		if (t == null) return;
+
+		final SpinnerNumberModel model = (SpinnerNumberModel) this.level.getModel();
+		model.setMinimum(t.getLevel());
+		model.setMaximum(t.maxLevel);
+		model.setValue(this.queue.getOrDefault(t, t.getLevel()));
+		this.level.setEnabled(t.maxLevel > t.getLevel());
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>plan</i></b><br>
+	 * <pre> private void plan()</pre> Plans the queue with the current inputs, and shows the result in the table
+	 * </ul>
+	 */
+	private void plan() {
+		final Research.Schedule schedule;
+		final long start = System.nanoTime();
+		try {
+			if (this.queue.isEmpty()) throw new IllegalArgumentException("Add a technology to the queue");
+
+			final double value = Evaluator.evaluate(this.value.getText(), this.variables);
+			final double speed = Evaluator.evaluate(this.speedBonus.getText(), this.variables) / 100;
+			final double productivity = Evaluator.evaluate(this.productivityBonus.getText(), this.variables) / 100;
+			final List<String> researched = Arrays.stream(this.researched.getText().split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toList());
+
+			schedule = new Research(null, speed, productivity).plan(this.queue, researched, (Research.Mode) this.mode.getSelectedItem(), value);
+		} catch (final IllegalArgumentException e) {
+			this.status.setText(e.getMessage());
+			return;
+		}
+		final long time = System.nanoTime() - start;
+
+		this.table.setModel(new ScheduleModel(schedule));
+
+		final String packs = schedule.getPacks().keySet().stream().map(pack -> {
+			final String name = Data.nameFor(pack) == null ? pack : Data.nameFor(pack);
+			return String.format("%s: %s total, %s/s peak, %s/s average", name, Util.NUMBER_FORMAT.format(schedule.getPacks().get(pack)), Util.NUMBER_FORMAT.format(schedule.getPeakRates().get(pack)), Util.NUMBER_FORMAT.format(schedule.getAverageRates().get(pack)));
+		}).collect(Collectors.joining("<br>"));
+		this.status.setText(String.format("<html>%d steps in %.1f ms; %s in total with up to %s labs<br>%s</html>", schedule.getSteps().size(), time / 1e6, Util.formatPlural(schedule.getTime(), "second"), Util.NUMBER_FORMAT.format(schedule.getPeakLabs()), packs));
+	}
+
+	/**
+	 * Shows technologies by their names, and the level they are queued up to
+	 * @author ricky3350
+	 */
+	private class TechnologyRenderer extends DefaultListCellRenderer {
+
+		private static final long serialVersionUID = 2405823617749066183L;
+
+		@Override
+		public Component getListCellRendererComponent(final JList<?> list, final Object value, final int index, final boolean isSelected, final boolean cellHasFocus) {
+			String text = "";
+			if (value instanceof Technology) {
+				final Technology t = (Technology) value;
+				text = name(t);
+				final Integer to = ResearchDialog.this.queue.get(t);
+				if (list == ResearchDialog.this.queueList && to != null && to > t.getLevel()) text += " to level " + to;
+			}
+			return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+		}
+
+	}
+
+	/**
+	 * A table model showing the steps of a {@link Research.Schedule}, with the rate of each science pack
+	 * @author ricky3350
+	 */
+	private static class ScheduleModel extends AbstractTableModel {
+
+		private static final long serialVersionUID = 3150426016233806745L;
+
+		private static final String[] COLUMNS = {"Technology", "Levels", "Units", "Start", "Duration", "Labs"};
+
+		private final List<Research.Step> steps;
+		private final List<String> packs;
+
+		private ScheduleModel(final Research.Schedule schedule) {
+			this.steps = schedule.getSteps();
+			this.packs = new ArrayList<>(schedule.getPacks().keySet());
+		}
+
+		@Override
+		public int getRowCount() {
+			return this.steps.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length + this.packs.size();
+		}
+
+		@Override
+		public String getColumnName(final int column) {
+			if (column < COLUMNS.length) return COLUMNS[column];
+			final String pack = this.packs.get(column - COLUMNS.length);
+			return (Data.nameFor(pack) == null ? pack : Data.nameFor(pack)) + " /s";
+		}
+
+		@Override
+		public Class<?> getColumnClass(final int column) {
+			return column < 3 ? String.class : Double.class;
+		}
+
+		@Override
+		public Object getValueAt(final int row, final int column) {
+			final Research.Step step = this.steps.get(row);
+			switch (column) {
+				case 0:
+					return name(step.technology);
+				case 1:
+					return step.from == step.to ? Integer.toString(step.from) : step.from + "-" + step.to;
+				case 2:
+					return Util.NUMBER_FORMAT.format(step.units);
+				case 3:
+					return step.getStart();
+				case 4:
+					return step.getDuration();
+				case 5:
+					return step.getLabs();
+				default:
+					return step.getPackRates().getOrDefault(this.packs.get(column - COLUMNS.length), 0.0);
+			}
+		}
+
+	}
+
+}
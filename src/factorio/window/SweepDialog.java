@@ -0,0 +1,223 @@
+package factorio.window;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.table.AbstractTableModel;
+
+import factorio.Util;
+import factorio.calculator.AssemblerSettings;
+import factorio.calculator.Evaluator;
+import factorio.calculator.Sweep;
+import factorio.data.Recipe;
+
+/**
+ * A dialog that runs a {@link Sweep} over one of the variables of the plan, and shows the result as a table that can be saved
+ * for charting.
+ * @author ricky3350
+ */
+public class SweepDialog extends JDialog {
+
+	private static final long serialVersionUID = -3120558316294117095L;
+
+	/**
+	 * The product lists whose rates are swept
+	 */
+	private final ProductList[] lists;
+
+	/**
+	 * The values of the variables that are not swept
+	 */
+	private final Map<String, Double> variables;
+
+	/**
+	 * The sweep, which is kept so that products calculated in one run are reused in the next
+	 */
+	private final Sweep sweep;
+
+	private final JComboBox<String> parameter;
+	private final JTextField from;
+	private final JTextField to;
+	private final JSpinner points;
+	private final JLabel status;
+	private final JTable table;
+
+	/**
+	 * The result of the last run, or <code>null</code> if there has not been one
+	 */
+	private Sweep.Table result;
+
+	/**
+	 * Creates a new {@code SweepDialog}.
+	 * @param owner - The window that owns the dialog
+	 * @param lists - The product lists whose rates are swept
+	 * @param variables - The values of the variables of the plan. The swept variable is replaced at each point.
+	 * @param settings - Maps recipes to the settings they should be assembled with
+	 */
+	public SweepDialog(final Frame owner, final ProductList[] lists, final Map<String, Double> variables, final Map<Recipe, AssemblerSettings> settings) {
+		super(owner, "Sweep", false);
+		this.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+		this.lists = lists;
+		this.variables = variables;
+		this.sweep = new Sweep(settings);
+
+		final JPanel inputs = new JPanel(new FlowLayout(FlowLayout.LEADING));
+		inputs.setBorder(BorderFactory.createEmptyBorder(4, 4, 4, 4));
+
+		this.parameter = new JComboBox<>(variables.keySet().toArray(new String[variables.size()]));
+		this.parameter.setEditable(true);
+		inputs.add(new JLabel("Sweep"));
+		inputs.add(this.parameter);
+
+		final Double initial = variables.isEmpty() ? null : variables.values().iterator().next();
+		this.from = new JTextField(initial == null ? "0" : Util.NUMBER_FORMAT.format(initial / 2).replace(",", ""), 6);
+		this.to = new JTextField(initial == null ? "1" : Util.NUMBER_FORMAT.format(initial * 2).replace(",", ""), 6);
+		inputs.add(new JLabel("from"));
+		inputs.add(this.from);
+		inputs.add(new JLabel("to"));
+		inputs.add(this.to);
+
+		this.points = new JSpinner(new SpinnerNumberModel(100, 1, 1000000, 10));
+		inputs.add(new JLabel("in"));
+		inputs.add(this.points);
+		inputs.add(new JLabel("points"));
+
+		final JButton run = new JButton("Run");
+		run.addActionListener(e -> this.run());
+		inputs.add(run);
+
+		final JButton save = new JButton("Save CSV...");
+		save.addActionListener(e -> this.save());
+		inputs.add(save);
+
+		this.add(inputs, BorderLayout.PAGE_START);
+
+		this.table = new JTable();
+		this.table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+		this.add(new JScrollPane(this.table), BorderLayout.CENTER);
+
+		this.status = new JLabel(" ");
+		this.status.setBorder(BorderFactory.createEmptyBorder(2, 4, 2, 4));
+		this.add(this.status, BorderLayout.PAGE_END);
+
+		this.setSize(800, 500);
+		this.setLocationRelativeTo(owner);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>run</i></b><br>
+	 * <pre> private void run()</pre> Runs the sweep with the current inputs, and shows the result in the table
+	 * </ul>
+	 */
+	private void run() {
+		final String name = this.parameter.getSelectedItem() == null ? "" : this.parameter.getSelectedItem().toString().trim();
+		final double[] values;
+		try {
+			if (name.isEmpty()) throw new IllegalArgumentException("Choose a variable to sweep");
+			values = Sweep.range(Evaluator.evaluate(this.from.getText(), this.variables), Evaluator.evaluate(this.to.getText(), this.variables), (Integer) this.points.getValue());
+		} catch (final IllegalArgumentException e) {
+			this.status.setText(e.getMessage());
+			return;
+		}
+
+		final long start = System.nanoTime();
+		this.result = this.sweep.run(name, values, value -> {
+			final Map<String, Double> v = new HashMap<>(this.variables);
+			v.put(name, value);
+
+			final Map<Recipe, Number> rates = new HashMap<>();
+			for (final ProductList list : this.lists)
+				rates.putAll(list.getRates(v));
+			return rates;
+		});
+		final long time = System.nanoTime() - start;
+
+		this.table.setModel(new ResultModel(this.result));
+		this.status.setText(String.format("%d points in %.1f ms", values.length, time / 1e6));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>save</i></b><br>
+	 * <pre> private void save()</pre> Asks for a file, and writes the result to it as comma separated values
+	 * </ul>
+	 */
+	private void save() {
+		if (this.result == null) return;
+
+		final JFileChooser chooser = new JFileChooser();
+		if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+		try (BufferedWriter out = Files.newBufferedWriter(chooser.getSelectedFile().toPath())) {
+			this.result.writeCSV(out);
+		} catch (final IOException e) {
+			e.printStackTrace(System.err);
+			JOptionPane.showMessageDialog(this, e.getMessage(), "Could not save", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
+	/**
+	 * A table model showing a {@link Sweep.Table}
+	 * @author ricky3350
+	 */
+	private static class ResultModel extends AbstractTableModel {
+
+		private static final long serialVersionUID = 5571226386532045498L;
+
+		private final Sweep.Table table;
+		private final String[] columns;
+
+		private ResultModel(final Sweep.Table table) {
+			this.table = table;
+			this.columns = table.getColumnNames();
+		}
+
+		@Override
+		public int getRowCount() {
+			return this.table.values.length;
+		}
+
+		@Override
+		public int getColumnCount() {
+			return this.columns.length;
+		}
+
+		@Override
+		public String getColumnName(final int column) {
+			return this.columns[column];
+		}
+
+		@Override
+		public Class<?> getColumnClass(final int column) {
+			return Double.class;
+		}
+
+		@Override
+		public Object getValueAt(final int row, final int column) {
+			return this.table.get(row, column);
+		}
+
+	}
+
+}
@@ -1,6 +1,7 @@
 package factorio.window;
 
-import factorio.calculator.AssemblerSettings;
+import java.util.Map;
+
 import factorio.data.Technology;
 
 public class TechnologyProductListRow extends ProductListRow {
@@ -17,21 +18,16 @@ public class TechnologyProductListRow extends ProductListRow {
 	}
 
 	@Override
-	public double getRate() {
-		if (Double.isNaN(this.getValue())) return 0;
+	public double getRate(final Map<String, ? extends Number> variables) {
+		final double value = this.getValue(variables);
+		if (Double.isNaN(value)) return 0;
 
 		switch (this.getSelectedOption()) {
 			case "max cap. labs":
-				return 1 / (this.getValue() * this.getAssemblerSettings().getSpeed() * this.recipe.time);
+				return 1 / (value * this.getAssemblerSettings().getSpeed() * this.recipe.time);
 			default:
-				return 1 / this.getValue();
+				return 1 / value;
 		}
 	}
 
-	@Override
-	public AssemblerSettings configure() {
-		// TODO
-		return null;
-	}
-
 }
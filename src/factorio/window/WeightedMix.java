@@ -0,0 +1,87 @@
+package factorio.window;
+
+import java.awt.Component;
+import java.awt.GridLayout;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
+
+import factorio.calculator.Objective;
+
+/**
+ * A non-instantiable class for choosing an {@link Objective} that is a weighted mix of the costs, from the objectives of the
+ * {@link Window} or of a single {@link ProductListRow}
+ * @author ricky3350
+ */
+final class WeightedMix {
+
+	/**
+	 * The entry in a list of objectives that asks for the weight of each cost, with {@link #ask(Component, String)}
+	 */
+	static final Objective ENTRY = new Objective("Weighted mix...", 0, 0, 0);
+
+	/**
+	 * A {@link Pattern} to match the names of the objectives returned by {@link #ask(Component, String)}
+	 */
+	private static final Pattern NAME = Pattern.compile("^Weighted mix \\((.+), (.+), (.+), (.+)\\)$");
+
+	private WeightedMix() {}
+
+	/**
+	 * <ul>
+	 * <b><i>ask</i></b><br>
+	 * <pre> static {@link Objective} ask({@link Component} parent, {@link String} title)</pre> Asks the user for the cost of a
+	 * building, a megawatt of power, a raw resource per second and a unit of pollution per minute.
+	 * @param parent - The component to show the dialog over
+	 * @param title - The title of the dialog
+	 * @return an {@code Objective} with the given weights, or <code>null</code> if it was cancelled
+	 *         </ul>
+	 */
+	static Objective ask(final Component parent, final String title) {
+		final String[] labels = {"Per building:", "Per MW of power:", "Per raw resource/s:", "Per pollution/min:"};
+		final JSpinner[] weights = new JSpinner[labels.length];
+
+		final JPanel panel = new JPanel(new GridLayout(0, 2, 4, 4));
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = new JSpinner(new SpinnerNumberModel(i == 0 ? 1 : 0, 0, 1e6, 0.1));
+			panel.add(new JLabel(labels[i]));
+			panel.add(weights[i]);
+		}
+		if (JOptionPane.showConfirmDialog(parent, panel, title, JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) return null;
+
+		return of(Arrays.stream(weights).mapToDouble(s -> ((Number) s.getValue()).doubleValue()).toArray());
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>forName</i></b><br>
+	 * <pre> static {@link Objective} forName({@link String} name)</pre>
+	 * @param name - The name of an objective, e.g. as saved in a {@link factorio.calculator.Plan}
+	 * @return the weighted mix with the given name, or <code>null</code> if it is not the name of one
+	 *         </ul>
+	 */
+	static Objective forName(final String name) {
+		final Matcher m = NAME.matcher(name);
+		if (!m.find()) return null;
+
+		try {
+			final double[] w = new double[4];
+			for (int i = 0; i < w.length; i++)
+				w[i] = Double.parseDouble(m.group(i + 1));
+			return of(w);
+		} catch (final IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static Objective of(final double[] w) {
+		return new Objective(String.format("Weighted mix (%s, %s, %s, %s)", w[0], w[1], w[2], w[3]), w[0], w[1], w[2], w[3]);
+	}
+
+}
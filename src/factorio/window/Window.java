@@ -1,24 +1,46 @@
 package factorio.window;
 
 import java.awt.BorderLayout;
+import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Frame;
+import java.awt.GridLayout;
 import java.awt.Toolkit;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.ActionEvent;
 import java.awt.event.InputEvent;
+import java.awt.event.ItemEvent;
 import java.awt.event.KeyEvent;
+import java.awt.event.WindowEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.swing.AbstractAction;
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
@@ -27,27 +49,50 @@ import javax.swing.JTextField;
 import javax.swing.JTree;
 import javax.swing.KeyStroke;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 
+import factorio.Progress;
+import factorio.Util;
+import factorio.calculator.AssemblerOptimizer;
+import factorio.calculator.AssemblerSettings;
 import factorio.calculator.Calculation;
+import factorio.calculator.Evaluator;
+import factorio.calculator.Objective;
+import factorio.calculator.Plan;
+import factorio.calculator.WholeBuildings;
 import factorio.data.Data;
 import factorio.data.Recipe;
+import factorio.data.Technology;
 import factorio.window.treecell.CellRenderer;
 import factorio.window.treecell.TotalHeader;
 import factorio.window.treecell.TreeCell;
 
 /**
- * The main {@link JFrame}
+ * The main {@link JFrame}. Saves and opens {@link Plan}s for its {@link MenuBar}.
  * @author ricky3350
  */
-public class Window extends JFrame {
+public class Window extends JFrame implements MenuBarDelegate {
 
 	private static final long serialVersionUID = -377970844785993226L;
 
+	/**
+	 * The number of {@link ProductListRow}s added to a list at a time by {@link #loadProducts()}
+	 */
+	private static final int ROW_BATCH = 64;
+
+	/**
+	 * The item of {@link #objective} that chooses the assemblers that need the fewest {@linkplain WholeBuildings whole
+	 * buildings}
+	 */
+	private static final String WHOLE_BUILDINGS = "Whole buildings";
+
 	/**
 	 * A {@link JSplitPane} dividing the input and ouput sides of the window
 	 */
@@ -100,6 +145,60 @@ public class Window extends JFrame {
 	 */
 	private final JButton calculate;
 
+	/**
+	 * Chooses the {@link Objective} that the assemblers in a {@link Calculation} are optimized for, the default assemblers, or
+	 * {@link #WHOLE_BUILDINGS}
+	 */
+	private final JComboBox<Object> objective;
+
+	/**
+	 * The item of {@link #objective} that was selected before the current one, which is selected again if choosing a
+	 * {@linkplain WeightedMix weighted mix} is cancelled
+	 */
+	private Object previousObjective;
+
+	/**
+	 * The table of variables that the rates in the product lists may use
+	 * @see {@link Evaluator#parseBindings(String)}
+	 */
+	private final JTextField variables;
+
+	/**
+	 * The last {@link Calculation} that was shown, or <code>null</code> if there is none
+	 */
+	private Calculation calculation;
+
+	/**
+	 * The dialog that plans the resource patches, which keeps its patches between calculations; <code>null</code> until it is
+	 * first opened
+	 */
+	private MiningDialog miningDialog;
+
+	/**
+	 * The rates that {@link #calculation} was calculated for
+	 */
+	private Map<Recipe, Number> calculatedRates;
+
+	/**
+	 * The selected item of {@link #objective} when {@link #calculation} was calculated
+	 */
+	private Object calculatedObjective;
+
+	/**
+	 * The file that the plan was last saved to or opened from, or <code>null</code> if there is none
+	 */
+	private File planFile;
+
+	/**
+	 * The number of product lists that {@link #loadProducts()} is still filling
+	 */
+	private int filling;
+
+	/**
+	 * Whether {@link #updateProducts()} was called while the lists were being filled, so that it is run again once they are
+	 */
+	private boolean updatePending;
+
 	public Window() {
 		super("Factorio Calculator");
 		this.setSize(1024, 768);
@@ -122,7 +221,7 @@ public class Window extends JFrame {
 			}
 
 			private void update() {
-				(Window.this.listTabs.getSelectedIndex() == 0 ? Window.this.inputList : Window.this.techList).setSearchKey(Window.this.search.getText().trim().toLowerCase().replace('-', ' '));
+				(Window.this.listTabs.getSelectedIndex() == 0 ? Window.this.inputList : Window.this.techList).requestSearchKey(Window.this.search.getText().trim().toLowerCase().replace('-', ' '));
 			}
 
 			@Override
@@ -131,41 +230,115 @@ public class Window extends JFrame {
 		this.search.setMaximumSize(new Dimension(this.search.getMaximumSize().width, this.search.getPreferredSize().height));
 		this.inputPanel.add(this.search, BorderLayout.NORTH);
 
-		this.inputList = new ProductList(Data.getRecipesSorted().stream().map(ProductListRow::new).toArray(n -> new ProductListRow[n]));
+		this.inputList = new ProductList();
 		final JScrollPane inputScroll = new JScrollPane(this.inputList, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
 		inputScroll.getVerticalScrollBar().setUnitIncrement(Recipe.LARGE_ICON_SIZE);
 		inputScroll.setBorder(BorderFactory.createEmptyBorder());
+		inputScroll.getViewport().addChangeListener(e -> RecipePopupManager.prefetchVisible());
 
-		this.techList = new ProductList(Data.getTechSorted().stream().map(TechnologyProductListRow::new).toArray(n -> new ProductListRow[n]));
+		this.techList = new ProductList();
 		final JScrollPane techScroll = new JScrollPane(this.techList, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
 		techScroll.getVerticalScrollBar().setUnitIncrement(Recipe.LARGE_ICON_SIZE);
 		techScroll.setBorder(BorderFactory.createEmptyBorder());
+		techScroll.getViewport().addChangeListener(e -> RecipePopupManager.prefetchVisible());
 
 		this.listTabs = new JTabbedPane();
 		this.listTabs.setBorder(BorderFactory.createEmptyBorder());
 		this.listTabs.insertTab("Recipes", null, inputScroll, null, 0);
 		this.listTabs.insertTab("Technologies", null, techScroll, null, 1);
+		this.listTabs.addChangeListener(e -> RecipePopupManager.prefetchVisible());
 
 		this.inputPanel.add(this.listTabs, BorderLayout.CENTER);
 
 		this.calculate = new JButton("Calculate");
 		this.calculate.addActionListener(e -> {
+			if (!Window.this.updateVariables()) return;
+
 			final Map<Recipe, Number> rates = Window.this.inputList.getRates();
 			rates.putAll(this.techList.getRates());
 
 			final Calculation calc = new Calculation(rates);
-
-			((DefaultTreeModel) Window.this.full.getModel()).setRoot(calc.getAsTreeNode());
-			for (int i1 = 0; i1 < Window.this.full.getRowCount(); i1++) {
-				Window.this.full.expandRow(i1);
+			if (Window.this.objective.getSelectedItem() instanceof Objective) {
+				calc.applySettings(AssemblerOptimizer.optimize(rates, (Objective) Window.this.objective.getSelectedItem()));
+			} else if (Window.this.objective.getSelectedItem() == WHOLE_BUILDINGS) {
+				calc.applySettings(WholeBuildings.solve(calc, WholeBuildings.DEFAULT_BUDGET).getSettings());
 			}
 
-			((DefaultTreeModel) Window.this.total.getModel()).setRoot(calc.getTotalTreeNode());
-			for (int i2 = 0; i2 < Window.this.total.getRowCount(); i2++) {
-				Window.this.total.expandRow(i2);
+			Window.this.showCalculation(calc, rates);
+		});
+
+		this.objective = new JComboBox<>(new Object[] {"Default assemblers", Objective.BUILDINGS, Objective.POWER, Objective.RAW_RESOURCES, Objective.POLLUTION, WeightedMix.ENTRY, WHOLE_BUILDINGS});
+		this.objective.addItemListener(e -> {
+			if (e.getStateChange() == ItemEvent.DESELECTED) {
+				if (e.getItem() != WeightedMix.ENTRY) this.previousObjective = e.getItem();
+			} else if (e.getItem() == WeightedMix.ENTRY) {
+				// Asked once the combo box has finished changing its selection
+				SwingUtilities.invokeLater(() -> {
+					final Objective mix = WeightedMix.ask(this, "Weighted mix");
+					if (mix == null)
+						this.objective.setSelectedItem(this.previousObjective);
+					else
+						this.selectWeightedMix(mix);
+				});
 			}
 		});
-		this.inputPanel.add(this.calculate, BorderLayout.SOUTH);
+
+		this.variables = new JTextField();
+		this.variables.setToolTipText("Variables for the rates, e.g. \"spm = 60; belt = 15/s\"");
+		this.variables.addActionListener(e -> this.updateVariables());
+
+		final JPanel variablesPanel = new JPanel(new BorderLayout());
+		variablesPanel.add(new JLabel(" Variables: "), BorderLayout.LINE_START);
+		variablesPanel.add(this.variables, BorderLayout.CENTER);
+
+		final JPanel calculatePanel = new JPanel(new BorderLayout());
+		calculatePanel.add(variablesPanel, BorderLayout.PAGE_START);
+		calculatePanel.add(this.objective, BorderLayout.LINE_START);
+		calculatePanel.add(this.calculate, BorderLayout.CENTER);
+
+		final JButton sweep = new JButton("Sweep...");
+		sweep.addActionListener(e -> {
+			if (!Window.this.updateVariables()) return;
+
+			final Map<Recipe, Number> rates = Window.this.inputList.getRates();
+			rates.putAll(this.techList.getRates());
+			final Map<Recipe, AssemblerSettings> settings = Window.this.objective.getSelectedItem() instanceof Objective ? AssemblerOptimizer.optimize(rates, (Objective) Window.this.objective.getSelectedItem()) : null;
+
+			new SweepDialog(Window.this, new ProductList[] {Window.this.inputList, Window.this.techList}, Evaluator.parseBindings(Window.this.variables.getText()), settings).setVisible(true);
+		});
+		// A sweep keeps the same settings at every rate, but whole-building settings are chosen for one set of rates
+		this.objective.addItemListener(e -> {
+			if (e.getStateChange() != ItemEvent.SELECTED) return;
+			sweep.setEnabled(e.getItem() != WHOLE_BUILDINGS);
+			sweep.setToolTipText(e.getItem() == WHOLE_BUILDINGS ? "Whole buildings are chosen for the current rates, so they cannot be swept" : null);
+		});
+
+		final JButton research = new JButton("Research...");
+		research.addActionListener(e -> {
+			if (!Window.this.updateVariables()) return;
+
+			new ResearchDialog(Window.this, Evaluator.parseBindings(Window.this.variables.getText())).setVisible(true);
+		});
+
+		final JButton mining = new JButton("Mining...");
+		mining.addActionListener(e -> {
+			if (!Window.this.updateVariables()) return;
+
+			if (Window.this.miningDialog == null) Window.this.miningDialog = new MiningDialog(Window.this);
+			Window.this.miningDialog.setCalculation(Window.this.calculation, Evaluator.parseBindings(Window.this.variables.getText()));
+			Window.this.miningDialog.setVisible(true);
+		});
+
+		final JButton logistics = new JButton("Logistics...");
+		logistics.addActionListener(e -> new LogisticsDialog(Window.this, Window.this.calculation).setVisible(true));
+
+		final JPanel toolsPanel = new JPanel(new GridLayout(1, 0));
+		toolsPanel.add(sweep);
+		toolsPanel.add(research);
+		toolsPanel.add(mining);
+		toolsPanel.add(logistics);
+		calculatePanel.add(toolsPanel, BorderLayout.LINE_END);
+		this.inputPanel.add(calculatePanel, BorderLayout.SOUTH);
 
 		this.full = new JTree(new DefaultMutableTreeNode());
 		this.full.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_DOWN_MASK), "copy");
@@ -327,6 +500,400 @@ public class Window extends JFrame {
 		this.in_out.setDividerLocation(512);
 		this.add(this.in_out);
 
-		this.setJMenuBar(new MenuBar());
+		this.setJMenuBar(new MenuBar(this));
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>showCalculation</i></b><br>
+	 * <pre>private void showCalculation({@link Calculation} calc, {@link Map}&lt;{@link Recipe}, {@link Number}&gt; rates)</pre>
+	 * Shows the given calculation in both trees, with every row expanded.
+	 * @param calc - The calculation to show, or <code>null</code> to clear the trees
+	 * @param rates - The rates that it was calculated for
+	 *        </ul>
+	 */
+	private void showCalculation(final Calculation calc, final Map<Recipe, Number> rates) {
+		this.calculation = calc;
+		this.calculatedRates = rates;
+		this.calculatedObjective = this.objective.getSelectedItem();
+
+		((DefaultTreeModel) this.full.getModel()).setRoot(calc == null ? new DefaultMutableTreeNode() : calc.getAsTreeNode());
+		for (int i1 = 0; i1 < this.full.getRowCount(); i1++) {
+			this.full.expandRow(i1);
+		}
+
+		((DefaultTreeModel) this.total.getModel()).setRoot(calc == null ? new DefaultMutableTreeNode() : calc.getTotalTreeNode(this.calculatedObjective == WHOLE_BUILDINGS));
+		for (int i2 = 0; i2 < this.total.getRowCount(); i2++) {
+			this.total.expandRow(i2);
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getRows</i></b><br>
+	 * <pre>private {@link List}&lt;{@link ProductListRow}&gt; getRows()</pre>
+	 * @return the rows of both product lists
+	 *         </ul>
+	 */
+	private List<ProductListRow> getRows() {
+		final List<ProductListRow> rows = new ArrayList<>(this.inputList.getRows());
+		rows.addAll(this.techList.getRows());
+		return rows;
+	}
+
+	@Override
+	public void reset() {
+		for (final ProductListRow row : this.getRows())
+			if (!row.getText().isEmpty()) row.setInput("", null, null);
+
+		this.variables.setText("");
+		this.objective.setSelectedIndex(0);
+		this.updateVariables();
+		this.showCalculation(null, null);
+		this.planFile = null;
+	}
+
+	@Override
+	public void save() {
+		final JFileChooser chooser = new JFileChooser();
+		chooser.setFileFilter(new FileNameExtensionFilter("Factorio Calculator plans (*." + Plan.EXTENSION + ")", Plan.EXTENSION));
+		if (this.planFile != null) chooser.setSelectedFile(this.planFile);
+		if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+		File file = chooser.getSelectedFile();
+		if (!file.getName().contains(".")) file = new File(file.getPath() + "." + Plan.EXTENSION);
+
+		final List<Plan.Target> targets = new ArrayList<>();
+		for (final ProductListRow row : this.getRows())
+			if (!row.getText().isEmpty()) targets.add(new Plan.Target(row.recipe, row.getText(), row.getSelectedOption(), row.getAssemblerSettings()));
+
+		// Only embed the shown calculation if it is still the result of the current input
+		Calculation calc = null;
+		if (this.calculation != null && this.updateVariables() && this.objective.getSelectedItem() == this.calculatedObjective) {
+			final Map<Recipe, Number> rates = this.inputList.getRates();
+			rates.putAll(this.techList.getRates());
+			if (rates.equals(this.calculatedRates)) calc = this.calculation;
+		}
+
+		try {
+			new Plan(this.variables.getText(), this.objective.getSelectedItem().toString(), Util.getBlacklist(), targets, calc).save(file.toPath());
+			this.planFile = file;
+		} catch (final IOException e) {
+			e.printStackTrace(System.err);
+			JOptionPane.showMessageDialog(this, "Could not save " + file.getName() + ":\n" + e.getMessage(), "Save", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
+	@Override
+	public void open() {
+		final JFileChooser chooser = new JFileChooser();
+		chooser.setFileFilter(new FileNameExtensionFilter("Factorio Calculator plans (*." + Plan.EXTENSION + ")", Plan.EXTENSION));
+		if (this.planFile != null) chooser.setSelectedFile(this.planFile);
+		if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+		final File file = chooser.getSelectedFile();
+		final Plan plan;
+		try {
+			plan = Plan.open(file.toPath());
+		} catch (final IOException e) {
+			e.printStackTrace(System.err);
+			JOptionPane.showMessageDialog(this, "Could not open " + file.getName() + ":\n" + e.getMessage(), "Open", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		this.applyPlan(plan, file.getName());
+		this.planFile = file;
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>applyPlan</i></b><br>
+	 * <pre>private void applyPlan({@link Plan} plan, {@link String} name)</pre> Replaces the input of the window with the given
+	 * plan, and shows its calculation, or calculates it again if it has none or it is no longer valid. Warns the user about
+	 * any targets that are not in the loaded mods.
+	 * @param plan - The plan to apply
+	 * @param name - The name of the plan, for the warnings
+	 *        </ul>
+	 */
+	private void applyPlan(final Plan plan, final String name) {
+		this.reset();
+		Util.setBlacklist(plan.getBlacklist());
+
+		final Map<Recipe, ProductListRow> rows = new HashMap<>();
+		for (final ProductListRow row : this.getRows())
+			rows.put(row.recipe, row);
+
+		final List<String> missing = new ArrayList<>(plan.getMissing());
+		for (final Plan.Target target : plan.getTargets()) {
+			final ProductListRow row = rows.get(target.recipe);
+			if (row == null)
+				missing.add(target.recipe.name);
+			else
+				row.setInput(target.expression, target.option, target.settings);
+		}
+
+		this.variables.setText(plan.getVariables() == null ? "" : plan.getVariables());
+		final Objective mix = plan.getObjective() == null ? null : WeightedMix.forName(plan.getObjective());
+		if (mix != null) {
+			this.selectWeightedMix(mix);
+		} else {
+			for (int i = 0; i < this.objective.getItemCount(); i++)
+				if (this.objective.getItemAt(i).toString().equals(plan.getObjective())) this.objective.setSelectedIndex(i);
+		}
+
+		if (!this.updateVariables()) return;
+		if (plan.getCalculation() != null && missing.isEmpty()) {
+			final Map<Recipe, Number> rates = this.inputList.getRates();
+			rates.putAll(this.techList.getRates());
+			this.showCalculation(plan.getCalculation(), rates);
+		} else {
+			this.calculate.doClick();
+		}
+
+		if (!plan.matchesMods()) JOptionPane.showMessageDialog(this, name + " was saved with different mods, so it has been calculated again.", "Open", JOptionPane.WARNING_MESSAGE);
+		if (!missing.isEmpty()) JOptionPane.showMessageDialog(this, "These targets are not in the loaded mods, and were left out:\n" + String.join("\n", missing), "Open", JOptionPane.WARNING_MESSAGE);
+	}
+
+	@Override
+	public void exit() {
+		this.dispatchEvent(new WindowEvent(this, WindowEvent.WINDOW_CLOSING));
+	}
+
+	@Override
+	public void changeMods() {
+		final ModsDialog dialog = new ModsDialog(this);
+		dialog.setVisible(true);
+		final Path factorioDir = dialog.getFactorioDir();
+		if (factorioDir == null) return;
+		final List<Path> mods = dialog.getMods();
+
+		// Keep the current input, without its calculation, so that it can be applied to the reloaded recipes
+		final ByteArrayOutputStream input = new ByteArrayOutputStream();
+		final List<Plan.Target> targets = new ArrayList<>();
+		for (final ProductListRow row : this.getRows())
+			if (!row.getText().isEmpty()) targets.add(new Plan.Target(row.recipe, row.getText(), row.getSelectedOption(), row.getAssemblerSettings()));
+		try {
+			new Plan(this.variables.getText(), this.objective.getSelectedItem().toString(), Util.getBlacklist(), targets, null).write(input);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		final LoadingDialog loading = new LoadingDialog(false);
+		loading.setLocationRelativeTo(this);
+		loading.setVisible(true);
+		Progress.addListener(loading);
+		this.setEnabled(false);
+
+		new SwingWorker<Data.Reload, Void>() {
+
+			@Override
+			protected Data.Reload doInBackground() throws IOException {
+				return Data.reload(factorioDir, mods.toArray(new Path[mods.size()]));
+			}
+
+			@Override
+			protected void done() {
+				Progress.removeListener(loading);
+				loading.dispose();
+				Window.this.setEnabled(true);
+				Window.this.toFront();
+
+				final Data.Reload reload;
+				try {
+					reload = this.get();
+				} catch (final InterruptedException | ExecutionException e) {
+					e.printStackTrace(System.err);
+					final Throwable cause = e.getCause() == null ? e : e.getCause();
+					JOptionPane.showMessageDialog(Window.this, "Could not load the mods:\n" + cause.getMessage(), "Mods", JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+				if (reload == null) {
+					JOptionPane.showMessageDialog(Window.this, "No mods have changed.", "Mods", JOptionPane.INFORMATION_MESSAGE);
+					return;
+				}
+
+				reload.publish();
+				AssemblerSettings.refreshDefaults();
+				Util.clearRecipeCache();
+				RecipePopupManager.clearCache();
+				if (Window.this.miningDialog != null) {
+					Window.this.miningDialog.dispose();
+					Window.this.miningDialog = null;
+				}
+				Window.this.replaceRows(Window.this.inputList, Data.getRecipesSorted(), ProductListRow::new);
+				Window.this.replaceRows(Window.this.techList, Data.getTechSorted(), TechnologyProductListRow::new);
+
+				final File planFile = Window.this.planFile;
+				try {
+					Window.this.applyPlan(Plan.read(new ByteArrayInputStream(input.toByteArray())), "The current plan");
+				} catch (final IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				Window.this.planFile = planFile;
+			}
+		}.execute();
+	}
+
+	@Override
+	public void changeDefaults() {
+		JOptionPane.showMessageDialog(this, "Default assemblers are read from " + Paths.get("config/defaults.cfg").toAbsolutePath() + ".", "Defaults", JOptionPane.INFORMATION_MESSAGE);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>selectWeightedMix</i></b><br>
+	 * <pre>private void selectWeightedMix({@link Objective} mix)</pre> Adds the given weighted mix to {@link #objective}, in place
+	 * of the one that was chosen before, if any, and selects it.
+	 * </ul>
+	 */
+	private void selectWeightedMix(final Objective mix) {
+		for (int i = 0; i < this.objective.getItemCount(); i++) {
+			final Object item = this.objective.getItemAt(i);
+			if (item != WeightedMix.ENTRY && WeightedMix.forName(item.toString()) != null) {
+				this.objective.removeItemAt(i);
+				break;
+			}
+		}
+
+		for (int i = 0; i < this.objective.getItemCount(); i++) {
+			if (this.objective.getItemAt(i) == WeightedMix.ENTRY) {
+				this.objective.insertItemAt(mix, i);
+				break;
+			}
+		}
+		this.objective.setSelectedItem(mix);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>updateVariables</i></b><br>
+	 * <pre>private boolean updateVariables()</pre> Parses the table of variables and gives it to both product lists. If the table
+	 * is not valid, it is highlighted and the lists are not changed.
+	 * @return whether the table was valid
+	 *         </ul>
+	 */
+	private boolean updateVariables() {
+		try {
+			final Map<String, Double> variables = Evaluator.parseBindings(this.variables.getText());
+			this.inputList.setVariables(variables);
+			this.techList.setVariables(variables);
+			this.variables.setBackground(Color.WHITE);
+			this.variables.setToolTipText("Variables for the rates, e.g. \"spm = 60; belt = 15/s\"");
+			return true;
+		} catch (final IllegalArgumentException e) {
+			this.variables.setBackground(new Color(255, 192, 192));
+			this.variables.setToolTipText(e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>loadProducts</i></b><br>
+	 * <pre>public void loadProducts()</pre> Fills the product lists with a row for each of the {@link Recipe}s and
+	 * {@link Technology Technologies} in {@link Data}. The rows are added {@link #ROW_BATCH} at a time, in separate events on
+	 * the event dispatch thread, so that the window stays responsive while the lists fill. Must be called on the event dispatch
+	 * thread, after the default assembler settings have been read. The names and icons of the rows may still be loading; see
+	 * {@link #updateProducts()}.
+	 * </ul>
+	 */
+	public void loadProducts() {
+		this.filling = 2;
+		this.addRows(this.inputList, new ArrayList<>(Data.getRecipesSorted()), ProductListRow::new, 0);
+		this.addRows(this.techList, new ArrayList<>(Data.getTechSorted()), TechnologyProductListRow::new, 0);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>updateProducts</i></b><br>
+	 * <pre>public void updateProducts()</pre> Updates the names and icons of the rows of the product lists, and sorts them by
+	 * name again, after the names or icons have been loaded. If the lists are still being filled, this is done once they are.
+	 * Must be called on the event dispatch thread.
+	 * </ul>
+	 */
+	public void updateProducts() {
+		if (this.filling > 0) {
+			this.updatePending = true;
+			return;
+		}
+		this.updatePending = false;
+
+		this.sortRows(this.inputList, Data.getRecipesSorted());
+		this.sortRows(this.techList, Data.getTechSorted());
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>sortRows</i></b><br>
+	 * <pre>private void sortRows({@link ProductList} list, {@link Collection}&lt;? extends {@link Recipe}&gt; recipes)</pre>
+	 * Updates the labels of the rows of the given list, and puts them in the order of the given recipes.
+	 * @param list - the list to sort
+	 * @param recipes - the recipes of the list, in order
+	 *        </ul>
+	 */
+	private void sortRows(final ProductList list, final Collection<? extends Recipe> recipes) {
+		final Map<Recipe, ProductListRow> old = new HashMap<>();
+		for (final ProductListRow row : list.getRows()) {
+			row.updateLabel();
+			old.put(row.recipe, row);
+		}
+
+		final List<ProductListRow> rows = new ArrayList<>(old.size());
+		for (final Recipe recipe : recipes) {
+			final ProductListRow row = old.get(recipe);
+			if (row != null) rows.add(row);
+		}
+		list.setRows(rows);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>replaceRows</i></b><br>
+	 * <pre>private &lt;R extends {@link Recipe}&gt; void replaceRows({@link ProductList} list, {@link Collection}&lt;R&gt; recipes, {@link Function}&lt;R, {@link ProductListRow}&gt; rowFactory)</pre>
+	 * Replaces the rows of the given list after the recipes have been reloaded. The rows of recipes that were kept by the
+	 * reload are kept, with their assembler settings reset to the new defaults, and new rows are made for the other recipes.
+	 * @param list - the list to replace the rows of
+	 * @param recipes - the reloaded recipes, in order
+	 * @param rowFactory - creates a row for a recipe
+	 *        </ul>
+	 */
+	private <R extends Recipe> void replaceRows(final ProductList list, final Collection<R> recipes, final Function<R, ProductListRow> rowFactory) {
+		final Map<Recipe, ProductListRow> old = new HashMap<>();
+		for (final ProductListRow row : list.getRows())
+			old.put(row.recipe, row);
+
+		final List<ProductListRow> rows = new ArrayList<>(recipes.size());
+		for (final R recipe : recipes) {
+			final ProductListRow row = old.get(recipe);
+			if (row == null) {
+				rows.add(rowFactory.apply(recipe));
+			} else {
+				row.setInput(row.getText(), row.getSelectedOption(), null);
+				rows.add(row);
+			}
+		}
+		list.setRows(rows);
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>addRows</i></b><br>
+	 * <pre>private &lt;R extends {@link Recipe}&gt; void addRows({@link ProductList} list, {@link List}&lt;R&gt; recipes, {@link Function}&lt;R, {@link ProductListRow}&gt; rowFactory, int from)</pre>
+	 * Adds rows for up to {@link #ROW_BATCH} recipes, starting at the given index, to the given list, and schedules the next
+	 * batch. After the last batch of both lists, a pending {@link #updateProducts()} is run.
+	 * @param list - the list to add to
+	 * @param recipes - the recipes to add rows for
+	 * @param rowFactory - creates a row for a recipe
+	 * @param from - the index of the first recipe to add
+	 *        </ul>
+	 */
+	private <R extends Recipe> void addRows(final ProductList list, final List<R> recipes, final Function<R, ProductListRow> rowFactory, final int from) {
+		final int to = Math.min(from + ROW_BATCH, recipes.size());
+		list.addRows(recipes.subList(from, to).stream().map(rowFactory).collect(Collectors.toList()));
+		if (to < recipes.size()) {
+			SwingUtilities.invokeLater(() -> this.addRows(list, recipes, rowFactory, to));
+		} else if (--this.filling == 0 && this.updatePending) {
+			this.updateProducts();
+		}
 	}
 }
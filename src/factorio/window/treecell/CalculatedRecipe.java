@@ -21,6 +21,7 @@ import factorio.calculator.AssemblerSettings;
 import factorio.calculator.Calculation;
 import factorio.data.Data;
 import factorio.data.Recipe;
+import factorio.data.Symbols;
 
 /**
  * A {@link Recipe} in a {@link Calculation}. Calculates for its ingredients/children
@@ -64,6 +65,12 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 	 */
 	private double assemblerCount;
 
+	/**
+	 * If this {@code CalculatedRecipe} produces fuel, the fraction of it that is burned in its own production, e.g. by burner
+	 * mining drills mining their own coal. Otherwise, 0.
+	 */
+	private double fuelShare;
+
 	/**
 	 * The {@link AssemblerSettings} for the assembler that {@link #recipe} would be assembled in
 	 */
@@ -81,9 +88,9 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 		this.fuel = null;
 
 		this.recipe = recipe;
-		this.product = this.recipe.getResults().size() == 1 ? this.recipe.getResults().keySet().iterator().next() : null;
+		this.product = this.recipe.getResultCount() == 1 ? this.recipe.getResultName(0) : null;
 		this.recipeRate = rate;
-		this.rate = this.product == null ? Double.NaN : this.recipeRate * this.recipe.getResults().get(this.product);
+		this.rate = this.product == null ? Double.NaN : this.recipeRate * this.recipe.getResultAmount(this.product);
 		this.assembler = AssemblerSettings.getDefaultSettings(this.recipe);
 
 		this.calculateAssemblers();
@@ -91,7 +98,7 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 	}
 
 	public CalculatedRecipe(final String product, final double rate) {
-		this(product, rate, new ArrayList<>(), null);
+		this(Symbols.of(product), rate, new ArrayList<>(), null);
 	}
 
 	private CalculatedRecipe(final String product, final double rate, final Collection<String> banned, final String fuel) {
@@ -102,11 +109,11 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 		this.rate = rate;
 
 		for (final Recipe r : Data.getRecipes()) {
-			if (r.getResults().containsKey(product) && !Util.isBlacklisted(r.name) && !banned.contains(r.name)) {
+			if (r.hasResult(product) && !Util.isBlacklisted(r.name) && !banned.contains(r.name)) {
 				this.recipe = r;
 				this.assembler = AssemblerSettings.getDefaultSettings(this.recipe);
 
-				this.recipeRate = this.rate / this.recipe.getResults().get(product);
+				this.recipeRate = this.rate / this.recipe.getResultAmount(product);
 
 				this.calculateAssemblers();
 				addIngredients(this.ingredients, this.recipe, this.assembler, this.recipeRate, this.fuel, this.assemblerCount, banned);
@@ -123,11 +130,11 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 		this.rate = energy / Data.getFuelValue(fuel);
 
 		for (final Recipe r : Data.getRecipes()) {
-			if (r.getResults().containsKey(this.product) && !Util.isBlacklisted(r.name)) {
+			if (r.hasResult(this.product) && !Util.isBlacklisted(r.name)) {
 				this.recipe = r;
 				this.assembler = AssemblerSettings.getDefaultSettings(this.recipe);
 
-				this.recipeRate = this.rate / this.recipe.getResults().get(this.product);
+				this.recipeRate = this.rate / this.recipe.getResultAmount(this.product);
 
 				this.calculateAssemblers();
 				if (inclIngredients) {
@@ -141,7 +148,38 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 		// The number of fuel items required to produce 1 fuel item per second.
 		final double cost = totalFuelRequirements(this.ingredients.values(), fuel);
 
-		this.setRate(this.rate / (1 - (cost / this.rate)));
+		this.fuelShare = this.rate > 0 ? cost / this.rate : 0;
+		this.setRate(this.rate);
+	}
+
+	/**
+	 * Creates a {@code CalculatedRecipe} that has already been calculated, e.g. one read from a saved plan. Nothing is
+	 * recalculated.
+	 * @param product - The name of the item being produced, or <code>null</code> if a recipe is being calculated for
+	 * @param recipe - The recipe used to produce the product, or <code>null</code> if it is a raw resource
+	 * @param rate - The rate, in items per second
+	 * @param recipeRate - The rate, in recipes completed per second
+	 * @param assemblerCount - The amount of assemblers required
+	 * @param assembler - The settings of the assemblers, or <code>null</code> if there is no recipe
+	 * @param hasFuelLabel - Whether or not the component will have a "Fuel" label
+	 * @param fuel - The fuel that the product is a component of, or <code>null</code>
+	 * @param fuelShare - The fraction of the product that is burned in its own production, if it is fuel
+	 * @param ingredients - The ingredients (children) that have already been calculated
+	 */
+	public CalculatedRecipe(final String product, final Recipe recipe, final double rate, final double recipeRate, final double assemblerCount, final AssemblerSettings assembler, final boolean hasFuelLabel, final String fuel, final double fuelShare, final Collection<CalculatedRecipe> ingredients) {
+		this.hasFuelLabel = hasFuelLabel;
+		this.fuel = Symbols.of(fuel);
+
+		this.product = Symbols.of(product);
+		this.recipe = recipe;
+		this.rate = rate;
+		this.recipeRate = recipeRate;
+		this.assemblerCount = assemblerCount;
+		this.assembler = assembler;
+		this.fuelShare = fuelShare;
+
+		for (final CalculatedRecipe ingredient : ingredients)
+			this.ingredients.put(ingredient.hasFuelLabel ? "__FUEL__" + ingredient.product : ingredient.product, ingredient);
 	}
 
 	/**
@@ -161,11 +199,12 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 	private static void addIngredients(final Map<String, CalculatedRecipe> ingredients, final Recipe recipe, final AssemblerSettings assembler, final double recipeRate, final String fuel, final double assemblerCount, final Collection<String> banned) {
 		final Collection<String> newBanned = new ArrayList<>(banned);
 		newBanned.add(recipe.name);
-		for (final String ingredient : recipe.getIngredients().keySet()) {
-			ingredients.put(ingredient, new CalculatedRecipe(ingredient, recipeRate * recipe.getIngredients().get(ingredient) / assembler.getProductivity(), newBanned, fuel));
+		for (int i = 0; i < recipe.getIngredientCount(); i++) {
+			final String ingredient = recipe.getIngredientName(i);
+			ingredients.put(ingredient, new CalculatedRecipe(ingredient, recipeRate * recipe.getIngredientAmount(i) / assembler.getProductivity(), newBanned, fuel));
 		}
 		if (assembler.getAssembler().burnerPowered) {
-			ingredients.put("__FUEL__" + assembler.getFuel(), new CalculatedRecipe(assembler.getFuel(), assemblerCount * assembler.getAssembler().energy * assembler.getEfficiency(), fuel == null));
+			ingredients.put("__FUEL__" + assembler.getFuel(), new CalculatedRecipe(assembler.getFuel(), assemblerCount * assembler.getAssembler().energy * assembler.getEfficiency() / assembler.getAssembler().fuelEffectivity, fuel == null));
 		}
 	}
 
@@ -238,6 +277,30 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 		return this.assemblerCount;
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>getPollution</i></b><br>
+	 * <pre>public double getPollution()</pre>
+	 * @return the pollution emitted per minute by the assemblers of this {@code CalculatedRecipe}, not including its
+	 *         ingredients
+	 *         </ul>
+	 */
+	public double getPollution() {
+		return this.assembler == null ? 0 : this.assemblerCount * this.assembler.getPollution();
+	}
+
+	/**
+	 * <ul>
+	 * <b><i>getFuelShare</i></b><br>
+	 * <pre>public double getFuelShare()</pre>
+	 * @return if this {@code CalculatedRecipe} produces fuel, the fraction of it that is burned in its own production.
+	 *         Otherwise, 0.
+	 *         </ul>
+	 */
+	public double getFuelShare() {
+		return this.fuelShare;
+	}
+
 	/**
 	 * <ul>
 	 * <b><i>getIngredients</i></b><br>
@@ -249,6 +312,18 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 		return new TreeSet<>(this.ingredients.values());
 	}
 
+	/**
+	 * <ul>
+	 * <b><i>getProduct</i></b><br>
+	 * <pre>public {@link String} getProduct()</pre>
+	 * @return the item that this {@code CalculatedRecipe} is calculating for, or <code>null</code> if it is calculating for a
+	 *         {@link #recipe} as a whole
+	 *         </ul>
+	 */
+	public String getProduct() {
+		return this.product;
+	}
+
 	/**
 	 * <ul>
 	 * <b><i>getRate</i></b><br>
@@ -270,7 +345,7 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 		else
 			ret = String.format("%s%s at %s/s%s", (this.hasFuelLabel ? "Fuel: " : ""), Data.nameFor(this.product), Util.formatPlural(this.rate, "item"), Util.hasMultipleRecipes(this.product) ? String.format(" (using %s at %s/s)", Data.nameFor(this.recipe), Util.formatPlural(this.recipeRate, "cycle")) : "");
 
-		return ret + (this.assembler != null ? String.format(" requires %s %s%s", Util.NUMBER_FORMAT.format(this.assemblerCount), Data.nameFor(this.assembler.getAssembler().name), this.assembler.getBonusString(false)) : "");
+		return ret + (this.assembler != null ? String.format(" requires %s %s%s%s", Util.NUMBER_FORMAT.format(this.assemblerCount), Data.nameFor(this.assembler.getAssembler().name), this.assembler.getBonusString(false), this.getPollution() < 0.0001 ? "" : ", emitting " + Util.NUMBER_FORMAT.format(this.getPollution()) + " pollution/min") : "");
 	}
 
 	/**
@@ -300,7 +375,7 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 		final JPanel ret = new JPanel(new FlowLayout(FlowLayout.LEADING, 1, 1));
 		TreeCell.addBorders(ret, selected, hasFocus);
 
-		final String asm = this.assembler != null ? String.format(" requires <b>%s</b> %s%s", Util.NUMBER_FORMAT.format(this.assemblerCount), Data.nameFor(this.assembler.getAssembler().name), this.assembler.getBonusString(true)) : "";
+		final String asm = this.assembler != null ? String.format(" requires <b>%s</b> %s%s%s", Util.NUMBER_FORMAT.format(this.assemblerCount), Data.nameFor(this.assembler.getAssembler().name), this.assembler.getBonusString(true), this.getPollution() < 0.0001 ? "" : ", emitting <b>" + Util.NUMBER_FORMAT.format(this.getPollution()) + "</b> pollution/min") : "";
 
 		if (this.product == null) {
 			ret.add(new JLabel(String.format("<html><b>%s</b> at <b>%s/s%s</html>", Data.nameFor(this.recipe), Util.formatPlural(this.recipeRate, "</b> cycle"), asm), this.recipe.getSmallIcon(), SwingConstants.LEADING)).setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
@@ -322,13 +397,14 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 	 * <ul>
 	 * <b><i>setRate</i></b><br>
 	 * <pre> public void setRate(double rate)</pre> Sets the rate of this <code>CalculatedRecipe</code>, and updates the
-	 * assembler count and rate for all nested <code>CalculatedRecipe</code>s
+	 * assembler count and rate for all nested <code>CalculatedRecipe</code>s. Fuel that is burned in its own production is
+	 * added to the rate.
 	 * @param rate - The rate to set
 	 *        </ul>
 	 */
 	public void setRate(final double rate) {
-		this.rate = rate;
-		if (this.recipe != null) this.recipeRate = this.rate / this.recipe.getResults().get(this.product).doubleValue();
+		this.rate = rate / (1 - this.fuelShare);
+		if (this.recipe != null) this.recipeRate = this.rate / this.recipe.getResultAmount(this.product);
 
 		this.calculateAssemblers();
 		this.updateIngredients();
@@ -345,8 +421,8 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 	 *        </ul>
 	 */
 	public void setRateAndSettings(final double rate, final AssemblerSettings settings) {
-		this.rate = rate;
-		if (this.recipe != null) this.recipeRate = this.rate / this.recipe.getResults().get(this.product).doubleValue();
+		this.rate = rate / (1 - this.fuelShare);
+		if (this.recipe != null) this.recipeRate = this.rate / this.recipe.getResultAmount(this.product);
 		this.assembler = settings;
 
 		this.calculateAssemblers();
@@ -377,7 +453,7 @@ public class CalculatedRecipe implements TreeCell, Comparable<CalculatedRecipe>
 	private void updateIngredients() {
 		if (this.recipe != null && this.assembler != null) {
 			for (final String ingredient : this.ingredients.keySet()) {
-				this.ingredients.get(ingredient).setRate(ingredient.startsWith("__FUEL__") ? this.assembler.getAssembler().energy * this.assembler.getEfficiency() * this.assemblerCount / Data.getFuelValue(this.fuel) : this.recipeRate * this.recipe.getIngredients().get(ingredient) / this.assembler.getProductivity());
+				this.ingredients.get(ingredient).setRate(ingredient.startsWith("__FUEL__") ? this.assembler.getAssembler().energy * this.assembler.getEfficiency() * this.assemblerCount / this.assembler.getAssembler().fuelEffectivity / Data.getFuelValue(this.assembler.getFuel()) : this.recipeRate * this.recipe.getIngredientAmount(ingredient) / this.assembler.getProductivity());
 			}
 		}
 	}
@@ -49,7 +49,7 @@ public class TotalAssemblerCount implements TreeCell, Comparable<TotalAssemblerC
 
 	@Override
 	public Component getTreeCellRendererComponent(boolean selected, boolean hasFocus) {
-		final String power = this.assembler.getAssembler().burnerPowered || this.assembler.getAssembler().energy < 0.0001 ? "" : " requires <b>" + Util.formatEnergy(this.assemblerCount * this.assembler.getAssembler().energy * this.assembler.getEfficiency()) + "</b>";
+		final String power = (this.assembler.getElectricPower() < 0.0001 ? "" : " requires <b>" + Util.formatEnergy(this.assemblerCount * this.assembler.getElectricPower()) + "</b>") + (this.assembler.getPollution() < 0.0001 ? "" : ", emitting <b>" + Util.NUMBER_FORMAT.format(this.assemblerCount * this.assembler.getPollution()) + "</b> pollution/min");
 
 		final JLabel ret = new JLabel(String.format("<html><b>%s</b> %s %s%s</html>", Util.NUMBER_FORMAT.format(this.assemblerCount), Data.nameFor(this.assembler.getAssembler().name), this.assembler.getBonusString(true), power), TreeCell.ICON_BLANK, SwingConstants.LEADING);
 		ret.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
@@ -61,7 +61,7 @@ public class TotalAssemblerCount implements TreeCell, Comparable<TotalAssemblerC
 
 	@Override
 	public String getRawString() {
-		final String power = this.assembler.getAssembler().burnerPowered || this.assembler.getAssembler().energy < 0.0001 ? "" : " requires " + Util.formatEnergy(this.assemblerCount * this.assembler.getAssembler().energy * this.assembler.getEfficiency());
+		final String power = (this.assembler.getElectricPower() < 0.0001 ? "" : " requires " + Util.formatEnergy(this.assemblerCount * this.assembler.getElectricPower())) + (this.assembler.getPollution() < 0.0001 ? "" : ", emitting " + Util.NUMBER_FORMAT.format(this.assemblerCount * this.assembler.getPollution()) + " pollution/min");
 
 		return String.format("%s %s%s%s", Util.NUMBER_FORMAT.format(this.assemblerCount), Data.nameFor(this.assembler.getAssembler().name), this.assembler.getBonusString(false), power);
 	}
@@ -0,0 +1,45 @@
+package factorio.window.treecell;
+
+import java.awt.Component;
+import java.awt.Font;
+
+import javax.swing.JLabel;
+import javax.swing.SwingConstants;
+
+/**
+ * A line of text in the totals section of the output, such as a line of the power budget
+ * @author ricky3350
+ */
+public class TotalLine implements TreeCell {
+
+	/**
+	 * The text to display, which may contain HTML tags
+	 */
+	private final String html;
+
+	/**
+	 * The text without HTML tags
+	 */
+	private final String raw;
+
+	public TotalLine(final String html, final String raw) {
+		this.html = html;
+		this.raw = raw;
+	}
+
+	@Override
+	public Component getTreeCellRendererComponent(final boolean selected, final boolean hasFocus) {
+		final JLabel ret = new JLabel("<html>" + this.html + "</html>", TreeCell.ICON_BLANK, SwingConstants.LEADING);
+		ret.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 11));
+
+		TreeCell.addBorders(ret, selected, hasFocus);
+
+		return ret;
+	}
+
+	@Override
+	public String getRawString() {
+		return this.raw;
+	}
+
+}